@@ -0,0 +1,114 @@
+package com.example.kursinisbackend;
+
+import com.example.kursinisbackend.model.*;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Deterministic in-memory fixtures shared by the benchmarks.
+ */
+public final class BenchmarkData {
+
+    private static final String[] DISHES = {
+            "Margherita Pizza", "Pepperoni Pizza", "Cepelinai", "Kibinai", "Pad Thai", "Green Curry",
+            "Falafel Wrap", "Caesar Salad", "Beef Burger", "Vegan Burger", "Ramen", "Sushi Set",
+            "Chicken Wings", "Tom Yum", "Burrito", "Lasagna", "Pho", "Hummus Plate"
+    };
+
+    private static final String[] INGREDIENTS = {
+            "tomato", "cheese", "potato", "pork", "rice noodles", "peanuts", "chickpeas", "lettuce",
+            "beef", "tofu", "chili", "coconut milk", "garlic", "basil", "mushrooms", "egg"
+    };
+
+    private BenchmarkData() {
+    }
+
+    public static List<Restaurant> restaurants(int count) {
+        List<Restaurant> restaurants = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            Restaurant restaurant = new Restaurant("restaurant" + i, "secret", "Owner", "Nr" + i, "+3706000" + i,
+                    "Gedimino pr. " + i, "Restaurant " + i, LocalTime.of(9, 0), LocalTime.of(22, 0));
+            restaurant.setId(i);
+            restaurants.add(restaurant);
+        }
+        return restaurants;
+    }
+
+    public static List<Cuisine> cuisines(int count, List<Restaurant> restaurants, long seed) {
+        Random random = new Random(seed);
+        List<Cuisine> cuisines = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            String name = DISHES[random.nextInt(DISHES.length)] + " #" + i;
+            String ingredients = INGREDIENTS[random.nextInt(INGREDIENTS.length)] + ", " +
+                    INGREDIENTS[random.nextInt(INGREDIENTS.length)] + ", " +
+                    INGREDIENTS[random.nextInt(INGREDIENTS.length)];
+            double price = 2.0 + random.nextInt(2800) / 100.0;
+            Restaurant restaurant = restaurants.get(random.nextInt(restaurants.size()));
+
+            Cuisine cuisine = new Cuisine(name, ingredients, price, random.nextInt(4) == 0,
+                    random.nextInt(3) == 0, restaurant);
+            cuisine.setId(i);
+            cuisines.add(cuisine);
+        }
+        return cuisines;
+    }
+
+    public static FoodOrder order(int id, int items, long seed) {
+        List<Restaurant> restaurants = restaurants(1);
+        Restaurant restaurant = restaurants.get(0);
+
+        BasicUser buyer = new BasicUser("buyer" + id, "secret", "Jonas", "Jonaitis", "+37060000000", "Vilniaus g. 1");
+        buyer.setId(100 + id);
+
+        Driver driver = new Driver("driver" + id, "secret", "Petras", "Petraitis", "+37060000001", "Kauno g. 2",
+                "LT-" + id, LocalDate.of(1990, 1, 1), VehicleType.CAR);
+        driver.setId(200 + id);
+
+        FoodOrder order = new FoodOrder("Order for " + buyer.getName(), 0.0, buyer,
+                cuisines(items, restaurants, seed), restaurant);
+        order.setId(id);
+        order.setDriver(driver);
+        order.setOrderStatus(OrderStatus.OUT_FOR_DELIVERY);
+        order.setDateUpdated(LocalDate.now());
+        order.setPrice(order.getCuisineList().stream().mapToDouble(Cuisine::getPrice).sum());
+
+        Chat chat = new Chat("Order Chat #" + id, order);
+        chat.setId(id);
+        order.setChat(chat);
+        return order;
+    }
+
+    /**
+     * Build a repository stub that answers the given method names with canned results
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T stubRepository(Class<T> repositoryType, Map<String, Object> answers) {
+        return (T) Proxy.newProxyInstance(repositoryType.getClassLoader(), new Class<?>[]{repositoryType},
+                (proxy, method, args) -> {
+                    if (!answers.containsKey(method.getName())) {
+                        throw new UnsupportedOperationException(method.getName() + " is not stubbed");
+                    }
+                    return answers.get(method.getName());
+                });
+    }
+
+    /**
+     * Set an @Autowired field without a Spring context
+     */
+    public static void inject(Object target, String fieldName, Object value) {
+        try {
+            Field field = target.getClass().getDeclaredField(fieldName);
+            field.setAccessible(true);
+            field.set(target, value);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot inject " + fieldName, e);
+        }
+    }
+}
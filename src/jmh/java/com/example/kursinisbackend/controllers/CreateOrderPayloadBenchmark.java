@@ -0,0 +1,55 @@
+package com.example.kursinisbackend.controllers;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parses the createOrder request body the same way OrdersController.createOrder does
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CreateOrderPayloadBenchmark {
+
+    @Param({"3", "25"})
+    private int items;
+
+    private String payload;
+
+    @Setup
+    public void setUp() {
+        JsonObject order = new JsonObject();
+        order.addProperty("userId", 17);
+        order.addProperty("restaurantId", 4);
+
+        JsonArray itemsArray = new JsonArray();
+        for (int i = 0; i < items; i++) {
+            JsonObject item = new JsonObject();
+            item.addProperty("cuisineId", 1000 + i);
+            item.addProperty("quantity", 1 + i % 3);
+            itemsArray.add(item);
+        }
+        order.add("items", itemsArray);
+        payload = order.toString();
+    }
+
+    @Benchmark
+    public long parsePayload() {
+        Gson gson = new Gson();
+        JsonObject jsonObject = gson.fromJson(payload, JsonObject.class);
+
+        long checksum = jsonObject.get("userId").getAsInt();
+        checksum += jsonObject.get("restaurantId").getAsInt();
+
+        JsonArray itemsArray = jsonObject.getAsJsonArray("items");
+        for (int i = 0; i < itemsArray.size(); i++) {
+            JsonObject item = itemsArray.get(i).getAsJsonObject();
+            checksum += item.get("cuisineId").getAsInt() * 31L + item.get("quantity").getAsInt();
+        }
+        return checksum;
+    }
+}
@@ -0,0 +1,218 @@
+package com.example.kursinisbackend.controllers;
+
+import com.example.kursinisbackend.BenchmarkData;
+import com.example.kursinisbackend.model.Cuisine;
+import com.example.kursinisbackend.model.Restaurant;
+import com.example.kursinisbackend.repos.CuisineRepo;
+import com.example.kursinisbackend.service.CuisineSearchIndex;
+import com.example.kursinisbackend.service.MenuCache;
+import com.example.kursinisbackend.service.MenuCatalog;
+import com.example.kursinisbackend.service.SoldOutRegistry;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * CuisineController filter endpoints over an in-memory catalog (repository stubbed, no DB time).
+ * Search and suggest go through a real CuisineSearchIndex built from the catalog, the attribute
+ * and price filters through a real MenuCatalog, the restaurant menu through a real MenuCache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CuisineControllerBenchmark {
+
+    @Param({"1000", "100000"})
+    private int catalogSize;
+
+    private CuisineController controller;
+    private ObjectMapper objectMapper;
+    private List<Cuisine> catalog;
+    private List<Cuisine> restaurantMenu;
+    private String menuETag;
+
+    @Setup
+    public void setUp() {
+        List<Restaurant> restaurants = BenchmarkData.restaurants(50);
+        catalog = BenchmarkData.cuisines(catalogSize, restaurants, 11);
+        restaurantMenu = catalog.stream()
+                .filter(c -> c.getRestaurant().getId() == 1)
+                .collect(Collectors.toList());
+
+        // What the search page loads: the first page of pizzas
+        List<Cuisine> pizzas = catalog.stream()
+                .filter(c -> c.getName().contains("Pizza"))
+                .limit(50)
+                .collect(Collectors.toList());
+        List<CuisineRepo.CuisineText> text = catalog.stream().map(CuisineControllerBenchmark::text).collect(Collectors.toList());
+        List<CuisineRepo.CuisineRow> rows = catalog.stream().map(CuisineControllerBenchmark::row).collect(Collectors.toList());
+
+        CuisineRepo cuisineRepo = BenchmarkData.stubRepository(CuisineRepo.class, Map.of(
+                "findAll", catalog,
+                "getCuisineByRestaurantId", restaurantMenu,
+                "findAllWithRestaurantByIdIn", pizzas,
+                "findAllText", text,
+                "findAllRows", rows));
+
+        CuisineSearchIndex cuisineSearchIndex = new CuisineSearchIndex();
+        BenchmarkData.inject(cuisineSearchIndex, "cuisineRepo", cuisineRepo);
+        cuisineSearchIndex.rebuild();
+
+        MenuCatalog menuCatalog = new MenuCatalog();
+        BenchmarkData.inject(menuCatalog, "cuisineRepo", cuisineRepo);
+        menuCatalog.rebuild();
+
+        objectMapper = new ObjectMapper();
+        MenuCache menuCache = new MenuCache();
+        BenchmarkData.inject(menuCache, "cuisineRepo", cuisineRepo);
+        BenchmarkData.inject(menuCache, "objectMapper", objectMapper);
+        BenchmarkData.inject(menuCache, "soldOutRegistry", new SoldOutRegistry());
+
+        controller = new CuisineController();
+        BenchmarkData.inject(controller, "cuisineRepo", cuisineRepo);
+        BenchmarkData.inject(controller, "cuisineSearchIndex", cuisineSearchIndex);
+        BenchmarkData.inject(controller, "menuCatalog", menuCatalog);
+        BenchmarkData.inject(controller, "menuCache", menuCache);
+        menuETag = controller.getRestaurantMenu(1, null).getHeaders().getETag();
+    }
+
+    @Benchmark
+    public ResponseEntity<?> searchByName() {
+        return controller.searchCuisineByName("Pizza", 50);
+    }
+
+    @Benchmark
+    public ResponseEntity<?> searchWithTypo() {
+        return controller.searchCuisineByName("Margarita Piza", 50);
+    }
+
+    @Benchmark
+    public ResponseEntity<?> suggest() {
+        return controller.suggestCuisine("pep", 10);
+    }
+
+    /**
+     * What every menu request cost before MenuCache: serializing the menu (the query is stubbed)
+     */
+    @Benchmark
+    public byte[] restaurantMenuSerialized() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(restaurantMenu);
+    }
+
+    @Benchmark
+    public ResponseEntity<?> restaurantMenu() {
+        return controller.getRestaurantMenu(1, null);
+    }
+
+    @Benchmark
+    public ResponseEntity<?> restaurantMenuNotModified() {
+        return controller.getRestaurantMenu(1, menuETag);
+    }
+
+    @Benchmark
+    public ResponseEntity<?> vegan() {
+        return controller.getVeganCuisine();
+    }
+
+    @Benchmark
+    public ResponseEntity<?> spicy() {
+        return controller.getSpicyCuisine();
+    }
+
+    @Benchmark
+    public ResponseEntity<?> priceRange() {
+        return controller.getCuisineByPriceRange(5.0, 12.5);
+    }
+
+    @Benchmark
+    public ResponseEntity<?> restaurantVegan() {
+        return controller.getRestaurantVeganMenu(1);
+    }
+
+    @Benchmark
+    public ResponseEntity<?> combinedFilter() {
+        return controller.filterCuisine(true, false, 5.0, 12.5, List.of(1, 2, 3), null, null, 100);
+    }
+
+    /**
+     * What an ingredient filter costs without the index: a substring scan of every item's text.
+     * Tofu with peanuts and no dairy matches ~2% of the catalog.
+     */
+    @Benchmark
+    public List<Cuisine> ingredientFilterScan() {
+        return catalog.stream()
+                .filter(c -> c.getIngredients().contains("tofu") && c.getIngredients().contains("peanut"))
+                .filter(c -> !c.getIngredients().contains("cheese") && !c.getIngredients().contains("milk"))
+                .limit(1000)
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public ResponseEntity<?> ingredientFilter() {
+        return controller.filterCuisine(null, null, null, null, null, List.of("tofu", "peanut"), List.of("dairy"), 1000);
+    }
+
+    private static CuisineRepo.CuisineRow row(Cuisine cuisine) {
+        return new CuisineRepo.CuisineRow() {
+            @Override
+            public int getId() {
+                return cuisine.getId();
+            }
+
+            @Override
+            public String getName() {
+                return cuisine.getName();
+            }
+
+            @Override
+            public String getIngredients() {
+                return cuisine.getIngredients();
+            }
+
+            @Override
+            public Double getPrice() {
+                return cuisine.getPrice();
+            }
+
+            @Override
+            public boolean isSpicy() {
+                return cuisine.isSpicy();
+            }
+
+            @Override
+            public boolean isVegan() {
+                return cuisine.isVegan();
+            }
+
+            @Override
+            public Integer getRestaurantId() {
+                return cuisine.getRestaurant().getId();
+            }
+        };
+    }
+
+    private static CuisineRepo.CuisineText text(Cuisine cuisine) {
+        return new CuisineRepo.CuisineText() {
+            @Override
+            public int getId() {
+                return cuisine.getId();
+            }
+
+            @Override
+            public String getName() {
+                return cuisine.getName();
+            }
+
+            @Override
+            public String getIngredients() {
+                return cuisine.getIngredients();
+            }
+        };
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.kursinisbackend.controllers;
+
+import com.example.kursinisbackend.KursinisBackendApplication;
+import com.example.kursinisbackend.fixtures.GeneratedData;
+import com.example.kursinisbackend.fixtures.SyntheticDataGenerator;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ReviewController listings against an embedded database filled by the synthetic data generator.
+ * Each call runs in a transaction, as it would inside a web request (lazy associations).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ReviewListingBenchmark {
+
+    @Param({"2000"})
+    private int orders;
+
+    private ConfigurableApplicationContext context;
+    private ReviewController controller;
+    private TransactionTemplate transactionTemplate;
+    private GeneratedData data;
+
+    @Setup
+    public void setUp() throws Exception {
+        context = new SpringApplicationBuilder(KursinisBackendApplication.class)
+                .profiles("embedded")
+                .web(WebApplicationType.NONE)
+                .properties("logging.level.root=WARN")
+                .run();
+        SyntheticDataGenerator.Config config = SyntheticDataGenerator.Config.small();
+        config.orders = orders;
+        data = new SyntheticDataGenerator(context.getBean(DataSource.class), config).generate();
+        controller = context.getBean(ReviewController.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ResponseEntity<?> hottestRestaurantReviews() {
+        return transactionTemplate.execute(status -> controller.getRestaurantReviews(data.restaurantIds[0], null, null));
+    }
+
+    @Benchmark
+    public ResponseEntity<?> busiestDriverReviews() {
+        return transactionTemplate.execute(status -> controller.getDriverReviews(data.driverIds[0], null, null));
+    }
+
+    @Benchmark
+    public ResponseEntity<?> fiveStarReviews() {
+        return transactionTemplate.execute(status -> controller.getReviewsByRating(5, null, null));
+    }
+
+    @Benchmark
+    public ResponseEntity<?> fiveStarReviewsPage() {
+        return transactionTemplate.execute(status -> controller.getReviewsByRating(5, null, 50));
+    }
+
+    @Benchmark
+    public ResponseEntity<?> filteredRestaurantReviews() {
+        return transactionTemplate.execute(status -> controller.filterReviews(4, 5, data.restaurantIds[0], null,
+                LocalDate.now().minusDays(90), null, null, 50));
+    }
+
+    @Benchmark
+    public ResponseEntity<?> ratingHistogram() {
+        return transactionTemplate.execute(status -> controller.getRatingHistogram());
+    }
+
+    @Benchmark
+    public ResponseEntity<?> heaviestCustomerRating() {
+        return transactionTemplate.execute(status -> controller.getAverageRating(data.customerIds[0]));
+    }
+}
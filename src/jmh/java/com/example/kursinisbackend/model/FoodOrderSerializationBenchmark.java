@@ -0,0 +1,46 @@
+package com.example.kursinisbackend.model;
+
+import com.example.kursinisbackend.BenchmarkData;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Serializes FoodOrder graphs with the ObjectMapper configuration Spring MVC uses for responses
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FoodOrderSerializationBenchmark {
+
+    @Param({"3", "25"})
+    private int items;
+
+    private ObjectMapper objectMapper;
+    private FoodOrder order;
+    private List<FoodOrder> orders;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        order = BenchmarkData.order(1, items, 7);
+        orders = IntStream.rangeClosed(1, 50)
+                .mapToObj(id -> BenchmarkData.order(id, items, id))
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public byte[] serializeOrder() throws Exception {
+        return objectMapper.writeValueAsBytes(order);
+    }
+
+    @Benchmark
+    public byte[] serializeOrderList() throws Exception {
+        return objectMapper.writeValueAsBytes(orders);
+    }
+}
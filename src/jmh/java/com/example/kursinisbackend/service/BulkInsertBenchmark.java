@@ -0,0 +1,79 @@
+package com.example.kursinisbackend.service;
+
+import com.example.kursinisbackend.KursinisBackendApplication;
+import com.example.kursinisbackend.fixtures.GeneratedData;
+import com.example.kursinisbackend.fixtures.SyntheticDataGenerator;
+import com.example.kursinisbackend.model.Cuisine;
+import com.example.kursinisbackend.model.Restaurant;
+import com.example.kursinisbackend.repos.CuisineRepo;
+import com.example.kursinisbackend.repos.RestaurantRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rows per second for a bulk create through JPA: one saveAll of {@value #ROWS} menu items
+ * in one transaction, on the embedded H2 database. The rows are deleted after every invocation,
+ * so each one inserts into the same table. The insert path takes tens of seconds to reach full
+ * speed, so run it with more warmup and forks than the defaults:
+ * <pre>
+ * ./gradlew jmh -PjmhIncludes=BulkInsertBenchmark -PjmhWarmupIterations=35 -PjmhIterations=10 -PjmhFork=6
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BulkInsertBenchmark {
+
+    private static final int ROWS = 500;
+
+    private ConfigurableApplicationContext context;
+    private CuisineRepo cuisineRepo;
+    private JdbcTemplate jdbcTemplate;
+    private Restaurant restaurant;
+
+    @Setup
+    public void setUp() throws Exception {
+        context = new SpringApplicationBuilder(KursinisBackendApplication.class)
+                .profiles("embedded")
+                .web(WebApplicationType.NONE)
+                .properties("logging.level.root=WARN")
+                .run();
+        SyntheticDataGenerator.Config config = SyntheticDataGenerator.Config.small();
+        config.orders = 10;
+        GeneratedData data = new SyntheticDataGenerator(context.getBean(DataSource.class), config).generate();
+        cuisineRepo = context.getBean(CuisineRepo.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        restaurant = context.getBean(RestaurantRepository.class).findById(data.restaurantIds[0]).orElseThrow();
+        // The leaderboard's first flush loads the stateless session classes, which throws away the
+        // compiled insert path; a minute into the run that would land in the measurement
+        context.getBean(RestaurantLeaderboard.class).flush();
+    }
+
+    @TearDown(Level.Invocation)
+    public void deleteInserted() {
+        jdbcTemplate.update("DELETE FROM Cuisine WHERE restaurant_id = ? AND name LIKE 'Bulk item %'", restaurant.getId());
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public List<Cuisine> createMenuItems() {
+        List<Cuisine> items = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            items.add(new Cuisine("Bulk item " + i, "rice, tofu", 9.5, false, true, restaurant));
+        }
+        return cuisineRepo.saveAll(items);
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.kursinisbackend.service;
+
+import com.example.kursinisbackend.fixtures.ZipfSampler;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ChatSearchIndex queries over a few million synthetic messages, filled through added() without a
+ * database. Words follow a Zipf distribution over a 20K vocabulary ("w0" most frequent), 4-12 words
+ * per message. Setup prints the index footprint and build time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ChatSearchBenchmark {
+
+    private static final int VOCABULARY = 20_000;
+
+    @Param({"5000000"})
+    private int messages;
+
+    private ChatSearchIndex index;
+
+    @Setup
+    public void setUp() {
+        index = new ChatSearchIndex();
+        ZipfSampler words = new ZipfSampler(VOCABULARY, 1.0);
+        SplittableRandom random = new SplittableRandom(42);
+        StringBuilder text = new StringBuilder();
+        long start = System.nanoTime();
+        for (int id = 1; id <= messages; id++) {
+            text.setLength(0);
+            int length = 4 + random.nextInt(9);
+            for (int i = 0; i < length; i++) {
+                text.append('w').append(words.sample(random)).append(' ');
+            }
+            index.added(id, 1 + id / 4, text.toString());
+        }
+        index.markReady();
+        System.out.printf("%nindex of %,d messages: ~%,d bytes, filled in %,d ms%n", messages,
+                index.footprintBytes(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    // The most frequent word alone: only the newest blocks are decoded
+    @Benchmark
+    public ChatSearchIndex.Result commonWord() {
+        return index.search("w0", 50);
+    }
+
+    // Rare word AND common word: the rare list drives, the common one is skipped through by block
+    @Benchmark
+    public ChatSearchIndex.Result rareAndCommonWords() {
+        return index.search("w5000 w0", 50);
+    }
+
+    // Two frequent words: both lists are long, the worst case for the intersection
+    @Benchmark
+    public ChatSearchIndex.Result twoCommonWords() {
+        return index.search("w1 w2", 50);
+    }
+
+    @Benchmark
+    public ChatSearchIndex.Result threeWords() {
+        return index.search("w10 w100 w3", 50);
+    }
+}
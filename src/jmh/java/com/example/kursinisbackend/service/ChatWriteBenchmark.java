@@ -0,0 +1,69 @@
+package com.example.kursinisbackend.service;
+
+import com.example.kursinisbackend.KursinisBackendApplication;
+import com.example.kursinisbackend.fixtures.GeneratedData;
+import com.example.kursinisbackend.fixtures.SyntheticDataGenerator;
+import com.example.kursinisbackend.model.BasicUser;
+import com.example.kursinisbackend.model.Chat;
+import com.example.kursinisbackend.model.Review;
+import com.example.kursinisbackend.repos.BasicUserRepository;
+import com.example.kursinisbackend.repos.ChatRepo;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chat messages per second through ChatService, synchronous save vs write-behind.
+ * Sustained throughput: once the write-behind queue is full, senders wait for the writer,
+ * so the score is bounded by the batch inserts and not by queue appends.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(4)
+public class ChatWriteBenchmark {
+
+    @Param({"false", "true"})
+    private boolean writeBehind;
+
+    private ConfigurableApplicationContext context;
+    private ChatService chatService;
+    private int orderId;
+    private Chat chat;
+    private BasicUser sender;
+
+    @Setup
+    public void setUp() throws Exception {
+        context = new SpringApplicationBuilder(KursinisBackendApplication.class)
+                .profiles("embedded")
+                .web(WebApplicationType.NONE)
+                .properties("logging.level.root=WARN")
+                // Arguments, not default properties: application.properties sets these too
+                .run("--chat.write-behind.enabled=" + writeBehind, "--chat.write-behind.offer-timeout-ms=10000");
+        SyntheticDataGenerator.Config config = SyntheticDataGenerator.Config.small();
+        config.orders = 10;
+        config.messagesPerChat = 0.0;
+        GeneratedData data = new SyntheticDataGenerator(context.getBean(DataSource.class), config).generate();
+        chatService = context.getBean(ChatService.class);
+        orderId = data.firstOrderId;
+        int chatId = context.getBean(JdbcTemplate.class)
+                .queryForObject("SELECT chat_id FROM FoodOrder WHERE id = ?", Integer.class, orderId);
+        chat = context.getBean(ChatRepo.class).getReferenceById(chatId);
+        sender = context.getBean(BasicUserRepository.class).getReferenceById(data.customerIds[0]);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ChatMessage sendMessage() {
+        return chatService.send(orderId, new Review("Two minutes away", sender, chat));
+    }
+}
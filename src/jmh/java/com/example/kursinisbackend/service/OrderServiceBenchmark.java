@@ -0,0 +1,58 @@
+package com.example.kursinisbackend.service;
+
+import com.example.kursinisbackend.BenchmarkData;
+import com.example.kursinisbackend.model.Cuisine;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class OrderServiceBenchmark {
+
+    @Param({"3", "25"})
+    private int items;
+
+    private final OrderService orderService = new OrderService();
+    private List<Cuisine> cuisineList;
+    // Read from fields, not literals, so the JIT cannot fold the pricing into a constant
+    private double basePrice;
+    private LocalDateTime peakTime;
+    private LocalDateTime offPeakTime;
+
+    @Setup
+    public void setUp() {
+        cuisineList = BenchmarkData.cuisines(items, BenchmarkData.restaurants(1), 42);
+        basePrice = 24.90;
+        peakTime = LocalDateTime.of(2025, 5, 20, 12, 30);
+        offPeakTime = LocalDateTime.of(2025, 5, 20, 16, 0);
+    }
+
+    @Benchmark
+    public double calculateBasePrice() {
+        return orderService.calculateBasePrice(cuisineList);
+    }
+
+    @Benchmark
+    public double calculateDynamicPricePeak() {
+        return orderService.calculateDynamicPrice(basePrice, peakTime);
+    }
+
+    @Benchmark
+    public double calculateDynamicPriceOffPeak() {
+        return orderService.calculateDynamicPrice(basePrice, offPeakTime);
+    }
+
+    @Benchmark
+    public double calculateDynamicPriceNow() {
+        return orderService.calculateDynamicPrice(basePrice);
+    }
+
+    @Benchmark
+    public double priceOrder() {
+        return orderService.calculateDynamicPrice(orderService.calculateBasePrice(cuisineList), peakTime);
+    }
+}
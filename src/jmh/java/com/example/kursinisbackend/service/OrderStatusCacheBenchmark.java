@@ -0,0 +1,73 @@
+package com.example.kursinisbackend.service;
+
+import com.example.kursinisbackend.model.OrderStatus;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OrderStatusCache lookups against a plain HashMap&lt;Integer, OrderStatus&gt; holding the same orders.
+ * Setup prints the heap each one takes (used heap after GC, before and after filling).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class OrderStatusCacheBenchmark {
+
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+
+    @Param({"10000000"})
+    private int orders;
+
+    private OrderStatusCache cache;
+    private Map<Integer, OrderStatus> map;
+    private int[] lookups;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        long before = usedHeap();
+        cache = new OrderStatusCache();
+        for (int id = 1; id <= orders; id++) {
+            cache.put(id, STATUSES[id % STATUSES.length]);
+        }
+        long cacheBytes = usedHeap() - before;
+
+        before = usedHeap();
+        map = new HashMap<>();
+        for (int id = 1; id <= orders; id++) {
+            map.put(id, STATUSES[id % STATUSES.length]);
+        }
+        long mapBytes = usedHeap() - before;
+
+        System.out.printf("%nfootprint at %,d orders: OrderStatusCache %,d bytes (measured %,d), HashMap %,d bytes%n",
+                orders, cache.footprintBytes(), cacheBytes, mapBytes);
+
+        SplittableRandom random = new SplittableRandom(42);
+        lookups = new int[1 << 16];
+        for (int i = 0; i < lookups.length; i++) {
+            lookups[i] = 1 + random.nextInt(orders);
+        }
+    }
+
+    @Benchmark
+    public OrderStatus cacheLookup() {
+        return cache.cached(lookups[next++ & (lookups.length - 1)]);
+    }
+
+    @Benchmark
+    public OrderStatus hashMapLookup() {
+        return map.get(lookups[next++ & (lookups.length - 1)]);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
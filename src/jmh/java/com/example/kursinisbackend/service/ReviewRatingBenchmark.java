@@ -0,0 +1,49 @@
+package com.example.kursinisbackend.service;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rating extraction from legacy review text, as RatingMigration does per review
+ * (and getAverageRating did for every review in the system before RatingAggregate)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ReviewRatingBenchmark {
+
+    @Param({"10000"})
+    private int reviews;
+
+    private String[] texts;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(3);
+        texts = new String[reviews];
+        for (int i = 0; i < reviews; i++) {
+            String text = "Message " + i + ": the food arrived " + (random.nextBoolean() ? "hot" : "a bit late");
+            // Roughly a third of chat messages carry a rating
+            texts[i] = random.nextInt(3) == 0 ? text + " [Rating: " + (1 + random.nextInt(5)) + "/5]" : text;
+        }
+    }
+
+    @Benchmark
+    public double averageRating() {
+        double totalRating = 0.0;
+        int count = 0;
+        for (String text : texts) {
+            if (!text.contains("Rating:")) {
+                continue;
+            }
+            int rating = RatingMigration.parseRating(text);
+            if (rating >= 0) {
+                totalRating += rating;
+                count++;
+            }
+        }
+        return count > 0 ? totalRating / count : 0.0;
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.kursinisbackend.loadtest;
+
+import com.example.kursinisbackend.KursinisBackendApplication;
+import com.example.kursinisbackend.fixtures.GeneratedData;
+import com.example.kursinisbackend.fixtures.SyntheticDataGenerator;
+import com.example.kursinisbackend.service.ChatArchiveService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generates a synthetic order history, archives the chats of orders finished more than
+ * -Darchive.afterDays ago and reports how much chat storage that saved.
+ * Run with ./gradlew chatArchiveReport (-Darchive.preset=small|medium|large, -Darchive.messagesPerChat=N).
+ */
+public class ChatArchiveReport {
+
+    private static final Logger log = LoggerFactory.getLogger(ChatArchiveReport.class);
+
+    public static void main(String[] args) throws Exception {
+        String preset = System.getProperty("archive.preset", "medium");
+        int afterDays = Integer.getInteger("archive.afterDays", 30);
+        String reportFile = System.getProperty("archive.reportFile", "build/reports/loadtest/chat-archive.txt");
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(KursinisBackendApplication.class)
+                .profiles("embedded", "loadtest")
+                .web(WebApplicationType.NONE)
+                // H2 only reports table sizes for a file database
+                .run(withDefault(args, "--spring.datasource.url=jdbc:h2:file:./build/chat-archive/kursinis;NON_KEYWORDS=USER,VALUE"))) {
+            SyntheticDataGenerator.Config dataset = SyntheticDataGenerator.Config.preset(preset);
+            dataset.messagesPerChat = Double.parseDouble(System.getProperty("archive.messagesPerChat",
+                    String.valueOf(dataset.messagesPerChat)));
+            GeneratedData data = new SyntheticDataGenerator(context.getBean(DataSource.class), dataset).generate();
+            JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+            Storage before = Storage.measure(jdbc);
+
+            long start = System.nanoTime();
+            ChatArchiveService.CompactionResult result = context.getBean(ChatArchiveService.class)
+                    .compact(LocalDate.now().minusDays(afterDays));
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            Storage after = Storage.measure(jdbc);
+
+            String report = String.format("Chat archive: preset=%s orders=%d messages=%d messagesPerChat=%.1f afterDays=%d%n",
+                    preset, data.orderCount, data.messageCount, dataset.messagesPerChat, afterDays)
+                    + String.format("Archived %d chats, %d messages in %d ms%n", result.chats(), result.messages(), elapsedMillis)
+                    + String.format("Encoded messages: %,d bytes, compressed transcripts: %,d bytes (%.1f%%)%n",
+                    result.rawBytes(), result.storedBytes(), 100.0 * result.storedBytes() / Math.max(1, result.rawBytes()))
+                    + String.format("%-8s %12s %16s %16s %14s%n", "", "review rows", "review bytes", "transcript bytes", "total bytes")
+                    + before.row("before")
+                    + after.row("after")
+                    + String.format("Chat storage reduced by %.1f%%%n", 100.0 * (before.total() - after.total()) / before.total());
+            System.out.print(report);
+            Path path = Path.of(reportFile);
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            Files.writeString(path, report);
+            log.info("Report written to {}", path.toAbsolutePath());
+        }
+    }
+
+    private static String[] withDefault(String[] args, String arg) {
+        String[] all = Arrays.copyOf(args, args.length + 1);
+        System.arraycopy(all, 0, all, 1, args.length);
+        all[0] = arg;
+        return all;
+    }
+
+    /**
+     * Space the chat tables take in the embedded database, as reported by H2
+     */
+    private record Storage(long reviewRows, long reviewBytes, long transcriptBytes) {
+
+        static Storage measure(JdbcTemplate jdbc) {
+            jdbc.execute("CHECKPOINT SYNC");
+            return new Storage(
+                    jdbc.queryForObject("SELECT COUNT(*) FROM Review", Long.class),
+                    jdbc.queryForObject("SELECT DISK_SPACE_USED('REVIEW')", Long.class),
+                    jdbc.queryForObject("SELECT DISK_SPACE_USED('CHATTRANSCRIPT')", Long.class));
+        }
+
+        long total() {
+            return reviewBytes + transcriptBytes;
+        }
+
+        String row(String label) {
+            return String.format("%-8s %,12d %,16d %,16d %,14d%n", label, reviewRows, reviewBytes, transcriptBytes, total());
+        }
+    }
+}
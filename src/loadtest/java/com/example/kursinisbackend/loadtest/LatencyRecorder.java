@@ -0,0 +1,88 @@
+package com.example.kursinisbackend.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-endpoint latency histograms (microsecond resolution) and error counters
+ */
+public class LatencyRecorder {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final Map<String, EndpointStats> stats = new ConcurrentHashMap<>();
+
+    public void record(String endpoint, long latencyNanos, boolean error) {
+        EndpointStats endpointStats = stats.computeIfAbsent(endpoint, e -> new EndpointStats());
+        long micros = Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), HIGHEST_TRACKABLE_MICROS);
+        endpointStats.histogram.recordValue(micros);
+        if (error) {
+            endpointStats.errors.increment();
+        }
+    }
+
+    /**
+     * Drop everything recorded so far (end of warmup)
+     */
+    public void reset() {
+        stats.values().forEach(EndpointStats::reset);
+    }
+
+    public String report(double elapsedSeconds) {
+        StringBuilder report = new StringBuilder();
+        String header = String.format("%-58s %9s %7s %9s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        report.append(header);
+        report.append("-".repeat(header.length() - 1)).append(System.lineSeparator());
+
+        Histogram total = new Histogram(HIGHEST_TRACKABLE_MICROS, 3);
+        long totalErrors = 0;
+        for (Map.Entry<String, EndpointStats> entry : new TreeMap<>(stats).entrySet()) {
+            Histogram histogram = entry.getValue().histogram.copy();
+            long errors = entry.getValue().errors.sum();
+            if (histogram.getTotalCount() == 0) {
+                continue;
+            }
+            total.add(histogram);
+            totalErrors += errors;
+            appendRow(report, entry.getKey(), histogram, errors, elapsedSeconds);
+        }
+        report.append("-".repeat(header.length() - 1)).append(System.lineSeparator());
+        appendRow(report, "TOTAL", total, totalErrors, elapsedSeconds);
+        return report.toString();
+    }
+
+    private static void appendRow(StringBuilder report, String endpoint, Histogram histogram, long errors,
+                                  double elapsedSeconds) {
+        report.append(String.format("%-58s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                endpoint,
+                histogram.getTotalCount(),
+                errors,
+                histogram.getTotalCount() / elapsedSeconds,
+                millis(histogram.getValueAtPercentile(50)),
+                millis(histogram.getValueAtPercentile(90)),
+                millis(histogram.getValueAtPercentile(99)),
+                millis(histogram.getValueAtPercentile(99.9)),
+                millis(histogram.getMaxValue())));
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    private static class EndpointStats {
+        final ConcurrentHistogram histogram = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+        final LongAdder errors = new LongAdder();
+
+        void reset() {
+            histogram.reset();
+            errors.reset();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.kursinisbackend.loadtest;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Load test settings, read from -Dload.* system properties
+ */
+public class LoadTestConfig {
+
+    final int users;
+    final int warmupSeconds;
+    final int durationSeconds;
+    final int thinkTimeMs;
+    final int restaurants;
+    final int menuItemsPerRestaurant;
+    final int customers;
+    final int drivers;
+    final int historyOrders;
+    final long seed;
+    final Map<Scenario, Integer> mix;
+    final String reportFile;
+
+    private LoadTestConfig(int users, int warmupSeconds, int durationSeconds, int thinkTimeMs,
+                           int restaurants, int menuItemsPerRestaurant, int customers, int drivers,
+                           int historyOrders, long seed, Map<Scenario, Integer> mix, String reportFile) {
+        this.users = users;
+        this.warmupSeconds = warmupSeconds;
+        this.durationSeconds = durationSeconds;
+        this.thinkTimeMs = thinkTimeMs;
+        this.restaurants = restaurants;
+        this.menuItemsPerRestaurant = menuItemsPerRestaurant;
+        this.customers = customers;
+        this.drivers = drivers;
+        this.historyOrders = historyOrders;
+        this.seed = seed;
+        this.mix = mix;
+        this.reportFile = reportFile;
+    }
+
+    public static LoadTestConfig fromSystemProperties() {
+        return new LoadTestConfig(
+                Integer.getInteger("load.users", 20),
+                Integer.getInteger("load.warmupSeconds", 10),
+                Integer.getInteger("load.durationSeconds", 60),
+                Integer.getInteger("load.thinkTimeMs", 0),
+                Integer.getInteger("load.restaurants", 50),
+                Integer.getInteger("load.menuItems", 30),
+                Integer.getInteger("load.customers", 500),
+                Integer.getInteger("load.drivers", 50),
+                Integer.getInteger("load.historyOrders", 2_000),
+                Long.getLong("load.seed", 42L),
+                parseMix(System.getProperty("load.mix", "browse=60,order=20,chat=15,review=5")),
+                System.getProperty("load.reportFile", "build/reports/loadtest/report.txt"));
+    }
+
+    /**
+     * Parse "browse=60,order=20,..." into scenario weights
+     */
+    static Map<Scenario, Integer> parseMix(String mix) {
+        Map<Scenario, Integer> weights = new EnumMap<>(Scenario.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid load.mix entry: " + entry);
+            }
+            weights.put(Scenario.valueOf(parts[0].trim().toUpperCase()), Integer.parseInt(parts[1].trim()));
+        }
+        return weights;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("users=%d warmup=%ds duration=%ds thinkTime=%dms restaurants=%d menuItems=%d " +
+                        "customers=%d drivers=%d historyOrders=%d seed=%d mix=%s",
+                users, warmupSeconds, durationSeconds, thinkTimeMs, restaurants, menuItemsPerRestaurant,
+                customers, drivers, historyOrders, seed, mix);
+    }
+}
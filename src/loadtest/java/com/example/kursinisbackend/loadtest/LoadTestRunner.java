@@ -0,0 +1,74 @@
+package com.example.kursinisbackend.loadtest;
+
+import com.example.kursinisbackend.KursinisBackendApplication;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Starts the backend on an embedded database, seeds it, drives the configured
+ * scenario mix from virtual users and prints throughput and latency per endpoint.
+ */
+public class LoadTestRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadTestRunner.class);
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.fromSystemProperties();
+        log.info("Load test: {}", config);
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(KursinisBackendApplication.class)
+                .profiles("embedded", "loadtest")
+                .run(args)) {
+            int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+
+            long seedStart = System.nanoTime();
+            SeedData seed = LoadTestSeeder.seed(context, config);
+            log.info("Seeded database in {} ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - seedStart));
+
+            LatencyRecorder recorder = new LatencyRecorder();
+            ApiClient client = new ApiClient("http://localhost:" + port, recorder);
+            AtomicBoolean running = new AtomicBoolean(true);
+
+            ExecutorService executor = Executors.newFixedThreadPool(config.users);
+            for (int i = 0; i < config.users; i++) {
+                executor.submit(new VirtualUser(client, seed, config, running, config.seed + i));
+            }
+
+            Thread.sleep(TimeUnit.SECONDS.toMillis(config.warmupSeconds));
+            recorder.reset();
+            long measureStart = System.nanoTime();
+            log.info("Warmup done, measuring for {} s", config.durationSeconds);
+
+            Thread.sleep(TimeUnit.SECONDS.toMillis(config.durationSeconds));
+            running.set(false);
+            double elapsedSeconds = (System.nanoTime() - measureStart) / 1e9;
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+
+            String report = "Load test: " + config + System.lineSeparator()
+                    + String.format("Measured %.1f s%n", elapsedSeconds)
+                    + recorder.report(elapsedSeconds);
+            System.out.println(report);
+            writeReport(config.reportFile, report);
+        }
+    }
+
+    private static void writeReport(String reportFile, String report) throws IOException {
+        Path path = Path.of(reportFile);
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        Files.writeString(path, report);
+        log.info("Report written to {}", path.toAbsolutePath());
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.kursinisbackend.loadtest;
+
+import com.example.kursinisbackend.fixtures.GeneratedData;
+import com.example.kursinisbackend.fixtures.SyntheticDataGenerator;
+import org.springframework.context.ApplicationContext;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * Seeds restaurants with menus, customers, drivers and an order/chat history with the synthetic data generator
+ */
+public class LoadTestSeeder {
+
+    public static SeedData seed(ApplicationContext context, LoadTestConfig config) throws SQLException {
+        SyntheticDataGenerator.Config dataset = SyntheticDataGenerator.Config.small();
+        dataset.seed = config.seed;
+        dataset.restaurants = config.restaurants;
+        dataset.menuItemsPerRestaurant = config.menuItemsPerRestaurant;
+        dataset.customers = config.customers;
+        dataset.drivers = config.drivers;
+        dataset.orders = config.historyOrders;
+        GeneratedData data = new SyntheticDataGenerator(context.getBean(DataSource.class), dataset).generate();
+
+        return new SeedData(data.restaurantIds, data.menuByRestaurant, data.customerIds, data.driverIds);
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.kursinisbackend.loadtest;
+
+/**
+ * Client flows a virtual user can run, mirroring the Android app screens
+ */
+public enum Scenario {
+    BROWSE,  // restaurant list, menu, opening hours, reviews
+    ORDER,   // createOrder -> restaurant accept -> driver claim -> start delivery -> deliver
+    CHAT,    // customer and driver exchange messages on one of the user's orders
+    REVIEW   // customer rates a delivered order
+}
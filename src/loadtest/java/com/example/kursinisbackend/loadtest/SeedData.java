@@ -0,0 +1,21 @@
+package com.example.kursinisbackend.loadtest;
+
+import java.util.Map;
+
+/**
+ * Ids of the seeded entities that virtual users pick from
+ */
+public class SeedData {
+
+    final int[] restaurantIds;
+    final Map<Integer, int[]> menuByRestaurant;
+    final int[] customerIds;
+    final int[] driverIds;
+
+    public SeedData(int[] restaurantIds, Map<Integer, int[]> menuByRestaurant, int[] customerIds, int[] driverIds) {
+        this.restaurantIds = restaurantIds;
+        this.menuByRestaurant = menuByRestaurant;
+        this.customerIds = customerIds;
+        this.driverIds = driverIds;
+    }
+}
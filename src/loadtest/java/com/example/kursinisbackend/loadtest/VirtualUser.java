@@ -0,0 +1,182 @@
+package com.example.kursinisbackend.loadtest;
+
+import com.example.kursinisbackend.fixtures.ZipfSampler;
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One simulated app user: a customer who browses, orders, chats and reviews.
+ * Restaurant and driver steps of the order lifecycle are issued on their behalf.
+ */
+public class VirtualUser implements Runnable {
+
+    private final ApiClient client;
+    private final SeedData seed;
+    private final LoadTestConfig config;
+    private final AtomicBoolean running;
+    private final SplittableRandom random;
+    private final ZipfSampler restaurantPopularity;
+    private final int customerId;
+    private final List<PlacedOrder> orders = new ArrayList<>();
+    private final Gson gson = new Gson();
+
+    public VirtualUser(ApiClient client, SeedData seed, LoadTestConfig config, AtomicBoolean running, long randomSeed) {
+        this.client = client;
+        this.seed = seed;
+        this.config = config;
+        this.running = running;
+        this.random = new SplittableRandom(randomSeed);
+        // Same skew as the generated order history: a few restaurants get most of the traffic
+        this.restaurantPopularity = new ZipfSampler(seed.restaurantIds.length, 1.1);
+        this.customerId = seed.customerIds[random.nextInt(seed.customerIds.length)];
+    }
+
+    @Override
+    public void run() {
+        while (running.get()) {
+            try {
+                switch (nextScenario()) {
+                    case BROWSE -> browse();
+                    case ORDER -> order();
+                    case CHAT -> chat();
+                    case REVIEW -> review();
+                }
+                if (config.thinkTimeMs > 0) {
+                    Thread.sleep(config.thinkTimeMs);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                // Malformed response; the failing call is already counted as an error
+            }
+        }
+    }
+
+    private Scenario nextScenario() {
+        int total = config.mix.values().stream().mapToInt(Integer::intValue).sum();
+        int pick = random.nextInt(total);
+        for (Map.Entry<Scenario, Integer> entry : config.mix.entrySet()) {
+            pick -= entry.getValue();
+            if (pick < 0) {
+                return entry.getKey();
+            }
+        }
+        return Scenario.BROWSE;
+    }
+
+    private void browse() {
+        int restaurantId = seed.restaurantIds[restaurantPopularity.sample(random)];
+        client.get("GET /allRestaurants", "/allRestaurants");
+        client.get("GET /getMenuRestaurant/{id}", "/getMenuRestaurant/" + restaurantId);
+        client.get("GET /api/restaurants/{restaurantId}/open", "/api/restaurants/" + restaurantId + "/open");
+        client.get("GET /api/reviews/restaurants/{restaurantId}", "/api/reviews/restaurants/" + restaurantId);
+    }
+
+    private void order() {
+        int restaurantId = seed.restaurantIds[restaurantPopularity.sample(random)];
+        int[] menu = seed.menuByRestaurant.get(restaurantId);
+
+        JsonObject request = new JsonObject();
+        request.addProperty("userId", customerId);
+        request.addProperty("restaurantId", restaurantId);
+        JsonArray items = new JsonArray();
+        int itemCount = 1 + random.nextInt(4);
+        for (int i = 0; i < itemCount; i++) {
+            JsonObject item = new JsonObject();
+            item.addProperty("cuisineId", pick(menu));
+            item.addProperty("quantity", 1 + random.nextInt(2));
+            items.add(item);
+        }
+        request.add("items", items);
+
+        ApiClient.Response created = client.post("POST /createOrder", "/createOrder", request.toString());
+        if (!created.ok()) {
+            return;
+        }
+        JsonObject order = gson.fromJson(created.body(), JsonObject.class);
+        int orderId = order.get("id").getAsInt();
+        int chatId = order.getAsJsonObject("chat").get("id").getAsInt();
+        int driverId = pick(seed.driverIds);
+        PlacedOrder placed = new PlacedOrder(orderId, chatId, driverId);
+        orders.add(placed);
+
+        String restaurantOrder = "/api/restaurants/" + restaurantId + "/orders/" + orderId;
+        String driverOrder = "/api/drivers/" + driverId + "/orders/" + orderId;
+        client.get("GET /getOrderByUser/{id}", "/getOrderByUser/" + customerId);
+        if (!client.post("POST /api/restaurants/{restaurantId}/orders/{orderId}/accept",
+                restaurantOrder + "/accept", null).ok()) {
+            return;
+        }
+        client.get("GET /api/drivers/orders/available", "/api/drivers/orders/available");
+        if (!client.post("POST /api/drivers/{driverId}/orders/{orderId}/claim", driverOrder + "/claim", null).ok()) {
+            return;
+        }
+        client.post("POST /api/drivers/{driverId}/orders/{orderId}/start-delivery", driverOrder + "/start-delivery", null);
+        placed.delivered = client.post("POST /api/drivers/{driverId}/orders/{orderId}/deliver",
+                driverOrder + "/deliver", null).ok();
+        client.get("GET /getOrder/{orderId}", "/getOrder/" + orderId);
+    }
+
+    private void chat() {
+        if (orders.isEmpty()) {
+            order();
+            return;
+        }
+        PlacedOrder order = orders.get(random.nextInt(orders.size()));
+        sendMessage(order.orderId, customerId, "Where is my food?");
+        sendMessage(order.orderId, order.driverId, "Two minutes away");
+        client.get("GET /getMessagesForOrder/{id}", "/getMessagesForOrder/" + order.orderId);
+    }
+
+    private void review() {
+        PlacedOrder delivered = orders.stream()
+                .filter(o -> o.delivered && !o.reviewed)
+                .findFirst()
+                .orElse(null);
+        if (delivered == null) {
+            order();
+            return;
+        }
+        JsonObject request = new JsonObject();
+        request.addProperty("reviewText", "Tasty and on time");
+        request.addProperty("userId", customerId);
+        request.addProperty("chatId", delivered.chatId);
+        request.addProperty("rating", 1 + random.nextInt(5));
+        delivered.reviewed = client.post("POST /api/reviews", "/api/reviews", request.toString()).ok();
+        client.get("GET /api/reviews/users/{userId}/rating", "/api/reviews/users/" + delivered.driverId + "/rating");
+    }
+
+    private void sendMessage(int orderId, int userId, String text) {
+        JsonObject request = new JsonObject();
+        request.addProperty("messageText", text);
+        request.addProperty("userId", userId);
+        request.addProperty("orderId", orderId);
+        client.post("POST /sendMessage", "/sendMessage", request.toString());
+    }
+
+    private int pick(int[] ids) {
+        return ids[random.nextInt(ids.length)];
+    }
+
+    private static class PlacedOrder {
+        final int orderId;
+        final int chatId;
+        final int driverId;
+        boolean delivered;
+        boolean reviewed;
+
+        PlacedOrder(int orderId, int chatId, int driverId) {
+            this.orderId = orderId;
+            this.chatId = chatId;
+            this.driverId = driverId;
+        }
+    }
+}
@@ -2,8 +2,10 @@ package com.example.kursinisbackend;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class KursinisBackendApplication {
 
     public static void main(String[] args) {
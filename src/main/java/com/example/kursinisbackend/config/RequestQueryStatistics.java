@@ -0,0 +1,42 @@
+package com.example.kursinisbackend.config;
+
+import org.hibernate.Interceptor;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.type.Type;
+
+/**
+ * Counts SQL statements and loaded entities on the current thread so they can be
+ * reported per HTTP request by {@link RequestQueryMetricsInterceptor}.
+ */
+public class RequestQueryStatistics implements StatementInspector, Interceptor {
+    private static final long serialVersionUID = 1L;
+
+
+    private static final ThreadLocal<int[]> COUNTERS = ThreadLocal.withInitial(() -> new int[2]);
+
+    public static void reset() {
+        int[] counters = COUNTERS.get();
+        counters[0] = 0;
+        counters[1] = 0;
+    }
+
+    public static int getQueryCount() {
+        return COUNTERS.get()[0];
+    }
+
+    public static int getEntityLoadCount() {
+        return COUNTERS.get()[1];
+    }
+
+    @Override
+    public String inspect(String sql) {
+        COUNTERS.get()[0]++;
+        return sql;
+    }
+
+    @Override
+    public boolean onLoad(Object entity, Object id, Object[] state, String[] propertyNames, Type[] types) {
+        COUNTERS.get()[1]++;
+        return false;
+    }
+}
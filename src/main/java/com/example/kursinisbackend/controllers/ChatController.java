@@ -3,20 +3,32 @@ package com.example.kursinisbackend.controllers;
 import com.example.kursinisbackend.model.BasicUser;
 import com.example.kursinisbackend.model.Chat;
 import com.example.kursinisbackend.model.FoodOrder;
+import com.example.kursinisbackend.model.OrderStatus;
 import com.example.kursinisbackend.model.Review;
 import com.example.kursinisbackend.repos.BasicUserRepository;
 import com.example.kursinisbackend.repos.ChatRepo;
 import com.example.kursinisbackend.repos.OrdersRepo;
 import com.example.kursinisbackend.repos.ReviewRepo;
+import com.example.kursinisbackend.service.ChatArchiveService;
+import com.example.kursinisbackend.service.ChatQueueFullException;
+import com.example.kursinisbackend.service.ChatReadTracker;
+import com.example.kursinisbackend.service.ChatSearchIndex;
+import com.example.kursinisbackend.service.ChatService;
+import com.example.kursinisbackend.service.OrderStatusCache;
 import com.google.gson.Gson;
+import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/chats")
@@ -34,6 +46,21 @@ public class ChatController {
     @Autowired
     private BasicUserRepository basicUserRepository;
 
+    @Autowired
+    private ChatService chatService;
+
+    @Autowired
+    private ChatReadTracker chatReadTracker;
+
+    @Autowired
+    private OrderStatusCache orderStatusCache;
+
+    @Autowired
+    private ChatArchiveService chatArchiveService;
+
+    @Autowired
+    private ChatSearchIndex chatSearchIndex;
+
     /**
      * Get all chats
      * GET /api/chats
@@ -44,6 +71,38 @@ public class ChatController {
         return ResponseEntity.ok(chats);
     }
 
+    /**
+     * Search chat messages for all the given words, newest first
+     * GET /api/chats/search?q={words}&limit={limit}
+     */
+    @GetMapping("/search")
+    public ResponseEntity<?> searchMessages(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "50") int limit) {
+        try {
+            ChatSearchIndex.Result result = chatSearchIndex.search(q, Math.max(1, Math.min(limit, 500)));
+
+            JsonObject response = new JsonObject();
+            response.add("terms", new Gson().toJsonTree(result.terms()));
+            response.addProperty("total", result.total());
+            JsonArray hits = new JsonArray();
+            for (ChatSearchIndex.Hit hit : result.hits()) {
+                JsonObject item = new JsonObject();
+                item.addProperty("messageId", hit.messageId());
+                item.addProperty("chatId", hit.chatId());
+                hits.add(item);
+            }
+            response.add("hits", hits);
+
+            return ResponseEntity.ok(response.toString());
+
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("Error: " + e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+
     /**
      * Get chat by ID
      * GET /api/chats/{chatId}
@@ -88,16 +147,32 @@ public class ChatController {
     }
 
     /**
-     * Get messages for a chat
-     * GET /api/chats/{chatId}/messages
+     * Get messages for a chat, oldest first
+     * GET /api/chats/{chatId}/messages?after={messageId}&before={messageId}&limit={limit}
+     * Without a cursor returns the whole history, or the latest {limit} messages when limit is given
      */
     @GetMapping("/{chatId}/messages")
-    public ResponseEntity<?> getChatMessages(@PathVariable int chatId) {
+    public ResponseEntity<?> getChatMessages(
+            @PathVariable int chatId,
+            @RequestParam(required = false) Integer after,
+            @RequestParam(required = false) Integer before,
+            @RequestParam(required = false) Integer limit) {
         try {
-            Chat chat = chatRepo.findById(chatId)
-                    .orElseThrow(() -> new Exception("Chat not found"));
+            Limit page = limit != null ? Limit.of(limit) : Limit.unlimited();
+            List<Review> messages;
+            if (chatArchiveService.isArchived(chatId)) {
+                messages = chatArchiveService.page(chatId, after, before, limit);
+            } else if (after != null) {
+                messages = reviewRepo.findByChat_IdAndIdGreaterThanOrderByIdAsc(chatId, after, page);
+            } else if (before != null) {
+                messages = reversed(reviewRepo.findByChat_IdAndIdLessThanOrderByIdDesc(chatId, before, page));
+            } else if (limit != null) {
+                messages = reversed(reviewRepo.findByChat_IdOrderByIdDesc(chatId, page));
+            } else {
+                messages = reviewRepo.findByChat_IdOrderByIdAsc(chatId, page);
+            }
 
-            List<Review> messages = chat.getMessages();
+            requireChatIfEmpty(chatId, messages.isEmpty());
             return ResponseEntity.ok(messages);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error: " + e.getMessage());
@@ -133,10 +208,17 @@ public class ChatController {
                 message.setRating(json.get("rating").getAsInt());
             }
 
-            reviewRepo.save(message);
+            if (chat.getFoodOrder() == null) {
+                chatService.save(message);
+            } else if (chatService.send(chat.getFoodOrder().getId(), message).id() == 0) {
+                // Queued for write-behind, the id arrives with the broadcast
+                return ResponseEntity.status(HttpStatus.ACCEPTED).body(message);
+            }
 
             return ResponseEntity.status(HttpStatus.CREATED).body(message);
 
+        } catch (ChatQueueFullException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("Error: " + e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error: " + e.getMessage());
         }
@@ -160,7 +242,7 @@ public class ChatController {
                         .body("Message does not belong to this chat");
             }
 
-            reviewRepo.delete(message);
+            chatService.delete(message);
             return ResponseEntity.ok("Message deleted successfully");
 
         } catch (Exception e) {
@@ -216,7 +298,11 @@ public class ChatController {
             Chat chat = chatRepo.findById(chatId)
                     .orElseThrow(() -> new Exception("Chat not found"));
 
+            // The chat's order goes with it
+            FoodOrder order = chat.getFoodOrder();
             chatRepo.delete(chat);
+            orderStatusCache.evictChat(chatId, order != null ? order.getId() : -1);
+            chatReadTracker.chatRemoved(chatId);
             return ResponseEntity.ok("Chat deleted successfully");
 
         } catch (Exception e) {
@@ -225,7 +311,7 @@ public class ChatController {
     }
 
     /**
-     * Get chats for a user (across all their orders)
+     * Get chats for a user (across all their orders), each with the user's unread message count
      * GET /api/chats/users/{userId}
      */
     @GetMapping("/users/{userId}")
@@ -240,6 +326,10 @@ public class ChatController {
                     .filter(chat -> chat != null)
                     .collect(java.util.stream.Collectors.toList());
 
+            Map<Integer, Integer> unreadCounts = chatReadTracker.unreadCounts(userId,
+                    userChats.stream().map(Chat::getId).toList());
+            userChats.forEach(chat -> chat.setUnreadCount(unreadCounts.get(chat.getId())));
+
             return ResponseEntity.ok(userChats);
 
         } catch (Exception e) {
@@ -254,12 +344,14 @@ public class ChatController {
     @GetMapping("/{chatId}/count")
     public ResponseEntity<?> getMessageCount(@PathVariable int chatId) {
         try {
-            Chat chat = chatRepo.findById(chatId)
-                    .orElseThrow(() -> new Exception("Chat not found"));
+            long messageCount = chatArchiveService.isArchived(chatId)
+                    ? chatArchiveService.count(chatId)
+                    : reviewRepo.countByChat_Id(chatId);
+            requireChatIfEmpty(chatId, messageCount == 0);
 
             JsonObject response = new JsonObject();
             response.addProperty("chatId", chatId);
-            response.addProperty("messageCount", chat.getMessages().size());
+            response.addProperty("messageCount", messageCount);
 
             return ResponseEntity.ok(response.toString());
 
@@ -275,17 +367,16 @@ public class ChatController {
     @GetMapping("/{chatId}/locked")
     public ResponseEntity<?> isChatLocked(@PathVariable int chatId) {
         try {
-            Chat chat = chatRepo.findById(chatId)
-                    .orElseThrow(() -> new Exception("Chat not found"));
-
-            FoodOrder order = chat.getFoodOrder();
-            boolean isLocked = order.getOrderStatus().toString().equals("COMPLETED") ||
-                    order.getOrderStatus().toString().equals("CANCELLED");
+            OrderStatus status = orderStatusCache.forChat(chatId);
+            if (status == null) {
+                throw new Exception("Chat not found");
+            }
+            boolean isLocked = status == OrderStatus.COMPLETED || status == OrderStatus.CANCELLED;
 
             JsonObject response = new JsonObject();
             response.addProperty("chatId", chatId);
             response.addProperty("isLocked", isLocked);
-            response.addProperty("orderStatus", order.getOrderStatus().toString());
+            response.addProperty("orderStatus", status.toString());
 
             return ResponseEntity.ok(response.toString());
 
@@ -303,12 +394,10 @@ public class ChatController {
             @PathVariable int chatId,
             @RequestParam(defaultValue = "50") int limit) {
         try {
-            Chat chat = chatRepo.findById(chatId)
-                    .orElseThrow(() -> new Exception("Chat not found"));
-
-            List<Review> allMessages = chat.getMessages();
-            int startIndex = Math.max(0, allMessages.size() - limit);
-            List<Review> recentMessages = allMessages.subList(startIndex, allMessages.size());
+            List<Review> recentMessages = chatArchiveService.isArchived(chatId)
+                    ? chatArchiveService.page(chatId, null, null, limit)
+                    : reversed(reviewRepo.findByChat_IdOrderByIdDesc(chatId, Limit.of(limit)));
+            requireChatIfEmpty(chatId, recentMessages.isEmpty());
 
             return ResponseEntity.ok(recentMessages);
 
@@ -318,26 +407,32 @@ public class ChatController {
     }
 
     /**
-     * Mark messages as read (future implementation)
-     * PUT /api/chats/{chatId}/read
+     * Mark messages as read, up to messageId or the latest message
+     * PUT /api/chats/{chatId}/read {"userId": 1, "messageId": 42}
      */
     @PutMapping("/{chatId}/read")
     public ResponseEntity<?> markAsRead(
             @PathVariable int chatId,
             @RequestBody String userJson) {
         try {
-            Chat chat = chatRepo.findById(chatId)
-                    .orElseThrow(() -> new Exception("Chat not found"));
-
             Gson gson = new Gson();
             JsonObject json = gson.fromJson(userJson, JsonObject.class);
             int userId = json.get("userId").getAsInt();
+            Integer messageId = json.has("messageId") ? json.get("messageId").getAsInt() : null;
+
+            if (!chatRepo.existsById(chatId)) {
+                throw new Exception("Chat not found");
+            }
+
+            ChatReadTracker.ReadPointer pointer = chatReadTracker.markRead(chatId, userId, messageId);
+            int unreadCount = chatReadTracker.unreadCounts(userId, List.of(chatId)).get(chatId);
 
-            // In a real implementation, track read status per user
             JsonObject response = new JsonObject();
             response.addProperty("message", "Messages marked as read");
             response.addProperty("chatId", chatId);
             response.addProperty("userId", userId);
+            response.addProperty("lastReadMessageId", pointer.lastReadMessageId());
+            response.addProperty("unreadCount", unreadCount);
 
             return ResponseEntity.ok(response.toString());
 
@@ -345,4 +440,19 @@ public class ChatController {
             return ResponseEntity.badRequest().body("Error: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * An empty result is ambiguous: only then check that the chat exists
+     */
+    private void requireChatIfEmpty(int chatId, boolean empty) throws Exception {
+        if (empty && !chatRepo.existsById(chatId)) {
+            throw new Exception("Chat not found");
+        }
+    }
+
+    private static List<Review> reversed(List<Review> newestFirst) {
+        List<Review> messages = new ArrayList<>(newestFirst);
+        Collections.reverse(messages);
+        return messages;
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.kursinisbackend.controllers;
+
+import com.example.kursinisbackend.model.BasicUser;
+import com.example.kursinisbackend.model.Chat;
+import com.example.kursinisbackend.model.Review;
+import com.example.kursinisbackend.repos.BasicUserRepository;
+import com.example.kursinisbackend.repos.ChatRepo;
+import com.example.kursinisbackend.service.ChatMessage;
+import com.example.kursinisbackend.service.ChatService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.handler.annotation.MessageExceptionHandler;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.simp.annotation.SendToUser;
+import org.springframework.messaging.simp.annotation.SubscribeMapping;
+import org.springframework.stereotype.Controller;
+
+import java.util.List;
+
+/**
+ * Order chat over STOMP (endpoint /ws).
+ * Clients subscribe to /topic/orders/{orderId}/chat for live messages, then to
+ * /app/orders/{orderId}/chat/history with an "after" header holding the last message id they
+ * received (0 on first connect) to catch up on what they missed. Messages carry ids, so
+ * anything seen on both is dropped by id.
+ */
+@Controller
+@RequiredArgsConstructor
+public class ChatSocketController {
+
+    private final ChatRepo chatRepo;
+    private final BasicUserRepository basicUserRepository;
+    private final ChatService chatService;
+
+    /**
+     * Send a message to an order chat
+     * SEND /app/orders/{orderId}/chat {"messageText": "...", "userId": 1, "rating": 5}
+     */
+    @MessageMapping("/orders/{orderId}/chat")
+    public void sendMessage(@DestinationVariable int orderId, @Payload OutgoingMessage request) throws Exception {
+        if (request.messageText() == null || request.userId() == null) {
+            throw new Exception("messageText and userId are required");
+        }
+
+        Chat chat = chatRepo.getChatByFoodOrder_Id(orderId);
+        if (chat == null) {
+            throw new Exception("Chat not found");
+        }
+        BasicUser sender = basicUserRepository.findById(request.userId())
+                .orElseThrow(() -> new Exception("User not found"));
+
+        Review message = new Review(request.messageText(), sender, chat);
+        if (request.rating() != null) {
+            message.setRating(request.rating());
+        }
+
+        chatService.send(orderId, message);
+    }
+
+    /**
+     * Messages missed since the last received id, sent back to the subscriber only
+     * SUBSCRIBE /app/orders/{orderId}/chat/history (headers: after, limit)
+     */
+    @SubscribeMapping("/orders/{orderId}/chat/history")
+    public List<ChatMessage> getHistory(
+            @DestinationVariable int orderId,
+            @Header(name = "after", defaultValue = "0") int after,
+            @Header(name = "limit", defaultValue = "50") int limit) throws Exception {
+        return chatService.history(orderId, after, limit);
+    }
+
+    @MessageExceptionHandler
+    @SendToUser(destinations = "/queue/errors", broadcast = false)
+    public String handleException(Exception e) {
+        return "Error: " + e.getMessage();
+    }
+
+    /**
+     * Body of a SEND frame, converted from JSON by the broker
+     */
+    public record OutgoingMessage(String messageText, Integer userId, Integer rating) {
+    }
+}
@@ -4,14 +4,30 @@ import com.example.kursinisbackend.model.Cuisine;
 import com.example.kursinisbackend.model.Restaurant;
 import com.example.kursinisbackend.repos.CuisineRepo;
 import com.example.kursinisbackend.repos.RestaurantRepository;
+import com.example.kursinisbackend.service.CuisineSearchIndex;
+import com.example.kursinisbackend.service.MenuCache;
+import com.example.kursinisbackend.service.MenuCatalog;
+import com.example.kursinisbackend.service.MenuChanges;
+import com.example.kursinisbackend.service.MenuImportService;
 import com.google.gson.Gson;
+import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/cuisine")
@@ -23,6 +39,21 @@ public class CuisineController {
     @Autowired
     private RestaurantRepository restaurantRepository;
 
+    @Autowired
+    private CuisineSearchIndex cuisineSearchIndex;
+
+    @Autowired
+    private MenuCatalog menuCatalog;
+
+    @Autowired
+    private MenuCache menuCache;
+
+    @Autowired
+    private MenuChanges menuChanges;
+
+    @Autowired
+    private MenuImportService menuImportService;
+
     /**
      * Get all cuisine items
      * GET /api/cuisine
@@ -49,14 +80,15 @@ public class CuisineController {
     }
 
     /**
-     * Get menu for specific restaurant
+     * Get menu for specific restaurant; answers 304 when If-None-Match holds the current ETag
      * GET /api/cuisine/restaurant/{restaurantId}
      */
     @GetMapping("/restaurant/{restaurantId}")
-    public ResponseEntity<?> getRestaurantMenu(@PathVariable int restaurantId) {
+    public ResponseEntity<?> getRestaurantMenu(
+            @PathVariable int restaurantId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
-            List<Cuisine> menu = cuisineRepo.getCuisineByRestaurantId(restaurantId);
-            return ResponseEntity.ok(menu);
+            return menuCache.response(restaurantId, ifNoneMatch);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error: " + e.getMessage());
         }
@@ -88,6 +120,7 @@ public class CuisineController {
 
             cuisine.setRestaurant(restaurant);
             Cuisine savedCuisine = cuisineRepo.save(cuisine);
+            menuChanges.changed(savedCuisine);
 
             return ResponseEntity.status(HttpStatus.CREATED).body(savedCuisine);
 
@@ -122,6 +155,7 @@ public class CuisineController {
 
             Cuisine cuisine = new Cuisine(name, ingredients, price, spicy, vegan, restaurant);
             Cuisine savedCuisine = cuisineRepo.save(cuisine);
+            menuChanges.changed(savedCuisine);
 
             return ResponseEntity.status(HttpStatus.CREATED).body(savedCuisine);
 
@@ -159,6 +193,7 @@ public class CuisineController {
             cuisine.setVegan(updatedCuisine.isVegan());
 
             Cuisine savedCuisine = cuisineRepo.save(cuisine);
+            menuChanges.changed(savedCuisine);
             return ResponseEntity.ok(savedCuisine);
 
         } catch (Exception e) {
@@ -202,6 +237,7 @@ public class CuisineController {
             }
 
             Cuisine savedCuisine = cuisineRepo.save(cuisine);
+            menuChanges.changed(savedCuisine);
             return ResponseEntity.ok(savedCuisine);
 
         } catch (Exception e) {
@@ -220,6 +256,7 @@ public class CuisineController {
                     .orElseThrow(() -> new Exception("Cuisine item not found"));
 
             cuisineRepo.delete(cuisine);
+            menuChanges.removed(cuisine);
             return ResponseEntity.ok("Cuisine item deleted successfully");
 
         } catch (Exception e) {
@@ -228,24 +265,59 @@ public class CuisineController {
     }
 
     /**
-     * Search cuisine by name
-     * GET /api/cuisine/search?name={name}
+     * Search cuisine by name or ingredients, best matches first
+     * GET /api/cuisine/search?name={name}&limit={limit}
      */
     @GetMapping("/search")
-    public ResponseEntity<?> searchCuisineByName(@RequestParam String name) {
+    public ResponseEntity<?> searchCuisineByName(
+            @RequestParam String name,
+            @RequestParam(defaultValue = "50") int limit) {
         try {
-            List<Cuisine> allCuisine = cuisineRepo.findAll();
-            List<Cuisine> matchingCuisine = allCuisine.stream()
-                    .filter(c -> c.getName().toLowerCase().contains(name.toLowerCase()))
-                    .collect(java.util.stream.Collectors.toList());
+            List<CuisineSearchIndex.Hit> hits = cuisineSearchIndex.search(name, Math.min(limit, 500));
+            Map<Integer, Cuisine> byId = cuisineRepo.findAllWithRestaurantByIdIn(hits.stream().map(CuisineSearchIndex.Hit::cuisineId).toList())
+                    .stream()
+                    .collect(Collectors.toMap(Cuisine::getId, Function.identity()));
+            // Keep the index's ranking; items deleted since are skipped
+            List<Cuisine> matchingCuisine = hits.stream()
+                    .map(hit -> byId.get(hit.cuisineId()))
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList());
 
             return ResponseEntity.ok(matchingCuisine);
 
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("Error searching cuisine: " + e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error searching cuisine: " + e.getMessage());
         }
     }
 
+    /**
+     * Suggest dish names for a typed prefix
+     * GET /api/cuisine/suggest?prefix={prefix}&limit={limit}
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<?> suggestCuisine(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int limit) {
+        try {
+            JsonArray suggestions = new JsonArray();
+            for (CuisineSearchIndex.Suggestion suggestion : cuisineSearchIndex.suggest(prefix, Math.min(limit, 50))) {
+                JsonObject item = new JsonObject();
+                item.addProperty("name", suggestion.name());
+                item.addProperty("items", suggestion.items());
+                suggestions.add(item);
+            }
+
+            return ResponseEntity.ok(suggestions.toString());
+
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("Error: " + e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+
     /**
      * Get vegan options
      * GET /api/cuisine/vegan
@@ -253,13 +325,11 @@ public class CuisineController {
     @GetMapping("/vegan")
     public ResponseEntity<?> getVeganCuisine() {
         try {
-            List<Cuisine> allCuisine = cuisineRepo.findAll();
-            List<Cuisine> veganCuisine = allCuisine.stream()
-                    .filter(Cuisine::isVegan)
-                    .collect(java.util.stream.Collectors.toList());
-
+            List<Cuisine> veganCuisine = menuCatalog.filter(new MenuCatalog.Filter(true, null, null, null, null));
             return ResponseEntity.ok(veganCuisine);
 
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("Error: " + e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error: " + e.getMessage());
         }
@@ -272,13 +342,11 @@ public class CuisineController {
     @GetMapping("/spicy")
     public ResponseEntity<?> getSpicyCuisine() {
         try {
-            List<Cuisine> allCuisine = cuisineRepo.findAll();
-            List<Cuisine> spicyCuisine = allCuisine.stream()
-                    .filter(Cuisine::isSpicy)
-                    .collect(java.util.stream.Collectors.toList());
-
+            List<Cuisine> spicyCuisine = menuCatalog.filter(new MenuCatalog.Filter(null, true, null, null, null));
             return ResponseEntity.ok(spicyCuisine);
 
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("Error: " + e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error: " + e.getMessage());
         }
@@ -293,13 +361,11 @@ public class CuisineController {
             @RequestParam double min,
             @RequestParam double max) {
         try {
-            List<Cuisine> allCuisine = cuisineRepo.findAll();
-            List<Cuisine> priceRangeCuisine = allCuisine.stream()
-                    .filter(c -> c.getPrice() >= min && c.getPrice() <= max)
-                    .collect(java.util.stream.Collectors.toList());
-
+            List<Cuisine> priceRangeCuisine = menuCatalog.filter(new MenuCatalog.Filter(null, null, min, max, null));
             return ResponseEntity.ok(priceRangeCuisine);
 
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("Error: " + e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error: " + e.getMessage());
         }
@@ -312,13 +378,39 @@ public class CuisineController {
     @GetMapping("/restaurant/{restaurantId}/vegan")
     public ResponseEntity<?> getRestaurantVeganMenu(@PathVariable int restaurantId) {
         try {
-            List<Cuisine> menu = cuisineRepo.getCuisineByRestaurantId(restaurantId);
-            List<Cuisine> veganMenu = menu.stream()
-                    .filter(Cuisine::isVegan)
-                    .collect(java.util.stream.Collectors.toList());
-
+            List<Cuisine> veganMenu = menuCatalog.filter(new MenuCatalog.Filter(true, null, null, null, List.of(restaurantId)));
             return ResponseEntity.ok(veganMenu);
 
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("Error: " + e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Filter cuisine by any combination of attributes, price, restaurants and ingredients
+     * GET /api/cuisine/filter?vegan={vegan}&spicy={spicy}&minPrice={min}&maxPrice={max}&restaurantId={id}
+     *     &ingredient={ingredient}&excludeIngredient={ingredient}&limit={limit}
+     * Ingredients may be allergen groups, e.g. excludeIngredient=dairy&excludeIngredient=nut
+     */
+    @GetMapping("/filter")
+    public ResponseEntity<?> filterCuisine(
+            @RequestParam(required = false) Boolean vegan,
+            @RequestParam(required = false) Boolean spicy,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) List<Integer> restaurantId,
+            @RequestParam(required = false) List<String> ingredient,
+            @RequestParam(required = false) List<String> excludeIngredient,
+            @RequestParam(defaultValue = "100") int limit) {
+        try {
+            List<Cuisine> matchingCuisine = menuCatalog.filter(new MenuCatalog.Filter(vegan, spicy, minPrice, maxPrice,
+                    restaurantId, ingredient, excludeIngredient), Math.min(limit, 1000));
+            return ResponseEntity.ok(matchingCuisine);
+
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("Error: " + e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error: " + e.getMessage());
         }
@@ -331,25 +423,50 @@ public class CuisineController {
     @PostMapping("/bulk")
     public ResponseEntity<?> bulkCreateCuisine(@RequestBody List<Cuisine> cuisineList) {
         try {
-            // Validate restaurant exists for each item
+            // Validate restaurant exists for each item, looking each restaurant up once
+            Map<Integer, Restaurant> restaurants = new HashMap<>();
             for (Cuisine cuisine : cuisineList) {
                 if (cuisine.getRestaurant() == null || cuisine.getRestaurant().getId() == 0) {
                     return ResponseEntity.badRequest()
                             .body("All cuisine items must have a valid restaurant");
                 }
 
-                Restaurant restaurant = restaurantRepository.findById(cuisine.getRestaurant().getId())
-                        .orElseThrow(() -> new Exception("Restaurant not found: " +
-                                cuisine.getRestaurant().getId()));
+                int restaurantId = cuisine.getRestaurant().getId();
+                Restaurant restaurant = restaurants.get(restaurantId);
+                if (restaurant == null) {
+                    restaurant = restaurantRepository.findById(restaurantId)
+                            .orElseThrow(() -> new Exception("Restaurant not found: " + restaurantId));
+                    restaurants.put(restaurantId, restaurant);
+                }
 
                 cuisine.setRestaurant(restaurant);
             }
 
             List<Cuisine> savedCuisines = cuisineRepo.saveAll(cuisineList);
+            menuChanges.changed(savedCuisines);
             return ResponseEntity.status(HttpStatus.CREATED).body(savedCuisines);
 
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error bulk creating cuisine: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Import cuisine items from NDJSON, one item per line with the fields of POST /api/cuisine/json;
+     * restaurantId may be given once as a parameter instead of on every line. Bad lines are
+     * reported by line number and skipped.
+     * POST /api/cuisine/import
+     */
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<?> importCuisine(
+            @RequestParam(required = false) Integer restaurantId,
+            InputStream body) {
+        try {
+            MenuImportService.ImportResult result = menuImportService.importNdjson(
+                    new InputStreamReader(body, StandardCharsets.UTF_8), restaurantId);
+            return ResponseEntity.ok(result);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error importing cuisine: " + e.getMessage());
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.example.kursinisbackend.model.*;
 import com.example.kursinisbackend.repos.BasicUserRepository;
 import com.example.kursinisbackend.repos.OrdersRepo;
 import com.example.kursinisbackend.service.OrderService;
+import com.example.kursinisbackend.service.OrderStatusCache;
 import com.google.gson.Gson;
 import com.google.gson.JsonObject;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -27,6 +28,9 @@ public class DriverController {
     @Autowired
     private OrderService orderService;
 
+    @Autowired
+    private OrderStatusCache orderStatusCache;
+
     /**
      * Get driver by ID
      * GET /api/drivers/{driverId}
@@ -118,6 +122,15 @@ public class DriverController {
             Driver driver = (Driver) basicUserRepository.findById(driverId)
                     .orElseThrow(() -> new Exception("Driver not found"));
 
+            // Reject from the cached status before loading the order
+            OrderStatus cachedStatus = orderStatusCache.cached(orderId);
+            if (cachedStatus != null && cachedStatus != OrderStatus.ACCEPTED) {
+                return ResponseEntity.badRequest().body(cachedStatus.compareTo(OrderStatus.DRIVER_ASSIGNED) >= 0
+                        && cachedStatus.compareTo(OrderStatus.COMPLETED) <= 0
+                        ? "Order already claimed by another driver"
+                        : "Order must be accepted by restaurant before claiming");
+            }
+
             // Get the order
             FoodOrder order = ordersRepo.findById(orderId)
                     .orElseThrow(() -> new Exception("Order not found"));
@@ -2,11 +2,20 @@ package com.example.kursinisbackend.controllers;
 
 import com.example.kursinisbackend.model.*;
 import com.example.kursinisbackend.repos.*;
+import com.example.kursinisbackend.service.ChatArchiveService;
+import com.example.kursinisbackend.service.ChatService;
+import com.example.kursinisbackend.service.MenuCache;
 import com.example.kursinisbackend.service.OrderService;
+import com.example.kursinisbackend.service.OrderStatusCache;
+import com.example.kursinisbackend.service.RestaurantLeaderboard;
+import com.example.kursinisbackend.service.SoldOutRegistry;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.google.gson.Gson;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -15,6 +24,7 @@ import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 
+@Slf4j
 @RestController
 @RequiredArgsConstructor
 public class OrdersController {
@@ -22,15 +32,23 @@ public class OrdersController {
     private final OrdersRepo ordersRepo;
     private final ChatRepo chatRepo;
     private final BasicUserRepository basicUserRepository;
-    private final ReviewRepo reviewRepo;
     private final CuisineRepo cuisineRepo;
     private final RestaurantRepository restaurantRepository;
     private final OrderService orderService;
+    private final ChatService chatService;
+    private final OrderStatusCache orderStatusCache;
+    private final ChatArchiveService chatArchiveService;
+    private final RestaurantLeaderboard restaurantLeaderboard;
+    private final MenuCache menuCache;
+    private final SoldOutRegistry soldOutRegistry;
 
 
+    // Serialized once per menu version; 304 when the app sends back the current ETag
     @GetMapping(value = "getMenuRestaurant/{id}")
-    public Iterable<Cuisine> getRestaurantMenu(@PathVariable int id) {
-        return cuisineRepo.getCuisineByRestaurantId(id);
+    public ResponseEntity<byte[]> getRestaurantMenu(@PathVariable int id,
+                                                    @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch)
+            throws JsonProcessingException {
+        return menuCache.response(id, ifNoneMatch);
     }
 
     @GetMapping(value = "getOrderByUser/{id}")
@@ -47,7 +65,11 @@ public class OrdersController {
             order.setChat(chat1);
             chatRepo.save(chat1);
         }
-        return chatRepo.getChatByFoodOrder_Id(id).getMessages();
+        chat = chatRepo.getChatByFoodOrder_Id(id);
+        if (chatArchiveService.isArchived(chat.getId())) {
+            return chatArchiveService.messages(chat.getId());
+        }
+        return chat.getMessages();
     }
 
     @PostMapping(value = "sendMessage")
@@ -67,10 +89,9 @@ public class OrdersController {
         if (jsonObject.has("rating")) {
             int rating = jsonObject.get("rating").getAsInt();
             review.setRating(rating);
-            review.setReviewText(messageText + " [Rating: " + rating + "/5]");
         }
 
-        reviewRepo.save(review);
+        chatService.send(orderId, review);
 
         return "Message sent";
     }
@@ -99,6 +120,11 @@ public class OrdersController {
                 int cuisineId = item.get("cuisineId").getAsInt();
                 int quantity = item.get("quantity").getAsInt();
 
+                // Checked in memory, before the item is loaded
+                if (soldOutRegistry.isSoldOut(cuisineId)) {
+                    return ResponseEntity.badRequest().body("Cuisine item sold out: " + cuisineId);
+                }
+
                 Cuisine cuisine = cuisineRepo.findById(cuisineId)
                         .orElseThrow(() -> new Exception("Cuisine item not found: " + cuisineId));
 
@@ -127,19 +153,20 @@ public class OrdersController {
 
             order.setChat(chat);
             ordersRepo.save(order);
+            restaurantLeaderboard.orderPlaced(restaurantId, order.getDateCreated());
 
             try {
                 int loyaltyPoints = orderService.calculateLoyaltyPoints(finalPrice);
                 buyer.setLoyaltyPoints(buyer.getLoyaltyPoints() + loyaltyPoints);
                 basicUserRepository.save(buyer);
             } catch (Exception e) {
-                System.err.println("Failed to award loyalty points: " + e.getMessage());
+                log.warn("Failed to award loyalty points for order {}", order.getId(), e);
             }
 
             return ResponseEntity.status(HttpStatus.CREATED).body(order);
 
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("Error creating order", e);
             return ResponseEntity.badRequest().body("Error creating order: " + e.getMessage());
         }
     }
@@ -167,6 +194,7 @@ public class OrdersController {
             }
 
             ordersRepo.delete(order);
+            orderStatusCache.evict(orderId);
             return ResponseEntity.ok("Order cancelled successfully");
 
         } catch (Exception e) {
@@ -4,8 +4,14 @@ import com.example.kursinisbackend.model.*;
 import com.example.kursinisbackend.repos.CuisineRepo;
 import com.example.kursinisbackend.repos.OrdersRepo;
 import com.example.kursinisbackend.repos.RestaurantRepository;
+import com.example.kursinisbackend.service.MenuChanges;
+import com.example.kursinisbackend.service.MenuSyncService;
 import com.example.kursinisbackend.service.OrderService;
+import com.example.kursinisbackend.service.RestaurantLeaderboard;
+import com.example.kursinisbackend.service.SoldOutRegistry;
 import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -14,7 +20,10 @@ import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @RestController
@@ -26,6 +35,59 @@ public class RestaurantController {
     private final OrdersRepo ordersRepo;
     private final CuisineRepo cuisineRepo;
     private final OrderService orderService;
+    private final RestaurantLeaderboard restaurantLeaderboard;
+    private final MenuChanges menuChanges;
+    private final MenuSyncService menuSyncService;
+    private final SoldOutRegistry soldOutRegistry;
+
+    /**
+     * Get restaurants with the best adjusted rating
+     * GET /api/restaurants/leaderboard/top-rated?limit={limit}
+     */
+    @GetMapping("/leaderboard/top-rated")
+    public ResponseEntity<?> getTopRated(@RequestParam(defaultValue = "10") int limit) {
+        try {
+            return ResponseEntity.ok(leaderboardJson(restaurantLeaderboard.topRated(Math.max(1, Math.min(limit, 100)))));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Get restaurants with the most orders in the last 7 days
+     * GET /api/restaurants/leaderboard/popular?limit={limit}
+     */
+    @GetMapping("/leaderboard/popular")
+    public ResponseEntity<?> getMostPopular(@RequestParam(defaultValue = "10") int limit) {
+        try {
+            return ResponseEntity.ok(leaderboardJson(restaurantLeaderboard.mostPopular(Math.max(1, Math.min(limit, 100)))));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+
+    private String leaderboardJson(List<RestaurantLeaderboard.Entry> entries) {
+        Map<Integer, Restaurant> restaurants = restaurantRepository
+                .findAllById(entries.stream().map(RestaurantLeaderboard.Entry::restaurantId).toList())
+                .stream()
+                .collect(Collectors.toMap(Restaurant::getId, Function.identity()));
+        JsonArray result = new JsonArray();
+        for (RestaurantLeaderboard.Entry entry : entries) {
+            Restaurant restaurant = restaurants.get(entry.restaurantId());
+            if (restaurant == null) {
+                continue;
+            }
+            JsonObject json = new JsonObject();
+            json.addProperty("restaurantId", entry.restaurantId());
+            json.addProperty("restaurantName", restaurant.getRestaurantName());
+            json.addProperty("rating", Math.round(entry.rating() * 100) / 100.0);
+            json.addProperty("averageRating", Math.round(entry.averageRating() * 100) / 100.0);
+            json.addProperty("ratingCount", entry.ratingCount());
+            json.addProperty("weeklyOrders", entry.weeklyOrders());
+            result.add(json);
+        }
+        return result.toString();
+    }
 
     /**
      * Get restaurant by ID
@@ -254,6 +316,7 @@ public class RestaurantController {
             }
 
             Cuisine savedCuisine = cuisineRepo.save(cuisine);
+            menuChanges.changed(savedCuisine);
             return ResponseEntity.status(HttpStatus.CREATED).body(savedCuisine);
 
         } catch (Exception e) {
@@ -302,6 +365,7 @@ public class RestaurantController {
             cuisine.setVegan(updatedCuisine.isVegan());
 
             Cuisine savedCuisine = cuisineRepo.save(cuisine);
+            menuChanges.changed(savedCuisine);
             return ResponseEntity.ok(savedCuisine);
 
         } catch (Exception e) {
@@ -333,6 +397,7 @@ public class RestaurantController {
             }
 
             cuisineRepo.delete(cuisine);
+            menuChanges.removed(cuisine);
             return ResponseEntity.ok("Menu item deleted successfully");
 
         } catch (Exception e) {
@@ -340,6 +405,86 @@ public class RestaurantController {
         }
     }
 
+    /**
+     * Mark a menu item sold out or available again; menus show it at once without being reloaded
+     * PUT /api/restaurants/{restaurantId}/menu/{cuisineId}/sold-out
+     * Body: {"soldOut": true}
+     */
+    @PutMapping("/{restaurantId}/menu/{cuisineId}/sold-out")
+    public ResponseEntity<?> setSoldOut(
+            @PathVariable int restaurantId,
+            @PathVariable int cuisineId,
+            @RequestBody String soldOutJson) {
+        try {
+            Gson gson = new Gson();
+            JsonObject json = gson.fromJson(soldOutJson, JsonObject.class);
+            if (json == null || !json.has("soldOut")) {
+                return ResponseEntity.badRequest().body("soldOut is required");
+            }
+            boolean soldOut = json.get("soldOut").getAsBoolean();
+
+            // Get the cuisine item
+            Cuisine cuisine = cuisineRepo.findById(cuisineId)
+                    .orElseThrow(() -> new Exception("Menu item not found"));
+
+            // Verify cuisine belongs to this restaurant
+            if (cuisine.getRestaurant() == null || cuisine.getRestaurant().getId() != restaurantId) {
+                return ResponseEntity.badRequest()
+                        .body("Menu item does not belong to this restaurant");
+            }
+
+            soldOutRegistry.set(cuisineId, soldOut);
+
+            JsonObject response = new JsonObject();
+            response.addProperty("cuisineId", cuisineId);
+            response.addProperty("soldOut", soldOut);
+            return ResponseEntity.ok(response.toString());
+
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Replace the restaurant's menu with the one its POS system pushes, writing only the difference
+     * PUT /api/restaurants/{restaurantId}/menu
+     * Body: [{"key": "...", "name": "...", "price": 4.5, "ingredients": "...", "spicy": false, "vegan": true}, ...]
+     */
+    @PutMapping("/{restaurantId}/menu")
+    public ResponseEntity<?> syncMenu(
+            @PathVariable int restaurantId,
+            @RequestBody String menuJson) {
+        try {
+            Gson gson = new Gson();
+            JsonArray menu = gson.fromJson(menuJson, JsonArray.class);
+            if (menu == null) {
+                return ResponseEntity.badRequest().body("Menu is required");
+            }
+
+            List<MenuSyncService.Item> items = new ArrayList<>(menu.size());
+            for (JsonElement element : menu) {
+                JsonObject item = element.getAsJsonObject();
+                items.add(new MenuSyncService.Item(
+                        string(item, "key"),
+                        string(item, "name"),
+                        string(item, "ingredients"),
+                        item.has("price") && !item.get("price").isJsonNull() ? item.get("price").getAsDouble() : null,
+                        item.has("spicy") && item.get("spicy").getAsBoolean(),
+                        item.has("vegan") && item.get("vegan").getAsBoolean()));
+            }
+
+            return ResponseEntity.ok(menuSyncService.sync(restaurantId, items));
+
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+
+    private static String string(JsonObject json, String field) {
+        JsonElement value = json.get(field);
+        return value != null && !value.isJsonNull() ? value.getAsString() : null;
+    }
+
     /**
      * Get restaurant statistics
      * GET /api/restaurants/{restaurantId}/stats
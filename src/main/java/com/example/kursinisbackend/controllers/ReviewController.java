@@ -2,13 +2,21 @@ package com.example.kursinisbackend.controllers;
 
 import com.example.kursinisbackend.model.BasicUser;
 import com.example.kursinisbackend.model.Chat;
+import com.example.kursinisbackend.model.RatingAggregate;
 import com.example.kursinisbackend.model.Review;
 import com.example.kursinisbackend.repos.BasicUserRepository;
 import com.example.kursinisbackend.repos.ChatRepo;
+import com.example.kursinisbackend.repos.ReviewFilter;
 import com.example.kursinisbackend.repos.ReviewRepo;
+import com.example.kursinisbackend.service.ChatService;
+import com.example.kursinisbackend.service.RatingService;
+import com.example.kursinisbackend.service.RecentReviews;
 import com.google.gson.Gson;
 import com.google.gson.JsonObject;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -30,6 +38,15 @@ public class ReviewController {
     @Autowired
     private ChatRepo chatRepo;
 
+    @Autowired
+    private ChatService chatService;
+
+    @Autowired
+    private RatingService ratingService;
+
+    @Autowired
+    private RecentReviews recentReviews;
+
     /**
      * Get all reviews
      * GET /api/reviews
@@ -84,11 +101,10 @@ public class ReviewController {
                 if (rating < 1 || rating > 5) {
                     return ResponseEntity.badRequest().body("Rating must be between 1 and 5");
                 }
-                // Store rating in reviewText or add a rating field to Review model
-                review.setReviewText(reviewText + " [Rating: " + rating + "/5]");
+                review.setRating(rating);
             }
 
-            reviewRepo.save(review);
+            chatService.save(review);
             return ResponseEntity.status(HttpStatus.CREATED).body(review);
 
         } catch (Exception e) {
@@ -111,11 +127,19 @@ public class ReviewController {
             Gson gson = new Gson();
             JsonObject json = gson.fromJson(reviewJson, JsonObject.class);
 
+            String previousText = review.getReviewText();
             if (json.has("reviewText")) {
                 review.setReviewText(json.get("reviewText").getAsString());
             }
 
-            reviewRepo.save(review);
+            Integer rating = null;
+            if (json.has("rating")) {
+                rating = json.get("rating").getAsInt();
+                if (rating < 1 || rating > 5) {
+                    return ResponseEntity.badRequest().body("Rating must be between 1 and 5");
+                }
+            }
+            chatService.edit(review, previousText, rating);
             return ResponseEntity.ok(review);
 
         } catch (Exception e) {
@@ -133,7 +157,7 @@ public class ReviewController {
             Review review = reviewRepo.findById(reviewId)
                     .orElseThrow(() -> new Exception("Review not found"));
 
-            reviewRepo.delete(review);
+            chatService.delete(review);
             return ResponseEntity.ok("Review deleted successfully");
 
         } catch (Exception e) {
@@ -182,26 +206,17 @@ public class ReviewController {
     }
 
     /**
-     * Get reviews for a restaurant
-     * GET /api/reviews/restaurants/{restaurantId}
+     * Get reviews for a restaurant, newest first
+     * GET /api/reviews/restaurants/{restaurantId}?before={reviewId}&limit={limit}
      */
     @GetMapping("/restaurants/{restaurantId}")
-    public ResponseEntity<?> getRestaurantReviews(@PathVariable int restaurantId) {
+    public ResponseEntity<?> getRestaurantReviews(
+            @PathVariable int restaurantId,
+            @RequestParam(required = false) Integer before,
+            @RequestParam(required = false) Integer limit) {
         try {
-            // Get all chats related to orders from this restaurant
-            List<Chat> allChats = chatRepo.findAll();
-            List<Chat> restaurantChats = allChats.stream()
-                    .filter(chat -> chat.getFoodOrder() != null &&
-                            chat.getFoodOrder().getRestaurant() != null &&
-                            chat.getFoodOrder().getRestaurant().getId() == restaurantId)
-                    .collect(Collectors.toList());
-
-            // Get all reviews from these chats
-            List<Review> restaurantReviews = restaurantChats.stream()
-                    .flatMap(chat -> chat.getMessages().stream())
-                    .filter(review -> review.getReviewText().contains("Rating:"))
-                    .collect(Collectors.toList());
-
+            List<Review> restaurantReviews = reviewRepo.findRestaurantRatings(restaurantId,
+                    before != null ? before : Integer.MAX_VALUE, limit != null ? Limit.of(limit) : Limit.unlimited());
             return ResponseEntity.ok(restaurantReviews);
 
         } catch (Exception e) {
@@ -210,26 +225,17 @@ public class ReviewController {
     }
 
     /**
-     * Get reviews for a driver
-     * GET /api/reviews/drivers/{driverId}
+     * Get reviews for a driver, newest first
+     * GET /api/reviews/drivers/{driverId}?before={reviewId}&limit={limit}
      */
     @GetMapping("/drivers/{driverId}")
-    public ResponseEntity<?> getDriverReviews(@PathVariable int driverId) {
+    public ResponseEntity<?> getDriverReviews(
+            @PathVariable int driverId,
+            @RequestParam(required = false) Integer before,
+            @RequestParam(required = false) Integer limit) {
         try {
-            // Get all chats related to orders delivered by this driver
-            List<Chat> allChats = chatRepo.findAll();
-            List<Chat> driverChats = allChats.stream()
-                    .filter(chat -> chat.getFoodOrder() != null &&
-                            chat.getFoodOrder().getDriver() != null &&
-                            chat.getFoodOrder().getDriver().getId() == driverId)
-                    .collect(Collectors.toList());
-
-            // Get all reviews from these chats
-            List<Review> driverReviews = driverChats.stream()
-                    .flatMap(chat -> chat.getMessages().stream())
-                    .filter(review -> review.getReviewText().contains("Rating:"))
-                    .collect(Collectors.toList());
-
+            List<Review> driverReviews = reviewRepo.findDriverRatings(driverId,
+                    before != null ? before : Integer.MAX_VALUE, limit != null ? Limit.of(limit) : Limit.unlimited());
             return ResponseEntity.ok(driverReviews);
 
         } catch (Exception e) {
@@ -247,59 +253,19 @@ public class ReviewController {
             BasicUser user = basicUserRepository.findById(userId)
                     .orElseThrow(() -> new Exception("User not found"));
 
-            List<Review> allReviews = reviewRepo.findAll();
-
-            // Filter reviews that mention this user and have ratings
-            List<Review> userRatings = allReviews.stream()
-                    .filter(review -> {
-                        if (review.getChat() == null || review.getChat().getFoodOrder() == null) {
-                            return false;
-                        }
-
-                        int restaurantId = review.getChat().getFoodOrder().getRestaurant() != null ?
-                                review.getChat().getFoodOrder().getRestaurant().getId() : -1;
-                        int driverId = review.getChat().getFoodOrder().getDriver() != null ?
-                                review.getChat().getFoodOrder().getDriver().getId() : -1;
-
-                        return (restaurantId == userId || driverId == userId) &&
-                                review.getReviewText().contains("Rating:");
-                    })
-                    .collect(Collectors.toList());
-
-            if (userRatings.isEmpty()) {
-                JsonObject response = new JsonObject();
-                response.addProperty("userId", userId);
-                response.addProperty("averageRating", 0.0);
-                response.addProperty("totalRatings", 0);
-                return ResponseEntity.ok(response.toString());
-            }
-
-            // Extract ratings from review text (format: "... [Rating: X/5]")
-            double totalRating = 0.0;
-            int count = 0;
-
-            for (Review review : userRatings) {
-                String text = review.getReviewText();
-                int ratingStart = text.indexOf("[Rating: ") + 9;
-                int ratingEnd = text.indexOf("/5]");
-
-                if (ratingStart > 8 && ratingEnd > ratingStart) {
-                    try {
-                        int rating = Integer.parseInt(text.substring(ratingStart, ratingEnd));
-                        totalRating += rating;
-                        count++;
-                    } catch (NumberFormatException ignored) {
-                    }
-                }
-            }
-
-            double averageRating = count > 0 ? totalRating / count : 0.0;
+            RatingAggregate aggregate = ratingService.aggregate(userId);
 
             JsonObject response = new JsonObject();
             response.addProperty("userId", userId);
             response.addProperty("userName", user.getName() + " " + user.getSurname());
-            response.addProperty("averageRating", Math.round(averageRating * 10.0) / 10.0);
-            response.addProperty("totalRatings", count);
+            response.addProperty("averageRating", Math.round(aggregate.getAverage() * 10.0) / 10.0);
+            response.addProperty("totalRatings", aggregate.getRatingCount());
+            JsonObject histogram = new JsonObject();
+            int[] stars = aggregate.getHistogram();
+            for (int star = 1; star <= stars.length; star++) {
+                histogram.addProperty(String.valueOf(star), stars[star - 1]);
+            }
+            response.add("ratingCounts", histogram);
 
             return ResponseEntity.ok(response.toString());
 
@@ -309,54 +275,111 @@ public class ReviewController {
     }
 
     /**
-     * Get recent reviews (last N reviews)
+     * Get recent reviews (last N rated reviews, newest first; served from memory)
      * GET /api/reviews/recent?limit={limit}
      */
     @GetMapping("/recent")
     public ResponseEntity<?> getRecentReviews(
             @RequestParam(defaultValue = "10") int limit) {
         try {
-            List<Review> allReviews = reviewRepo.findAll();
-
-            // Sort by date (most recent first) and limit
-            List<Review> recentReviews = allReviews.stream()
-                    .sorted((r1, r2) -> {
-                        LocalDate d1 = r1.getDateCreated() != null ? r1.getDateCreated() : LocalDate.MIN;
-                        LocalDate d2 = r2.getDateCreated() != null ? r2.getDateCreated() : LocalDate.MIN;
-                        return d2.compareTo(d1);
-                    })
-                    .limit(limit)
-                    .collect(Collectors.toList());
-
-            return ResponseEntity.ok(recentReviews);
+            return ResponseEntity.ok(recentReviews.recent(Math.max(1, Math.min(limit, recentReviews.capacity()))));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
 
+    /**
+     * Get recent reviews for a restaurant (newest first; served from memory)
+     * GET /api/reviews/restaurants/{restaurantId}/recent?limit={limit}
+     */
+    @GetMapping("/restaurants/{restaurantId}/recent")
+    public ResponseEntity<?> getRecentRestaurantReviews(
+            @PathVariable int restaurantId,
+            @RequestParam(defaultValue = "10") int limit) {
+        try {
+            return ResponseEntity.ok(recentReviews.recent(restaurantId,
+                    Math.max(1, Math.min(limit, recentReviews.perRestaurant()))));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error: " + e.getMessage());
         }
     }
 
     /**
-     * Get reviews by rating
-     * GET /api/reviews/rating/{rating}
+     * Get reviews by rating, newest first
+     * GET /api/reviews/rating/{rating}?before={reviewId}&limit={limit}
      */
     @GetMapping("/rating/{rating}")
-    public ResponseEntity<?> getReviewsByRating(@PathVariable int rating) {
+    public ResponseEntity<?> getReviewsByRating(
+            @PathVariable int rating,
+            @RequestParam(required = false) Integer before,
+            @RequestParam(required = false) Integer limit) {
         try {
             if (rating < 1 || rating > 5) {
                 return ResponseEntity.badRequest().body("Rating must be between 1 and 5");
             }
 
-            List<Review> allReviews = reviewRepo.findAll();
-            String ratingPattern = "[Rating: " + rating + "/5]";
+            List<Review> reviews = reviewRepo.findByRatingAndIdLessThanOrderByIdDesc(rating,
+                    before != null ? before : Integer.MAX_VALUE, limit != null ? Limit.of(limit) : Limit.unlimited());
+            return ResponseEntity.ok(reviews);
 
-            List<Review> filteredReviews = allReviews.stream()
-                    .filter(review -> review.getReviewText().contains(ratingPattern))
-                    .collect(Collectors.toList());
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Get how many reviews have each rating
+     * GET /api/reviews/rating/histogram
+     */
+    @GetMapping("/rating/histogram")
+    public ResponseEntity<?> getRatingHistogram() {
+        try {
+            JsonObject ratingCounts = new JsonObject();
+            for (int star = 1; star <= 5; star++) {
+                ratingCounts.addProperty(String.valueOf(star), 0);
+            }
+            long totalRatings = 0;
+            for (ReviewRepo.RatingCount count : reviewRepo.findRatingHistogram()) {
+                ratingCounts.addProperty(String.valueOf(count.getRating()), count.getReviews());
+                totalRatings += count.getReviews();
+            }
+
+            JsonObject response = new JsonObject();
+            response.addProperty("totalRatings", totalRatings);
+            response.add("ratingCounts", ratingCounts);
+            return ResponseEntity.ok(response.toString());
+
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Filter rated reviews, newest first; every parameter is optional
+     * GET /api/reviews/filter?minRating=&maxRating=&restaurantId=&driverId=&from=&to=&before=&limit=
+     */
+    @GetMapping("/filter")
+    public ResponseEntity<?> filterReviews(
+            @RequestParam(defaultValue = "1") int minRating,
+            @RequestParam(defaultValue = "5") int maxRating,
+            @RequestParam(required = false) Integer restaurantId,
+            @RequestParam(required = false) Integer driverId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Integer before,
+            @RequestParam(defaultValue = "50") int limit) {
+        try {
+            if (minRating < 1 || maxRating > 5 || minRating > maxRating) {
+                return ResponseEntity.badRequest().body("Rating range must be within 1 to 5");
+            }
 
-            return ResponseEntity.ok(filteredReviews);
+            List<Review> reviews = reviewRepo.findBy(
+                    ReviewFilter.ratings(minRating, maxRating, restaurantId, driverId, from, to, before),
+                    query -> query.sortBy(Sort.by(Sort.Direction.DESC, "id")).limit(Math.max(1, Math.min(limit, 500))).all());
+            return ResponseEntity.ok(reviews);
 
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+}
@@ -8,6 +8,7 @@ import com.example.kursinisbackend.service.AuthService;
 import com.google.gson.Gson;
 import com.google.gson.JsonObject;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -17,6 +18,7 @@ import java.time.LocalTime;
 import java.util.List;
 import java.util.Properties;
 
+@Slf4j
 @RestController
 @RequiredArgsConstructor
 public class UserController {
@@ -40,11 +42,11 @@ public class UserController {
 
     @PostMapping(value = "validateUser")
     public @ResponseBody String getUserByCredentials(@RequestBody String info) {
-        System.out.println(info);
         Gson gson = new Gson();
         Properties properties = gson.fromJson(info, Properties.class);
         var login = properties.getProperty("login");
         var psw = properties.getProperty("password"); // This is the plain-text password
+        log.debug("Validating user {}", login);
 
         // 1. Find user by login
         User user = userRepository.findByLogin(login); // Assuming findByLogin method exists in UserRepository
@@ -1,7 +1,9 @@
 package com.example.kursinisbackend.model;
 
+import com.example.kursinisbackend.service.IdSequences;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -19,7 +21,9 @@ import java.util.List;
 @Entity
 public class Chat {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "chat_ids")
+    @TableGenerator(name = "chat_ids", table = IdSequences.TABLE, pkColumnName = IdSequences.NAME_COLUMN,
+            valueColumnName = IdSequences.VALUE_COLUMN, pkColumnValue = "Chat", allocationSize = IdSequences.ALLOCATION_SIZE)
     private int id;
 
     private String name;
@@ -37,6 +41,11 @@ public class Chat {
     @OneToMany(mappedBy = "chat", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<Review> messages;
 
+    // Only filled in for per-user chat lists (see ChatReadTracker)
+    @Transient
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer unreadCount;
+
     public Chat(String name, FoodOrder foodOrder) {
         this.name = name;
         this.foodOrder = foodOrder;
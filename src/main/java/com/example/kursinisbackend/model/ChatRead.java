@@ -0,0 +1,46 @@
+package com.example.kursinisbackend.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+
+/**
+ * How far a user has read a chat: the last message id they saw and how many messages the chat
+ * had up to it. Written behind by ChatReadTracker, which keeps the live copy in memory.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@IdClass(ChatRead.Key.class)
+@Table(indexes = @Index(name = "idx_chatread_user_id", columnList = "userId"))
+public class ChatRead {
+    @Id
+    private int chatId;
+    @Id
+    private int userId;
+    private int lastReadMessageId;
+    private int readCount;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private int chatId;
+        private int userId;
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.kursinisbackend.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Lob;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+/**
+ * The plain messages of an archived chat, encoded and compressed into one blob
+ * (see ChatArchiveService). Rated reviews stay in Review, the rating listings read them there.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+public class ChatTranscript {
+    @Id
+    private int chatId;
+    private int messageCount;
+    private int lastMessageId;
+    // Size of the encoded messages before compression
+    private int rawBytes;
+
+    @Lob
+    @Column(length = 16 * 1024 * 1024)
+    private byte[] data;
+
+    private LocalDate dateArchived;
+}
@@ -1,5 +1,6 @@
 package com.example.kursinisbackend.model;
 
+import com.example.kursinisbackend.service.IdSequences;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
@@ -16,7 +17,9 @@ import java.util.List;
 @Entity
 public class Cuisine {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "cuisine_ids")
+    @TableGenerator(name = "cuisine_ids", table = IdSequences.TABLE, pkColumnName = IdSequences.NAME_COLUMN,
+            valueColumnName = IdSequences.VALUE_COLUMN, pkColumnValue = "Cuisine", allocationSize = IdSequences.ALLOCATION_SIZE)
     private int id;
 
     protected String name;
@@ -33,6 +36,10 @@ public class Cuisine {
     @ManyToOne
     private Restaurant restaurant;
 
+    // The item's key in the restaurant's POS system, set by menu sync (PUT /api/restaurants/{id}/menu)
+    @JsonIgnore
+    private String externalKey;
+
     public Cuisine(String name, String ingredients, Double price, boolean spicy, boolean vegan, Restaurant restaurant) {
         this.name = name;
         this.ingredients = ingredients;
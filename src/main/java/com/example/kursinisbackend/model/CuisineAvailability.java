@@ -0,0 +1,23 @@
+package com.example.kursinisbackend.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Whether a cuisine item is sold out. Kept apart from Cuisine so toggling it does not change the
+ * menu; written behind by SoldOutRegistry, which keeps the live copy in memory.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+public class CuisineAvailability {
+    @Id
+    private int cuisineId;
+    private boolean soldOut;
+}
@@ -1,5 +1,6 @@
 package com.example.kursinisbackend.model;
 
+import com.example.kursinisbackend.service.IdSequences;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
@@ -16,9 +17,12 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@Table(indexes = @Index(name = "idx_foodorder_date_created", columnList = "dateCreated"))
 public class FoodOrder {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "food_order_ids")
+    @TableGenerator(name = "food_order_ids", table = IdSequences.TABLE, pkColumnName = IdSequences.NAME_COLUMN,
+            valueColumnName = IdSequences.VALUE_COLUMN, pkColumnValue = "FoodOrder", allocationSize = IdSequences.ALLOCATION_SIZE)
     private int id;
 
     private String name;
@@ -0,0 +1,44 @@
+package com.example.kursinisbackend.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Running rating totals of a restaurant or driver: every rating left in the chat of one of their
+ * orders. Kept by RatingService in the same transaction as the rated Review.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+public class RatingAggregate {
+    @Id
+    private int userId;
+    private long ratingSum;
+    private int ratingCount;
+    private int stars1;
+    private int stars2;
+    private int stars3;
+    private int stars4;
+    private int stars5;
+
+    public RatingAggregate(int userId) {
+        this.userId = userId;
+    }
+
+    public double getAverage() {
+        return ratingCount > 0 ? (double) ratingSum / ratingCount : 0.0;
+    }
+
+    /**
+     * Number of ratings per star, index 0 = one star
+     */
+    public int[] getHistogram() {
+        return new int[]{stars1, stars2, stars3, stars4, stars5};
+    }
+}
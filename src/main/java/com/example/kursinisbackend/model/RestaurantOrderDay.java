@@ -0,0 +1,46 @@
+package com.example.kursinisbackend.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Orders a restaurant received on one day, for the last week only. Written behind by
+ * RestaurantLeaderboard so a restart does not recount the week from FoodOrder.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@IdClass(RestaurantOrderDay.Key.class)
+@Table(indexes = @Index(name = "idx_restaurantorderday_order_day", columnList = "orderDay"))
+public class RestaurantOrderDay {
+    @Id
+    private int restaurantId;
+    @Id
+    private LocalDate orderDay;
+    private int orderCount;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private int restaurantId;
+        private LocalDate orderDay;
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.kursinisbackend.model;
 
+import com.example.kursinisbackend.service.IdSequences;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
@@ -15,9 +16,16 @@ import java.time.LocalDate;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+// Chat history is read by chat in id order (keyset paging), ratings by rating in id order, see ReviewRepo
+@Table(indexes = {
+        @Index(name = "idx_review_chat_id_id", columnList = "chat_id, id"),
+        @Index(name = "idx_review_rating_id", columnList = "rating, id")
+})
 public class Review {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "review_ids")
+    @TableGenerator(name = "review_ids", table = IdSequences.TABLE, pkColumnName = IdSequences.NAME_COLUMN,
+            valueColumnName = IdSequences.VALUE_COLUMN, pkColumnValue = "Review", allocationSize = IdSequences.ALLOCATION_SIZE)
     private int id;
     private int rating;
     private String reviewText;
@@ -27,15 +35,15 @@ public class Review {
     private LocalDate dateCreated;
 
     @JsonIgnore
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     private BasicUser commentOwner;
 
     @JsonIgnore
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     private BasicUser feedbackUser;
 
     @JsonIgnore
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     private Chat chat;
 
     public Review(String reviewText, BasicUser commentOwner, Chat chat) {
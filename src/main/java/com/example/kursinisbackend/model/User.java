@@ -1,5 +1,6 @@
 package com.example.kursinisbackend.model;
 
+import com.example.kursinisbackend.service.IdSequences;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -17,7 +18,9 @@ import java.time.LocalDateTime;
 //@MappedSuperclass
 public class User implements Serializable {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "user_ids")
+    @TableGenerator(name = "user_ids", table = IdSequences.TABLE, pkColumnName = IdSequences.NAME_COLUMN,
+            valueColumnName = IdSequences.VALUE_COLUMN, pkColumnValue = "User", allocationSize = IdSequences.ALLOCATION_SIZE)
     protected int id;
     @Column(unique = true)
     protected String login;
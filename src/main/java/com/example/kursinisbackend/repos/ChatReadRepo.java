@@ -0,0 +1,10 @@
+package com.example.kursinisbackend.repos;
+
+import com.example.kursinisbackend.model.ChatRead;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface ChatReadRepo extends JpaRepository<ChatRead, ChatRead.Key> {
+    List<ChatRead> findByUserId(int userId);
+}
@@ -0,0 +1,12 @@
+package com.example.kursinisbackend.repos;
+
+import com.example.kursinisbackend.model.ChatTranscript;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface ChatTranscriptRepo extends JpaRepository<ChatTranscript, Integer> {
+    @Query("select t.chatId from ChatTranscript t")
+    List<Integer> findAllChatIds();
+}
@@ -0,0 +1,10 @@
+package com.example.kursinisbackend.repos;
+
+import com.example.kursinisbackend.model.CuisineAvailability;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface CuisineAvailabilityRepo extends JpaRepository<CuisineAvailability, Integer> {
+    List<CuisineAvailability> findBySoldOutTrue();
+}
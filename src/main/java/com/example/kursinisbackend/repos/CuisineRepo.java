@@ -1,10 +1,52 @@
 package com.example.kursinisbackend.repos;
 
 import com.example.kursinisbackend.model.Cuisine;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface CuisineRepo extends JpaRepository<Cuisine, Integer> {
+    // Restaurant is eager; fetched in the same statement
+    @EntityGraph(attributePaths = "restaurant")
     List<Cuisine> getCuisineByRestaurantId(int id);
+
+    // Restaurant is eager; fetched in the same statement instead of one select per restaurant
+    @Query("select c from Cuisine c join fetch c.restaurant where c.id in :ids")
+    List<Cuisine> findAllWithRestaurantByIdIn(@Param("ids") Collection<Integer> ids);
+
+    // Only the searchable text of items on a menu, for the search index; no restaurant join
+    @Query("select c.id as id, c.name as name, c.ingredients as ingredients from Cuisine c where c.restaurant.id is not null")
+    List<CuisineText> findAllText();
+
+    // Every column but the restaurant entity of items on a menu, for the menu catalog
+    @Query("select c.id as id, c.name as name, c.ingredients as ingredients, c.price as price, " +
+            "c.spicy as spicy, c.vegan as vegan, c.restaurant.id as restaurantId from Cuisine c " +
+            "where c.restaurant.id is not null order by c.id")
+    List<CuisineRow> findAllRows();
+
+    // Those of the items that appear in an order
+    @Query("select distinct c.id from FoodOrder o join o.cuisineList c where c.id in :ids")
+    List<Integer> findOrderedIds(@Param("ids") Collection<Integer> ids);
+
+    interface CuisineText {
+        int getId();
+
+        String getName();
+
+        String getIngredients();
+    }
+
+    interface CuisineRow extends CuisineText {
+        Double getPrice();
+
+        boolean isSpicy();
+
+        boolean isVegan();
+
+        Integer getRestaurantId();
+    }
 }
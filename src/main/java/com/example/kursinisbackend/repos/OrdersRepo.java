@@ -2,9 +2,15 @@ package com.example.kursinisbackend.repos;
 
 import com.example.kursinisbackend.model.FoodOrder;
 import com.example.kursinisbackend.model.OrderStatus;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface OrdersRepo extends JpaRepository<FoodOrder, Integer> {
     // Existing
@@ -25,4 +31,49 @@ public interface OrdersRepo extends JpaRepository<FoodOrder, Integer> {
 
     // Get orders for a buyer with specific status
     List<FoodOrder> findByBuyer_IdAndOrderStatus(int buyerId, OrderStatus status);
+
+    // Single columns for OrderStatusCache and chat lock checks, without loading the order
+    @Query("select o.orderStatus from FoodOrder o where o.id = :orderId")
+    Optional<OrderStatus> findOrderStatusById(@Param("orderId") int orderId);
+
+    @Query("select o.id as id, o.orderStatus as orderStatus from FoodOrder o where o.chat.id = :chatId")
+    Optional<OrderStatusRef> findStatusByChatId(@Param("chatId") int chatId);
+
+    // Chats of finished orders last touched before the cutoff and not archived yet
+    @Query("select o.chat.id from FoodOrder o where o.orderStatus in :statuses " +
+            "and coalesce(o.dateUpdated, o.dateCreated) < :cutoff and o.chat is not null " +
+            "and not exists (select t.chatId from ChatTranscript t where t.chatId = o.chat.id) order by o.chat.id")
+    List<Integer> findChatIdsToArchive(@Param("statuses") Collection<OrderStatus> statuses,
+                                       @Param("cutoff") LocalDate cutoff, Limit limit);
+
+    // Who a rating left in this chat is about; either id is null when the order has none
+    @Query("select r.id as restaurantId, d.id as driverId from FoodOrder o " +
+            "left join o.restaurant r left join o.driver d where o.chat.id = :chatId")
+    Optional<RatedParties> findRatedPartiesByChatId(@Param("chatId") int chatId);
+
+    // Orders per restaurant and day since the given day (uses idx_foodorder_date_created)
+    @Query("select o.restaurant.id as restaurantId, o.dateCreated as orderDay, count(o) as orderCount " +
+            "from FoodOrder o where o.dateCreated >= :from and o.restaurant is not null " +
+            "group by o.restaurant.id, o.dateCreated")
+    List<DailyOrders> countDailyOrders(@Param("from") LocalDate from);
+
+    interface RatedParties {
+        Integer getRestaurantId();
+
+        Integer getDriverId();
+    }
+
+    interface DailyOrders {
+        int getRestaurantId();
+
+        LocalDate getOrderDay();
+
+        long getOrderCount();
+    }
+
+    interface OrderStatusRef {
+        int getId();
+
+        OrderStatus getOrderStatus();
+    }
 }
\ No newline at end of file
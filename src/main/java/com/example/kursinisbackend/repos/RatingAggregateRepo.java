@@ -0,0 +1,35 @@
+package com.example.kursinisbackend.repos;
+
+import com.example.kursinisbackend.model.RatingAggregate;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface RatingAggregateRepo extends JpaRepository<RatingAggregate, Integer> {
+
+    // Add (delta = 1) or take back (delta = -1) one rating in place; returns the rows updated,
+    // fewer than the ids when a user has no row yet
+    @Modifying
+    @Query("update RatingAggregate a set a.ratingSum = a.ratingSum + :delta * :rating, " +
+            "a.ratingCount = a.ratingCount + :delta, " +
+            "a.stars1 = a.stars1 + case when :rating = 1 then :delta else 0 end, " +
+            "a.stars2 = a.stars2 + case when :rating = 2 then :delta else 0 end, " +
+            "a.stars3 = a.stars3 + case when :rating = 3 then :delta else 0 end, " +
+            "a.stars4 = a.stars4 + case when :rating = 4 then :delta else 0 end, " +
+            "a.stars5 = a.stars5 + case when :rating = 5 then :delta else 0 end " +
+            "where a.userId in :userIds")
+    int apply(@Param("userIds") Collection<Integer> userIds, @Param("rating") int rating, @Param("delta") int delta);
+
+    @Query("select a from RatingAggregate a where a.userId in (select r.id from Restaurant r)")
+    List<RatingAggregate> findRestaurantAggregates();
+
+    // Plain insert: unlike save() it never overwrites an existing row
+    @Modifying
+    @Query("insert into RatingAggregate (userId, ratingSum, ratingCount, stars1, stars2, stars3, stars4, stars5) " +
+            "values (:userId, 0, 0, 0, 0, 0, 0, 0)")
+    int create(@Param("userId") int userId);
+}
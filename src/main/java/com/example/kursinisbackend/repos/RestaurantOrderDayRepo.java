@@ -0,0 +1,11 @@
+package com.example.kursinisbackend.repos;
+
+import com.example.kursinisbackend.model.RestaurantOrderDay;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface RestaurantOrderDayRepo extends JpaRepository<RestaurantOrderDay, RestaurantOrderDay.Key> {
+    List<RestaurantOrderDay> findByOrderDayGreaterThanEqual(LocalDate orderDay);
+}
@@ -0,0 +1,52 @@
+package com.example.kursinisbackend.repos;
+
+import com.example.kursinisbackend.model.Chat;
+import com.example.kursinisbackend.model.FoodOrder;
+import com.example.kursinisbackend.model.Review;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Optional conditions on rated reviews for ReviewRepo.findBy. Only the conditions that are set
+ * reach the SQL, and the order is joined only when filtering by restaurant or driver, so each
+ * combination can use its own index (idx_review_rating_id for a plain rating range).
+ */
+public final class ReviewFilter {
+
+    private ReviewFilter() {
+    }
+
+    public static Specification<Review> ratings(int minRating, int maxRating, Integer restaurantId, Integer driverId,
+                                                LocalDate from, LocalDate to, Integer beforeId) {
+        return (root, query, builder) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(minRating == maxRating
+                    ? builder.equal(root.get("rating"), minRating)
+                    : builder.between(root.get("rating"), minRating, maxRating));
+            if (restaurantId != null || driverId != null) {
+                Join<Chat, FoodOrder> order = root.join("chat").join("foodOrder");
+                if (restaurantId != null) {
+                    predicates.add(builder.equal(order.get("restaurant").get("id"), restaurantId));
+                }
+                if (driverId != null) {
+                    predicates.add(builder.equal(order.get("driver").get("id"), driverId));
+                }
+            }
+            if (from != null) {
+                predicates.add(builder.greaterThanOrEqualTo(root.get("dateCreated"), from));
+            }
+            if (to != null) {
+                predicates.add(builder.lessThanOrEqualTo(root.get("dateCreated"), to));
+            }
+            if (beforeId != null) {
+                predicates.add(builder.lessThan(root.get("id"), beforeId));
+            }
+            return builder.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+}
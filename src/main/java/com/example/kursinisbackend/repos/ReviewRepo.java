@@ -1,10 +1,92 @@
 package com.example.kursinisbackend.repos;
 
 import com.example.kursinisbackend.model.Review;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
-public interface ReviewRepo extends JpaRepository<Review, Integer> {
+public interface ReviewRepo extends JpaRepository<Review, Integer>, JpaSpecificationExecutor<Review> {
     List<Review> findByCommentOwner_Id(int id);
+
+    // Chat messages, keyset-paged on (chat_id, id)
+    List<Review> findByChat_IdOrderByIdAsc(int chatId, Limit limit);
+
+    List<Review> findByChat_IdOrderByIdDesc(int chatId, Limit limit);
+
+    List<Review> findByChat_IdAndIdGreaterThanOrderByIdAsc(int chatId, int afterId, Limit limit);
+
+    List<Review> findByChat_IdAndIdLessThanOrderByIdDesc(int chatId, int beforeId, Limit limit);
+
+    long countByChat_Id(int chatId);
+
+    @Query("select r from Review r where r.rating > 0 order by r.id desc")
+    List<Review> findRecentRatings(Limit limit);
+
+    // Reviews with one rating, newest first, keyset-paged on (rating, id)
+    List<Review> findByRatingAndIdLessThanOrderByIdDesc(int rating, int beforeId, Limit limit);
+
+    // Read from idx_review_rating_id alone
+    @Query("select r.rating as rating, count(r) as reviews from Review r where r.rating > 0 group by r.rating")
+    List<RatingCount> findRatingHistogram();
+
+    // Ratings left on a restaurant's or driver's orders, newest first, keyset-paged by review id
+    @Query("select r from Review r join FoodOrder o on o.chat = r.chat " +
+            "where o.restaurant.id = :restaurantId and r.rating > 0 and r.id < :beforeId order by r.id desc")
+    List<Review> findRestaurantRatings(@Param("restaurantId") int restaurantId, @Param("beforeId") int beforeId, Limit limit);
+
+    // The newest ratings of every restaurant, at most perRestaurant each, newest first per restaurant
+    @Query("select x.restaurantId as restaurantId, x.id as id, x.rating as rating, x.reviewText as reviewText, " +
+            "x.dateCreated as dateCreated from (select o.restaurant.id as restaurantId, r.id as id, r.rating as rating, " +
+            "r.reviewText as reviewText, r.dateCreated as dateCreated, " +
+            "row_number() over (partition by o.restaurant.id order by r.id desc) as position " +
+            "from Review r join FoodOrder o on o.chat = r.chat where r.rating > 0) x " +
+            "where x.position <= :perRestaurant order by x.restaurantId, x.id desc")
+    List<RestaurantRating> findNewestRestaurantRatings(@Param("perRestaurant") int perRestaurant);
+
+    @Query("select r from Review r join FoodOrder o on o.chat = r.chat " +
+            "where o.driver.id = :driverId and r.rating > 0 and r.id < :beforeId order by r.id desc")
+    List<Review> findDriverRatings(@Param("driverId") int driverId, @Param("beforeId") int beforeId, Limit limit);
+
+    long countByChat_IdAndIdLessThanEqual(int chatId, int messageId);
+
+    // Plain chat messages, the ones a transcript archives: not rated, not about a user
+    @Query("select r from Review r where r.chat.id = :chatId and r.rating = 0 and r.feedbackUser is null order by r.id")
+    List<Review> findPlainMessages(@Param("chatId") int chatId);
+
+    // Per-chat latest message id and message count, for unread counts
+    @Query("select r.chat.id as chatId, max(r.id) as latestMessageId, count(r) as messageCount " +
+            "from Review r where r.chat.id in :chatIds group by r.chat.id")
+    List<ChatStats> findChatStats(@Param("chatIds") Collection<Integer> chatIds);
+
+    interface ChatStats {
+        int getChatId();
+
+        int getLatestMessageId();
+
+        long getMessageCount();
+    }
+
+    interface RestaurantRating {
+        int getRestaurantId();
+
+        int getId();
+
+        int getRating();
+
+        String getReviewText();
+
+        LocalDate getDateCreated();
+    }
+
+    interface RatingCount {
+        int getRating();
+
+        long getReviews();
+    }
 }
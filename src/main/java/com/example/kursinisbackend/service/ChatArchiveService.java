@@ -0,0 +1,207 @@
+package com.example.kursinisbackend.service;
+
+import com.example.kursinisbackend.model.ChatTranscript;
+import com.example.kursinisbackend.model.OrderStatus;
+import com.example.kursinisbackend.model.Review;
+import com.example.kursinisbackend.repos.BasicUserRepository;
+import com.example.kursinisbackend.repos.ChatRepo;
+import com.example.kursinisbackend.repos.ChatTranscriptRepo;
+import com.example.kursinisbackend.repos.OrdersRepo;
+import com.example.kursinisbackend.repos.ReviewRepo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Compacts the chats of finished orders: once an order has been COMPLETED or CANCELLED for
+ * chat.archive.after-days, its plain messages are encoded into one ChatTranscript blob
+ * (see TranscriptCodec) and their Review rows are deleted in batches. Ratings stay rows,
+ * the rating listings and averages read them there.
+ * <p>
+ * Reads go through {@link #page}, which merges the transcript with the rows left in the chat.
+ * The ids of archived chats are kept in memory, so reading a live chat costs no extra query.
+ */
+@Service
+public class ChatArchiveService {
+
+    private static final Logger log = LoggerFactory.getLogger(ChatArchiveService.class);
+    private static final List<OrderStatus> FINISHED = List.of(OrderStatus.COMPLETED, OrderStatus.CANCELLED);
+
+    public record CompactionResult(int chats, int messages, long rawBytes, long storedBytes) {
+    }
+
+    @Autowired
+    private ReviewRepo reviewRepo;
+
+    @Autowired
+    private OrdersRepo ordersRepo;
+
+    @Autowired
+    private ChatTranscriptRepo chatTranscriptRepo;
+
+    @Autowired
+    private ChatRepo chatRepo;
+
+    @Autowired
+    private BasicUserRepository basicUserRepository;
+
+    @Autowired
+    private ChatReadTracker chatReadTracker;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${chat.archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${chat.archive.after-days:30}")
+    private int afterDays;
+
+    @Value("${chat.archive.batch-size:100}")
+    private int batchSize;
+
+    @Value("${chat.archive.delete-batch-size:500}")
+    private int deleteBatchSize;
+
+    private final BitSet archived = new BitSet();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadArchivedChats() {
+        List<Integer> chatIds = chatTranscriptRepo.findAllChatIds();
+        synchronized (archived) {
+            chatIds.forEach(archived::set);
+        }
+    }
+
+    public boolean isArchived(int chatId) {
+        synchronized (archived) {
+            return chatId >= 0 && archived.get(chatId);
+        }
+    }
+
+    @Scheduled(cron = "${chat.archive.cron:0 30 3 * * *}")
+    public void scheduledCompaction() {
+        if (enabled) {
+            CompactionResult result = compact(LocalDate.now().minusDays(afterDays));
+            log.info("Archived {} chats ({} messages, {} -> {} bytes)",
+                    result.chats(), result.messages(), result.rawBytes(), result.storedBytes());
+        }
+    }
+
+    /**
+     * Archive every finished chat last updated before the cutoff, one transaction per chat
+     */
+    public CompactionResult compact(LocalDate cutoff) {
+        int chats = 0;
+        int messages = 0;
+        long rawBytes = 0;
+        long storedBytes = 0;
+        List<Integer> chatIds;
+        while (!(chatIds = ordersRepo.findChatIdsToArchive(FINISHED, cutoff, Limit.of(batchSize))).isEmpty()) {
+            for (int chatId : chatIds) {
+                ChatTranscript transcript = transactionTemplate.execute(status -> archive(chatId));
+                chats++;
+                messages += transcript.getMessageCount();
+                rawBytes += transcript.getRawBytes();
+                storedBytes += transcript.getData().length;
+            }
+        }
+        return new CompactionResult(chats, messages, rawBytes, storedBytes);
+    }
+
+    private ChatTranscript archive(int chatId) {
+        List<Review> messages = reviewRepo.findPlainMessages(chatId);
+        List<TranscriptCodec.Entry> entries = new ArrayList<>(messages.size());
+        for (Review message : messages) {
+            entries.add(new TranscriptCodec.Entry(message.getId(),
+                    message.getCommentOwner() != null ? message.getCommentOwner().getId() : 0,
+                    message.getRating(), message.getDateCreated(), message.getReviewText()));
+        }
+        TranscriptCodec.Encoded encoded = TranscriptCodec.encode(entries);
+        int lastMessageId = messages.isEmpty() ? 0 : messages.get(messages.size() - 1).getId();
+        ChatTranscript transcript = chatTranscriptRepo.save(new ChatTranscript(chatId, messages.size(),
+                lastMessageId, encoded.rawBytes(), encoded.data(), LocalDate.now()));
+
+        List<Integer> ids = messages.stream().map(Review::getId).toList();
+        for (int from = 0; from < ids.size(); from += deleteBatchSize) {
+            reviewRepo.deleteAllByIdInBatch(ids.subList(from, Math.min(ids.size(), from + deleteBatchSize)));
+        }
+
+        TransactionHooks.afterCommit(() -> {
+            synchronized (archived) {
+                archived.set(chatId);
+            }
+            // Unread counters were counted over the deleted rows, and the chat is not read live again
+            chatReadTracker.chatRemoved(chatId);
+        });
+        return transcript;
+    }
+
+    /**
+     * Messages of an archived chat in id order: the decoded transcript plus the rows still in Review
+     */
+    public List<Review> messages(int chatId) {
+        List<Review> messages = new ArrayList<>(archivedMessages(chatId));
+        messages.addAll(reviewRepo.findByChat_IdOrderByIdAsc(chatId, Limit.unlimited()));
+        messages.sort(Comparator.comparingInt(Review::getId));
+        return messages;
+    }
+
+    /**
+     * Same paging as the Review keyset queries: after a cursor oldest first, before a cursor
+     * or with only a limit the latest messages, otherwise everything
+     */
+    public List<Review> page(int chatId, Integer after, Integer before, Integer limit) {
+        List<Review> messages = messages(chatId);
+        if (after != null) {
+            List<Review> newer = messages.stream().filter(m -> m.getId() > after).toList();
+            return limit != null ? newer.subList(0, Math.min(limit, newer.size())) : newer;
+        }
+        if (before != null) {
+            messages = messages.stream().filter(m -> m.getId() < before).toList();
+        }
+        if (limit != null) {
+            return messages.subList(Math.max(0, messages.size() - limit), messages.size());
+        }
+        return messages;
+    }
+
+    public long count(int chatId) {
+        int archivedCount = chatTranscriptRepo.findById(chatId).map(ChatTranscript::getMessageCount).orElse(0);
+        return archivedCount + reviewRepo.countByChat_Id(chatId);
+    }
+
+    private List<Review> archivedMessages(int chatId) {
+        ChatTranscript transcript = chatTranscriptRepo.findById(chatId).orElse(null);
+        if (transcript == null) {
+            return List.of();
+        }
+        List<Review> messages = new ArrayList<>(transcript.getMessageCount());
+        for (TranscriptCodec.Entry entry : TranscriptCodec.decode(transcript.getData())) {
+            Review message = new Review();
+            message.setId(entry.id());
+            message.setRating(entry.rating());
+            message.setReviewText(entry.text());
+            message.setDateCreated(entry.dateCreated());
+            message.setChat(chatRepo.getReferenceById(chatId));
+            if (entry.senderId() != 0) {
+                message.setCommentOwner(basicUserRepository.getReferenceById(entry.senderId()));
+            }
+            messages.add(message);
+        }
+        return messages;
+    }
+}
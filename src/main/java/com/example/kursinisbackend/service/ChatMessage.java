@@ -0,0 +1,26 @@
+package com.example.kursinisbackend.service;
+
+import com.example.kursinisbackend.model.Review;
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.time.LocalDate;
+
+/**
+ * Chat message as pushed to WebSocket subscribers. Unlike the Review entity it carries
+ * the sender and order, so clients can render it without another request.
+ */
+public record ChatMessage(
+        int id,
+        int orderId,
+        int chatId,
+        int senderId,
+        String messageText,
+        int rating,
+        @JsonFormat(pattern = "yyyy-MM-dd") LocalDate dateCreated) {
+
+    public static ChatMessage of(int orderId, Review review) {
+        return new ChatMessage(review.getId(), orderId, review.getChat().getId(),
+                review.getCommentOwner() != null ? review.getCommentOwner().getId() : 0,
+                review.getReviewText(), review.getRating(), review.getDateCreated());
+    }
+}
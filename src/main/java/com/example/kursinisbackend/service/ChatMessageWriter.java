@@ -0,0 +1,269 @@
+package com.example.kursinisbackend.service;
+
+import com.example.kursinisbackend.model.Review;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.StatelessSession;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind for chat messages (chat.write-behind.enabled=true).
+ * <p>
+ * Senders only append to a bounded queue and are acknowledged right away. One writer thread
+ * drains it and inserts up to {@code batch-size} messages per multi-row INSERT, at the latest
+ * {@code flush-interval-ms} after the first one arrived, then broadcasts them with their ids.
+ * Ids come from Hibernate's Review id generator (see {@link IdSequences}) before the insert, so
+ * messages written here and reviews saved through JPA keep one ascending id order.
+ * <p>
+ * Durability bound: on a crash at most {@code capacity} + {@code batch-size} acknowledged messages
+ * are lost, and none are older than roughly one flush interval plus one insert unless the queue
+ * was backed up. A normal shutdown drains the queue first. When the queue is full, senders wait up
+ * to {@code offer-timeout-ms} and then get {@link ChatQueueFullException} (HTTP 503).
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "chat.write-behind.enabled", havingValue = "true")
+public class ChatMessageWriter implements SmartLifecycle {
+
+    private static final String INSERT_PREFIX =
+            "INSERT INTO Review (id, rating, reviewText, dateCreated, commentOwner_id, feedbackUser_id, chat_id) VALUES ";
+    private static final String ROW = "(?, ?, ?, ?, ?, ?, ?)";
+
+    private final DataSource dataSource;
+    private final SessionFactoryImplementor sessionFactory;
+    private final IdentifierGenerator reviewIds;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ChatReadTracker chatReadTracker;
+    private final ChatSearchIndex chatSearchIndex;
+    private final BlockingQueue<Pending> queue;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final long offerTimeoutMs;
+    private final Counter written;
+    private final Counter failed;
+    private final Counter rejected;
+
+    private volatile boolean running;
+    private Thread thread;
+
+    public ChatMessageWriter(DataSource dataSource,
+                             EntityManagerFactory entityManagerFactory,
+                             SimpMessagingTemplate messagingTemplate,
+                             ChatReadTracker chatReadTracker,
+                             ChatSearchIndex chatSearchIndex,
+                             MeterRegistry meterRegistry,
+                             @Value("${chat.write-behind.capacity:10000}") int capacity,
+                             @Value("${chat.write-behind.batch-size:200}") int batchSize,
+                             @Value("${chat.write-behind.flush-interval-ms:5}") long flushIntervalMs,
+                             @Value("${chat.write-behind.offer-timeout-ms:100}") long offerTimeoutMs) {
+        this.dataSource = dataSource;
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        this.reviewIds = (IdentifierGenerator) sessionFactory.getMappingMetamodel()
+                .getEntityDescriptor(Review.class).getGenerator();
+        this.messagingTemplate = messagingTemplate;
+        this.chatReadTracker = chatReadTracker;
+        this.chatSearchIndex = chatSearchIndex;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        this.offerTimeoutMs = offerTimeoutMs;
+        Gauge.builder("chat.write_behind.queued", queue, BlockingQueue::size).register(meterRegistry);
+        this.written = meterRegistry.counter("chat.write_behind.messages", "result", "written");
+        this.failed = meterRegistry.counter("chat.write_behind.messages", "result", "failed");
+        this.rejected = meterRegistry.counter("chat.write_behind.messages", "result", "rejected");
+    }
+
+    /**
+     * Queue the message for the next batch, waiting while the queue is full
+     */
+    public void append(int orderId, Review review) {
+        Pending pending = new Pending(orderId, review.getChat().getId(),
+                review.getCommentOwner() != null ? review.getCommentOwner().getId() : null,
+                review.getFeedbackUser() != null ? review.getFeedbackUser().getId() : null,
+                review.getRating(), review.getReviewText(),
+                review.getDateCreated() != null ? review.getDateCreated() : LocalDate.now());
+        boolean accepted;
+        try {
+            accepted = running && queue.offer(pending, offerTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            accepted = false;
+        }
+        if (!accepted) {
+            rejected.increment();
+            throw new ChatQueueFullException("Chat is busy, try again");
+        }
+    }
+
+    public int queued() {
+        return queue.size();
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        thread = new Thread(this::run, "chat-write-behind");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!queue.isEmpty()) {
+            log.error("Chat write-behind stopped with {} unwritten messages", queue.size());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Stop after the web server (no new messages) but before the broker and the data source
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 1024;
+    }
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                while (batch.size() < batchSize) {
+                    if (queue.drainTo(batch, batchSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    Pending next = remaining > 0 && running ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } catch (RuntimeException e) {
+                log.error("Chat write-behind batch failed", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<Pending> batch) {
+        List<ChatMessage> saved;
+        try {
+            saved = insert(batch);
+        } catch (SQLException e) {
+            // One bad row (e.g. its chat was deleted meanwhile) must not drop the whole batch
+            log.warn("Chat write-behind batch of {} failed, retrying row by row: {}", batch.size(), e.getMessage());
+            saved = new ArrayList<>(batch.size());
+            for (Pending pending : batch) {
+                try {
+                    saved.addAll(insert(List.of(pending)));
+                } catch (SQLException rowError) {
+                    failed.increment();
+                    log.error("Dropping chat message for order {}: {}", pending.orderId(), rowError.getMessage());
+                }
+            }
+        }
+        written.increment(saved.size());
+        for (ChatMessage message : saved) {
+            chatReadTracker.messageAdded(message.chatId(), message.id(), message.senderId());
+            chatSearchIndex.added(message.id(), message.chatId(), message.messageText());
+            messagingTemplate.convertAndSend(ChatService.topic(message.orderId()), message);
+        }
+    }
+
+    private List<ChatMessage> insert(List<Pending> rows) throws SQLException {
+        StringBuilder sql = new StringBuilder(INSERT_PREFIX.length() + rows.size() * (ROW.length() + 2))
+                .append(INSERT_PREFIX);
+        for (int i = 0; i < rows.size(); i++) {
+            sql.append(i == 0 ? "" : ", ").append(ROW);
+        }
+
+        int[] ids = new int[rows.size()];
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = (Integer) reviewIds.generate((SharedSessionContractImplementor) session, null);
+            }
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(true);
+            try (PreparedStatement statement = connection.prepareStatement(sql.toString())) {
+                int index = 1;
+                for (int i = 0; i < rows.size(); i++) {
+                    Pending row = rows.get(i);
+                    statement.setInt(index++, ids[i]);
+                    statement.setInt(index++, row.rating());
+                    statement.setString(index++, row.messageText());
+                    statement.setDate(index++, Date.valueOf(row.dateCreated()));
+                    setNullableInt(statement, index++, row.senderId());
+                    setNullableInt(statement, index++, row.feedbackUserId());
+                    statement.setInt(index++, row.chatId());
+                }
+                statement.executeUpdate();
+
+                List<ChatMessage> saved = new ArrayList<>(rows.size());
+                for (int i = 0; i < rows.size(); i++) {
+                    saved.add(rows.get(i).toMessage(ids[i]));
+                }
+                return saved;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        }
+    }
+
+    private static void setNullableInt(PreparedStatement statement, int index, Integer value) throws SQLException {
+        if (value != null) {
+            statement.setInt(index, value);
+        } else {
+            statement.setNull(index, Types.INTEGER);
+        }
+    }
+
+    private record Pending(int orderId, int chatId, Integer senderId, Integer feedbackUserId,
+                           int rating, String messageText, LocalDate dateCreated) {
+
+        ChatMessage toMessage(int id) {
+            return new ChatMessage(id, orderId, chatId, senderId != null ? senderId : 0, messageText, rating, dateCreated);
+        }
+    }
+}
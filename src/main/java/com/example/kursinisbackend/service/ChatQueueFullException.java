@@ -0,0 +1,17 @@
+package com.example.kursinisbackend.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * The write-behind queue stayed full for the whole offer timeout; the client should retry later
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class ChatQueueFullException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+
+    public ChatQueueFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,257 @@
+package com.example.kursinisbackend.service;
+
+import com.example.kursinisbackend.model.ChatRead;
+import com.example.kursinisbackend.repos.ChatReadRepo;
+import com.example.kursinisbackend.repos.ReviewRepo;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Read receipts and unread counts kept in memory.
+ * <p>
+ * Per chat: latest message id and message count, loaded on first use with one grouped query and
+ * then kept current by {@link #messageAdded}. Per (chat, user): the last read message id and the
+ * chat's message count at that point. Unread = message count - read count, so answering it never
+ * touches the messages. Read pointers are written to the ChatRead table every
+ * chat.read-receipts.flush-interval-ms and on shutdown; a crash loses at most that much read state.
+ * Deleting a message drops the chat's counters; until the user reads again their count can be one low.
+ * <p>
+ * Counters are kept for at most chat.read-receipts.max-chats chats and read pointers for at most
+ * chat.read-receipts.max-users users; the least recently used are dropped and loaded again on their
+ * next use. Pointers not yet written stay pending until the flush, so dropping them loses nothing.
+ * Archived and deleted chats are dropped at once.
+ */
+@Slf4j
+@Service
+public class ChatReadTracker {
+
+    @Autowired
+    private ReviewRepo reviewRepo;
+
+    @Autowired
+    private ChatReadRepo chatReadRepo;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Value("${chat.read-receipts.max-chats:10000}")
+    private int maxChats;
+
+    @Value("${chat.read-receipts.max-users:10000}")
+    private int maxUsers;
+
+    // Access ordered and bounded; one lock per map, held only for the lookup or update itself
+    private Map<Integer, ChatCounter> counters;
+    // User id -> chat id -> pointer, holding every ChatRead row of the user plus newer pointers
+    private Map<Integer, Map<Integer, ReadPointer>> reads;
+    // Pointers changed since the last flush, by chat and user
+    private final Map<Long, ReadPointer> pending = new ConcurrentHashMap<>();
+
+    public record ChatCounter(int latestMessageId, int messageCount) {
+        ChatCounter add(int messageId) {
+            return new ChatCounter(Math.max(latestMessageId, messageId), messageCount + 1);
+        }
+    }
+
+    public record ReadPointer(int lastReadMessageId, int readCount) {
+    }
+
+    @PostConstruct
+    void createCaches() {
+        counters = Collections.synchronizedMap(new LeastRecentlyUsed<>(maxChats));
+        reads = Collections.synchronizedMap(new LeastRecentlyUsed<>(maxUsers));
+    }
+
+    /**
+     * A message was stored; its sender has read the chat up to it
+     */
+    public void messageAdded(int chatId, int messageId, int senderId) {
+        ChatCounter counter = counters.computeIfPresent(chatId, (id, current) -> current.add(messageId));
+        if (counter == null) {
+            // First message since startup: the loaded counter already includes it
+            counter = counters(List.of(chatId)).get(chatId);
+        }
+        if (senderId > 0 && counter.latestMessageId() == messageId) {
+            advance(chatId, senderId, new ReadPointer(messageId, counter.messageCount()));
+        }
+    }
+
+    public void messageDeleted(int chatId) {
+        counters.remove(chatId);
+    }
+
+    /**
+     * The chat was archived or deleted: drop its counter and read pointers. Pending pointers are
+     * still written by the next flush.
+     */
+    public void chatRemoved(int chatId) {
+        counters.remove(chatId);
+        synchronized (reads) {
+            for (Map<Integer, ReadPointer> userReads : reads.values()) {
+                userReads.remove(chatId);
+            }
+        }
+    }
+
+    /**
+     * Mark the chat read up to the given message, or up to the latest one when null.
+     * Pointers only move forward.
+     */
+    public ReadPointer markRead(int chatId, int userId, Integer messageId) {
+        userReads(userId);
+        ChatCounter counter = counters(List.of(chatId)).get(chatId);
+        int target = messageId == null ? counter.latestMessageId() : Math.min(messageId, counter.latestMessageId());
+        int readCount = target == counter.latestMessageId()
+                ? counter.messageCount()
+                : (int) reviewRepo.countByChat_IdAndIdLessThanEqual(chatId, target);
+        return advance(chatId, userId, new ReadPointer(target, readCount));
+    }
+
+    /**
+     * Unread messages per chat for the user
+     */
+    public Map<Integer, Integer> unreadCounts(int userId, Collection<Integer> chatIds) {
+        Map<Integer, ReadPointer> userReads = userReads(userId);
+        Map<Integer, ChatCounter> chatCounters = counters(chatIds);
+        Map<Integer, Integer> unread = new HashMap<>();
+        for (int chatId : chatIds) {
+            ReadPointer pointer = userReads.get(chatId);
+            int readCount = pointer != null ? pointer.readCount() : 0;
+            unread.put(chatId, Math.max(0, chatCounters.get(chatId).messageCount() - readCount));
+        }
+        return unread;
+    }
+
+    /**
+     * Write changed read pointers in one batch of upserts
+     */
+    @Scheduled(fixedDelayString = "${chat.read-receipts.flush-interval-ms:5000}")
+    public void flush() {
+        Map<Long, ReadPointer> batch = new HashMap<>(pending);
+        if (batch.isEmpty()) {
+            return;
+        }
+        try (StatelessSession session = entityManagerFactory.unwrap(SessionFactory.class).openStatelessSession()) {
+            session.setJdbcBatchSize(batch.size());
+            Transaction transaction = session.beginTransaction();
+            batch.forEach((key, pointer) -> session.upsert(
+                    new ChatRead((int) (key >>> 32), key.intValue(), pointer.lastReadMessageId(), pointer.readCount())));
+            transaction.commit();
+        } catch (RuntimeException e) {
+            log.warn("Flushing {} read pointers failed, retrying on the next flush: {}", batch.size(), e.getMessage());
+            return;
+        }
+        // Removed only once written, and only if not advanced meanwhile, so a reload never misses a pointer
+        batch.forEach(pending::remove);
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    // For tests: which chats and users are held in memory
+    Set<Integer> cachedChats() {
+        synchronized (counters) {
+            return new HashSet<>(counters.keySet());
+        }
+    }
+
+    Set<Integer> cachedUsers() {
+        synchronized (reads) {
+            return new HashSet<>(reads.keySet());
+        }
+    }
+
+    private ReadPointer advance(int chatId, int userId, ReadPointer pointer) {
+        // A user not in memory only gets the pending pointer, merged in when they are loaded
+        Map<Integer, ReadPointer> userReads = reads.get(userId);
+        ReadPointer current = userReads != null ? userReads.merge(chatId, pointer, ChatReadTracker::newer) : pointer;
+        if (current == pointer) {
+            pending.merge(key(chatId, userId), pointer, ChatReadTracker::newer);
+        }
+        return current;
+    }
+
+    private Map<Integer, ReadPointer> userReads(int userId) {
+        Map<Integer, ReadPointer> userReads = reads.get(userId);
+        if (userReads != null) {
+            return userReads;
+        }
+        Map<Integer, ReadPointer> loaded = new ConcurrentHashMap<>();
+        for (ChatRead read : chatReadRepo.findByUserId(userId)) {
+            loaded.put(read.getChatId(), new ReadPointer(read.getLastReadMessageId(), read.getReadCount()));
+        }
+        // Another thread may have loaded the user first
+        userReads = reads.merge(userId, loaded, (current, ignored) -> current);
+        // After the map is in place, so pointers advanced meanwhile are in one or the other
+        for (Map.Entry<Long, ReadPointer> entry : pending.entrySet()) {
+            if (entry.getKey().intValue() == userId) {
+                userReads.merge((int) (entry.getKey() >>> 32), entry.getValue(), ChatReadTracker::newer);
+            }
+        }
+        return userReads;
+    }
+
+    private Map<Integer, ChatCounter> counters(Collection<Integer> chatIds) {
+        Map<Integer, ChatCounter> result = new HashMap<>();
+        List<Integer> missing = new ArrayList<>();
+        for (int chatId : chatIds) {
+            ChatCounter counter = counters.get(chatId);
+            if (counter != null) {
+                result.put(chatId, counter);
+            } else {
+                missing.add(chatId);
+            }
+        }
+        if (!missing.isEmpty()) {
+            Map<Integer, ChatCounter> loaded = new HashMap<>();
+            for (ReviewRepo.ChatStats stats : reviewRepo.findChatStats(missing)) {
+                loaded.put(stats.getChatId(), new ChatCounter(stats.getLatestMessageId(), (int) stats.getMessageCount()));
+            }
+            for (int chatId : missing) {
+                result.put(chatId, counters.computeIfAbsent(chatId, id -> loaded.getOrDefault(id, new ChatCounter(0, 0))));
+            }
+        }
+        return result;
+    }
+
+    private static ReadPointer newer(ReadPointer current, ReadPointer candidate) {
+        return candidate.lastReadMessageId() > current.lastReadMessageId() ? candidate : current;
+    }
+
+    private static long key(int chatId, int userId) {
+        return ((long) chatId << 32) | (userId & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Drops the least recently read or written entry once it holds more than maxEntries
+     */
+    private static class LeastRecentlyUsed<K, V> extends LinkedHashMap<K, V> {
+        private static final long serialVersionUID = 1L;
+
+        private final int maxEntries;
+
+        LeastRecentlyUsed(int maxEntries) {
+            super(16, 0.75f, true);
+            this.maxEntries = maxEntries;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+            return size() > maxEntries;
+        }
+    }
+}
@@ -0,0 +1,351 @@
+package com.example.kursinisbackend.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over chat message text: lower-cased words -> posting list of message ids
+ * (see PostingList), plus message id -> chat id. Rebuilt from Review and the archived transcripts on
+ * startup, then kept current by the code paths that write messages ({@link #added}, {@link #removed}).
+ * <p>
+ * A query matches the messages that contain all of its words.
+ */
+@Service
+public class ChatSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ChatSearchIndex.class);
+    private static final int MIN_TERM_LENGTH = 2;
+    private static final int MAX_TERM_LENGTH = 40;
+    private static final int CHAT_PAGE_BITS = 16;
+
+    public record Hit(int messageId, int chatId) {
+    }
+
+    public record Result(List<String> terms, int total, List<Hit> hits) {
+    }
+
+    private record Change(boolean add, int messageId, int chatId, String text) {
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Index index = new Index();
+    private volatile boolean ready;
+    // Changes made while a rebuild reads the database, replayed onto the rebuilt index
+    private List<Change> pending;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildInBackground() {
+        Thread thread = new Thread(this::rebuild, "chat-search-index");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Index every message in Review and in the archived transcripts
+     */
+    public synchronized void rebuild() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            pending = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Builder builder = new Builder();
+        jdbcTemplate.query(con -> {
+            var statement = con.prepareStatement("SELECT id, chat_id, reviewText FROM Review WHERE chat_id IS NOT NULL");
+            statement.setFetchSize(10_000);
+            return statement;
+        }, rs -> {
+            builder.add(rs.getInt(1), rs.getInt(2), rs.getString(3));
+        });
+        jdbcTemplate.query("SELECT chatId, data FROM ChatTranscript", rs -> {
+            int chatId = rs.getInt(1);
+            for (TranscriptCodec.Entry entry : TranscriptCodec.decode(rs.getBytes(2))) {
+                builder.add(entry.id(), chatId, entry.text());
+            }
+        });
+        Index rebuilt = builder.build();
+
+        lock.writeLock().lock();
+        try {
+            for (Change change : pending) {
+                if (change.add()) {
+                    rebuilt.add(change.messageId(), change.chatId(), change.text());
+                } else {
+                    rebuilt.remove(change.messageId(), change.text());
+                }
+            }
+            pending = null;
+            index = rebuilt;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Chat search index: {} messages, {} terms, ~{} KB, built in {} ms", rebuilt.messages,
+                rebuilt.terms.size(), footprintBytes() / 1024, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * A message was stored (or its new text, after {@link #removed} with the old one)
+     */
+    public void added(int messageId, int chatId, String text) {
+        lock.writeLock().lock();
+        try {
+            index.add(messageId, chatId, text);
+            if (pending != null) {
+                pending.add(new Change(true, messageId, chatId, text));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * A message was deleted or is about to be edited; text is what was indexed for it
+     */
+    public void removed(int messageId, String text) {
+        lock.writeLock().lock();
+        try {
+            index.remove(messageId, text);
+            if (pending != null) {
+                pending.add(new Change(false, messageId, 0, text));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Messages containing every word of the query, newest first
+     */
+    public Result search(String query, int limit) {
+        if (!ready) {
+            throw new IllegalStateException("Search index is still loading");
+        }
+        List<String> terms = new ArrayList<>(tokenize(query));
+        if (terms.isEmpty()) {
+            throw new IllegalArgumentException("Query has no searchable words");
+        }
+        lock.readLock().lock();
+        try {
+            List<PostingList> lists = new ArrayList<>(terms.size());
+            for (String term : terms) {
+                PostingList list = index.terms.get(term);
+                if (list == null || list.isEmpty()) {
+                    return new Result(terms, 0, List.of());
+                }
+                lists.add(list);
+            }
+            // Intersect from the rarest word: its ids are the candidates, the other lists are
+            // advanced to each candidate (skipping by block), and a miss moves the candidate forward
+            lists.sort(Comparator.comparingInt(PostingList::size));
+            int[] matches;
+            int size;
+            if (lists.size() == 1) {
+                matches = lists.get(0).newest(limit);
+                size = matches.length;
+            } else {
+                PostingList.Cursor[] cursors = new PostingList.Cursor[lists.size()];
+                for (int i = 0; i < cursors.length; i++) {
+                    cursors[i] = lists.get(i).cursor();
+                }
+                matches = new int[Math.min(lists.get(0).size(), 1024)];
+                size = 0;
+                int candidate = cursors[0].next();
+                while (candidate != PostingList.NO_MORE) {
+                    int found = candidate;
+                    for (int i = 1; i < cursors.length && found == candidate; i++) {
+                        found = cursors[i].advance(candidate);
+                    }
+                    if (found == candidate) {
+                        if (size == matches.length) {
+                            matches = Arrays.copyOf(matches, size * 2);
+                        }
+                        matches[size++] = candidate;
+                        candidate = cursors[0].next();
+                    } else {
+                        candidate = cursors[0].advance(found);
+                    }
+                }
+            }
+
+            List<Hit> hits = new ArrayList<>(Math.min(limit, size));
+            for (int j = size - 1; j >= 0 && hits.size() < limit; j--) {
+                hits.add(new Hit(matches[j], index.chatOf(matches[j])));
+            }
+            return new Result(terms, lists.size() == 1 ? lists.get(0).size() : size, hits);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // Benchmarks fill the index through added(), without a database to rebuild from
+    void markReady() {
+        ready = true;
+    }
+
+    public long footprintBytes() {
+        lock.readLock().lock();
+        try {
+            return index.footprintBytes();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Distinct lower-cased runs of letters and digits, 2 to 40 characters long
+     */
+    static Set<String> tokenize(String text) {
+        Set<String> terms = new LinkedHashSet<>();
+        if (text == null) {
+            return terms;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean word = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (word && start < 0) {
+                start = i;
+            } else if (!word && start >= 0) {
+                if (i - start >= MIN_TERM_LENGTH && i - start <= MAX_TERM_LENGTH) {
+                    terms.add(lower.substring(start, i));
+                }
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    private static final class Index {
+        final Map<String, PostingList> terms = new HashMap<>();
+        // Chat id by message id, pages of 64K ids allocated on first use
+        int[][] chatPages = new int[0][];
+        long messages;
+
+        void add(int messageId, int chatId, String text) {
+            boolean added = false;
+            for (String term : tokenize(text)) {
+                added |= terms.computeIfAbsent(term, t -> new PostingList()).add(messageId);
+            }
+            if (added) {
+                messages++;
+            }
+            setChat(messageId, chatId);
+        }
+
+        void remove(int messageId, String text) {
+            boolean removed = false;
+            for (String term : tokenize(text)) {
+                PostingList list = terms.get(term);
+                if (list != null && list.remove(messageId)) {
+                    removed = true;
+                    if (list.isEmpty()) {
+                        terms.remove(term);
+                    }
+                }
+            }
+            if (removed) {
+                messages--;
+            }
+        }
+
+        void setChat(int messageId, int chatId) {
+            if (messageId < 0) {
+                return;
+            }
+            int page = messageId >>> CHAT_PAGE_BITS;
+            if (page >= chatPages.length) {
+                chatPages = Arrays.copyOf(chatPages, Math.max(page + 1, chatPages.length * 2));
+            }
+            if (chatPages[page] == null) {
+                chatPages[page] = new int[1 << CHAT_PAGE_BITS];
+            }
+            chatPages[page][messageId & ((1 << CHAT_PAGE_BITS) - 1)] = chatId;
+        }
+
+        int chatOf(int messageId) {
+            int page = messageId >>> CHAT_PAGE_BITS;
+            return page < chatPages.length && chatPages[page] != null
+                    ? chatPages[page][messageId & ((1 << CHAT_PAGE_BITS) - 1)] : 0;
+        }
+
+        long footprintBytes() {
+            long bytes = 0;
+            for (Map.Entry<String, PostingList> entry : terms.entrySet()) {
+                bytes += 64 + 2L * entry.getKey().length() + entry.getValue().footprintBytes();
+            }
+            for (int[] page : chatPages) {
+                bytes += 8 + (page != null ? 4L * page.length : 0);
+            }
+            return bytes;
+        }
+    }
+
+    /**
+     * Collects unsorted ids per term during a rebuild; build() sorts and encodes them once
+     */
+    private static final class Builder {
+        private final Map<String, Ids> ids = new HashMap<>();
+        private final Index index = new Index();
+
+        void add(int messageId, int chatId, String text) {
+            Set<String> words = tokenize(text);
+            for (String term : words) {
+                ids.computeIfAbsent(term, t -> new Ids()).add(messageId);
+            }
+            if (!words.isEmpty()) {
+                index.messages++;
+            }
+            index.setChat(messageId, chatId);
+        }
+
+        Index build() {
+            for (Map.Entry<String, Ids> entry : ids.entrySet()) {
+                Ids termIds = entry.getValue();
+                Arrays.sort(termIds.values, 0, termIds.size);
+                index.terms.put(entry.getKey(), PostingList.of(termIds.values, termIds.size));
+            }
+            ids.clear();
+            return index;
+        }
+    }
+
+    private static final class Ids {
+        int[] values = new int[4];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+}
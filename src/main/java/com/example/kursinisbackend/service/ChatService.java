@@ -0,0 +1,141 @@
+package com.example.kursinisbackend.service;
+
+import com.example.kursinisbackend.model.Chat;
+import com.example.kursinisbackend.model.FoodOrder;
+import com.example.kursinisbackend.model.Review;
+import com.example.kursinisbackend.repos.ChatRepo;
+import com.example.kursinisbackend.repos.ReviewRepo;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Order chat messages: persisted through ReviewRepo, then pushed to the order's topic.
+ * REST and WebSocket senders both go through here, so every subscriber sees every message.
+ * With chat.write-behind.enabled the insert is handed to {@link ChatMessageWriter} instead.
+ * Every other message write and delete (the review endpoints, chats without an order) goes
+ * through here too, so unread counters and the search index never miss one.
+ */
+@Service
+public class ChatService {
+
+    public static final int MAX_HISTORY = 200;
+
+    @Autowired
+    private ReviewRepo reviewRepo;
+
+    @Autowired
+    private ChatRepo chatRepo;
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private ChatReadTracker chatReadTracker;
+
+    @Autowired
+    private ChatArchiveService chatArchiveService;
+
+    @Autowired
+    private ChatSearchIndex chatSearchIndex;
+
+    @Autowired
+    private RatingService ratingService;
+
+    @Autowired(required = false)
+    private ChatMessageWriter writer;
+
+    public static String topic(int orderId) {
+        return "/topic/orders/" + orderId + "/chat";
+    }
+
+    /**
+     * Save the message and broadcast it to the order's subscribers.
+     * Inside a transaction the broadcast waits for the commit, so clients never see a rolled back message.
+     * In write-behind mode plain messages are only queued: the result has no id yet (0) and the
+     * broadcast follows the batch insert. Ratings are always saved right away, with their aggregates.
+     */
+    public ChatMessage send(int orderId, Review review) {
+        if (writer != null && review.getRating() == 0) {
+            writer.append(orderId, review);
+            return ChatMessage.of(orderId, review);
+        }
+        ratingService.save(review);
+        ChatMessage message = ChatMessage.of(orderId, review);
+        TransactionHooks.afterCommit(() -> published(message));
+        return message;
+    }
+
+    /**
+     * Save the message now, also in write-behind mode, and broadcast it if its chat belongs to an order
+     */
+    public ChatMessage save(Review review) {
+        ratingService.save(review);
+        FoodOrder order = review.getChat().getFoodOrder();
+        ChatMessage message = ChatMessage.of(order != null ? order.getId() : 0, review);
+        TransactionHooks.afterCommit(() -> published(message));
+        return message;
+    }
+
+    /**
+     * Save an edit of a stored message: new text, and a new rating unless {@code rating} is null
+     */
+    public Review edit(Review review, String previousText, Integer rating) {
+        if (rating != null) {
+            ratingService.rate(review, rating);
+        } else {
+            ratingService.update(review);
+        }
+        if (review.getChat() != null) {
+            int chatId = review.getChat().getId();
+            TransactionHooks.afterCommit(() -> {
+                chatSearchIndex.removed(review.getId(), previousText);
+                chatSearchIndex.added(review.getId(), chatId, review.getReviewText());
+            });
+        }
+        return review;
+    }
+
+    public void delete(Review review) {
+        ratingService.delete(review);
+        Integer chatId = review.getChat() != null ? review.getChat().getId() : null;
+        TransactionHooks.afterCommit(() -> {
+            if (chatId != null) {
+                chatReadTracker.messageDeleted(chatId);
+            }
+            chatSearchIndex.removed(review.getId(), review.getReviewText());
+        });
+    }
+
+    /**
+     * A message is stored: count it, index it and push it to the order's subscribers (if any)
+     */
+    void published(ChatMessage message) {
+        chatReadTracker.messageAdded(message.chatId(), message.id(), message.senderId());
+        chatSearchIndex.added(message.id(), message.chatId(), message.messageText());
+        if (message.orderId() != 0) {
+            messagingTemplate.convertAndSend(topic(message.orderId()), message);
+        }
+    }
+
+    /**
+     * Messages of the order's chat after the given id, oldest first; a reconnecting client passes
+     * the last id it received. Capped at {@link #MAX_HISTORY}, the client asks again from the last id.
+     */
+    public List<ChatMessage> history(int orderId, int afterId, int limit) throws Exception {
+        Chat chat = chatRepo.getChatByFoodOrder_Id(orderId);
+        if (chat == null) {
+            throw new Exception("Chat not found");
+        }
+        int pageSize = Math.max(1, Math.min(limit, MAX_HISTORY));
+        List<Review> messages = chatArchiveService.isArchived(chat.getId())
+                ? chatArchiveService.page(chat.getId(), afterId, null, pageSize)
+                : reviewRepo.findByChat_IdAndIdGreaterThanOrderByIdAsc(chat.getId(), afterId, Limit.of(pageSize));
+        return messages.stream()
+                .map(review -> ChatMessage.of(orderId, review))
+                .toList();
+    }
+}
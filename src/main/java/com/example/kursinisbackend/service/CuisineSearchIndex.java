@@ -0,0 +1,570 @@
+package com.example.kursinisbackend.service;
+
+import com.example.kursinisbackend.model.Cuisine;
+import com.example.kursinisbackend.repos.CuisineRepo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+
+/**
+ * In-memory trigram index over cuisine names and ingredients, for search and autocomplete.
+ * <p>
+ * Text is folded to lower case without accents ("Kibinai su šonine" -> "kibinai su sonine") and
+ * split into words. Every word, padded with a space on both sides, adds its trigrams to a posting
+ * list of slots; names also go into a sorted word map for one- and two-letter prefixes. Each
+ * cuisine gets a new slot when indexed, so appending keeps every posting list sorted. Updates and
+ * deletes leave dead slots behind, and the index is compacted once a quarter of them are dead.
+ * <p>
+ * Exact matches intersect the trigrams inside the query words and check the text. Ranked:
+ * same name, name prefix, word prefix, anywhere in the name, in the ingredients. When that finds
+ * fewer than the limit, names sharing at least half of the query's padded trigrams are added
+ * after them, so "cepelinia" still finds "Cepelinai".
+ * <p>
+ * Built on startup and kept current by the cuisine endpoints after each commit.
+ */
+@Slf4j
+@Service
+public class CuisineSearchIndex {
+
+    static final double MIN_SIMILARITY = 0.5;
+    private static final int SAME_NAME = 100;
+    private static final int NAME_PREFIX = 90;
+    private static final int WORD_PREFIX = 80;
+    private static final int IN_NAME = 70;
+    private static final int IN_INGREDIENTS = 50;
+    private static final int FUZZY = 40;
+
+    @Autowired
+    private CuisineRepo cuisineRepo;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Per slot; a null name marks a dead slot
+    private int[] ids = new int[1024];
+    private String[] names = new String[1024];
+    private String[] foldedNames = new String[1024];
+    private String[] foldedIngredients = new String[1024];
+    private int size;
+    private int dead;
+    private final Map<Integer, Integer> slotById = new HashMap<>();
+    private final Map<Long, Slots> nameGrams = new HashMap<>();
+    private final Map<Long, Slots> ingredientGrams = new HashMap<>();
+    private final TreeMap<String, Slots> nameWords = new TreeMap<>();
+    // Live items per folded name, for suggestion popularity
+    private final Map<String, Integer> nameCounts = new HashMap<>();
+    // Shared-trigram counts of fuzzy(), per reading thread; all zero between queries
+    private final ThreadLocal<int[]> sharedCounts = ThreadLocal.withInitial(() -> new int[0]);
+    private volatile boolean ready;
+
+    public record Hit(int cuisineId, String name, int score) {
+    }
+
+    public record Suggestion(String name, int items) {
+    }
+
+    // Receives each matching live slot once, with its score
+    private interface Sink {
+        void accept(int slot, int score);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            clear();
+            for (CuisineRepo.CuisineText cuisine : cuisineRepo.findAllText()) {
+                add(cuisine.getId(), cuisine.getName(), cuisine.getIngredients());
+            }
+            ready = true;
+            log.info("Cuisine search index built: {} items, {} name trigrams", size, nameGrams.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * The cuisine was created or changed; applied after the surrounding transaction commits
+     */
+    public void put(Cuisine cuisine) {
+        int id = cuisine.getId();
+        String name = cuisine.getName();
+        String ingredients = cuisine.getIngredients();
+        TransactionHooks.afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                remove(id);
+                add(id, name, ingredients);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public void putAll(Collection<Cuisine> cuisines) {
+        cuisines.forEach(this::put);
+    }
+
+    public void removed(int cuisineId) {
+        TransactionHooks.afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                remove(cuisineId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Best matches of the query in names and ingredients, best first
+     */
+    public List<Hit> search(String query, int limit) {
+        lock.readLock().lock();
+        try {
+            TopK best = new TopK(Math.min(limit, size));
+            match(folded(query), limit, false, (slot, score) -> {
+                // Higher score, then shorter name, then lower id
+                long key = ((long) score << 47) | (0xFFFFL - Math.min(foldedNames[slot].length(), 0xFFFF)) << 31
+                        | (Integer.MAX_VALUE - ids[slot]);
+                if (best.admits(key)) {
+                    best.offer(key, slot);
+                }
+            });
+            List<Hit> hits = new ArrayList<>();
+            for (int i : best.bestFirst()) {
+                int slot = best.slots[i];
+                hits.add(new Hit(ids[slot], names[slot], (int) (best.keys[i] >>> 47)));
+            }
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Distinct dish names for a typed prefix, best first; names on more menus rank higher among equals
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        lock.readLock().lock();
+        try {
+            TopK best = new TopK(Math.min(limit, size));
+            // Items with the same folded name score alike, so one slot stands for all of them
+            Set<String> chosen = new HashSet<>();
+            match(folded(prefix), limit, true, (slot, score) -> {
+                String name = foldedNames[slot];
+                long key = ((long) score << 47) | (long) Math.min(nameCounts.get(name), 0xFFFF) << 31
+                        | (0xFFFFL - Math.min(name.length(), 0xFFFF));
+                if (best.admits(key) && chosen.add(name)) {
+                    int evicted = best.offer(key, slot);
+                    if (evicted >= 0) {
+                        chosen.remove(foldedNames[evicted]);
+                    }
+                }
+            });
+            List<Suggestion> suggestions = new ArrayList<>();
+            for (int i : best.bestFirst()) {
+                int slot = best.slots[i];
+                suggestions.add(new Suggestion(names[slot], nameCounts.get(foldedNames[slot])));
+            }
+            return suggestions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    int deadSlots() {
+        lock.readLock().lock();
+        try {
+            return dead;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void match(String query, int limit, boolean namesOnly, Sink sink) {
+        if (!ready) {
+            throw new IllegalStateException("Cuisine search index is still loading");
+        }
+        if (query.isEmpty()) {
+            throw new IllegalArgumentException("Query has no letters or digits");
+        }
+        BitSet matched = new BitSet(size);
+        int found = 0;
+        String[] words = query.split(" ");
+        long[] inner = innerGrams(words);
+        if (inner.length == 0) {
+            // Only one- and two-letter words: names with a word starting with the last one
+            String last = words[words.length - 1];
+            for (Slots slots : nameWords.subMap(last, last + Character.MAX_VALUE).values()) {
+                for (int i = 0; i < slots.size; i++) {
+                    found += collect(slots.items[i], query, namesOnly, matched, sink);
+                }
+            }
+        } else {
+            found += intersect(nameGrams, inner, query, namesOnly, matched, sink);
+            if (!namesOnly) {
+                found += intersect(ingredientGrams, inner, query, false, matched, sink);
+            }
+        }
+        if (found < limit) {
+            fuzzy(paddedGrams(words), matched, sink);
+        }
+    }
+
+    private int intersect(Map<Long, Slots> index, long[] grams, String query, boolean namesOnly,
+                          BitSet matched, Sink sink) {
+        Slots[] lists = new Slots[grams.length];
+        for (int i = 0; i < grams.length; i++) {
+            lists[i] = index.get(grams[i]);
+            if (lists[i] == null) {
+                return 0;
+            }
+        }
+        Arrays.sort(lists, Comparator.comparingInt(slots -> slots.size));
+        int[] positions = new int[lists.length];
+        Slots rarest = lists[0];
+        int found = 0;
+        candidates:
+        for (int i = 0; i < rarest.size; i++) {
+            int slot = rarest.items[i];
+            for (int list = 1; list < lists.length; list++) {
+                int position = lists[list].seek(slot, positions[list]);
+                positions[list] = position;
+                if (position == lists[list].size) {
+                    break candidates;
+                }
+                if (lists[list].items[position] != slot) {
+                    continue candidates;
+                }
+            }
+            found += collect(slot, query, namesOnly, matched, sink);
+        }
+        return found;
+    }
+
+    private int collect(int slot, String query, boolean namesOnly, BitSet matched, Sink sink) {
+        if (names[slot] == null || matched.get(slot)) {
+            return 0;
+        }
+        int score = score(slot, query, namesOnly);
+        if (score == 0) {
+            return 0;
+        }
+        matched.set(slot);
+        sink.accept(slot, score);
+        return 1;
+    }
+
+    private int score(int slot, String query, boolean namesOnly) {
+        String name = foldedNames[slot];
+        if (name.equals(query)) {
+            return SAME_NAME;
+        }
+        if (name.startsWith(query)) {
+            return NAME_PREFIX;
+        }
+        int at = name.indexOf(query);
+        if (at > 0) {
+            return name.charAt(at - 1) == ' ' || name.contains(" " + query) ? WORD_PREFIX : IN_NAME;
+        }
+        if (!namesOnly && foldedIngredients[slot].contains(query)) {
+            return IN_INGREDIENTS;
+        }
+        return 0;
+    }
+
+    /**
+     * Names sharing enough padded trigrams with the query; scored below every exact match.
+     * A name sharing {@code needed} of the query's lists is in at least one of the shortest
+     * {@code lists - needed + 1}: only those start candidates, the longer lists just add to their counts.
+     */
+    private void fuzzy(long[] grams, BitSet matched, Sink sink) {
+        if (grams.length < 2) {
+            return;
+        }
+        int needed = (int) Math.ceil(grams.length * MIN_SIMILARITY);
+        List<Slots> lists = new ArrayList<>();
+        for (long gram : grams) {
+            Slots slots = nameGrams.get(gram);
+            if (slots != null) {
+                lists.add(slots);
+            }
+        }
+        if (lists.size() < needed) {
+            return;
+        }
+        lists.sort(Comparator.comparingInt(slots -> slots.size));
+        int scanned = lists.size() - needed + 1;
+        int[] shared = sharedCounts.get();
+        if (shared.length < size) {
+            shared = new int[Math.max(size, shared.length * 2)];
+            sharedCounts.set(shared);
+        }
+        Slots candidates = new Slots();
+        for (int list = 0; list < lists.size(); list++) {
+            Slots slots = lists.get(list);
+            for (int i = 0; i < slots.size; i++) {
+                int slot = slots.items[i];
+                if (shared[slot] > 0) {
+                    shared[slot]++;
+                } else if (list < scanned) {
+                    shared[slot] = 1;
+                    candidates.add(slot);
+                }
+            }
+        }
+        for (int i = 0; i < candidates.size; i++) {
+            int slot = candidates.items[i];
+            if (shared[slot] >= needed && names[slot] != null && !matched.get(slot)) {
+                matched.set(slot);
+                sink.accept(slot, (int) Math.round(FUZZY * (double) shared[slot] / grams.length));
+            }
+            // Only candidates were counted: clearing them leaves the buffer zeroed for the next query
+            shared[slot] = 0;
+        }
+    }
+
+    private void add(int id, String name, String ingredients) {
+        if (name == null) {
+            return;
+        }
+        if (size == ids.length) {
+            int capacity = size * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            names = Arrays.copyOf(names, capacity);
+            foldedNames = Arrays.copyOf(foldedNames, capacity);
+            foldedIngredients = Arrays.copyOf(foldedIngredients, capacity);
+        }
+        int slot = size++;
+        ids[slot] = id;
+        names[slot] = name;
+        foldedNames[slot] = folded(name);
+        foldedIngredients[slot] = folded(ingredients != null ? ingredients : "");
+        slotById.put(id, slot);
+        nameCounts.merge(foldedNames[slot], 1, Integer::sum);
+        for (long gram : wordGrams(foldedNames[slot])) {
+            nameGrams.computeIfAbsent(gram, key -> new Slots()).add(slot);
+        }
+        for (long gram : wordGrams(foldedIngredients[slot])) {
+            ingredientGrams.computeIfAbsent(gram, key -> new Slots()).add(slot);
+        }
+        for (String word : new LinkedHashSet<>(Arrays.asList(foldedNames[slot].split(" ")))) {
+            if (!word.isEmpty()) {
+                nameWords.computeIfAbsent(word, key -> new Slots()).add(slot);
+            }
+        }
+    }
+
+    private void remove(int id) {
+        Integer slot = slotById.remove(id);
+        if (slot != null) {
+            names[slot] = null;
+            nameCounts.computeIfPresent(foldedNames[slot], (name, items) -> items > 1 ? items - 1 : null);
+            dead++;
+            // Also on updates, which remove before they add
+            if (dead > 1024 && dead * 4 > size) {
+                compact();
+            }
+        }
+    }
+
+    private void compact() {
+        int[] liveIds = Arrays.copyOf(ids, size);
+        String[] liveNames = Arrays.copyOf(names, size);
+        String[] liveIngredients = Arrays.copyOf(foldedIngredients, size);
+        int oldSize = size;
+        clear();
+        for (int slot = 0; slot < oldSize; slot++) {
+            if (liveNames[slot] != null) {
+                // Ingredients are kept folded only; folding is idempotent
+                add(liveIds[slot], liveNames[slot], liveIngredients[slot]);
+            }
+        }
+    }
+
+    private void clear() {
+        size = 0;
+        dead = 0;
+        Arrays.fill(names, null);
+        slotById.clear();
+        nameGrams.clear();
+        ingredientGrams.clear();
+        nameWords.clear();
+        nameCounts.clear();
+    }
+
+    /**
+     * Lower case, accents dropped, runs of anything but letters and digits collapsed to one space
+     */
+    static String folded(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder folded = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (Character.isLetterOrDigit(c)) {
+                folded.append(Character.toLowerCase(c));
+            } else if (!folded.isEmpty() && folded.charAt(folded.length() - 1) != ' ') {
+                folded.append(' ');
+            }
+        }
+        int end = folded.length();
+        return end > 0 && folded.charAt(end - 1) == ' ' ? folded.substring(0, end - 1) : folded.toString();
+    }
+
+    // Indexed text: every word padded on both sides
+    private static Set<Long> wordGrams(String folded) {
+        Set<Long> grams = new HashSet<>();
+        for (String word : folded.split(" ")) {
+            if (!word.isEmpty()) {
+                addGrams(" " + word + " ", grams);
+            }
+        }
+        return grams;
+    }
+
+    // Exact search: only trigrams inside the words, since the query may start or end mid-word
+    private static long[] innerGrams(String[] words) {
+        Set<Long> grams = new LinkedHashSet<>();
+        for (String word : words) {
+            addGrams(word, grams);
+        }
+        return grams.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    // Fuzzy search: padded like the indexed words, except after the last word, which may still be typed
+    private static long[] paddedGrams(String[] words) {
+        Set<Long> grams = new LinkedHashSet<>();
+        for (int i = 0; i < words.length; i++) {
+            addGrams(" " + words[i] + (i < words.length - 1 ? " " : ""), grams);
+        }
+        return grams.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static void addGrams(String text, Set<Long> grams) {
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            grams.add(((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2));
+        }
+    }
+
+    /**
+     * Ascending slots; appended in slot order, so never sorted
+     */
+    private static final class Slots {
+        int[] items = new int[4];
+        int size;
+
+        void add(int slot) {
+            if (size == items.length) {
+                items = Arrays.copyOf(items, size * 2);
+            }
+            items[size++] = slot;
+        }
+
+        // First position at or after from whose slot is >= target (galloping, then binary search)
+        int seek(int target, int from) {
+            int step = 1;
+            int low = from;
+            int high = from;
+            while (high < size && items[high] < target) {
+                low = high + 1;
+                high += step;
+                step <<= 1;
+            }
+            high = Math.min(high, size);
+            int index = Arrays.binarySearch(items, low, high, target);
+            return index >= 0 ? index : -index - 1;
+        }
+    }
+
+    /**
+     * The best slots by a packed long key (higher is better): a min-heap that keeps its capacity
+     */
+    private static final class TopK {
+        final long[] keys;
+        final int[] slots;
+        int size;
+
+        TopK(int capacity) {
+            keys = new long[Math.max(capacity, 1)];
+            slots = new int[keys.length];
+        }
+
+        boolean admits(long key) {
+            return size < keys.length || key > keys[0];
+        }
+
+        /**
+         * Add the slot, pushing out the worst when full; returns the slot pushed out, or -1
+         */
+        int offer(long key, int slot) {
+            int evicted = -1;
+            if (size < keys.length) {
+                keys[size] = key;
+                slots[size] = slot;
+                up(size++);
+            } else {
+                evicted = slots[0];
+                keys[0] = key;
+                slots[0] = slot;
+                down(0);
+            }
+            return evicted;
+        }
+
+        /**
+         * Positions in keys and slots, best key first
+         */
+        int[] bestFirst() {
+            return IntStream.range(0, size)
+                    .boxed()
+                    .sorted((a, b) -> Long.compare(keys[b], keys[a]))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+        }
+
+        private void up(int i) {
+            while (i > 0 && keys[(i - 1) / 2] > keys[i]) {
+                swap(i, (i - 1) / 2);
+                i = (i - 1) / 2;
+            }
+        }
+
+        private void down(int i) {
+            while (true) {
+                int smallest = i;
+                for (int child = 2 * i + 1; child <= 2 * i + 2 && child < size; child++) {
+                    if (keys[child] < keys[smallest]) {
+                        smallest = child;
+                    }
+                }
+                if (smallest == i) {
+                    return;
+                }
+                swap(i, smallest);
+                i = smallest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            long key = keys[a];
+            keys[a] = keys[b];
+            keys[b] = key;
+            int slot = slots[a];
+            slots[a] = slots[b];
+            slots[b] = slot;
+        }
+    }
+}
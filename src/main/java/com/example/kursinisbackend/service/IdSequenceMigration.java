@@ -0,0 +1,65 @@
+package com.example.kursinisbackend.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.TableGenerator;
+import jakarta.persistence.metamodel.EntityType;
+import jakarta.persistence.metamodel.Metamodel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Field;
+import java.sql.SQLException;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Ids used to be IDENTITY columns. On startup, before the web server takes requests, this moves
+ * each table's IdSequence row past its highest id (creating the row on first start), so no id
+ * that is already taken is handed out. Idempotent; the old AUTO_INCREMENT columns stay in place
+ * but are no longer used. The tables are those named by the entities' IdSequence generators.
+ */
+@Component
+public class IdSequenceMigration implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(IdSequenceMigration.class);
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        try {
+            for (String table : sequences(entityManagerFactory.getMetamodel())) {
+                long next = IdSequences.reserve(dataSource, table, 0);
+                log.debug("Next {} id is {}", table, next);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not move id sequences past the existing ids", e);
+        }
+    }
+
+    /**
+     * The pkColumnValue of every entity id generated from IdSequence, inherited ids included
+     */
+    static Set<String> sequences(Metamodel metamodel) {
+        Set<String> sequences = new TreeSet<>();
+        for (EntityType<?> entity : metamodel.getEntities()) {
+            for (Class<?> type = entity.getJavaType(); type != null; type = type.getSuperclass()) {
+                for (Field field : type.getDeclaredFields()) {
+                    TableGenerator generator = field.getAnnotation(TableGenerator.class);
+                    if (generator != null && IdSequences.TABLE.equals(generator.table())) {
+                        sequences.add(generator.pkColumnValue());
+                    }
+                }
+            }
+        }
+        return sequences;
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.kursinisbackend.service;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Ids of User, Cuisine, Chat, FoodOrder and Review come from one row per table in IdSequence
+ * (table hi/lo): the row holds the next free id, and Hibernate takes {@value #ALLOCATION_SIZE}
+ * at a time and hands them out from memory. Ids are known before the insert, so Hibernate can
+ * batch inserts, which an IDENTITY column prevents.
+ * <p>
+ * Anything that inserts these rows itself must take its ids from Hibernate's generator or from
+ * {@link #reserve}, never from MAX(id) + 1: Hibernate may hold a block above the highest id
+ * written so far. Ids ascend in insert order only within one generator; a reserved range lies
+ * above the block Hibernate currently holds.
+ */
+public final class IdSequences {
+
+    public static final String TABLE = "IdSequence";
+    public static final String NAME_COLUMN = "entity";
+    public static final String VALUE_COLUMN = "nextId";
+    public static final int ALLOCATION_SIZE = 50;
+
+    private IdSequences() {
+    }
+
+    /**
+     * Take {@code count} consecutive ids of the table and return the first. The row is moved past
+     * the table's highest id first, so rows written with explicit ids are never handed out again;
+     * a count of 0 only does that. Runs in its own transaction on its own connection.
+     */
+    public static long reserve(DataSource dataSource, String table, int count) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                long first = reserve(connection, table, count);
+                connection.commit();
+                return first;
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        }
+    }
+
+    private static long reserve(Connection connection, String table, int count) throws SQLException {
+        Long stored = null;
+        try (PreparedStatement select = connection.prepareStatement("SELECT " + VALUE_COLUMN + " FROM " + TABLE +
+                " WHERE " + NAME_COLUMN + " = ? FOR UPDATE")) {
+            select.setString(1, table);
+            try (ResultSet resultSet = select.executeQuery()) {
+                if (resultSet.next()) {
+                    stored = resultSet.getLong(1);
+                }
+            }
+        }
+        long first;
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT COALESCE(MAX(id), 0) + 1 FROM " + table)) {
+            resultSet.next();
+            first = Math.max(resultSet.getLong(1), stored != null ? stored : 1);
+        }
+        String sql = stored != null
+                ? "UPDATE " + TABLE + " SET " + VALUE_COLUMN + " = ? WHERE " + NAME_COLUMN + " = ?"
+                : "INSERT INTO " + TABLE + " (" + VALUE_COLUMN + ", " + NAME_COLUMN + ") VALUES (?, ?)";
+        try (PreparedStatement write = connection.prepareStatement(sql)) {
+            write.setLong(1, first + count);
+            write.setString(2, table);
+            write.executeUpdate();
+        }
+        return first;
+    }
+}
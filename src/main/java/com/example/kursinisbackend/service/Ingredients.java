@@ -0,0 +1,97 @@
+package com.example.kursinisbackend.service;
+
+import java.util.*;
+
+/**
+ * Turns the free-text Cuisine.ingredients into the terms MenuCatalog indexes, and a term of an
+ * ingredient filter into the terms it stands for.
+ * <p>
+ * Ingredients are separated by commas, semicolons or " and "; each one is lower-cased, stripped
+ * of everything but letters, digits and single spaces, and reduced to a simple singular, so
+ * "Peanuts" and "peanut" are one term. A multi-word ingredient is indexed as a whole and by each
+ * word: "peanut butter" is found by "peanut", which is what an exclusion needs. An allergen group
+ * such as "dairy" stands for itself and the ingredients listed under it. Both err towards a match
+ * ("coconut milk" counts as dairy), since a missed allergen is worse than a dish left out.
+ */
+final class Ingredients {
+
+    private static final Map<String, List<String>> ALLERGENS = Map.of(
+            "dairy", List.of("milk", "cheese", "mozzarella", "parmesan", "cheddar", "feta", "butter", "cream",
+                    "sour cream", "yogurt", "kefir", "curd", "ghee"),
+            "nut", List.of("peanut", "almond", "walnut", "hazelnut", "cashew", "pistachio", "pecan"),
+            "gluten", List.of("wheat", "flour", "bread", "pasta", "noodle", "barley", "rye", "semolina"),
+            "shellfish", List.of("shrimp", "prawn", "crab", "lobster", "mussel", "oyster", "clam"),
+            "fish", List.of("salmon", "tuna", "cod", "herring", "anchovy"),
+            "egg", List.of("mayonnaise", "meringue"),
+            "soy", List.of("tofu", "soy sauce", "edamame", "miso"),
+            "sesame", List.of("tahini"));
+
+    private static final String[] NO_TERMS = new String[0];
+
+    private Ingredients() {
+    }
+
+    /**
+     * The distinct terms of an ingredients text
+     */
+    static String[] terms(String ingredients) {
+        if (ingredients == null || ingredients.isBlank()) {
+            return NO_TERMS;
+        }
+        Set<String> terms = new LinkedHashSet<>();
+        for (String ingredient : ingredients.toLowerCase(Locale.ROOT).split("[,;]| and ")) {
+            String term = normalize(ingredient);
+            if (term.isEmpty()) {
+                continue;
+            }
+            terms.add(term);
+            if (term.indexOf(' ') >= 0) {
+                terms.addAll(Arrays.asList(term.split(" ")));
+            }
+        }
+        return terms.toArray(NO_TERMS);
+    }
+
+    /**
+     * The indexed terms a filter term matches: itself, plus its ingredients if it is an allergen group
+     */
+    static List<String> expand(String term) {
+        String normalized = normalize(term.toLowerCase(Locale.ROOT));
+        List<String> members = ALLERGENS.get(normalized);
+        if (members == null) {
+            return List.of(normalized);
+        }
+        List<String> expanded = new ArrayList<>(members.size() + 1);
+        expanded.add(normalized);
+        members.forEach(member -> expanded.add(normalize(member)));
+        return expanded;
+    }
+
+    private static String normalize(String ingredient) {
+        String[] words = ingredient.replaceAll("[^\\p{L}\\p{N}]+", " ").trim().split(" ");
+        StringBuilder term = new StringBuilder();
+        for (String word : words) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            if (term.length() > 0) {
+                term.append(' ');
+            }
+            term.append(singular(word));
+        }
+        return term.toString();
+    }
+
+    private static String singular(String word) {
+        if (word.length() > 4 && word.endsWith("ies")) {
+            return word.substring(0, word.length() - 3) + "y";
+        }
+        if (word.length() > 4 && word.endsWith("oes")) {
+            return word.substring(0, word.length() - 2);
+        }
+        if (word.length() > 3 && word.endsWith("s") && !word.endsWith("ss") && !word.endsWith("us")) {
+            return word.substring(0, word.length() - 1);
+        }
+        return word;
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.kursinisbackend.service;
+
+import com.example.kursinisbackend.model.Cuisine;
+import com.example.kursinisbackend.repos.CuisineRepo;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Restaurant menus kept as serialized JSON with a strong ETag, for conditional GETs.
+ * <p>
+ * Every restaurant has a version counter that menu writes bump after commit. A menu is
+ * loaded and serialized once per version; the version is read before the menu is loaded,
+ * so a menu loaded while a write commits is stored under the old version and reloaded on the
+ * next request. The ETag is a hash of the bytes, so it survives restarts and an unchanged menu
+ * keeps its tag even when a write put back the same content. Sold-out flags are not part of it
+ * (see SoldOutRegistry); the menu keeps its item ids to look them up. {@link #response} is the
+ * HTTP answer of every menu endpoint.
+ */
+@Service
+public class MenuCache {
+
+    @Autowired
+    private CuisineRepo cuisineRepo;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private SoldOutRegistry soldOutRegistry;
+
+    private final Map<Integer, AtomicLong> versions = new ConcurrentHashMap<>();
+    private final Map<Integer, Menu> menus = new ConcurrentHashMap<>();
+
+    public record Menu(long version, byte[] json, String etag, int[] itemIds) {
+        /**
+         * True if an If-None-Match header names this menu's ETag (or is "*")
+         */
+        public boolean matches(String ifNoneMatch) {
+            if (ifNoneMatch == null) {
+                return false;
+            }
+            for (String tag : ifNoneMatch.split(",")) {
+                tag = tag.trim();
+                // GET compares weakly: W/"x" matches "x"
+                if (tag.equals("*") || tag.equals(etag) || tag.equals("W/" + etag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    public Menu menu(int restaurantId) throws JsonProcessingException {
+        long version = version(restaurantId);
+        Menu cached = menus.get(restaurantId);
+        if (cached != null && cached.version() == version) {
+            return cached;
+        }
+        List<Cuisine> items = cuisineRepo.getCuisineByRestaurantId(restaurantId);
+        byte[] json = objectMapper.writeValueAsBytes(items);
+        Menu menu = new Menu(version, json, etag(json), items.stream().mapToInt(Cuisine::getId).toArray());
+        if (!items.isEmpty()) {
+            // Unknown restaurants are not cached, so they cannot fill the map
+            menus.merge(restaurantId, menu, (current, loaded) -> loaded.version() >= current.version() ? loaded : current);
+        }
+        return menu;
+    }
+
+    /**
+     * The menu as a conditional GET response: 304 when If-None-Match holds the current ETag, the
+     * JSON otherwise. Clients revalidate every time (no-cache).
+     */
+    public ResponseEntity<byte[]> response(int restaurantId, String ifNoneMatch) throws JsonProcessingException {
+        Menu menu = menu(restaurantId);
+        // Sold-out items change too often to be part of the cached menu; they go in a header, also on a 304
+        String soldOut = soldOutRegistry.header(menu.itemIds());
+        if (menu.matches(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(menu.etag()).cacheControl(CacheControl.noCache())
+                    .header(SoldOutRegistry.HEADER, soldOut).build();
+        }
+        return ResponseEntity.ok()
+                .eTag(menu.etag())
+                .cacheControl(CacheControl.noCache())
+                .header(SoldOutRegistry.HEADER, soldOut)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(menu.json());
+    }
+
+    /**
+     * The item was created, changed or deleted; its menu is reloaded once the surrounding transaction commits
+     */
+    public void changed(Cuisine item) {
+        changed(List.of(item));
+    }
+
+    public void changed(Collection<Cuisine> items) {
+        List<Integer> restaurantIds = items.stream()
+                .filter(item -> item.getRestaurant() != null)
+                .map(item -> item.getRestaurant().getId())
+                .distinct()
+                .toList();
+        TransactionHooks.afterCommit(() -> restaurantIds.forEach(this::bump));
+    }
+
+    /**
+     * Some of the restaurant's items changed; its menu is reloaded once the surrounding transaction commits
+     */
+    public void changed(int restaurantId) {
+        TransactionHooks.afterCommit(() -> bump(restaurantId));
+    }
+
+    private void bump(int restaurantId) {
+        long version = versions.computeIfAbsent(restaurantId, id -> new AtomicLong()).incrementAndGet();
+        menus.computeIfPresent(restaurantId, (id, menu) -> menu.version() < version ? null : menu);
+    }
+
+    private long version(int restaurantId) {
+        AtomicLong version = versions.get(restaurantId);
+        return version != null ? version.get() : 0;
+    }
+
+    private static String etag(byte[] json) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(digest).substring(0, 22) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,407 @@
+package com.example.kursinisbackend.service;
+
+import com.example.kursinisbackend.model.Cuisine;
+import com.example.kursinisbackend.repos.CuisineRepo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * Every cuisine item as an immutable in-memory snapshot, for attribute and price filters.
+ * <p>
+ * Rows are ordered by id and stored column by column: ids, names, ingredients, prices, prices in
+ * cents, restaurant ids. Vegan and spicy are one BitSet each, a restaurant's menu is an array of
+ * its rows, and (cents, row) pairs sorted by price turn a price range into two binary searches.
+ * Ingredients are indexed as one BitSet of rows per term (see {@link Ingredients}), so required
+ * ingredients are an intersection and excluded ones a difference. A filter is the intersection
+ * of those row sets, read back in id order; one naming restaurants just tests the rows of their
+ * menus. Items without a restaurant (taken off a menu but kept for past orders) are not part of it.
+ * <p>
+ * Readers take the current snapshot and never lock. Menu changes build a new snapshot from the
+ * old one plus the changed rows after commit and swap it in: the changed rows are merged into
+ * the id order and their price entries into the sorted prices, so a change costs one linear copy
+ * rather than a sort of the whole menu. It is also rebuilt from the database every
+ * menu.catalog.rebuild-interval-ms, for changes made outside the menu endpoints.
+ */
+@Slf4j
+@Service
+public class MenuCatalog {
+
+    @Autowired
+    private CuisineRepo cuisineRepo;
+
+    // Null until the first rebuild
+    private volatile Snapshot snapshot;
+    // Serializes snapshot replacement, so no change is built on a snapshot that is already gone
+    private final Object writeLock = new Object();
+
+    /**
+     * Any combination of conditions; a null one is not applied. Items must contain every one of
+     * {@code ingredients} and none of {@code excludedIngredients}; either may name an allergen
+     * group such as "dairy" or "nut".
+     */
+    public record Filter(Boolean vegan, Boolean spicy, Double minPrice, Double maxPrice,
+                         Collection<Integer> restaurantIds, Collection<String> ingredients,
+                         Collection<String> excludedIngredients) {
+        public Filter(Boolean vegan, Boolean spicy, Double minPrice, Double maxPrice, Collection<Integer> restaurantIds) {
+            this(vegan, spicy, minPrice, maxPrice, restaurantIds, null, null);
+        }
+    }
+
+    // terms are the indexed ingredient terms, computed once per change rather than per snapshot
+    private record Row(int id, String name, String ingredients, String[] terms, Double price, int restaurantId,
+                       boolean vegan, boolean spicy) {
+        static Row of(Cuisine cuisine) {
+            return new Row(cuisine.getId(), cuisine.getName(), cuisine.getIngredients(),
+                    Ingredients.terms(cuisine.getIngredients()), cuisine.getPrice(), cuisine.getRestaurant().getId(),
+                    cuisine.isVegan(), cuisine.isSpicy());
+        }
+
+        static Row of(CuisineRepo.CuisineRow row) {
+            return new Row(row.getId(), row.getName(), row.getIngredients(), Ingredients.terms(row.getIngredients()),
+                    row.getPrice(), row.getRestaurantId(), row.isVegan(), row.isSpicy());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${menu.catalog.rebuild-interval-ms:300000}",
+            initialDelayString = "${menu.catalog.rebuild-interval-ms:300000}")
+    public void rebuild() {
+        synchronized (writeLock) {
+            Snapshot rebuilt = Snapshot.of(cuisineRepo.findAllRows().stream().map(Row::of).toList());
+            snapshot = rebuilt;
+            log.debug("Menu catalog rebuilt: {} items", rebuilt.ids.length);
+        }
+    }
+
+    /**
+     * Items matching every condition, by id, at most {@code limit}. The items are detached copies
+     * without their restaurant, which the JSON leaves out anyway.
+     */
+    public List<Cuisine> filter(Filter filter, int limit) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            throw new IllegalStateException("Menu catalog is still loading");
+        }
+        int[] rows = current.rows(filter, limit);
+        List<Cuisine> items = new ArrayList<>(rows.length);
+        for (int row : rows) {
+            items.add(current.cuisine(row));
+        }
+        return items;
+    }
+
+    public List<Cuisine> filter(Filter filter) {
+        return filter(filter, Integer.MAX_VALUE);
+    }
+
+    /**
+     * The cuisine was created or changed; applied after the surrounding transaction commits
+     */
+    public void put(Cuisine cuisine) {
+        putAll(List.of(cuisine));
+    }
+
+    public void putAll(Collection<Cuisine> cuisines) {
+        putAll(cuisines, List.of());
+    }
+
+    /**
+     * Created or changed cuisines and deleted ids in one new snapshot, after commit. A cuisine
+     * without a restaurant is removed, as the rebuild leaves it out.
+     */
+    public void putAll(Collection<Cuisine> cuisines, Collection<Integer> removedIds) {
+        List<Row> changed = new ArrayList<>(cuisines.size());
+        Set<Integer> removed = new HashSet<>(removedIds);
+        for (Cuisine cuisine : cuisines) {
+            if (cuisine.getRestaurant() != null) {
+                changed.add(Row.of(cuisine));
+            } else {
+                removed.add(cuisine.getId());
+            }
+        }
+        TransactionHooks.afterCommit(() -> apply(changed, removed));
+    }
+
+    public void removed(int cuisineId) {
+        TransactionHooks.afterCommit(() -> apply(List.of(), Set.of(cuisineId)));
+    }
+
+    private void apply(List<Row> changed, Set<Integer> removed) {
+        synchronized (writeLock) {
+            if (snapshot != null) {
+                snapshot = snapshot.with(changed, removed);
+            }
+        }
+    }
+
+    private static final class Snapshot {
+        private static final int[] NO_ROWS = new int[0];
+
+        final int[] ids;
+        final String[] names;
+        final String[] ingredients;
+        final String[][] terms;
+        final Double[] prices;
+        final long[] cents;
+        final int[] restaurantIds;
+        final BitSet vegan;
+        final BitSet spicy;
+        // cents << 32 | row, ascending; items without a price are left out. Cents are clamped to
+        // [0, Integer.MAX_VALUE], so the shift never overflows into the sign bit
+        final long[] byPrice;
+        final Map<Integer, int[]> rowsByRestaurant;
+        final Map<String, BitSet> rowsByIngredient;
+
+        // byPrice of the rows, or null to sort it here
+        private Snapshot(List<Row> rows, long[] byPrice) {
+            int size = rows.size();
+            ids = new int[size];
+            names = new String[size];
+            ingredients = new String[size];
+            terms = new String[size][];
+            prices = new Double[size];
+            cents = new long[size];
+            restaurantIds = new int[size];
+            vegan = new BitSet(size);
+            spicy = new BitSet(size);
+            long[] priced = new long[size];
+            int pricedCount = 0;
+            Map<Integer, List<Integer>> menus = new HashMap<>();
+            rowsByIngredient = new HashMap<>();
+            for (int row = 0; row < size; row++) {
+                Row item = rows.get(row);
+                ids[row] = item.id();
+                names[row] = item.name();
+                ingredients[row] = item.ingredients();
+                terms[row] = item.terms();
+                for (String term : item.terms()) {
+                    rowsByIngredient.computeIfAbsent(term, t -> new BitSet(size)).set(row);
+                }
+                prices[row] = item.price();
+                restaurantIds[row] = item.restaurantId();
+                vegan.set(row, item.vegan());
+                spicy.set(row, item.spicy());
+                if (item.price() != null) {
+                    cents[row] = cents(item.price());
+                    priced[pricedCount++] = cents[row] << 32 | row;
+                }
+                menus.computeIfAbsent(item.restaurantId(), id -> new ArrayList<>()).add(row);
+            }
+            if (byPrice == null) {
+                byPrice = Arrays.copyOf(priced, pricedCount);
+                Arrays.sort(byPrice);
+            }
+            this.byPrice = byPrice;
+            rowsByRestaurant = new HashMap<>();
+            menus.forEach((restaurantId, menu) -> rowsByRestaurant.put(restaurantId,
+                    menu.stream().mapToInt(Integer::intValue).toArray()));
+        }
+
+        static Snapshot of(List<Row> rows) {
+            List<Row> byId = new ArrayList<>(rows);
+            byId.sort(Comparator.comparingInt(Row::id));
+            return new Snapshot(byId, null);
+        }
+
+        /**
+         * A copy with the changed rows added or replaced and the removed ids left out. Only the
+         * changed rows are sorted; they are merged into the rows by id and into byPrice, whose
+         * kept entries stay in order since kept rows keep their relative order.
+         */
+        Snapshot with(List<Row> changed, Set<Integer> removed) {
+            Map<Integer, Row> changedById = new HashMap<>();
+            changed.forEach(row -> changedById.put(row.id(), row));
+            List<Row> added = new ArrayList<>(changedById.values());
+            added.sort(Comparator.comparingInt(Row::id));
+
+            List<Row> rows = new ArrayList<>(ids.length + added.size());
+            // New row of each old one, -1 if it was changed or removed
+            int[] moved = new int[ids.length];
+            long[] fresh = new long[added.size()];
+            int freshCount = 0;
+            int next = 0;
+            for (int row = 0; row <= ids.length; row++) {
+                while (next < added.size() && (row == ids.length || added.get(next).id() < ids[row])) {
+                    Row item = added.get(next++);
+                    if (item.price() != null) {
+                        fresh[freshCount++] = cents(item.price()) << 32 | rows.size();
+                    }
+                    rows.add(item);
+                }
+                if (row == ids.length) {
+                    break;
+                }
+                if (changedById.containsKey(ids[row]) || removed.contains(ids[row])) {
+                    moved[row] = -1;
+                    continue;
+                }
+                moved[row] = rows.size();
+                rows.add(new Row(ids[row], names[row], ingredients[row], terms[row], prices[row],
+                        restaurantIds[row], vegan.get(row), spicy.get(row)));
+            }
+
+            Arrays.sort(fresh, 0, freshCount);
+            long[] spliced = new long[byPrice.length + freshCount];
+            int size = 0;
+            int j = 0;
+            for (long entry : byPrice) {
+                int row = moved[(int) entry];
+                if (row < 0) {
+                    continue;
+                }
+                long kept = entry & 0xFFFFFFFF00000000L | row;
+                while (j < freshCount && fresh[j] < kept) {
+                    spliced[size++] = fresh[j++];
+                }
+                spliced[size++] = kept;
+            }
+            while (j < freshCount) {
+                spliced[size++] = fresh[j++];
+            }
+            return new Snapshot(rows, Arrays.copyOf(spliced, size));
+        }
+
+        static long cents(double price) {
+            return Math.max(0, Math.min(Integer.MAX_VALUE, Math.round(price * 100)));
+        }
+
+        /**
+         * Matching rows in id order, at most {@code limit}
+         */
+        int[] rows(Filter filter, int limit) {
+            long min = filter.minPrice() != null ? cents(filter.minPrice()) : 0;
+            long max = filter.maxPrice() != null ? cents(filter.maxPrice()) : Integer.MAX_VALUE;
+            BitSet required = required(filter.ingredients());
+            BitSet excluded = excluded(filter.excludedIngredients());
+            if (filter.restaurantIds() != null) {
+                // A few menus: test their rows one by one rather than intersect catalog-wide sets
+                IntStream.Builder rows = IntStream.builder();
+                for (int restaurantId : new HashSet<>(filter.restaurantIds())) {
+                    for (int row : rowsByRestaurant.getOrDefault(restaurantId, NO_ROWS)) {
+                        if (matches(row, filter, min, max) && (required == null || required.get(row))
+                                && (excluded == null || !excluded.get(row))) {
+                            rows.add(row);
+                        }
+                    }
+                }
+                return rows.build().sorted().limit(limit).toArray();
+            }
+            BitSet rows = null;
+            if (filter.minPrice() != null || filter.maxPrice() != null) {
+                int from = filter.minPrice() != null ? lowerBound(min << 32) : 0;
+                // Rows are below 2^31, so no entry of price max is above max << 32 | 0xFFFFFFFF
+                int to = filter.maxPrice() != null ? lowerBound(max << 32 | 0xFFFFFFFFL) : byPrice.length;
+                rows = new BitSet(ids.length);
+                for (int i = from; i < to; i++) {
+                    rows.set((int) byPrice[i]);
+                }
+            }
+            if (filter.vegan() != null) {
+                rows = filter.vegan() ? and(rows, vegan) : andNot(rows, vegan);
+            }
+            if (filter.spicy() != null) {
+                rows = filter.spicy() ? and(rows, spicy) : andNot(rows, spicy);
+            }
+            if (required != null) {
+                rows = and(rows, required);
+            }
+            if (excluded != null) {
+                rows = andNot(rows, excluded);
+            }
+            if (rows == null) {
+                return IntStream.range(0, Math.min(ids.length, limit)).toArray();
+            }
+            return rows.stream().limit(limit).toArray();
+        }
+
+        private boolean matches(int row, Filter filter, long min, long max) {
+            if (filter.vegan() != null && vegan.get(row) != filter.vegan()) {
+                return false;
+            }
+            if (filter.spicy() != null && spicy.get(row) != filter.spicy()) {
+                return false;
+            }
+            if (filter.minPrice() != null || filter.maxPrice() != null) {
+                return prices[row] != null && cents[row] >= min && cents[row] <= max;
+            }
+            return true;
+        }
+
+        // Rows containing every term, or null for no terms
+        private BitSet required(Collection<String> ingredients) {
+            if (ingredients == null || ingredients.isEmpty()) {
+                return null;
+            }
+            BitSet rows = null;
+            for (String ingredient : ingredients) {
+                BitSet containing = containing(ingredient);
+                if (rows == null) {
+                    rows = containing;
+                } else {
+                    rows.and(containing);
+                }
+            }
+            return rows;
+        }
+
+        // Rows containing any of the terms, or null for no terms
+        private BitSet excluded(Collection<String> ingredients) {
+            if (ingredients == null || ingredients.isEmpty()) {
+                return null;
+            }
+            BitSet rows = new BitSet(ids.length);
+            for (String ingredient : ingredients) {
+                rows.or(containing(ingredient));
+            }
+            return rows;
+        }
+
+        // A new set: the rows of the term, or of any ingredient of an allergen group
+        private BitSet containing(String ingredient) {
+            BitSet rows = new BitSet(ids.length);
+            for (String term : Ingredients.expand(ingredient)) {
+                BitSet posting = rowsByIngredient.get(term);
+                if (posting != null) {
+                    rows.or(posting);
+                }
+            }
+            return rows;
+        }
+
+        Cuisine cuisine(int row) {
+            Cuisine cuisine = new Cuisine(names[row], ingredients[row], prices[row], spicy.get(row), vegan.get(row), null);
+            cuisine.setId(ids[row]);
+            return cuisine;
+        }
+
+        // First position in byPrice whose entry is >= key
+        private int lowerBound(long key) {
+            int index = Arrays.binarySearch(byPrice, key);
+            return index >= 0 ? index : -index - 1;
+        }
+
+        private BitSet and(BitSet rows, BitSet other) {
+            if (rows == null) {
+                return (BitSet) other.clone();
+            }
+            rows.and(other);
+            return rows;
+        }
+
+        private BitSet andNot(BitSet rows, BitSet other) {
+            if (rows == null) {
+                rows = new BitSet(ids.length);
+                rows.set(0, ids.length);
+            }
+            rows.andNot(other);
+            return rows;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.kursinisbackend.service;
+
+import com.example.kursinisbackend.model.Cuisine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Where menu writes report what they changed, so the in-memory views of the menu (search index,
+ * catalog, cached menu JSON, sold-out flags of deleted items) all follow. Each view applies the
+ * change after the surrounding transaction commits.
+ */
+@Service
+public class MenuChanges {
+
+    @Autowired
+    private CuisineSearchIndex cuisineSearchIndex;
+
+    @Autowired
+    private MenuCatalog menuCatalog;
+
+    @Autowired
+    private MenuCache menuCache;
+
+    @Autowired
+    private SoldOutRegistry soldOutRegistry;
+
+    /**
+     * The item was created or changed
+     */
+    public void changed(Cuisine cuisine) {
+        changed(List.of(cuisine));
+    }
+
+    public void changed(Collection<Cuisine> cuisines) {
+        cuisineSearchIndex.putAll(cuisines);
+        menuCatalog.putAll(cuisines);
+        menuCache.changed(cuisines);
+    }
+
+    /**
+     * The item was deleted
+     */
+    public void removed(Cuisine cuisine) {
+        cuisineSearchIndex.removed(cuisine.getId());
+        menuCatalog.removed(cuisine.getId());
+        menuCache.changed(cuisine);
+        soldOutRegistry.removed(List.of(cuisine.getId()));
+    }
+
+    /**
+     * The restaurant's menu was replaced: {@code changed} items written, {@code removedIds} deleted
+     * or taken off the menu
+     */
+    public void synced(int restaurantId, Collection<Cuisine> changed, Collection<Integer> removedIds) {
+        cuisineSearchIndex.putAll(changed);
+        removedIds.forEach(cuisineSearchIndex::removed);
+        menuCatalog.putAll(changed, removedIds);
+        menuCache.changed(restaurantId);
+        soldOutRegistry.removed(removedIds);
+    }
+
+    /**
+     * A chunk of a bulk import was saved. The catalog is left out: the importer rebuilds it once
+     * at the end rather than copy it per chunk.
+     */
+    public void imported(Collection<Cuisine> cuisines) {
+        cuisineSearchIndex.putAll(cuisines);
+        menuCache.changed(cuisines);
+    }
+}
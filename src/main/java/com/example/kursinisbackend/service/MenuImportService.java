@@ -0,0 +1,206 @@
+package com.example.kursinisbackend.service;
+
+import com.example.kursinisbackend.model.Cuisine;
+import com.example.kursinisbackend.model.Restaurant;
+import com.example.kursinisbackend.repos.RestaurantRepository;
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streaming menu import: NDJSON, one item per line, with the fields of POST /api/cuisine/json.
+ * <p>
+ * Lines are parsed one at a time and persisted in chunks of menu.import.batch-size, each in its
+ * own transaction that is flushed (as JDBC batches, see hibernate.jdbc.batch_size) and cleared,
+ * so memory does not grow with the import. Every restaurant is looked up once; items refer to it
+ * by reference. A bad line is reported with its line number and skipped, the import goes on;
+ * at most menu.import.max-errors errors are listed, the rest are only counted. A chunk the
+ * database rejects is saved again row by row, so only the rows that fail are lost.
+ */
+@Slf4j
+@Service
+public class MenuImportService {
+
+    private static final Gson GSON = new Gson();
+
+    @Autowired
+    private RestaurantRepository restaurantRepository;
+
+    @Autowired
+    private MenuCatalog menuCatalog;
+
+    @Autowired
+    private MenuChanges menuChanges;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${menu.import.batch-size:500}")
+    private int batchSize;
+
+    @Value("${menu.import.max-errors:100}")
+    private int maxErrors;
+
+    public record ImportResult(int imported, int failed, List<RowError> errors) {
+    }
+
+    public record RowError(long line, String error) {
+    }
+
+    /**
+     * Import every line of the reader; {@code restaurantId} is used for lines that name none
+     */
+    public ImportResult importNdjson(Reader reader, Integer restaurantId) throws IOException {
+        Import run = new Import(restaurantId);
+        BufferedReader lines = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader);
+        String line;
+        long lineNumber = 0;
+        while ((line = lines.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                run.chunk.add(parse(lineNumber, line, run));
+            } catch (IllegalArgumentException | IllegalStateException | UnsupportedOperationException e) {
+                run.failed(lineNumber, e.getMessage());
+            }
+            if (run.chunk.size() >= batchSize) {
+                run.flush();
+            }
+        }
+        run.flush();
+        if (run.imported > 0) {
+            // One reload instead of a copy of the catalog per chunk
+            menuCatalog.rebuild();
+        }
+        // Rows the database rejects are only known when their chunk is saved
+        run.errors.sort(Comparator.comparingLong(RowError::line));
+        log.info("Menu import: {} items imported, {} lines failed", run.imported, run.failed);
+        return new ImportResult(run.imported, run.failed, run.errors);
+    }
+
+    private Item parse(long lineNumber, String line, Import run) {
+        JsonElement parsed;
+        try {
+            parsed = GSON.fromJson(line, JsonElement.class);
+        } catch (JsonParseException e) {
+            throw new IllegalArgumentException("Malformed JSON");
+        }
+        // "null", an array or a bare value
+        if (parsed == null || !parsed.isJsonObject()) {
+            throw new IllegalArgumentException("Expected a JSON object");
+        }
+        JsonObject json = parsed.getAsJsonObject();
+        String name = string(json, "name");
+        if (name == null || name.isEmpty()) {
+            throw new IllegalArgumentException("Cuisine name is required");
+        }
+        JsonElement price = json.get("price");
+        if (price == null || price.isJsonNull() || price.getAsDouble() <= 0) {
+            throw new IllegalArgumentException("Valid price is required");
+        }
+        JsonElement restaurant = json.get("restaurantId");
+        Integer restaurantId = restaurant != null && !restaurant.isJsonNull() ? restaurant.getAsInt() : run.restaurantId;
+        if (restaurantId == null) {
+            throw new IllegalArgumentException("Restaurant is required");
+        }
+        if (!run.restaurants.computeIfAbsent(restaurantId, restaurantRepository::existsById)) {
+            throw new IllegalArgumentException("Restaurant not found: " + restaurantId);
+        }
+        String ingredients = string(json, "ingredients");
+        Cuisine cuisine = new Cuisine(name, ingredients != null ? ingredients : "", price.getAsDouble(),
+                json.has("spicy") && json.get("spicy").getAsBoolean(),
+                json.has("vegan") && json.get("vegan").getAsBoolean(), null);
+        return new Item(lineNumber, restaurantId, cuisine);
+    }
+
+    private static String string(JsonObject json, String field) {
+        JsonElement value = json.get(field);
+        return value != null && !value.isJsonNull() ? value.getAsString() : null;
+    }
+
+    // The restaurant is set as a reference inside the chunk's transaction
+    private record Item(long line, int restaurantId, Cuisine cuisine) {
+    }
+
+    /**
+     * State of one import: the pending chunk, the restaurants checked so far, the counts
+     */
+    private class Import {
+        final Integer restaurantId;
+        final Map<Integer, Boolean> restaurants = new HashMap<>();
+        final List<Item> chunk = new ArrayList<>();
+        final List<RowError> errors = new ArrayList<>();
+        int imported;
+        int failed;
+
+        Import(Integer restaurantId) {
+            this.restaurantId = restaurantId;
+        }
+
+        void failed(long line, String error) {
+            failed++;
+            if (errors.size() < maxErrors) {
+                errors.add(new RowError(line, error));
+            }
+        }
+
+        void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            try {
+                persist(chunk);
+            } catch (RuntimeException e) {
+                // One bad row rolls back the whole chunk: find it by saving the rows one at a time
+                log.warn("Menu import chunk of {} items failed, saving it row by row: {}", chunk.size(), e.getMessage());
+                for (Item item : chunk) {
+                    try {
+                        persist(List.of(item));
+                    } catch (RuntimeException rowError) {
+                        failed(item.line(), "Not saved: " + rowError.getMessage());
+                    }
+                }
+            } finally {
+                chunk.clear();
+            }
+        }
+
+        private void persist(List<Item> items) {
+            // Ids given by a rolled back attempt are not taken; a retry gets new ones
+            items.forEach(item -> item.cuisine().setId(0));
+            transactionTemplate.executeWithoutResult(status -> {
+                for (Item item : items) {
+                    item.cuisine().setRestaurant(entityManager.getReference(Restaurant.class, item.restaurantId()));
+                    entityManager.persist(item.cuisine());
+                }
+                entityManager.flush();
+                entityManager.clear();
+            });
+            List<Cuisine> cuisines = items.stream().map(Item::cuisine).toList();
+            imported += cuisines.size();
+            menuChanges.imported(cuisines);
+        }
+    }
+}
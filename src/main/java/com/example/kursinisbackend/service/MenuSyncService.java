@@ -0,0 +1,151 @@
+package com.example.kursinisbackend.service;
+
+import com.example.kursinisbackend.model.Cuisine;
+import com.example.kursinisbackend.model.Restaurant;
+import com.example.kursinisbackend.repos.CuisineRepo;
+import com.example.kursinisbackend.repos.RestaurantRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+
+/**
+ * Replaces a restaurant's menu with the complete menu its POS system pushes, writing only the
+ * difference. Items are matched by their POS key (Cuisine.externalKey) and compared by content;
+ * items of the menu that have no key yet are matched by name once and take the pushed key.
+ * <p>
+ * The current menu is one read. Unchanged items cost nothing, so an unchanged push writes
+ * nothing and keeps the menu's ETag; otherwise inserts, updates and deletes go out as JDBC
+ * batches at commit. Items that appear in past orders are taken off the menu (restaurant
+ * cleared) rather than deleted, so the orders keep them.
+ */
+@Service
+public class MenuSyncService {
+
+    @Autowired
+    private CuisineRepo cuisineRepo;
+
+    @Autowired
+    private RestaurantRepository restaurantRepository;
+
+    @Autowired
+    private MenuChanges menuChanges;
+
+    /**
+     * One item of the pushed menu
+     */
+    public record Item(String key, String name, String ingredients, Double price, boolean spicy, boolean vegan) {
+        Content content() {
+            return new Content(name, ingredients != null ? ingredients : "", price, spicy, vegan);
+        }
+    }
+
+    public record SyncResult(int inserted, int updated, int removed, int unchanged) {
+    }
+
+    // Everything a push can change; equal content means nothing to write
+    private record Content(String name, String ingredients, Double price, boolean spicy, boolean vegan) {
+        static Content of(Cuisine cuisine) {
+            return new Content(cuisine.getName(), cuisine.getIngredients(), cuisine.getPrice(),
+                    cuisine.isSpicy(), cuisine.isVegan());
+        }
+
+        void applyTo(Cuisine cuisine) {
+            cuisine.setName(name);
+            cuisine.setIngredients(ingredients);
+            cuisine.setPrice(price);
+            cuisine.setSpicy(spicy);
+            cuisine.setVegan(vegan);
+        }
+    }
+
+    @Transactional
+    public SyncResult sync(int restaurantId, List<Item> items) throws Exception {
+        validate(items);
+        List<Cuisine> current = cuisineRepo.getCuisineByRestaurantId(restaurantId);
+        Restaurant restaurant = !current.isEmpty() ? current.get(0).getRestaurant()
+                : restaurantRepository.findById(restaurantId).orElseThrow(() -> new Exception("Restaurant not found"));
+
+        Map<String, Cuisine> byKey = new HashMap<>();
+        Map<String, Cuisine> unkeyedByName = new HashMap<>();
+        List<Cuisine> leftOver = new ArrayList<>();
+        for (Cuisine cuisine : current) {
+            if (cuisine.getExternalKey() != null && byKey.putIfAbsent(cuisine.getExternalKey(), cuisine) == null) {
+                continue;
+            }
+            if (cuisine.getExternalKey() != null || unkeyedByName.putIfAbsent(cuisine.getName(), cuisine) != null) {
+                // A second item with the same key or name
+                leftOver.add(cuisine);
+            }
+        }
+
+        List<Cuisine> inserted = new ArrayList<>();
+        List<Cuisine> updated = new ArrayList<>();
+        int unchanged = 0;
+        for (Item item : items) {
+            Content content = item.content();
+            Cuisine cuisine = byKey.remove(item.key());
+            if (cuisine == null) {
+                cuisine = unkeyedByName.remove(item.name());
+            }
+            if (cuisine == null) {
+                cuisine = new Cuisine(content.name(), content.ingredients(), content.price(),
+                        content.spicy(), content.vegan(), restaurant);
+                cuisine.setExternalKey(item.key());
+                inserted.add(cuisine);
+            } else if (!item.key().equals(cuisine.getExternalKey()) || !content.equals(Content.of(cuisine))) {
+                cuisine.setExternalKey(item.key());
+                content.applyTo(cuisine);
+                updated.add(cuisine);
+            } else {
+                unchanged++;
+            }
+        }
+        leftOver.addAll(byKey.values());
+        leftOver.addAll(unkeyedByName.values());
+
+        if (inserted.isEmpty() && updated.isEmpty() && leftOver.isEmpty()) {
+            return new SyncResult(0, 0, 0, unchanged);
+        }
+
+        // Updated items are managed, so they are written at commit; inserts and deletes join the same flush
+        cuisineRepo.saveAll(inserted);
+        List<Integer> removedIds = leftOver.stream().map(Cuisine::getId).toList();
+        Set<Integer> ordered = removedIds.isEmpty() ? Set.of() : new HashSet<>(cuisineRepo.findOrderedIds(removedIds));
+        List<Integer> deletedIds = new ArrayList<>();
+        for (Cuisine cuisine : leftOver) {
+            if (ordered.contains(cuisine.getId())) {
+                cuisine.setRestaurant(null);
+            } else {
+                deletedIds.add(cuisine.getId());
+            }
+        }
+        if (!deletedIds.isEmpty()) {
+            cuisineRepo.deleteAllByIdInBatch(deletedIds);
+        }
+
+        List<Cuisine> changed = new ArrayList<>(inserted);
+        changed.addAll(updated);
+        menuChanges.synced(restaurantId, changed, removedIds);
+        return new SyncResult(inserted.size(), updated.size(), leftOver.size(), unchanged);
+    }
+
+    private static void validate(List<Item> items) {
+        Set<String> keys = new HashSet<>();
+        for (Item item : items) {
+            if (item.key() == null || item.key().isEmpty()) {
+                throw new IllegalArgumentException("Every menu item needs a key");
+            }
+            if (!keys.add(item.key())) {
+                throw new IllegalArgumentException("Duplicate menu item key: " + item.key());
+            }
+            if (item.name() == null || item.name().isEmpty()) {
+                throw new IllegalArgumentException("Cuisine name is required: " + item.key());
+            }
+            if (item.price() == null || item.price() <= 0) {
+                throw new IllegalArgumentException("Valid price is required: " + item.key());
+            }
+        }
+    }
+}
@@ -22,6 +22,12 @@ public class OrderService {
     @Autowired
     private CuisineRepo cuisineRepo;
 
+    @Autowired
+    private OrderStatusCache orderStatusCache;
+
+    @Autowired
+    private RestaurantLeaderboard restaurantLeaderboard;
+
     // Peak hour multiplier
     private static final double PEAK_HOUR_MULTIPLIER = 1.5;
     private static final int LUNCH_START = 12;
@@ -76,7 +82,10 @@ public class OrderService {
         order.setOrderStatus(OrderStatus.PLACED);
         order.setDateCreated(LocalDate.now());
 
-        return ordersRepo.save(order);
+        FoodOrder saved = ordersRepo.save(order);
+        orderStatusCache.updated(saved.getId(), OrderStatus.PLACED);
+        restaurantLeaderboard.orderPlaced(restaurant.getId(), saved.getDateCreated());
+        return saved;
     }
 
     /**
@@ -84,10 +93,14 @@ public class OrderService {
      */
     @Transactional
     public FoodOrder updateOrderStatus(int orderId, OrderStatus newStatus) throws Exception {
+        // Cannot modify completed orders; known without loading the order when the status is cached
+        if (orderStatusCache.cached(orderId) == OrderStatus.COMPLETED) {
+            throw new Exception("Cannot modify completed orders");
+        }
+
         FoodOrder order = ordersRepo.findById(orderId)
                 .orElseThrow(() -> new Exception("Order not found"));
 
-        // Cannot modify completed orders
         if (order.getOrderStatus() == OrderStatus.COMPLETED) {
             throw new Exception("Cannot modify completed orders");
         }
@@ -95,7 +108,9 @@ public class OrderService {
         order.setOrderStatus(newStatus);
         order.setDateUpdated(LocalDate.now());
 
-        return ordersRepo.save(order);
+        FoodOrder saved = ordersRepo.save(order);
+        orderStatusCache.updated(orderId, newStatus);
+        return saved;
     }
 
     /**
@@ -103,6 +118,11 @@ public class OrderService {
      */
     @Transactional
     public FoodOrder assignDriver(int orderId, Driver driver) throws Exception {
+        OrderStatus cachedStatus = orderStatusCache.cached(orderId);
+        if (cachedStatus == OrderStatus.COMPLETED || cachedStatus == OrderStatus.DELIVERED) {
+            throw new Exception("Cannot assign driver to completed/delivered order");
+        }
+
         FoodOrder order = ordersRepo.findById(orderId)
                 .orElseThrow(() -> new Exception("Order not found"));
 
@@ -121,7 +141,9 @@ public class OrderService {
         order.setOrderStatus(OrderStatus.DRIVER_ASSIGNED);
         order.setDateUpdated(LocalDate.now());
 
-        return ordersRepo.save(order);
+        FoodOrder saved = ordersRepo.save(order);
+        orderStatusCache.updated(orderId, OrderStatus.DRIVER_ASSIGNED);
+        return saved;
     }
 
     /**
@@ -193,9 +215,7 @@ public class OrderService {
      * Check if chat is locked (order completed)
      */
     public boolean isChatLocked(int orderId) {
-        return ordersRepo.findById(orderId)
-                .map(order -> order.getOrderStatus() == OrderStatus.COMPLETED)
-                .orElse(false);
+        return orderStatusCache.get(orderId) == OrderStatus.COMPLETED;
     }
 
     /**
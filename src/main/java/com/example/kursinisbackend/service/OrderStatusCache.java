@@ -0,0 +1,189 @@
+package com.example.kursinisbackend.service;
+
+import com.example.kursinisbackend.model.OrderStatus;
+import com.example.kursinisbackend.repos.OrdersRepo;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Order id -> status, so status checks do not load the whole FoodOrder (with its eager joins).
+ * <p>
+ * Order ids come from a table generator, ascending with gaps of at most its allocation size
+ * (a block left unused by a restart), so the map is a paged byte array indexed by id: one byte
+ * per order (status ordinal + 1, 0 = not cached), pages of 64K allocated on first use.
+ * 10M orders take about 10 MB. Misses load just the status column.
+ * <p>
+ * Chat status checks come by chat id; since a chat belongs to one order for good, chat id ->
+ * order id is kept the same way (an int per chat, 0 = not cached), and a check only queries once
+ * per chat.
+ * <p>
+ * Kept current by {@link #updated}, which OrderService calls on every transition, and by evictions
+ * when an order or its chat is deleted. The cache is per process: another instance writing the
+ * same orders would not be seen.
+ */
+@Service
+public class OrderStatusCache {
+
+    private static final int PAGE_BITS = 16;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+    private static final VarHandle SLOT = MethodHandles.arrayElementVarHandle(byte[].class);
+
+    // Covers every non-negative int id; unused pages are never allocated
+    private final AtomicReferenceArray<byte[]> pages = new AtomicReferenceArray<>(1 << (Integer.SIZE - 1 - PAGE_BITS));
+    private final AtomicReferenceArray<int[]> orderPages = new AtomicReferenceArray<>(1 << (Integer.SIZE - 1 - PAGE_BITS));
+
+    @Autowired
+    private OrdersRepo ordersRepo;
+
+    /**
+     * Status of the order, or null if it does not exist
+     */
+    public OrderStatus get(int orderId) {
+        OrderStatus cached = cached(orderId);
+        if (cached != null) {
+            return cached;
+        }
+        return ordersRepo.findOrderStatusById(orderId)
+                .map(status -> remember(orderId, status))
+                .orElse(null);
+    }
+
+    /**
+     * Status of the chat's order, or null if the chat has none
+     */
+    public OrderStatus forChat(int chatId) {
+        int orderId = orderOf(chatId);
+        if (orderId > 0) {
+            return get(orderId);
+        }
+        return ordersRepo.findStatusByChatId(chatId)
+                .map(order -> {
+                    if (chatId >= 0 && order.getId() > 0) {
+                        orderPage(chatId)[chatId & PAGE_MASK] = order.getId();
+                    }
+                    return remember(order.getId(), order.getOrderStatus());
+                })
+                .orElse(null);
+    }
+
+    /**
+     * Cache a status read from the database, unless the slot was filled meanwhile: a transition
+     * committed after that read wins over it. Returns the status now cached.
+     */
+    public OrderStatus remember(int orderId, OrderStatus loaded) {
+        if (orderId < 0) {
+            return loaded;
+        }
+        byte witness = (byte) SLOT.compareAndExchange(page(orderId), orderId & PAGE_MASK, (byte) 0, code(loaded));
+        return witness == 0 ? loaded : STATUSES[witness - 1];
+    }
+
+    /**
+     * Status if cached, without going to the database
+     */
+    public OrderStatus cached(int orderId) {
+        if (orderId < 0) {
+            return null;
+        }
+        byte[] page = pages.get(orderId >>> PAGE_BITS);
+        if (page == null) {
+            return null;
+        }
+        int slot = (byte) SLOT.getAcquire(page, orderId & PAGE_MASK);
+        return slot == 0 ? null : STATUSES[slot - 1];
+    }
+
+    /**
+     * Record a status change. Inside a transaction the entry is dropped now (reads in the
+     * transaction fall through to the database) and written after commit, so a rollback never
+     * leaves an uncommitted status behind.
+     */
+    public void updated(int orderId, OrderStatus status) {
+        if (TransactionHooks.inTransaction()) {
+            evict(orderId);
+        }
+        TransactionHooks.afterCompletion(() -> put(orderId, status), () -> evict(orderId));
+    }
+
+    public void evict(int orderId) {
+        if (orderId < 0) {
+            return;
+        }
+        byte[] page = pages.get(orderId >>> PAGE_BITS);
+        if (page != null) {
+            SLOT.setRelease(page, orderId & PAGE_MASK, (byte) 0);
+        }
+    }
+
+    /**
+     * The chat was deleted, and its order with it
+     */
+    public void evictChat(int chatId, int orderId) {
+        evict(orderId);
+        if (chatId >= 0) {
+            int[] page = orderPages.get(chatId >>> PAGE_BITS);
+            if (page != null) {
+                page[chatId & PAGE_MASK] = 0;
+            }
+        }
+    }
+
+    void put(int orderId, OrderStatus status) {
+        if (orderId >= 0) {
+            SLOT.setRelease(page(orderId), orderId & PAGE_MASK, code(status));
+        }
+    }
+
+    // Order id of the chat, 0 if not cached. A racy read is fine: a slot only ever goes from 0 to its
+    // one order id, and back to 0 when the chat is deleted
+    private int orderOf(int chatId) {
+        if (chatId < 0) {
+            return 0;
+        }
+        int[] page = orderPages.get(chatId >>> PAGE_BITS);
+        return page == null ? 0 : page[chatId & PAGE_MASK];
+    }
+
+    private int[] orderPage(int chatId) {
+        int index = chatId >>> PAGE_BITS;
+        int[] page = orderPages.get(index);
+        if (page == null) {
+            orderPages.compareAndSet(index, null, new int[PAGE_SIZE]);
+            page = orderPages.get(index);
+        }
+        return page;
+    }
+
+    private byte[] page(int orderId) {
+        int index = orderId >>> PAGE_BITS;
+        byte[] page = pages.get(index);
+        if (page == null) {
+            pages.compareAndSet(index, null, new byte[PAGE_SIZE]);
+            page = pages.get(index);
+        }
+        return page;
+    }
+
+    private static byte code(OrderStatus status) {
+        return (byte) (status.ordinal() + 1);
+    }
+
+    /**
+     * Heap taken by the allocated status pages and their directory (chat pages left out)
+     */
+    public long footprintBytes() {
+        long bytes = 16L + 4L * pages.length();
+        for (int i = 0; i < pages.length(); i++) {
+            if (pages.get(i) != null) {
+                bytes += 16L + PAGE_SIZE;
+            }
+        }
+        return bytes;
+    }
+}
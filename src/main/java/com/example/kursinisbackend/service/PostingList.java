@@ -0,0 +1,217 @@
+package com.example.kursinisbackend.service;
+
+import java.util.Arrays;
+
+/**
+ * Sorted message ids of one search term, delta + varint encoded into a byte array.
+ * Ids are split into blocks of {@link #BLOCK}; the first id and byte offset of every block are kept
+ * aside, so a cursor can skip whole blocks and an out-of-order insert only re-encodes the tail.
+ * Not thread safe, ChatSearchIndex guards it.
+ */
+final class PostingList {
+
+    static final int BLOCK = 128;
+    static final int NO_MORE = Integer.MAX_VALUE;
+
+    private byte[] data = new byte[4];
+    private int length;
+    private int count;
+    private int last;
+    private int[] blockIds = new int[1];
+    private int[] blockOffsets = new int[1];
+
+    static PostingList of(int[] sortedIds, int size) {
+        PostingList list = new PostingList();
+        for (int i = 0; i < size; i++) {
+            if (i == 0 || sortedIds[i] != sortedIds[i - 1]) {
+                list.append(sortedIds[i]);
+            }
+        }
+        return list;
+    }
+
+    int size() {
+        return count;
+    }
+
+    boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * Add an id; ids newer than the last one are appended, older ones re-encode from their block on
+     */
+    boolean add(int id) {
+        if (count == 0 || id > last) {
+            append(id);
+            return true;
+        }
+        int block = blockOf(id);
+        int[] tail = tail(block);
+        int at = Arrays.binarySearch(tail, id);
+        if (at >= 0) {
+            return false;
+        }
+        at = -at - 1;
+        int[] updated = new int[tail.length + 1];
+        System.arraycopy(tail, 0, updated, 0, at);
+        updated[at] = id;
+        System.arraycopy(tail, at, updated, at + 1, tail.length - at);
+        rewrite(block, updated);
+        return true;
+    }
+
+    boolean remove(int id) {
+        if (count == 0 || id > last || id < blockIds[0]) {
+            return false;
+        }
+        int block = blockOf(id);
+        int[] tail = tail(block);
+        int at = Arrays.binarySearch(tail, id);
+        if (at < 0) {
+            return false;
+        }
+        int[] updated = new int[tail.length - 1];
+        System.arraycopy(tail, 0, updated, 0, at);
+        System.arraycopy(tail, at + 1, updated, at, tail.length - at - 1);
+        rewrite(block, updated);
+        return true;
+    }
+
+    int[] toArray() {
+        int[] ids = new int[count];
+        Cursor cursor = cursor();
+        for (int i = 0; i < count; i++) {
+            ids[i] = cursor.next();
+        }
+        return ids;
+    }
+
+    /**
+     * The newest n ids, decoding only the blocks they are in
+     */
+    int[] newest(int n) {
+        int[] ids = tail(Math.max(0, count - n) / BLOCK);
+        return Arrays.copyOfRange(ids, Math.max(0, ids.length - n), ids.length);
+    }
+
+    long footprintBytes() {
+        return 16 + data.length + 4L * (blockIds.length + blockOffsets.length) + 48;
+    }
+
+    Cursor cursor() {
+        return new Cursor();
+    }
+
+    /**
+     * Walks the ids in ascending order, {@link #NO_MORE} at the end
+     */
+    final class Cursor {
+        private int index = -1;
+        private int offset;
+        private int current;
+
+        int next() {
+            index++;
+            if (index >= count) {
+                index = count;
+                return current = NO_MORE;
+            }
+            if (index % BLOCK == 0) {
+                int block = index / BLOCK;
+                current = blockIds[block];
+                offset = blockOffsets[block];
+            } else {
+                int value = 0;
+                for (int shift = 0; ; shift += 7) {
+                    byte b = data[offset++];
+                    value |= (b & 0x7F) << shift;
+                    if (b >= 0) {
+                        break;
+                    }
+                }
+                current += value;
+            }
+            return current;
+        }
+
+        /**
+         * First id >= target, skipping the blocks that end before it
+         */
+        int advance(int target) {
+            if (index >= 0 && current >= target) {
+                return current;
+            }
+            // Dense lists advance by a few ids: only look up the block when the target is past the next one
+            int nextBlock = index < 0 ? 0 : index / BLOCK + 1;
+            if (nextBlock * BLOCK < count && blockIds[nextBlock] <= target) {
+                index = blockOf(target) * BLOCK - 1;
+            }
+            int id;
+            while ((id = next()) < target) {
+            }
+            return id;
+        }
+    }
+
+    private void append(int id) {
+        if (count % BLOCK == 0) {
+            int block = count / BLOCK;
+            if (block == blockIds.length) {
+                blockIds = Arrays.copyOf(blockIds, block * 2);
+                blockOffsets = Arrays.copyOf(blockOffsets, block * 2);
+            }
+            blockIds[block] = id;
+            blockOffsets[block] = length;
+        } else {
+            int delta = id - last;
+            if (length + 5 > data.length) {
+                data = Arrays.copyOf(data, Math.max(data.length * 2, length + 5));
+            }
+            while ((delta & ~0x7F) != 0) {
+                data[length++] = (byte) ((delta & 0x7F) | 0x80);
+                delta >>>= 7;
+            }
+            data[length++] = (byte) delta;
+        }
+        last = id;
+        count++;
+    }
+
+    // Last block whose first id is <= id (0 when id is before every block)
+    private int blockOf(int id) {
+        int blocks = (count + BLOCK - 1) / BLOCK;
+        int at = Arrays.binarySearch(blockIds, 0, blocks, id);
+        return Math.max(0, at >= 0 ? at : -at - 2);
+    }
+
+    private int[] tail(int block) {
+        int[] ids = new int[count - block * BLOCK];
+        Cursor cursor = cursor();
+        cursor.index = block * BLOCK - 1;
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = cursor.next();
+        }
+        return ids;
+    }
+
+    private void rewrite(int block, int[] tail) {
+        int previous = block > 0 ? idAt(block * BLOCK - 1) : 0;
+        length = blockOffsets[block];
+        count = block * BLOCK;
+        last = previous;
+        for (int id : tail) {
+            append(id);
+        }
+    }
+
+    private int idAt(int position) {
+        Cursor cursor = cursor();
+        cursor.index = position / BLOCK * BLOCK - 1;
+        int id = 0;
+        for (int i = position / BLOCK * BLOCK; i <= position; i++) {
+            id = cursor.next();
+        }
+        return id;
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.kursinisbackend.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ratings used to be appended to the review text as " [Rating: X/5]". On startup this moves any
+ * such rating into Review.rating and strips it from the text, then fills RatingAggregate from
+ * Review when it is empty (first start with the table, or after migrating). Both steps are idempotent.
+ */
+@Component
+public class RatingMigration implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(RatingMigration.class);
+    private static final String MARKER = "[Rating: ";
+    private static final int BATCH_SIZE = 1_000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    @Transactional
+    public void run(ApplicationArguments args) {
+        int migrated = migrateRatingText();
+        Integer aggregates = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM RatingAggregate", Integer.class);
+        if (migrated > 0 || aggregates == null || aggregates == 0) {
+            int rebuilt = rebuildAggregates();
+            if (migrated > 0 || rebuilt > 0) {
+                log.info("Moved {} text ratings into Review.rating, rebuilt {} rating aggregates", migrated, rebuilt);
+            }
+        }
+    }
+
+    int migrateRatingText() {
+        List<Object[]> updates = new ArrayList<>();
+        jdbcTemplate.query("SELECT id, reviewText FROM Review WHERE reviewText LIKE '%[Rating: %'", rs -> {
+            String text = rs.getString(2);
+            int rating = parseRating(text);
+            if (rating >= 1 && rating <= 5) {
+                updates.add(new Object[]{rating, stripRating(text), rs.getInt(1)});
+            }
+        });
+        for (int from = 0; from < updates.size(); from += BATCH_SIZE) {
+            jdbcTemplate.batchUpdate("UPDATE Review SET rating = ?, reviewText = ? WHERE id = ?",
+                    updates.subList(from, Math.min(updates.size(), from + BATCH_SIZE)));
+        }
+        return updates.size();
+    }
+
+    /**
+     * Recount every restaurant's and driver's ratings from Review
+     */
+    int rebuildAggregates() {
+        jdbcTemplate.update("DELETE FROM RatingAggregate");
+        return jdbcTemplate.update("INSERT INTO RatingAggregate " +
+                "(userId, ratingSum, ratingCount, stars1, stars2, stars3, stars4, stars5) " +
+                "SELECT userId, SUM(rating), COUNT(*), " +
+                "SUM(CASE WHEN rating = 1 THEN 1 ELSE 0 END), SUM(CASE WHEN rating = 2 THEN 1 ELSE 0 END), " +
+                "SUM(CASE WHEN rating = 3 THEN 1 ELSE 0 END), SUM(CASE WHEN rating = 4 THEN 1 ELSE 0 END), " +
+                "SUM(CASE WHEN rating = 5 THEN 1 ELSE 0 END) FROM (" +
+                "SELECT o.restaurant_id AS userId, r.rating FROM Review r JOIN FoodOrder o ON o.chat_id = r.chat_id " +
+                "WHERE r.rating > 0 AND o.restaurant_id IS NOT NULL " +
+                "UNION ALL " +
+                "SELECT o.driver_id AS userId, r.rating FROM Review r JOIN FoodOrder o ON o.chat_id = r.chat_id " +
+                "WHERE r.rating > 0 AND o.driver_id IS NOT NULL) rated GROUP BY userId");
+    }
+
+    /**
+     * Extract the rating from review text (format: "... [Rating: X/5]")
+     * Returns -1 when the text carries no rating
+     */
+    static int parseRating(String text) {
+        int ratingStart = text.indexOf(MARKER) + MARKER.length();
+        int ratingEnd = text.indexOf("/5]");
+
+        if (ratingStart >= MARKER.length() && ratingEnd > ratingStart) {
+            try {
+                return Integer.parseInt(text.substring(ratingStart, ratingEnd));
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        return -1;
+    }
+
+    static String stripRating(String text) {
+        int start = text.indexOf(MARKER);
+        int end = text.indexOf("/5]", start) + 3;
+        return (text.substring(0, start) + text.substring(end)).trim();
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.kursinisbackend.service;
+
+import com.example.kursinisbackend.model.Chat;
+import com.example.kursinisbackend.model.RatingAggregate;
+import com.example.kursinisbackend.model.Review;
+import com.example.kursinisbackend.repos.OrdersRepo;
+import com.example.kursinisbackend.repos.RatingAggregateRepo;
+import com.example.kursinisbackend.repos.ReviewRepo;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Writes reviews that may carry a rating (Review.rating, 1-5; 0 = plain message) and keeps the
+ * RatingAggregate of the order's restaurant and driver in step, in the same transaction.
+ * Once committed, restaurant ratings also move the RestaurantLeaderboard and rated reviews the
+ * RecentReviews feeds.
+ */
+@Service
+public class RatingService {
+
+    @Autowired
+    private ReviewRepo reviewRepo;
+
+    @Autowired
+    private OrdersRepo ordersRepo;
+
+    @Autowired
+    private RatingAggregateRepo ratingAggregateRepo;
+
+    @Autowired
+    private RestaurantLeaderboard restaurantLeaderboard;
+
+    @Autowired
+    private RecentReviews recentReviews;
+
+    @Transactional
+    public Review save(Review review) {
+        checkRating(review.getRating());
+        reviewRepo.save(review);
+        if (review.getRating() > 0) {
+            recentReviews.added(review, apply(review.getChat(), review.getRating(), 1));
+        }
+        return review;
+    }
+
+    /**
+     * Change the rating of a stored review (0 removes it)
+     */
+    @Transactional
+    public Review rate(Review review, int rating) {
+        checkRating(rating);
+        int previous = review.getRating();
+        review.setRating(rating);
+        reviewRepo.save(review);
+        if (previous == rating) {
+            if (rating > 0) {
+                recentReviews.updated(review, restaurantOf(review.getChat()));
+            }
+            return review;
+        }
+        Integer restaurantId = null;
+        if (previous > 0) {
+            restaurantId = apply(review.getChat(), previous, -1);
+        }
+        if (rating > 0) {
+            restaurantId = apply(review.getChat(), rating, 1);
+        }
+        if (previous == 0) {
+            recentReviews.added(review, restaurantId);
+        } else {
+            recentReviews.updated(review, restaurantId);
+        }
+        return review;
+    }
+
+    /**
+     * Save an edit that keeps the rating, e.g. new text
+     */
+    @Transactional
+    public Review update(Review review) {
+        return rate(review, review.getRating());
+    }
+
+    @Transactional
+    public void delete(Review review) {
+        reviewRepo.delete(review);
+        if (review.getRating() > 0) {
+            recentReviews.removed(review.getId(), apply(review.getChat(), review.getRating(), -1));
+        }
+    }
+
+    /**
+     * Totals for a restaurant or driver; all zero when nobody has rated them yet
+     */
+    public RatingAggregate aggregate(int userId) {
+        return ratingAggregateRepo.findById(userId).orElseGet(() -> new RatingAggregate(userId));
+    }
+
+    /**
+     * Count the rating in (delta = 1) or out (delta = -1) of the order's aggregates; returns the
+     * order's restaurant id, null if the chat has no order or the order no restaurant
+     */
+    private Integer apply(Chat chat, int rating, int delta) {
+        if (chat == null) {
+            return null;
+        }
+        OrdersRepo.RatedParties parties = ordersRepo.findRatedPartiesByChatId(chat.getId()).orElse(null);
+        if (parties == null) {
+            return null;
+        }
+        if (parties.getRestaurantId() != null) {
+            restaurantLeaderboard.rated(parties.getRestaurantId(), rating, delta);
+        }
+        List<Integer> userIds = Stream.of(parties.getRestaurantId(), parties.getDriverId()).filter(Objects::nonNull).toList();
+        if (userIds.isEmpty() || ratingAggregateRepo.apply(userIds, rating, delta) == userIds.size()) {
+            return parties.getRestaurantId();
+        }
+        // First rating of the restaurant or driver: create their row and count this rating in it.
+        // Two first ratings of the same user racing here fail one of the transactions on the key.
+        List<Integer> missing = userIds.stream().filter(userId -> !ratingAggregateRepo.existsById(userId)).toList();
+        missing.forEach(ratingAggregateRepo::create);
+        ratingAggregateRepo.apply(missing, rating, delta);
+        return parties.getRestaurantId();
+    }
+
+    // Every write path (REST, WebSocket, write-behind) ends here; the aggregates only count 1-5
+    private static void checkRating(int rating) {
+        if (rating < 0 || rating > 5) {
+            throw new IllegalArgumentException("Rating must be between 0 and 5");
+        }
+    }
+
+    private Integer restaurantOf(Chat chat) {
+        if (chat == null) {
+            return null;
+        }
+        return ordersRepo.findRatedPartiesByChatId(chat.getId())
+                .map(OrdersRepo.RatedParties::getRestaurantId)
+                .orElse(null);
+    }
+}
@@ -0,0 +1,218 @@
+package com.example.kursinisbackend.service;
+
+import com.example.kursinisbackend.model.Review;
+import com.example.kursinisbackend.repos.ReviewRepo;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The latest rated reviews, overall and per restaurant, served without touching the database.
+ * <p>
+ * Each feed is a fixed-size ring: an append takes a free slot, or else the slot holding the oldest
+ * entry; edits and deletes swap the slot holding the review. Every write is a compareAndSet, so
+ * nothing locks, and a slot freed by a delete is the next append's. Readers copy the slots and
+ * sort them by review id, so the order is exact even when concurrent commits append out of id
+ * order.
+ * <p>
+ * Filled on startup (one query for the overall feed, one windowed query for all restaurants) and
+ * then kept current by RatingService after each commit.
+ */
+@Slf4j
+@Service
+public class RecentReviews {
+
+    @Autowired
+    private ReviewRepo reviewRepo;
+
+    @Value("${reviews.recent.capacity:200}")
+    private int capacity;
+
+    @Value("${reviews.recent.per-restaurant:20}")
+    private int perRestaurant;
+
+    // Replaced by load(); until then a placeholder
+    private volatile Ring recent = new Ring(1);
+    private final Map<Integer, Ring> byRestaurant = new ConcurrentHashMap<>();
+
+    public record RecentReview(int id, int rating, String reviewText,
+                               @JsonFormat(pattern = "yyyy-MM-dd") LocalDate dateCreated) {
+        static RecentReview of(Review review) {
+            return new RecentReview(review.getId(), review.getRating(), review.getReviewText(), review.getDateCreated());
+        }
+    }
+
+    /**
+     * Start the feeds over from the database. Reviews rated while this runs go into the new rings
+     * and are kept; the loaded rows never displace a newer entry.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        recent = new Ring(capacity);
+        byRestaurant.clear();
+        recent.fill(reviewRepo.findRecentRatings(Limit.of(capacity)).stream().map(RecentReview::of).toList());
+        Map<Integer, List<RecentReview>> newest = new LinkedHashMap<>();
+        for (ReviewRepo.RestaurantRating rating : reviewRepo.findNewestRestaurantRatings(perRestaurant)) {
+            newest.computeIfAbsent(rating.getRestaurantId(), id -> new ArrayList<>()).add(new RecentReview(
+                    rating.getId(), rating.getRating(), rating.getReviewText(), rating.getDateCreated()));
+        }
+        newest.forEach((restaurantId, reviews) -> ring(restaurantId).fill(reviews));
+        log.info("Recent review feeds loaded for {} restaurants", newest.size());
+    }
+
+    /**
+     * Newest rated reviews first, at most the feed capacity
+     */
+    public List<RecentReview> recent(int limit) {
+        return recent.newest(limit);
+    }
+
+    public List<RecentReview> recent(int restaurantId, int limit) {
+        Ring ring = byRestaurant.get(restaurantId);
+        return ring != null ? ring.newest(limit) : List.of();
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public int perRestaurant() {
+        return perRestaurant;
+    }
+
+    /**
+     * A review was stored with, or given, a rating. Applied after the surrounding transaction commits.
+     */
+    public void added(Review review, Integer restaurantId) {
+        RecentReview entry = RecentReview.of(review);
+        TransactionHooks.afterCommit(() -> {
+            recent.add(entry);
+            if (restaurantId != null) {
+                ring(restaurantId).add(entry);
+            }
+        });
+    }
+
+    /**
+     * A rated review was edited; a rating of 0 takes it out of the feeds
+     */
+    public void updated(Review review, Integer restaurantId) {
+        RecentReview entry = review.getRating() > 0 ? RecentReview.of(review) : null;
+        TransactionHooks.afterCommit(() -> {
+            recent.replace(review.getId(), entry);
+            if (restaurantId != null) {
+                Ring ring = byRestaurant.get(restaurantId);
+                if (ring != null) {
+                    ring.replace(review.getId(), entry);
+                }
+            }
+        });
+    }
+
+    public void removed(int reviewId, Integer restaurantId) {
+        TransactionHooks.afterCommit(() -> {
+            recent.replace(reviewId, null);
+            if (restaurantId != null) {
+                Ring ring = byRestaurant.get(restaurantId);
+                if (ring != null) {
+                    ring.replace(reviewId, null);
+                }
+            }
+        });
+    }
+
+    private Ring ring(int restaurantId) {
+        return byRestaurant.computeIfAbsent(restaurantId, id -> new Ring(perRestaurant));
+    }
+
+    static final class Ring {
+        private final AtomicReferenceArray<RecentReview> slots;
+
+        Ring(int capacity) {
+            slots = new AtomicReferenceArray<>(capacity);
+        }
+
+        /**
+         * Keep the entry in a free slot, or in place of the oldest entry when it is newer than that
+         */
+        void add(RecentReview entry) {
+            if (replace(entry.id(), entry)) {
+                return;
+            }
+            while (true) {
+                int slot = -1;
+                RecentReview oldest = null;
+                for (int i = 0; i < slots.length(); i++) {
+                    RecentReview current = slots.get(i);
+                    if (current == null) {
+                        slot = i;
+                        oldest = null;
+                        break;
+                    }
+                    if (oldest == null || current.id() < oldest.id()) {
+                        slot = i;
+                        oldest = current;
+                    }
+                }
+                if (oldest != null && oldest.id() > entry.id()) {
+                    return;
+                }
+                if (slots.compareAndSet(slot, oldest, entry)) {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Fill from the database, newest first. Entries appended meanwhile are newer, and an add
+         * only ever displaces an older entry, so they are never overwritten.
+         */
+        void fill(List<RecentReview> newestFirst) {
+            for (int i = Math.min(newestFirst.size(), slots.length()) - 1; i >= 0; i--) {
+                add(newestFirst.get(i));
+            }
+        }
+
+        /**
+         * Swap the entry for the review (null removes it and frees the slot); false if it is not in the ring
+         */
+        boolean replace(int reviewId, RecentReview entry) {
+            for (int i = 0; i < slots.length(); i++) {
+                RecentReview current = slots.get(i);
+                while (current != null && current.id() == reviewId) {
+                    if (slots.compareAndSet(i, current, entry)) {
+                        return true;
+                    }
+                    current = slots.get(i);
+                }
+            }
+            return false;
+        }
+
+        List<RecentReview> newest(int limit) {
+            List<RecentReview> entries = new ArrayList<>(slots.length());
+            for (int i = 0; i < slots.length(); i++) {
+                RecentReview entry = slots.get(i);
+                if (entry != null) {
+                    entries.add(entry);
+                }
+            }
+            entries.sort(Comparator.comparingInt(RecentReview::id).reversed());
+            return entries.size() > limit ? List.copyOf(entries.subList(0, limit)) : entries;
+        }
+    }
+}
@@ -0,0 +1,362 @@
+package com.example.kursinisbackend.service;
+
+import com.example.kursinisbackend.model.RatingAggregate;
+import com.example.kursinisbackend.model.RestaurantOrderDay;
+import com.example.kursinisbackend.repos.OrdersRepo;
+import com.example.kursinisbackend.repos.RatingAggregateRepo;
+import com.example.kursinisbackend.repos.RestaurantOrderDayRepo;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * "Top rated" and "most popular this week" restaurant rankings kept in memory.
+ * <p>
+ * Per restaurant: rating sum and count, loaded from RatingAggregate and then kept current by
+ * {@link #rated}, and orders per day for the last {@value #WINDOW_DAYS} days, kept current by
+ * {@link #orderPlaced}. Two TreeSets keep the restaurants ordered by adjusted rating and by weekly
+ * orders, so a top-K query walks K entries; an update takes the restaurant out, changes it and
+ * puts it back.
+ * <p>
+ * Adjusted rating = (C * m + sum) / (C + count), m the mean of all restaurant ratings and C =
+ * leaderboard.prior-weight, so a handful of 5-star ratings does not outrank hundreds of 4.8s.
+ * m is refreshed on every flush; in between it is fixed, so a rating only moves its own restaurant.
+ * <p>
+ * Daily order counts are written to RestaurantOrderDay every leaderboard.flush-interval-ms and on
+ * shutdown. On startup the stored days are loaded and only the days since the last flush are
+ * recounted from FoodOrder.
+ */
+@Slf4j
+@Service
+public class RestaurantLeaderboard {
+
+    static final int WINDOW_DAYS = 7;
+
+    @Autowired
+    private OrdersRepo ordersRepo;
+
+    @Autowired
+    private RatingAggregateRepo ratingAggregateRepo;
+
+    @Autowired
+    private RestaurantOrderDayRepo restaurantOrderDayRepo;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Value("${leaderboard.prior-weight:10}")
+    private double priorWeight;
+
+    // Guards everything below; top-K reads share the read lock
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Integer, Standing> standings = new HashMap<>();
+    // Only rated restaurants are ranked by rating, only ones with orders this week by orders
+    private final TreeSet<Standing> byRating = new TreeSet<>(Comparator
+            .comparingDouble((Standing standing) -> -standing.score)
+            .thenComparingInt(standing -> standing.restaurantId));
+    private final TreeSet<Standing> byOrders = new TreeSet<>(Comparator
+            .comparingInt((Standing standing) -> -standing.weeklyOrders)
+            .thenComparingInt(standing -> standing.restaurantId));
+    // (restaurant id, epoch day) of order counts changed since the last flush
+    private final Set<Long> dirty = new HashSet<>();
+    private long today;
+    private long totalRatingSum;
+    private long totalRatingCount;
+    private double priorMean;
+    private boolean loaded;
+
+    public record Entry(int restaurantId, double rating, double averageRating, int ratingCount, int weeklyOrders) {
+    }
+
+    private static final class Standing {
+        final int restaurantId;
+        final int[] dailyOrders = new int[WINDOW_DAYS]; // indexed by epoch day % WINDOW_DAYS
+        long ratingSum;
+        int ratingCount;
+        int weeklyOrders;
+        double score;
+
+        Standing(int restaurantId) {
+            this.restaurantId = restaurantId;
+        }
+    }
+
+    /**
+     * Load ratings and the week's orders. Events that commit while this runs may be missed or,
+     * if their rows were already counted, counted twice; the next load corrects them.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        LocalDate day = LocalDate.now();
+        LocalDate windowStart = day.minusDays(WINDOW_DAYS - 1);
+        List<RatingAggregate> aggregates = ratingAggregateRepo.findRestaurantAggregates();
+        List<RestaurantOrderDay> stored = restaurantOrderDayRepo.findByOrderDayGreaterThanEqual(windowStart);
+        // The newest stored day misses orders placed after the last flush: recount it and any later days
+        LocalDate recountFrom = stored.stream()
+                .map(RestaurantOrderDay::getOrderDay)
+                .max(Comparator.naturalOrder())
+                .orElse(windowStart);
+        List<OrdersRepo.DailyOrders> recounted = ordersRepo.countDailyOrders(recountFrom);
+
+        lock.writeLock().lock();
+        try {
+            standings.clear();
+            dirty.clear();
+            today = day.toEpochDay();
+            totalRatingSum = 0;
+            totalRatingCount = 0;
+            for (RatingAggregate aggregate : aggregates) {
+                Standing standing = standing(aggregate.getUserId());
+                standing.ratingSum = aggregate.getRatingSum();
+                standing.ratingCount = aggregate.getRatingCount();
+                totalRatingSum += aggregate.getRatingSum();
+                totalRatingCount += aggregate.getRatingCount();
+            }
+            for (RestaurantOrderDay orderDay : stored) {
+                if (orderDay.getOrderDay().isBefore(recountFrom)) {
+                    standing(orderDay.getRestaurantId()).dailyOrders[slot(orderDay.getOrderDay().toEpochDay())] =
+                            orderDay.getOrderCount();
+                }
+            }
+            for (OrdersRepo.DailyOrders orders : recounted) {
+                long orderDay = orders.getOrderDay().toEpochDay();
+                if (orderDay <= today) {
+                    standing(orders.getRestaurantId()).dailyOrders[slot(orderDay)] = (int) orders.getOrderCount();
+                    dirty.add(key(orders.getRestaurantId(), orderDay));
+                }
+            }
+            priorMean = mean();
+            byRating.clear();
+            byOrders.clear();
+            for (Standing standing : standings.values()) {
+                standing.weeklyOrders = Arrays.stream(standing.dailyOrders).sum();
+                standing.score = score(standing);
+                attach(standing);
+            }
+            loaded = true;
+            log.info("Leaderboard loaded: {} restaurants, order days recounted from {}", standings.size(), recountFrom);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * A rating of the restaurant was added (delta = 1) or taken back (delta = -1).
+     * Applied after the surrounding transaction commits.
+     */
+    public void rated(int restaurantId, int rating, int delta) {
+        TransactionHooks.afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                if (!loaded) {
+                    return;
+                }
+                Standing standing = standing(restaurantId);
+                detach(standing);
+                standing.ratingSum += (long) rating * delta;
+                standing.ratingCount += delta;
+                standing.score = score(standing);
+                attach(standing);
+                totalRatingSum += (long) rating * delta;
+                totalRatingCount += delta;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * An order dated {@code day} was placed with the restaurant. Applied after the surrounding
+     * transaction commits.
+     */
+    public void orderPlaced(int restaurantId, LocalDate day) {
+        TransactionHooks.afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                if (!loaded) {
+                    return;
+                }
+                roll(LocalDate.now().toEpochDay());
+                long orderDay = day.toEpochDay();
+                if (orderDay > today || orderDay <= today - WINDOW_DAYS) {
+                    return;
+                }
+                Standing standing = standing(restaurantId);
+                detach(standing);
+                standing.dailyOrders[slot(orderDay)]++;
+                standing.weeklyOrders++;
+                attach(standing);
+                dirty.add(key(restaurantId, orderDay));
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public List<Entry> topRated(int limit) {
+        return top(byRating, limit);
+    }
+
+    public List<Entry> mostPopular(int limit) {
+        return top(byOrders, limit);
+    }
+
+    /**
+     * Move the week forward, refresh the rating prior, and write changed daily counts in one
+     * batch of upserts along with dropping days that left the window.
+     */
+    @Scheduled(fixedDelayString = "${leaderboard.flush-interval-ms:60000}")
+    public void flush() {
+        List<Long> keys;
+        List<RestaurantOrderDay> rows = new ArrayList<>();
+        LocalDate windowStart;
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                return;
+            }
+            roll(LocalDate.now().toEpochDay());
+            refreshPrior();
+            keys = new ArrayList<>(dirty);
+            dirty.clear();
+            for (long key : keys) {
+                long orderDay = (int) key;
+                Standing standing = standings.get((int) (key >>> 32));
+                if (orderDay > today - WINDOW_DAYS) {
+                    rows.add(new RestaurantOrderDay(standing.restaurantId, LocalDate.ofEpochDay(orderDay),
+                            standing.dailyOrders[slot(orderDay)]));
+                }
+            }
+            windowStart = LocalDate.ofEpochDay(today - WINDOW_DAYS + 1);
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        try (StatelessSession session = entityManagerFactory.unwrap(SessionFactory.class).openStatelessSession()) {
+            session.setJdbcBatchSize(Math.max(1, rows.size()));
+            Transaction transaction = session.beginTransaction();
+            for (RestaurantOrderDay row : rows) {
+                session.upsert(row);
+            }
+            session.createMutationQuery("delete from RestaurantOrderDay where orderDay < :windowStart")
+                    .setParameter("windowStart", windowStart)
+                    .executeUpdate();
+            transaction.commit();
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                dirty.addAll(keys);
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.warn("Flushing {} leaderboard days failed, retrying on the next flush: {}", rows.size(), e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private List<Entry> top(TreeSet<Standing> ranking, int limit) {
+        lock.readLock().lock();
+        try {
+            List<Entry> entries = new ArrayList<>(Math.min(limit, ranking.size()));
+            for (Standing standing : ranking) {
+                if (entries.size() == limit) {
+                    break;
+                }
+                double average = standing.ratingCount > 0 ? (double) standing.ratingSum / standing.ratingCount : 0.0;
+                entries.add(new Entry(standing.restaurantId, standing.score, average, standing.ratingCount,
+                        standing.weeklyOrders));
+            }
+            return entries;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Start new days: orders of the days falling out of the window stop counting
+     */
+    private void roll(long day) {
+        for (long next = today + 1; next <= Math.min(day, today + WINDOW_DAYS); next++) {
+            int slot = slot(next);
+            for (Standing standing : standings.values()) {
+                if (standing.dailyOrders[slot] != 0) {
+                    byOrders.remove(standing);
+                    standing.weeklyOrders -= standing.dailyOrders[slot];
+                    standing.dailyOrders[slot] = 0;
+                    if (standing.weeklyOrders > 0) {
+                        byOrders.add(standing);
+                    }
+                }
+            }
+        }
+        today = Math.max(today, day);
+    }
+
+    private void refreshPrior() {
+        double mean = mean();
+        if (mean == priorMean) {
+            return;
+        }
+        priorMean = mean;
+        byRating.clear();
+        for (Standing standing : standings.values()) {
+            standing.score = score(standing);
+            if (standing.ratingCount > 0) {
+                byRating.add(standing);
+            }
+        }
+    }
+
+    private Standing standing(int restaurantId) {
+        return standings.computeIfAbsent(restaurantId, Standing::new);
+    }
+
+    // Sort keys of a standing must not change while it is in a set
+    private void detach(Standing standing) {
+        byRating.remove(standing);
+        byOrders.remove(standing);
+    }
+
+    private void attach(Standing standing) {
+        if (standing.ratingCount > 0) {
+            byRating.add(standing);
+        }
+        if (standing.weeklyOrders > 0) {
+            byOrders.add(standing);
+        }
+    }
+
+    private double mean() {
+        return totalRatingCount > 0 ? (double) totalRatingSum / totalRatingCount : 0.0;
+    }
+
+    private double score(Standing standing) {
+        double weight = priorWeight + standing.ratingCount;
+        return weight > 0 ? (priorWeight * priorMean + standing.ratingSum) / weight : 0.0;
+    }
+
+    private static int slot(long epochDay) {
+        return Math.floorMod(epochDay, WINDOW_DAYS);
+    }
+
+    private static long key(int restaurantId, long epochDay) {
+        return ((long) restaurantId << 32) | (epochDay & 0xFFFFFFFFL);
+    }
+}
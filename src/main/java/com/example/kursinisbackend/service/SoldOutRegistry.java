@@ -0,0 +1,156 @@
+package com.example.kursinisbackend.service;
+
+import com.example.kursinisbackend.model.CuisineAvailability;
+import com.example.kursinisbackend.repos.CuisineAvailabilityRepo;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Sold-out flags of cuisine items, one bit per cuisine id, kept in memory.
+ * <p>
+ * Readers (order validation, the X-Sold-Out header of menu responses) test a bit without locking
+ * or touching the database; a toggle is a volatile write, visible to the next read. Toggles are
+ * serialized, so growing the word array never loses one. Menus are not part of it: the cached
+ * menu JSON and its ETag stay valid when an item sells out. Changed flags are written to
+ * CuisineAvailability every menu.sold-out.flush-interval-ms and on shutdown; they are loaded
+ * before the web server takes requests. A crash loses at most that much toggling.
+ */
+@Slf4j
+@Service
+public class SoldOutRegistry implements SmartInitializingSingleton {
+
+    /**
+     * Response header of menu requests listing the menu's sold-out item ids, comma separated
+     */
+    public static final String HEADER = "X-Sold-Out";
+
+    @Autowired
+    private CuisineAvailabilityRepo cuisineAvailabilityRepo;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    // Bit (id & 63) of word (id >>> 6); replaced, never shrunk, when an id is beyond the end
+    private volatile AtomicLongArray words = new AtomicLongArray(0);
+    private final Set<Integer> dirty = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        List<CuisineAvailability> soldOut = cuisineAvailabilityRepo.findBySoldOutTrue();
+        synchronized (this) {
+            for (CuisineAvailability availability : soldOut) {
+                // Toggled in memory before the load: newer than the table
+                if (!dirty.contains(availability.getCuisineId())) {
+                    write(availability.getCuisineId(), true);
+                }
+            }
+        }
+        log.debug("Sold-out registry loaded: {} items", soldOut.size());
+    }
+
+    public boolean isSoldOut(int cuisineId) {
+        AtomicLongArray current = words;
+        int word = cuisineId >>> 6;
+        return word < current.length() && (current.get(word) & 1L << cuisineId) != 0;
+    }
+
+    /**
+     * The X-Sold-Out value for a menu: its sold-out ids, empty when none is
+     */
+    public String header(int[] cuisineIds) {
+        StringBuilder header = new StringBuilder();
+        for (int cuisineId : cuisineIds) {
+            if (isSoldOut(cuisineId)) {
+                if (header.length() > 0) {
+                    header.append(',');
+                }
+                header.append(cuisineId);
+            }
+        }
+        return header.toString();
+    }
+
+    /**
+     * Flip the item's flag; returns false if it already had that value
+     */
+    public synchronized boolean set(int cuisineId, boolean soldOut) {
+        if (cuisineId < 0) {
+            throw new IllegalArgumentException("Invalid cuisine id: " + cuisineId);
+        }
+        if (isSoldOut(cuisineId) == soldOut) {
+            return false;
+        }
+        write(cuisineId, soldOut);
+        dirty.add(cuisineId);
+        return true;
+    }
+
+    /**
+     * The items were deleted: once the transaction commits their flags are cleared, and written
+     * behind like any toggle, so a cuisine id is never left sold out in memory or in the table
+     */
+    public void removed(Collection<Integer> cuisineIds) {
+        List<Integer> removed = List.copyOf(cuisineIds);
+        TransactionHooks.afterCommit(() -> removed.forEach(cuisineId -> set(cuisineId, false)));
+    }
+
+    /**
+     * Write changed flags in one batch of upserts
+     */
+    @Scheduled(fixedDelayString = "${menu.sold-out.flush-interval-ms:1000}")
+    public void flush() {
+        List<Integer> cuisineIds = new ArrayList<>(dirty);
+        if (cuisineIds.isEmpty()) {
+            return;
+        }
+        dirty.removeAll(cuisineIds);
+        try (StatelessSession session = entityManagerFactory.unwrap(SessionFactory.class).openStatelessSession()) {
+            session.setJdbcBatchSize(cuisineIds.size());
+            Transaction transaction = session.beginTransaction();
+            for (int cuisineId : cuisineIds) {
+                session.upsert(new CuisineAvailability(cuisineId, isSoldOut(cuisineId)));
+            }
+            transaction.commit();
+        } catch (RuntimeException e) {
+            dirty.addAll(cuisineIds);
+            log.warn("Flushing {} sold-out flags failed, retrying on the next flush: {}", cuisineIds.size(), e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    // Callers hold the lock
+    private void write(int cuisineId, boolean soldOut) {
+        int word = cuisineId >>> 6;
+        AtomicLongArray current = words;
+        if (word >= current.length()) {
+            AtomicLongArray grown = new AtomicLongArray(Math.max(word + 1, current.length() * 2));
+            for (int i = 0; i < current.length(); i++) {
+                grown.set(i, current.get(i));
+            }
+            words = grown;
+            current = grown;
+        }
+        long bit = 1L << cuisineId;
+        long value = current.get(word);
+        current.set(word, soldOut ? value | bit : value & ~bit);
+    }
+}
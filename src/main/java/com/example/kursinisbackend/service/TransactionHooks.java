@@ -0,0 +1,55 @@
+package com.example.kursinisbackend.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Deferring in-memory updates until the surrounding transaction's outcome is known, so caches and
+ * indexes never show a write that is rolled back. Without a transaction the update runs at once.
+ */
+public final class TransactionHooks {
+
+    private TransactionHooks() {
+    }
+
+    public static boolean inTransaction() {
+        return TransactionSynchronizationManager.isSynchronizationActive();
+    }
+
+    /**
+     * Run the action after the surrounding transaction commits, or now if there is none
+     */
+    public static void afterCommit(Runnable action) {
+        if (!inTransaction()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Run {@code committed} once the surrounding transaction commits (or now if there is none),
+     * {@code rolledBack} if it does not
+     */
+    public static void afterCompletion(Runnable committed, Runnable rolledBack) {
+        if (!inTransaction()) {
+            committed.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    committed.run();
+                } else {
+                    rolledBack.run();
+                }
+            }
+        });
+    }
+}
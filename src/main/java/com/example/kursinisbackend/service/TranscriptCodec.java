@@ -0,0 +1,152 @@
+package com.example.kursinisbackend.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Binary format of an archived chat transcript. A format byte, then the message count and per
+ * message: id (delta from the previous one), sender id (0 when unknown), rating, day (delta from
+ * the previous message, 0 when unknown) and the length-prefixed UTF-8 text, all as varints.
+ * The body is raw-deflated, unless that would not make it smaller (short chats).
+ */
+final class TranscriptCodec {
+
+    static final byte DEFLATED = 1;
+    static final byte STORED = 2;
+
+    record Entry(int id, int senderId, int rating, LocalDate dateCreated, String text) {
+    }
+
+    record Encoded(byte[] data, int rawBytes) {
+    }
+
+    private TranscriptCodec() {
+    }
+
+    static Encoded encode(List<Entry> entries) {
+        ByteArrayOutputStream raw = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(raw)) {
+            writeVarInt(out, entries.size());
+            int previousId = 0;
+            long previousDay = 0;
+            for (Entry entry : entries) {
+                writeVarInt(out, entry.id() - previousId);
+                writeVarInt(out, entry.senderId());
+                writeVarInt(out, entry.rating());
+                if (entry.dateCreated() != null) {
+                    long day = entry.dateCreated().toEpochDay();
+                    writeVarInt(out, zigZag((int) (day - previousDay)) + 1);
+                    previousDay = day;
+                } else {
+                    writeVarInt(out, 0);
+                }
+                byte[] text = entry.text() != null ? entry.text().getBytes(StandardCharsets.UTF_8) : null;
+                writeVarInt(out, text != null ? text.length + 1 : 0);
+                if (text != null) {
+                    out.write(text);
+                }
+                previousId = entry.id();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream(raw.size() + 1);
+        encoded.write(DEFLATED);
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION, true);
+        try (DeflaterOutputStream out = new DeflaterOutputStream(encoded, deflater)) {
+            raw.writeTo(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            deflater.end();
+        }
+        if (encoded.size() > raw.size()) {
+            encoded.reset();
+            encoded.write(STORED);
+            encoded.writeBytes(raw.toByteArray());
+        }
+        return new Encoded(encoded.toByteArray(), raw.size());
+    }
+
+    static List<Entry> decode(byte[] data) {
+        if (data.length == 0 || (data[0] != DEFLATED && data[0] != STORED)) {
+            throw new IllegalArgumentException("Unsupported transcript format");
+        }
+        InputStream body = new ByteArrayInputStream(data, 1, data.length - 1);
+        Inflater inflater = new Inflater(true);
+        try (DataInputStream in = new DataInputStream(data[0] == DEFLATED ? new InflaterInputStream(body, inflater) : body)) {
+            int count = readVarInt(in);
+            List<Entry> entries = new ArrayList<>(count);
+            int id = 0;
+            long day = 0;
+            for (int i = 0; i < count; i++) {
+                id += readVarInt(in);
+                int senderId = readVarInt(in);
+                int rating = readVarInt(in);
+                LocalDate dateCreated = null;
+                int dayDelta = readVarInt(in);
+                if (dayDelta != 0) {
+                    day += unZigZag(dayDelta - 1);
+                    dateCreated = LocalDate.ofEpochDay(day);
+                }
+                int length = readVarInt(in);
+                String text = null;
+                if (length != 0) {
+                    byte[] bytes = new byte[length - 1];
+                    in.readFully(bytes);
+                    text = new String(bytes, StandardCharsets.UTF_8);
+                }
+                entries.add(new Entry(id, senderId, rating, dateCreated, text));
+            }
+            return entries;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static void writeVarInt(DataOutput out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = in.readByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    private static int zigZag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static int unZigZag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.kursinisbackend.controllers;
+
+import com.example.kursinisbackend.support.QueryBudgetTest;
+import org.junit.jupiter.api.Test;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class AuthControllerQueryBudgetTest extends QueryBudgetTest {
+
+    @Test
+    void registerUser() throws Exception {
+        // The insert, plus reading and moving IdSequence for the first user id of a block of 50
+        perform(3, withJson(post("/register"), """
+                {"login": "budget_register", "password": "secret", "name": "Ona", "surname": "Budget",
+                 "phoneNumber": "+37060000000", "address": "Vilniaus g. 1"}"""))
+                .andExpect(status().isOk());
+    }
+}
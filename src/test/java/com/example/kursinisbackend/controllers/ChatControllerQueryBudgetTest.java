@@ -0,0 +1,134 @@
+package com.example.kursinisbackend.controllers;
+
+import com.example.kursinisbackend.model.FoodOrder;
+import com.example.kursinisbackend.model.OrderStatus;
+import com.example.kursinisbackend.model.Review;
+import com.example.kursinisbackend.support.QueryBudgetTest;
+import org.junit.jupiter.api.Test;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ChatControllerQueryBudgetTest extends QueryBudgetTest {
+
+    @Test
+    void getAllChats() throws Exception {
+        perform(41, get("/api/chats")).andExpect(status().isOk());
+    }
+
+    @Test
+    void getChatById() throws Exception {
+        FoodOrder order = order(OrderStatus.PLACED, false);
+        perform(1, get("/api/chats/{chatId}", order.getChat().getId())).andExpect(status().isOk());
+    }
+
+    @Test
+    void getChatByOrderId() throws Exception {
+        FoodOrder order = order(OrderStatus.PLACED, false);
+        perform(2, get("/api/chats/orders/{orderId}", order.getId())).andExpect(status().isOk());
+    }
+
+    @Test
+    void getChatMessages() throws Exception {
+        FoodOrder order = order(OrderStatus.PLACED, false);
+        perform(1, get("/api/chats/{chatId}/messages", order.getChat().getId())).andExpect(status().isOk());
+    }
+
+    @Test
+    void getChatMessagesAfterCursor() throws Exception {
+        FoodOrder order = order(OrderStatus.PLACED, false);
+        Review first = message(order);
+        Review second = message(order);
+        message(order);
+        perform(1, get("/api/chats/{chatId}/messages", order.getChat().getId())
+                .param("after", String.valueOf(first.getId())).param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(second.getId()));
+    }
+
+    @Test
+    void getChatMessagesBeforeCursor() throws Exception {
+        FoodOrder order = order(OrderStatus.PLACED, false);
+        Review first = message(order);
+        Review second = message(order);
+        Review third = message(order);
+        perform(1, get("/api/chats/{chatId}/messages", order.getChat().getId())
+                .param("before", String.valueOf(third.getId())).param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(first.getId()))
+                .andExpect(jsonPath("$[1].id").value(second.getId()));
+    }
+
+    @Test
+    void sendMessage() throws Exception {
+        FoodOrder order = order(OrderStatus.PLACED, false);
+        perform(2, withJson(post("/api/chats/{chatId}/messages", order.getChat().getId()),
+                "{\"messageText\": \"Where is my food?\", \"userId\": " + customerId() + "}"))
+                .andExpect(status().isCreated());
+    }
+
+    @Test
+    void deleteMessage() throws Exception {
+        FoodOrder order = order(OrderStatus.PLACED, false);
+        Review message = message(order);
+        perform(2, delete("/api/chats/{chatId}/messages/{messageId}", order.getChat().getId(), message.getId()))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void createChat() throws Exception {
+        FoodOrder order = orderWithoutChat(OrderStatus.PLACED, false);
+        perform(4, withJson(post("/api/chats"), "{\"orderId\": " + order.getId() + "}"))
+                .andExpect(status().isCreated());
+    }
+
+    @Test
+    void deleteChat() throws Exception {
+        FoodOrder order = order(OrderStatus.PLACED, false);
+        perform(7, delete("/api/chats/{chatId}", order.getChat().getId())).andExpect(status().isOk());
+    }
+
+    @Test
+    void getUserChats() throws Exception {
+        // +2 when ChatReadTracker is cold: the user's read pointers and the chats' counters
+        perform(15, get("/api/chats/users/{userId}", customerId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].unreadCount").isNumber());
+    }
+
+    @Test
+    void getMessageCount() throws Exception {
+        FoodOrder order = order(OrderStatus.PLACED, false);
+        perform(1, get("/api/chats/{chatId}/count", order.getChat().getId())).andExpect(status().isOk());
+    }
+
+    @Test
+    void isChatLocked() throws Exception {
+        FoodOrder order = order(OrderStatus.COMPLETED, true);
+        perform(1, get("/api/chats/{chatId}/locked", order.getChat().getId())).andExpect(status().isOk());
+        // The chat's order and its status are cached now
+        perform(0, get("/api/chats/{chatId}/locked", order.getChat().getId()))
+                .andExpect(jsonPath("$.isLocked").value(true));
+    }
+
+    @Test
+    void getRecentMessages() throws Exception {
+        FoodOrder order = order(OrderStatus.PLACED, false);
+        Review latest = message(order);
+        perform(1, get("/api/chats/{chatId}/messages/recent", order.getChat().getId()).param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(latest.getId()));
+    }
+
+    @Test
+    void markAsRead() throws Exception {
+        FoodOrder order = order(OrderStatus.PLACED, false);
+        perform(3, withJson(put("/api/chats/{chatId}/read", order.getChat().getId()),
+                "{\"userId\": " + customerId() + "}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.unreadCount").value(0));
+    }
+}
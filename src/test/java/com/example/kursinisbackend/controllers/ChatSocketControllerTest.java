@@ -0,0 +1,135 @@
+package com.example.kursinisbackend.controllers;
+
+import com.example.kursinisbackend.fixtures.SyntheticDataGenerator;
+import com.example.kursinisbackend.service.ChatService;
+import com.example.kursinisbackend.support.GeneratedDataTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.messaging.converter.CompositeMessageConverter;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.converter.StringMessageConverter;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.datasource.url=jdbc:h2:mem:chatsocket;NON_KEYWORDS=USER,VALUE;DB_CLOSE_DELAY=-1")
+class ChatSocketControllerTest extends GeneratedDataTest {
+
+    @LocalServerPort
+    private int port;
+
+    private WebSocketStompClient stompClient;
+    private StompSession session;
+
+    @Override
+    protected SyntheticDataGenerator.Config config() {
+        SyntheticDataGenerator.Config config = SyntheticDataGenerator.Config.small();
+        config.orders = 5;
+        config.messagesPerChat = 0.0;
+        return config;
+    }
+
+    @BeforeEach
+    void connect() throws Exception {
+        stompClient = new WebSocketStompClient(new StandardWebSocketClient());
+        // Errors come back as text/plain, chat messages as JSON
+        stompClient.setMessageConverter(new CompositeMessageConverter(
+                List.of(new StringMessageConverter(), new MappingJackson2MessageConverter())));
+        session = stompClient.connectAsync("ws://localhost:" + port + "/ws", new StompSessionHandlerAdapter() {
+        }).get(5, TimeUnit.SECONDS);
+    }
+
+    @AfterEach
+    void disconnect() {
+        session.disconnect();
+        stompClient.stop();
+    }
+
+    @Test
+    void sentMessageIsPersistedAndBroadcast() throws Exception {
+        int orderId = data.firstOrderId;
+        BlockingQueue<Map<String, Object>> live = subscribe(ChatService.topic(orderId), Map.class);
+
+        session.send("/app/orders/" + orderId + "/chat", Map.of("messageText", "Where is my food?", "userId", data.customerIds[0]));
+
+        Map<String, Object> message = live.poll(5, TimeUnit.SECONDS);
+        assertNotNull(message, "message was not broadcast");
+        assertEquals("Where is my food?", message.get("messageText"));
+        assertEquals(orderId, message.get("orderId"));
+        assertEquals(data.customerIds[0], message.get("senderId"));
+        assertTrue((Integer) message.get("id") > 0);
+    }
+
+    @Test
+    void reconnectingClientResumesAfterLastReceivedId() throws Exception {
+        int orderId = data.firstOrderId + 1;
+        BlockingQueue<Map<String, Object>> live = subscribe(ChatService.topic(orderId), Map.class);
+        for (String text : List.of("first", "second", "third")) {
+            session.send("/app/orders/" + orderId + "/chat", Map.of("messageText", text, "userId", data.customerIds[0]));
+        }
+        Map<String, Object> first = live.poll(5, TimeUnit.SECONDS);
+        assertNotNull(first);
+        assertEquals("first", first.get("messageText"), "messages from one session keep their order");
+        assertNotNull(live.poll(5, TimeUnit.SECONDS));
+        assertNotNull(live.poll(5, TimeUnit.SECONDS));
+
+        StompHeaders headers = new StompHeaders();
+        headers.setDestination("/app/orders/" + orderId + "/chat/history");
+        headers.set("after", String.valueOf(first.get("id")));
+        BlockingQueue<List<Map<String, Object>>> history = new LinkedBlockingQueue<>();
+        session.subscribe(headers, handler(List.class, history));
+
+        List<Map<String, Object>> missed = history.poll(5, TimeUnit.SECONDS);
+        assertNotNull(missed, "history was not returned");
+        assertEquals(List.of("second", "third"), missed.stream().map(m -> m.get("messageText")).toList());
+    }
+
+    @Test
+    void invalidMessageIsReportedToSenderOnly() throws Exception {
+        BlockingQueue<String> errors = subscribe("/user/queue/errors", String.class);
+
+        session.send("/app/orders/" + data.firstOrderId + "/chat", Map.of("messageText", "hello", "userId", -1));
+
+        assertEquals("Error: User not found", errors.poll(5, TimeUnit.SECONDS));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private <T> BlockingQueue<T> subscribe(String destination, Class type) throws InterruptedException {
+        BlockingQueue<T> received = new LinkedBlockingQueue<>();
+        session.subscribe(destination, handler(type, received));
+        // The SUBSCRIBE frame is processed asynchronously; give the broker a moment to register it
+        Thread.sleep(200);
+        return received;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> StompFrameHandler handler(Class<?> type, BlockingQueue<T> received) {
+        return new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return type;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                received.add((T) payload);
+            }
+        };
+    }
+}
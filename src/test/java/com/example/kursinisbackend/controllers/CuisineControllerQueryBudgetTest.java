@@ -0,0 +1,128 @@
+package com.example.kursinisbackend.controllers;
+
+import com.example.kursinisbackend.model.Cuisine;
+import com.example.kursinisbackend.support.QueryBudgetTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class CuisineControllerQueryBudgetTest extends QueryBudgetTest {
+
+    @Test
+    void getAllCuisine() throws Exception {
+        perform(5, get("/api/cuisine")).andExpect(status().isOk());
+    }
+
+    @Test
+    void getCuisineById() throws Exception {
+        perform(1, get("/api/cuisine/{id}", cuisineId())).andExpect(status().isOk());
+    }
+
+    @Test
+    void getRestaurantMenu() throws Exception {
+        // 1 when MenuCache has not loaded the menu yet, 0 after
+        perform(1, get("/api/cuisine/restaurant/{restaurantId}", restaurantId())).andExpect(status().isOk());
+    }
+
+    @Test
+    void getRestaurantMenuNotModified() throws Exception {
+        String etag = mockMvc.perform(get("/api/cuisine/restaurant/{restaurantId}", restaurantId()))
+                .andReturn().getResponse().getHeader("ETag");
+        perform(0, get("/api/cuisine/restaurant/{restaurantId}", restaurantId()).header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void createCuisine() throws Exception {
+        // Cuisine.restaurant is @JsonIgnore, so this endpoint always ends in validation
+        perform(0, withJson(post("/api/cuisine"),
+                "{\"name\": \"Soup\", \"price\": 4.5, \"restaurant\": {\"id\": " + restaurantId() + "}}"));
+    }
+
+    @Test
+    void createCuisineFromJson() throws Exception {
+        perform(2, withJson(post("/api/cuisine/json"),
+                "{\"name\": \"Soup\", \"price\": 4.5, \"vegan\": true, \"restaurantId\": " + restaurantId() + "}"))
+                .andExpect(status().isCreated());
+    }
+
+    @Test
+    void updateCuisine() throws Exception {
+        perform(2, withJson(put("/api/cuisine/{id}", cuisineId()), "{\"name\": \"Renamed\", \"price\": 9.5}"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void updateCuisineFromJson() throws Exception {
+        perform(2, withJson(put("/api/cuisine/{id}/json", cuisineId()), "{\"price\": 9.5, \"spicy\": true}"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void deleteCuisine() throws Exception {
+        Cuisine cuisine = unorderedCuisine();
+        perform(2, delete("/api/cuisine/{id}", cuisine.getId())).andExpect(status().isOk());
+    }
+
+    @Test
+    void searchCuisineByName() throws Exception {
+        perform(1, get("/api/cuisine/search").param("name", "pizza")).andExpect(status().isOk());
+    }
+
+    @Test
+    void suggestCuisine() throws Exception {
+        perform(0, get("/api/cuisine/suggest").param("prefix", "piz")).andExpect(status().isOk());
+    }
+
+    @Test
+    void getVeganCuisine() throws Exception {
+        perform(0, get("/api/cuisine/vegan")).andExpect(status().isOk());
+    }
+
+    @Test
+    void getSpicyCuisine() throws Exception {
+        perform(0, get("/api/cuisine/spicy")).andExpect(status().isOk());
+    }
+
+    @Test
+    void getCuisineByPriceRange() throws Exception {
+        perform(0, get("/api/cuisine/price").param("min", "5").param("max", "15")).andExpect(status().isOk());
+    }
+
+    @Test
+    void getRestaurantVeganMenu() throws Exception {
+        perform(0, get("/api/cuisine/restaurant/{restaurantId}/vegan", restaurantId())).andExpect(status().isOk());
+    }
+
+    @Test
+    void filterCuisine() throws Exception {
+        perform(0, get("/api/cuisine/filter").param("vegan", "true").param("spicy", "false")
+                .param("minPrice", "5").param("maxPrice", "15").param("restaurantId", String.valueOf(restaurantId())))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void filterCuisineByIngredients() throws Exception {
+        perform(0, get("/api/cuisine/filter").param("ingredient", "tomato").param("excludeIngredient", "dairy", "nut"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void bulkCreateCuisine() throws Exception {
+        // Same as createCuisine: the restaurant reference is not deserialized
+        perform(0, withJson(post("/api/cuisine/bulk"),
+                "[{\"name\": \"Soup\", \"price\": 4.5, \"restaurant\": {\"id\": " + restaurantId() + "}}]"));
+    }
+
+    @Test
+    void importCuisine() throws Exception {
+        // One restaurant lookup for both lines, one insert batch, one catalog reload, and reading and
+        // moving IdSequence when the import starts a new block of ids
+        perform(5, post("/api/cuisine/import").param("restaurantId", String.valueOf(restaurantId()))
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content("{\"name\": \"Soup\", \"price\": 4.5}\n{\"name\": \"Bread\", \"price\": 1.5, \"vegan\": true}\n"))
+                .andExpect(status().isOk());
+    }
+}
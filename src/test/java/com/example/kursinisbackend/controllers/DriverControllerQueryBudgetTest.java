@@ -0,0 +1,83 @@
+package com.example.kursinisbackend.controllers;
+
+import com.example.kursinisbackend.model.FoodOrder;
+import com.example.kursinisbackend.model.OrderStatus;
+import com.example.kursinisbackend.support.QueryBudgetTest;
+import org.junit.jupiter.api.Test;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class DriverControllerQueryBudgetTest extends QueryBudgetTest {
+
+    @Test
+    void getDriverById() throws Exception {
+        perform(1, get("/api/drivers/{driverId}", driverId())).andExpect(status().isOk());
+    }
+
+    @Test
+    void getDriverOrders() throws Exception {
+        perform(27, get("/api/drivers/{driverId}/orders", driverId())).andExpect(status().isOk());
+    }
+
+    @Test
+    void getDriverActiveOrders() throws Exception {
+        perform(27, get("/api/drivers/{driverId}/orders/active", driverId())).andExpect(status().isOk());
+    }
+
+    @Test
+    void getAvailableOrders() throws Exception {
+        perform(1, get("/api/drivers/orders/available")).andExpect(status().isOk());
+    }
+
+    @Test
+    void claimOrder() throws Exception {
+        FoodOrder order = order(OrderStatus.ACCEPTED, false);
+        perform(3, post("/api/drivers/{driverId}/orders/{orderId}/claim", driverId(), order.getId()))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void startDelivery() throws Exception {
+        FoodOrder order = order(OrderStatus.DRIVER_ASSIGNED, true);
+        perform(3, post("/api/drivers/{driverId}/orders/{orderId}/start-delivery", driverId(), order.getId()))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void markDelivered() throws Exception {
+        FoodOrder order = order(OrderStatus.OUT_FOR_DELIVERY, true);
+        perform(3, post("/api/drivers/{driverId}/orders/{orderId}/deliver", driverId(), order.getId()))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void completeOrder() throws Exception {
+        FoodOrder order = order(OrderStatus.DELIVERED, true);
+        perform(3, post("/api/drivers/{driverId}/orders/{orderId}/complete", driverId(), order.getId()))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void getDriverStats() throws Exception {
+        perform(27, get("/api/drivers/{driverId}/stats", driverId())).andExpect(status().isOk());
+    }
+
+    @Test
+    void getDriverEarnings() throws Exception {
+        perform(27, get("/api/drivers/{driverId}/earnings", driverId())).andExpect(status().isOk());
+    }
+
+    @Test
+    void updateLocation() throws Exception {
+        perform(1, withJson(put("/api/drivers/{driverId}/location", driverId()),
+                "{\"latitude\": 54.687, \"longitude\": 25.279}"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void toggleAvailability() throws Exception {
+        perform(1, withJson(put("/api/drivers/{driverId}/availability", driverId()), "{\"available\": true}"))
+                .andExpect(status().isOk());
+    }
+}
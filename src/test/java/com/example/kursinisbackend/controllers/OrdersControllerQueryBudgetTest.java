@@ -0,0 +1,154 @@
+package com.example.kursinisbackend.controllers;
+
+import com.example.kursinisbackend.model.FoodOrder;
+import com.example.kursinisbackend.model.OrderStatus;
+import com.example.kursinisbackend.service.SoldOutRegistry;
+import com.example.kursinisbackend.support.QueryBudgetTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class OrdersControllerQueryBudgetTest extends QueryBudgetTest {
+
+    @Autowired
+    private SoldOutRegistry soldOutRegistry;
+
+    @Test
+    void getRestaurantMenu() throws Exception {
+        // 1 when MenuCache has not loaded the menu yet, 0 after
+        perform(1, get("/getMenuRestaurant/{id}", restaurantId())).andExpect(status().isOk());
+    }
+
+    @Test
+    void getRestaurantMenuNotModified() throws Exception {
+        String etag = mockMvc.perform(get("/getMenuRestaurant/{id}", restaurantId())).andReturn().getResponse().getHeader("ETag");
+        perform(0, get("/getMenuRestaurant/{id}", restaurantId()).header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void getRestaurantMenuNotModifiedAfterSoldOut() throws Exception {
+        String etag = mockMvc.perform(get("/getMenuRestaurant/{id}", restaurantId())).andReturn().getResponse().getHeader("ETag");
+        int cuisineId = data.menuByRestaurant.get(restaurantId())[0];
+        soldOutRegistry.set(cuisineId, true);
+        try {
+            // Selling out does not reload the menu; the header carries it
+            perform(0, get("/getMenuRestaurant/{id}", restaurantId()).header("If-None-Match", etag))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string(SoldOutRegistry.HEADER, String.valueOf(cuisineId)));
+        } finally {
+            soldOutRegistry.set(cuisineId, false);
+        }
+    }
+
+    @Test
+    void getOrdersForUser() throws Exception {
+        perform(14, get("/getOrderByUser/{id}", customerId())).andExpect(status().isOk());
+    }
+
+    @Test
+    void getMessagesForOrder() throws Exception {
+        FoodOrder order = order(OrderStatus.PLACED, false);
+        perform(4, get("/getMessagesForOrder/{id}", order.getId())).andExpect(status().isOk());
+    }
+
+    @Test
+    void sendMessage() throws Exception {
+        FoodOrder order = order(OrderStatus.COMPLETED, true);
+        perform(4, withJson(post("/sendMessage"), "{\"messageText\": \"Great food\", \"rating\": 5, \"userId\": "
+                + customerId() + ", \"orderId\": " + order.getId() + "}"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void createOrder() throws Exception {
+        int[] menu = data.menuByRestaurant.get(restaurantId());
+        perform(13, withJson(post("/createOrder"), "{\"userId\": " + customerId() + ", \"restaurantId\": "
+                + restaurantId() + ", \"items\": [{\"cuisineId\": " + menu[0] + ", \"quantity\": 2}, {\"cuisineId\": "
+                + menu[1] + ", \"quantity\": 1}, {\"cuisineId\": " + menu[2] + ", \"quantity\": 1}]}"))
+                .andExpect(status().isCreated());
+    }
+
+    @Test
+    void createOrderWithSoldOutItem() throws Exception {
+        int[] menu = data.menuByRestaurant.get(restaurantId());
+        soldOutRegistry.set(menu[1], true);
+        try {
+            // User and restaurant only: the sold-out item is rejected before it is loaded
+            perform(3, withJson(post("/createOrder"), "{\"userId\": " + customerId() + ", \"restaurantId\": "
+                    + restaurantId() + ", \"items\": [{\"cuisineId\": " + menu[1] + ", \"quantity\": 1}]}"))
+                    .andExpect(status().isBadRequest());
+        } finally {
+            soldOutRegistry.set(menu[1], false);
+        }
+    }
+
+    @Test
+    void getOrderById() throws Exception {
+        FoodOrder order = order(OrderStatus.PLACED, false);
+        perform(1, get("/getOrder/{orderId}", order.getId())).andExpect(status().isOk());
+    }
+
+    @Test
+    void cancelOrder() throws Exception {
+        FoodOrder order = order(OrderStatus.PLACED, false);
+        perform(7, delete("/cancelOrder/{orderId}", order.getId())).andExpect(status().isOk());
+    }
+
+    @Test
+    void updateOrderStatus() throws Exception {
+        FoodOrder order = order(OrderStatus.PLACED, false);
+        perform(2, withJson(put("/updateOrderStatus/{orderId}", order.getId()), "{\"status\": \"ACCEPTED\"}"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void getOrdersByStatus() throws Exception {
+        perform(41, get("/orders/status/{status}", "COMPLETED")).andExpect(status().isOk());
+    }
+
+    @Test
+    void getOrdersByRestaurant() throws Exception {
+        perform(30, get("/orders/restaurant/{restaurantId}", restaurantId())).andExpect(status().isOk());
+    }
+
+    @Test
+    void getOrdersByDriver() throws Exception {
+        perform(26, get("/orders/driver/{driverId}", driverId())).andExpect(status().isOk());
+    }
+
+    @Test
+    void getAvailableOrders() throws Exception {
+        perform(1, get("/orders/available")).andExpect(status().isOk());
+    }
+
+    @Test
+    void assignDriver() throws Exception {
+        FoodOrder order = order(OrderStatus.READY, false);
+        perform(3, withJson(post("/orders/{orderId}/assignDriver", order.getId()), "{\"driverId\": " + driverId() + "}"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void getOrderStatistics() throws Exception {
+        perform(49, get("/orders/stats")).andExpect(status().isOk());
+    }
+
+    @Test
+    void getUserActiveOrders() throws Exception {
+        perform(14, get("/orders/user/{userId}/active", customerId())).andExpect(status().isOk());
+    }
+
+    @Test
+    void getRestaurantPendingOrders() throws Exception {
+        perform(30, get("/orders/restaurant/{restaurantId}/pending", restaurantId())).andExpect(status().isOk());
+    }
+
+    @Test
+    void getDriverActiveOrders() throws Exception {
+        perform(1, get("/orders/driver/{driverId}/active", driverId())).andExpect(status().isOk());
+    }
+}
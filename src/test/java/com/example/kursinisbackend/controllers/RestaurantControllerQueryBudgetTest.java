@@ -0,0 +1,142 @@
+package com.example.kursinisbackend.controllers;
+
+import com.example.kursinisbackend.model.Cuisine;
+import com.example.kursinisbackend.model.FoodOrder;
+import com.example.kursinisbackend.model.OrderStatus;
+import com.example.kursinisbackend.service.RestaurantLeaderboard;
+import com.example.kursinisbackend.service.SoldOutRegistry;
+import com.example.kursinisbackend.support.QueryBudgetTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class RestaurantControllerQueryBudgetTest extends QueryBudgetTest {
+
+    @Autowired
+    private RestaurantLeaderboard restaurantLeaderboard;
+
+    @Autowired
+    private SoldOutRegistry soldOutRegistry;
+
+    @Test
+    void getRestaurantById() throws Exception {
+        perform(1, get("/api/restaurants/{restaurantId}", restaurantId())).andExpect(status().isOk());
+    }
+
+    @Test
+    void getTopRated() throws Exception {
+        restaurantLeaderboard.load();
+        perform(1, get("/api/restaurants/leaderboard/top-rated").param("limit", "10")).andExpect(status().isOk());
+    }
+
+    @Test
+    void getMostPopular() throws Exception {
+        restaurantLeaderboard.load();
+        perform(1, get("/api/restaurants/leaderboard/popular").param("limit", "10")).andExpect(status().isOk());
+    }
+
+    @Test
+    void getRestaurantOrders() throws Exception {
+        perform(31, get("/api/restaurants/{restaurantId}/orders", restaurantId())).andExpect(status().isOk());
+    }
+
+    @Test
+    void getRestaurantOrdersByStatus() throws Exception {
+        perform(31, get("/api/restaurants/{restaurantId}/orders/status/{status}", restaurantId(), "COMPLETED"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void updateRestaurantOrderStatus() throws Exception {
+        FoodOrder order = order(OrderStatus.ACCEPTED, false);
+        perform(3, withJson(put("/api/restaurants/{restaurantId}/orders/{orderId}/status", restaurantId(), order.getId()),
+                "{\"status\": \"READY\"}"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void acceptOrder() throws Exception {
+        FoodOrder order = order(OrderStatus.PLACED, false);
+        perform(3, post("/api/restaurants/{restaurantId}/orders/{orderId}/accept", restaurantId(), order.getId()))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void markOrderReady() throws Exception {
+        FoodOrder order = order(OrderStatus.ACCEPTED, false);
+        perform(3, post("/api/restaurants/{restaurantId}/orders/{orderId}/ready", restaurantId(), order.getId()))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void getRestaurantPendingOrders() throws Exception {
+        perform(31, get("/api/restaurants/{restaurantId}/orders/pending", restaurantId())).andExpect(status().isOk());
+    }
+
+    @Test
+    void addMenuItem() throws Exception {
+        // Restaurant and insert, plus reading and moving IdSequence when the item starts a new block of ids
+        perform(4, withJson(post("/api/restaurants/{restaurantId}/menu", restaurantId()),
+                "{\"name\": \"Soup\", \"ingredients\": \"beetroot, dill\", \"price\": 4.5, \"vegan\": true}"))
+                .andExpect(status().isCreated());
+    }
+
+    @Test
+    void updateMenuItem() throws Exception {
+        perform(3, withJson(put("/api/restaurants/{restaurantId}/menu/{cuisineId}", restaurantId(), cuisineId()),
+                "{\"name\": \"Renamed\", \"price\": 9.5}"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void deleteMenuItem() throws Exception {
+        Cuisine cuisine = unorderedCuisine();
+        perform(3, delete("/api/restaurants/{restaurantId}/menu/{cuisineId}", restaurantId(), cuisine.getId()))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void setSoldOut() throws Exception {
+        int cuisineId = cuisineId();
+        try {
+            perform(1, withJson(put("/api/restaurants/{restaurantId}/menu/{cuisineId}/sold-out", restaurantId(), cuisineId),
+                    "{\"soldOut\": true}"))
+                    .andExpect(status().isOk());
+        } finally {
+            soldOutRegistry.set(cuisineId, false);
+        }
+    }
+
+    @Test
+    void syncMenu() throws Exception {
+        String menu = "[{\"key\": \"pos-1\", \"name\": \"Soup\", \"price\": 4.5, \"vegan\": true}, " +
+                "{\"key\": \"pos-2\", \"name\": \"Stew\", \"ingredients\": \"beef\", \"price\": 9.5}]";
+        mockMvc.perform(withJson(put("/api/restaurants/{restaurantId}/menu", restaurantId()), menu)).andExpect(status().isOk());
+        // The same push again: one read of the menu, nothing written
+        perform(1, withJson(put("/api/restaurants/{restaurantId}/menu", restaurantId()), menu)).andExpect(status().isOk());
+    }
+
+    @Test
+    void getRestaurantStats() throws Exception {
+        perform(32, get("/api/restaurants/{restaurantId}/stats", restaurantId())).andExpect(status().isOk());
+    }
+
+    @Test
+    void updateOperatingHours() throws Exception {
+        perform(1, withJson(put("/api/restaurants/{restaurantId}/hours", restaurantId()),
+                "{\"openingTime\": \"09:00\", \"closingTime\": \"22:00\"}"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void isRestaurantOpen() throws Exception {
+        perform(1, get("/api/restaurants/{restaurantId}/open", restaurantId())).andExpect(status().isOk());
+    }
+
+    @Test
+    void getTodayOrders() throws Exception {
+        perform(31, get("/api/restaurants/{restaurantId}/orders/today", restaurantId())).andExpect(status().isOk());
+    }
+}
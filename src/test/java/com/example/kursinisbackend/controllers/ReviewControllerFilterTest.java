@@ -0,0 +1,93 @@
+package com.example.kursinisbackend.controllers;
+
+import com.example.kursinisbackend.fixtures.SyntheticDataGenerator;
+import com.example.kursinisbackend.model.Review;
+import com.example.kursinisbackend.support.GeneratedDataTest;
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReviewControllerFilterTest extends GeneratedDataTest {
+
+    @Autowired
+    private ReviewController reviewController;
+
+    @Override
+    protected SyntheticDataGenerator.Config config() {
+        SyntheticDataGenerator.Config config = SyntheticDataGenerator.Config.small();
+        config.orders = 400;
+        return config;
+    }
+
+    @Test
+    void reviewsByRatingPageThroughOneRating() {
+        List<Integer> expected = jdbcTemplate.queryForList(
+                "SELECT id FROM Review WHERE rating = 4 ORDER BY id DESC LIMIT 30", Integer.class);
+
+        List<Integer> firstPage = ids(reviewController.getReviewsByRating(4, null, 20).getBody());
+        List<Integer> secondPage = ids(reviewController.getReviewsByRating(4, firstPage.get(19), 10).getBody());
+
+        List<Integer> pages = new ArrayList<>(firstPage);
+        pages.addAll(secondPage);
+        assertEquals(expected, pages);
+    }
+
+    @Test
+    void filterCombinesRatingRangeRestaurantAndDates() {
+        int restaurantId = data.restaurantIds[0];
+        LocalDate from = LocalDate.now().minusDays(200);
+        LocalDate to = LocalDate.now().minusDays(20);
+        List<Integer> expected = jdbcTemplate.queryForList("SELECT r.id FROM Review r JOIN FoodOrder o ON o.chat_id = r.chat_id " +
+                        "WHERE o.restaurant_id = ? AND r.rating BETWEEN 2 AND 4 AND r.dateCreated BETWEEN ? AND ? " +
+                        "ORDER BY r.id DESC LIMIT 25", Integer.class,
+                restaurantId, Date.valueOf(from), Date.valueOf(to));
+        assertFalse(expected.isEmpty());
+
+        assertEquals(expected, ids(reviewController.filterReviews(2, 4, restaurantId, null, from, to, null, 25).getBody()));
+    }
+
+    @Test
+    void filterByDriverPagesWithBefore() {
+        int driverId = data.driverIds[0];
+        List<Integer> expected = jdbcTemplate.queryForList("SELECT r.id FROM Review r JOIN FoodOrder o ON o.chat_id = r.chat_id " +
+                "WHERE o.driver_id = ? AND r.rating > 0 ORDER BY r.id DESC LIMIT 10 OFFSET 5", Integer.class, driverId);
+
+        List<Integer> firstPage = ids(reviewController.filterReviews(1, 5, null, driverId, null, null, null, 5).getBody());
+        assertEquals(expected, ids(reviewController.filterReviews(1, 5, null, driverId, null, null,
+                firstPage.get(4), 10).getBody()));
+    }
+
+    @Test
+    void filterRejectsAnInvalidRange() {
+        assertEquals(400, reviewController.filterReviews(4, 2, null, null, null, null, null, 10).getStatusCode().value());
+        assertEquals(400, reviewController.filterReviews(0, 5, null, null, null, null, null, 10).getStatusCode().value());
+    }
+
+    @Test
+    void histogramIsAGroupedCount() {
+        JsonObject histogram = new Gson().fromJson((String) reviewController.getRatingHistogram().getBody(), JsonObject.class);
+
+        long total = 0;
+        for (int star = 1; star <= 5; star++) {
+            long expected = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM Review WHERE rating = ?", Long.class, star);
+            assertEquals(expected, histogram.getAsJsonObject("ratingCounts").get(String.valueOf(star)).getAsLong());
+            total += expected;
+        }
+        assertEquals(total, histogram.get("totalRatings").getAsLong());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Integer> ids(Object body) {
+        List<Integer> ids = new ArrayList<>();
+        ((List<Review>) body).forEach(review -> ids.add(review.getId()));
+        return ids;
+    }
+}
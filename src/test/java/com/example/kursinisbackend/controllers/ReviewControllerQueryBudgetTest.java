@@ -0,0 +1,110 @@
+package com.example.kursinisbackend.controllers;
+
+import com.example.kursinisbackend.model.FoodOrder;
+import com.example.kursinisbackend.model.OrderStatus;
+import com.example.kursinisbackend.model.Review;
+import com.example.kursinisbackend.support.QueryBudgetTest;
+import org.junit.jupiter.api.Test;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ReviewControllerQueryBudgetTest extends QueryBudgetTest {
+
+    @Test
+    void getAllReviews() throws Exception {
+        perform(1, get("/api/reviews")).andExpect(status().isOk());
+    }
+
+    @Test
+    void getReviewById() throws Exception {
+        Review review = message(order(OrderStatus.COMPLETED, true));
+        perform(1, get("/api/reviews/{reviewId}", review.getId())).andExpect(status().isOk());
+    }
+
+    @Test
+    void createReview() throws Exception {
+        FoodOrder order = order(OrderStatus.COMPLETED, true);
+        perform(5, withJson(post("/api/reviews"), "{\"reviewText\": \"Great food\", \"rating\": 5, \"userId\": "
+                + customerId() + ", \"chatId\": " + order.getChat().getId() + "}"))
+                .andExpect(status().isCreated());
+    }
+
+    @Test
+    void updateReview() throws Exception {
+        Review review = message(order(OrderStatus.COMPLETED, true));
+        perform(2, withJson(put("/api/reviews/{reviewId}", review.getId()), "{\"reviewText\": \"Edited\"}"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void deleteReview() throws Exception {
+        Review review = message(order(OrderStatus.COMPLETED, true));
+        perform(2, delete("/api/reviews/{reviewId}", review.getId())).andExpect(status().isOk());
+    }
+
+    @Test
+    void getReviewsByUser() throws Exception {
+        perform(2, get("/api/reviews/users/{userId}", customerId())).andExpect(status().isOk());
+    }
+
+    @Test
+    void getReviewsWrittenByUser() throws Exception {
+        perform(2, get("/api/reviews/users/{userId}/written", customerId())).andExpect(status().isOk());
+    }
+
+    @Test
+    void getRestaurantReviews() throws Exception {
+        perform(1, get("/api/reviews/restaurants/{restaurantId}", restaurantId())).andExpect(status().isOk());
+    }
+
+    @Test
+    void getRestaurantReviewsPage() throws Exception {
+        perform(1, get("/api/reviews/restaurants/{restaurantId}", restaurantId())
+                .param("before", String.valueOf(Integer.MAX_VALUE)).param("limit", "20"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void getDriverReviews() throws Exception {
+        perform(1, get("/api/reviews/drivers/{driverId}", driverId())).andExpect(status().isOk());
+    }
+
+    @Test
+    void getAverageRating() throws Exception {
+        perform(2, get("/api/reviews/users/{userId}/rating", restaurantId())).andExpect(status().isOk());
+    }
+
+    @Test
+    void getRecentReviews() throws Exception {
+        perform(0, get("/api/reviews/recent").param("limit", "5")).andExpect(status().isOk());
+    }
+
+    @Test
+    void getRecentRestaurantReviews() throws Exception {
+        perform(0, get("/api/reviews/restaurants/{restaurantId}/recent", restaurantId()).param("limit", "5"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void getReviewsByRating() throws Exception {
+        perform(1, get("/api/reviews/rating/{rating}", 5)).andExpect(status().isOk());
+    }
+
+    @Test
+    void getReviewsByRatingPage() throws Exception {
+        perform(1, get("/api/reviews/rating/{rating}", 5).param("limit", "20")).andExpect(status().isOk());
+    }
+
+    @Test
+    void getRatingHistogram() throws Exception {
+        perform(1, get("/api/reviews/rating/histogram")).andExpect(status().isOk());
+    }
+
+    @Test
+    void filterReviews() throws Exception {
+        perform(1, get("/api/reviews/filter").param("minRating", "4").param("restaurantId", String.valueOf(restaurantId()))
+                .param("from", "2020-01-01").param("limit", "20"))
+                .andExpect(status().isOk());
+    }
+}
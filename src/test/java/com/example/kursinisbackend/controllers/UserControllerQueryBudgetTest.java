@@ -0,0 +1,124 @@
+package com.example.kursinisbackend.controllers;
+
+import com.example.kursinisbackend.model.BasicUser;
+import com.example.kursinisbackend.model.User;
+import com.example.kursinisbackend.support.QueryBudgetTest;
+import org.junit.jupiter.api.Test;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class UserControllerQueryBudgetTest extends QueryBudgetTest {
+
+    private static final String NEW_USER = """
+            {"login": "%s", "password": "secret", "name": "Ona", "surname": "Budget",
+             "phoneNumber": "+37060000000", "address": "Vilniaus g. 1"}""";
+
+    @Test
+    void getAll() throws Exception {
+        perform(1, get("/allUsers")).andExpect(status().isOk());
+    }
+
+    @Test
+    void getAllRestaurants() throws Exception {
+        perform(1, get("/allRestaurants")).andExpect(status().isOk());
+    }
+
+    @Test
+    void getUserByCredentials() throws Exception {
+        User customer = entityManager.find(User.class, customerId());
+        perform(1, withJson(post("/validateUser"),
+                "{\"login\": \"" + customer.getLogin() + "\", \"password\": \"password\"}"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void updateUser() throws Exception {
+        User user = new User("budget_plain", "secret", "Ona", "Budget", "+37060000000");
+        entityManager.persist(user);
+        perform(2, withJson(put("/updateUser"), "{\"id\": " + user.getId()
+                + ", \"login\": \"budget_plain\", \"password\": \"secret\", \"name\": \"Renamed\", \"surname\": \"Budget\"}"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void updateUserById() throws Exception {
+        perform(2, withJson(put("/updateUserById/{id}", customerId()), "{\"name\": \"Renamed\"}"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void createUser() throws Exception {
+        perform(2, withJson(post("/insertUser"), NEW_USER.formatted("budget_user"))).andExpect(status().isOk());
+    }
+
+    @Test
+    void createBasicUser() throws Exception {
+        perform(2, withJson(post("/insertBasic"), NEW_USER.formatted("budget_basic"))).andExpect(status().isOk());
+    }
+
+    @Test
+    void createBasicUserAlt() throws Exception {
+        perform(2, withJson(post("/insertBasicUser"), NEW_USER.formatted("budget_basic_alt")))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void deleteUser() throws Exception {
+        BasicUser user = new BasicUser("budget_delete", "secret", "Ona", "Budget", "+37060000000", "Vilniaus g. 1");
+        entityManager.persist(user);
+        perform(5, delete("/deleteUser/{id}", user.getId())).andExpect(status().isOk());
+    }
+
+    @Test
+    void createDriver() throws Exception {
+        perform(3, withJson(post("/insertDriver"), """
+                {"login": "budget_driver", "password": "secret", "name": "Jonas", "surname": "Budget",
+                 "phoneNumber": "+37060000001", "address": "Kauno g. 1", "licence": "LT-42",
+                 "birthDate": "1990-01-01", "vehicleType": "CAR"}"""))
+                .andExpect(status().isCreated());
+    }
+
+    @Test
+    void createRestaurant() throws Exception {
+        perform(3, withJson(post("/insertRestaurant"), """
+                {"login": "budget_restaurant", "password": "secret", "name": "Ona", "surname": "Budget",
+                 "phoneNumber": "+37060000002", "address": "Pilies g. 1", "restaurantName": "Budget Bistro",
+                 "openingTime": "08:00:00", "closingTime": "22:00:00"}"""))
+                .andExpect(status().isCreated());
+    }
+
+    @Test
+    void getUserById() throws Exception {
+        perform(1, get("/users/{id}", customerId())).andExpect(status().isOk());
+    }
+
+    @Test
+    void getAllDrivers() throws Exception {
+        perform(1, get("/allDrivers")).andExpect(status().isOk());
+    }
+
+    @Test
+    void getAllBasicUsers() throws Exception {
+        perform(1, get("/allBasicUsers")).andExpect(status().isOk());
+    }
+
+    @Test
+    void updateUserProfile() throws Exception {
+        perform(2, withJson(put("/users/{id}/profile", restaurantId()),
+                "{\"name\": \"Renamed\", \"address\": \"Pilies g. 2\", \"openingTime\": \"09:00\"}"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void changePassword() throws Exception {
+        perform(2, withJson(put("/users/{id}/password", customerId()),
+                "{\"oldPassword\": \"password\", \"newPassword\": \"secret\"}"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void getUserStats() throws Exception {
+        perform(14, get("/users/{id}/stats", customerId())).andExpect(status().isOk());
+    }
+}
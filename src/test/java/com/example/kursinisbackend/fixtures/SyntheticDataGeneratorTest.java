@@ -0,0 +1,72 @@
+package com.example.kursinisbackend.fixtures;
+
+import com.example.kursinisbackend.model.BasicUser;
+import com.example.kursinisbackend.repos.BasicUserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("embedded")
+class SyntheticDataGeneratorTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BasicUserRepository basicUserRepository;
+
+    @Test
+    void generatesConsistentSkewedDataset() throws Exception {
+        SyntheticDataGenerator.Config config = SyntheticDataGenerator.Config.small();
+        config.orders = 500;
+        GeneratedData data = new SyntheticDataGenerator(dataSource, config).generate();
+
+        assertEquals(500, count("SELECT COUNT(*) FROM FoodOrder WHERE id >= " + data.firstOrderId));
+        assertEquals(data.orderLineCount, count("SELECT COUNT(*) FROM FoodOrder_cuisineList WHERE orderList_id >= " + data.firstOrderId));
+        assertEquals(data.ratingCount, count("SELECT COUNT(*) FROM Review r JOIN FoodOrder o ON o.chat_id = r.chat_id " +
+                "WHERE r.rating > 0 AND o.orderStatus = 'COMPLETED' AND o.id >= " + data.firstOrderId));
+        assertEquals(0, count("SELECT COUNT(*) FROM FoodOrder WHERE driver_id IS NULL AND orderStatus = 'COMPLETED'"));
+
+        long hottest = count("SELECT COUNT(*) FROM FoodOrder WHERE restaurant_id = " + data.restaurantIds[0]);
+        long coldest = count("SELECT COUNT(*) FROM FoodOrder WHERE restaurant_id = " + data.restaurantIds[data.restaurantIds.length - 1]);
+        assertTrue(hottest > coldest * 3, "restaurant popularity should be skewed");
+
+        // Generated users take their ids from IdSequence like Hibernate does, so a user saved
+        // afterwards gets an id of its own; it may lie below them if Hibernate reserved its block first
+        BasicUser saved = basicUserRepository.save(new BasicUser("after_generate", "x", "A", "B", "1", "C"));
+        assertTrue(IntStream.of(data.restaurantIds).noneMatch(id -> id == saved.getId())
+                && IntStream.of(data.customerIds).noneMatch(id -> id == saved.getId())
+                && IntStream.of(data.driverIds).noneMatch(id -> id == saved.getId()));
+    }
+
+    @Test
+    void sameSeedGivesSameShape() throws Exception {
+        SyntheticDataGenerator.Config config = SyntheticDataGenerator.Config.small();
+        config.orders = 200;
+        GeneratedData first = new SyntheticDataGenerator(dataSource, config).generate();
+        config.seed = config.seed + 1000;
+        GeneratedData other = new SyntheticDataGenerator(dataSource, config).generate();
+        config.seed = config.seed - 1000;
+        GeneratedData again = new SyntheticDataGenerator(dataSource, config).generate();
+
+        assertEquals(first.orderLineCount, again.orderLineCount);
+        assertEquals(first.messageCount, again.messageCount);
+        assertEquals(first.ratingCount, again.ratingCount);
+        assertNotEquals(first.messageCount, other.messageCount);
+    }
+
+    private long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+}
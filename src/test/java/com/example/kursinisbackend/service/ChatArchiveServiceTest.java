@@ -0,0 +1,146 @@
+package com.example.kursinisbackend.service;
+
+import com.example.kursinisbackend.controllers.ChatController;
+import com.example.kursinisbackend.fixtures.SyntheticDataGenerator;
+import com.example.kursinisbackend.model.Review;
+import com.example.kursinisbackend.support.GeneratedDataTest;
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChatArchiveServiceTest extends GeneratedDataTest {
+
+    // Far older than any generated history, so only this test's orders are due
+    private static final LocalDate ARCHIVED_DAY = LocalDate.now().minusDays(5_000);
+    private static final LocalDate CUTOFF = ARCHIVED_DAY.plusDays(1);
+
+    @Autowired
+    private ChatArchiveService chatArchiveService;
+
+    @Autowired
+    private ChatController chatController;
+
+    @Override
+    protected SyntheticDataGenerator.Config config() {
+        SyntheticDataGenerator.Config config = SyntheticDataGenerator.Config.small();
+        config.orders = 20;
+        config.messagesPerChat = 6.0;
+        return config;
+    }
+
+    @Test
+    void archivedChatsReadTheSameAsBefore() throws Exception {
+        int first = data.firstOrderId;
+        List<Integer> chatIds = due(first, first + 10);
+        int ratedChat = chatIds.get(0);
+        jdbcTemplate.update("INSERT INTO Review (id, rating, reviewText, dateCreated, commentOwner_id, chat_id) " +
+                "VALUES (?, 5, 'Great', ?, ?, ?)", IdSequences.reserve(dataSource, "Review", 1),
+                Date.valueOf(ARCHIVED_DAY), data.customerIds[0], ratedChat);
+
+        List<List<Review>> before = new ArrayList<>();
+        for (int chatId : chatIds) {
+            before.add(messages(chatId, null, null, null));
+        }
+
+        ChatArchiveService.CompactionResult result = chatArchiveService.compact(CUTOFF);
+        assertEquals(chatIds.size(), result.chats());
+        assertTrue(result.storedBytes() < result.rawBytes());
+
+        for (int i = 0; i < chatIds.size(); i++) {
+            int chatId = chatIds.get(i);
+            assertTrue(chatArchiveService.isArchived(chatId));
+            List<Review> expected = before.get(i);
+            assertSameMessages(expected, messages(chatId, null, null, null));
+            assertEquals(expected.size(), messageCount(chatId));
+            if (expected.size() >= 3) {
+                int middle = expected.get(expected.size() / 2).getId();
+                assertSameMessages(expected.subList(expected.size() / 2 + 1, expected.size()),
+                        messages(chatId, middle, null, null));
+                assertSameMessages(expected.subList(expected.size() / 2 + 1, expected.size() / 2 + 2),
+                        messages(chatId, middle, null, 1));
+                assertSameMessages(expected.subList(Math.max(0, expected.size() / 2 - 2), expected.size() / 2),
+                        messages(chatId, null, middle, 2));
+                assertSameMessages(expected.subList(expected.size() - 2, expected.size()),
+                        messages(chatId, null, null, 2));
+            }
+        }
+
+        Integer remaining = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM Review WHERE chat_id IN (" +
+                String.join(",", chatIds.stream().map(String::valueOf).toList()) + ")", Integer.class);
+        Integer rated = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM Review r JOIN FoodOrder o ON o.chat_id = r.chat_id " +
+                "WHERE o.id >= ? AND o.id < ? AND r.rating > 0",
+                Integer.class, first, first + 10);
+        assertEquals(rated, remaining, "only ratings stay rows");
+    }
+
+    @Test
+    void recentAndOpenOrdersAreNotArchived() {
+        int first = data.firstOrderId + 10;
+        List<Integer> chatIds = due(first, first + 3);
+        finish(first, first + 1, "COMPLETED", LocalDate.now());
+        finish(first + 1, first + 2, "OUT_FOR_DELIVERY", ARCHIVED_DAY);
+
+        chatArchiveService.compact(CUTOFF);
+
+        assertFalse(chatArchiveService.isArchived(chatIds.get(0)));
+        assertFalse(chatArchiveService.isArchived(chatIds.get(1)));
+        assertTrue(chatArchiveService.isArchived(chatIds.get(2)));
+        assertEquals(0, chatArchiveService.compact(CUTOFF).chats(), "archived chats are not picked up again");
+    }
+
+    @Test
+    void codecRoundTrips() {
+        List<TranscriptCodec.Entry> entries = List.of(
+                new TranscriptCodec.Entry(7, 3, 0, LocalDate.of(2024, 5, 1), "Labas, kur mano pica? 🍕"),
+                new TranscriptCodec.Entry(9, 0, 0, null, null),
+                new TranscriptCodec.Entry(1_000_000, 42, 0, LocalDate.of(2024, 5, 2), ""));
+
+        TranscriptCodec.Encoded encoded = TranscriptCodec.encode(entries);
+
+        assertEquals(entries, TranscriptCodec.decode(encoded.data()));
+        assertEquals(List.of(), TranscriptCodec.decode(TranscriptCodec.encode(List.of()).data()));
+    }
+
+    /**
+     * Complete orders {@code [fromOrderId, toOrderId)} on the archived day; the tests archive
+     * disjoint ranges of the generated orders
+     */
+    private List<Integer> due(int fromOrderId, int toOrderId) {
+        finish(fromOrderId, toOrderId, "COMPLETED", ARCHIVED_DAY);
+        return jdbcTemplate.queryForList("SELECT chat_id FROM FoodOrder WHERE id >= ? AND id < ? ORDER BY id",
+                Integer.class, fromOrderId, toOrderId);
+    }
+
+    private void finish(int fromOrderId, int toOrderId, String status, LocalDate day) {
+        jdbcTemplate.update("UPDATE FoodOrder SET orderStatus = ?, dateCreated = ?, dateUpdated = ? WHERE id >= ? AND id < ?",
+                status, Date.valueOf(day), Date.valueOf(day), fromOrderId, toOrderId);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Review> messages(int chatId, Integer after, Integer before, Integer limit) {
+        Object body = chatController.getChatMessages(chatId, after, before, limit).getBody();
+        return body instanceof List ? (List<Review>) body : List.of();
+    }
+
+    private long messageCount(int chatId) {
+        String body = (String) chatController.getMessageCount(chatId).getBody();
+        return new Gson().fromJson(body, JsonObject.class).get("messageCount").getAsLong();
+    }
+
+    private static void assertSameMessages(List<Review> expected, List<Review> actual) {
+        assertEquals(expected.stream().map(ChatArchiveServiceTest::describe).toList(),
+                actual.stream().map(ChatArchiveServiceTest::describe).toList());
+    }
+
+    private static String describe(Review review) {
+        return review.getId() + "|" + review.getRating() + "|" + review.getDateCreated() + "|" + review.getReviewText();
+    }
+}
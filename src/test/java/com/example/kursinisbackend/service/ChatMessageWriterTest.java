@@ -0,0 +1,127 @@
+package com.example.kursinisbackend.service;
+
+import com.example.kursinisbackend.fixtures.SyntheticDataGenerator;
+import com.example.kursinisbackend.model.Review;
+import com.example.kursinisbackend.repos.BasicUserRepository;
+import com.example.kursinisbackend.repos.ChatRepo;
+import com.example.kursinisbackend.support.GeneratedDataTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:writebehind;NON_KEYWORDS=USER,VALUE;DB_CLOSE_DELAY=-1",
+        "chat.write-behind.enabled=true",
+        "chat.write-behind.batch-size=50"})
+class ChatMessageWriterTest extends GeneratedDataTest {
+
+    @Autowired
+    private ChatService chatService;
+
+    @Autowired
+    private ChatMessageWriter writer;
+
+    @Autowired
+    private ChatRepo chatRepo;
+
+    @Autowired
+    private BasicUserRepository basicUserRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private ChatReadTracker chatReadTracker;
+
+    @Autowired
+    private ChatSearchIndex chatSearchIndex;
+
+    @Override
+    protected SyntheticDataGenerator.Config config() {
+        SyntheticDataGenerator.Config config = SyntheticDataGenerator.Config.small();
+        config.orders = 4;
+        config.messagesPerChat = 0.0;
+        return config;
+    }
+
+    @Test
+    void queuedMessagesAreWrittenInSendOrder() throws Exception {
+        int orderId = data.firstOrderId;
+        int chatId = chatId(orderId);
+        for (int i = 0; i < 500; i++) {
+            ChatMessage queued = chatService.send(orderId, message(chatId, "message " + i));
+            assertEquals(0, queued.id(), "write-behind acknowledges before the insert");
+        }
+
+        awaitMessages(chatId, 500);
+        List<String> texts = jdbcTemplate.queryForList(
+                "SELECT reviewText FROM Review WHERE chat_id = ? ORDER BY id", String.class, chatId);
+        assertEquals("message 0", texts.get(0));
+        assertEquals("message 499", texts.get(499));
+    }
+
+    @Test
+    void fullQueueRejectsAndStopDrains() throws Exception {
+        int orderId = data.firstOrderId + 1;
+        int chatId = chatId(orderId);
+        CountDownLatch databaseAvailable = new CountDownLatch(1);
+        DataSource blocking = (DataSource) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{DataSource.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("getConnection")) {
+                        databaseAvailable.await();
+                    }
+                    return method.invoke(dataSource, args);
+                });
+        ChatMessageWriter small = new ChatMessageWriter(blocking, entityManagerFactory, messagingTemplate,
+                chatReadTracker, chatSearchIndex, new SimpleMeterRegistry(), 2, 1, 5, 50);
+        small.start();
+
+        small.append(orderId, message(chatId, "taken by the writer"));
+        while (small.queued() > 0) {
+            Thread.sleep(1);
+        }
+        small.append(orderId, message(chatId, "queued 1"));
+        small.append(orderId, message(chatId, "queued 2"));
+        assertThrows(ChatQueueFullException.class, () -> small.append(orderId, message(chatId, "rejected")));
+
+        databaseAvailable.countDown();
+        small.stop();
+        assertEquals(0, small.queued());
+        assertEquals(3, count(chatId));
+    }
+
+    private Review message(int chatId, String text) {
+        return new Review(text, basicUserRepository.getReferenceById(data.customerIds[0]), chatRepo.getReferenceById(chatId));
+    }
+
+    private int chatId(int orderId) {
+        return jdbcTemplate.queryForObject("SELECT chat_id FROM FoodOrder WHERE id = ?", Integer.class, orderId);
+    }
+
+    private long count(int chatId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM Review WHERE chat_id = ?", Long.class, chatId);
+    }
+
+    private void awaitMessages(int chatId, long expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (count(chatId) < expected && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, count(chatId));
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.kursinisbackend.service;
+
+import com.example.kursinisbackend.controllers.ReviewController;
+import com.example.kursinisbackend.fixtures.SyntheticDataGenerator;
+import com.example.kursinisbackend.model.Review;
+import com.example.kursinisbackend.repos.BasicUserRepository;
+import com.example.kursinisbackend.repos.ChatRepo;
+import com.example.kursinisbackend.support.GeneratedDataTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:readreceipts;NON_KEYWORDS=USER,VALUE;DB_CLOSE_DELAY=-1",
+        "chat.read-receipts.max-chats=2",
+        "chat.read-receipts.max-users=2"})
+class ChatReadTrackerTest extends GeneratedDataTest {
+
+    @Autowired
+    private ChatReadTracker chatReadTracker;
+
+    @Autowired
+    private ChatService chatService;
+
+    @Autowired
+    private ReviewController reviewController;
+
+    @Autowired
+    private ChatRepo chatRepo;
+
+    @Autowired
+    private BasicUserRepository basicUserRepository;
+
+    private int orderId;
+    private int chatId;
+    private int customerId;
+    private int driverId;
+
+    @Override
+    protected SyntheticDataGenerator.Config config() {
+        SyntheticDataGenerator.Config config = SyntheticDataGenerator.Config.small();
+        config.orders = 7;
+        config.messagesPerChat = 0.0;
+        return config;
+    }
+
+    @BeforeEach
+    void pickUsers() {
+        customerId = data.customerIds[0];
+        driverId = data.driverIds[0];
+    }
+
+    @Test
+    void countsMessagesFromOthersUntilRead() {
+        useChat(0);
+        send(driverId, "On my way");
+        send(driverId, "Outside");
+        assertEquals(2, unread(customerId));
+        assertEquals(0, unread(driverId), "own messages are read");
+
+        send(customerId, "Coming down");
+        assertEquals(0, unread(customerId), "replying reads the chat");
+        assertEquals(1, unread(driverId));
+
+        chatReadTracker.markRead(chatId, driverId, null);
+        assertEquals(0, unread(driverId));
+    }
+
+    @Test
+    void readingUpToAnOlderMessageLeavesTheRestUnread() {
+        useChat(1);
+        ChatMessage first = send(driverId, "On my way");
+        send(driverId, "Outside");
+        send(driverId, "Still outside");
+
+        ChatReadTracker.ReadPointer pointer = chatReadTracker.markRead(chatId, customerId, first.id());
+        assertEquals(first.id(), pointer.lastReadMessageId());
+        assertEquals(2, unread(customerId));
+
+        // Pointers never move back
+        chatReadTracker.markRead(chatId, customerId, null);
+        chatReadTracker.markRead(chatId, customerId, first.id());
+        assertEquals(0, unread(customerId));
+    }
+
+    @Test
+    void flushWritesReadPointers() {
+        useChat(2);
+        ChatMessage last = send(driverId, "Delivered");
+        chatReadTracker.markRead(chatId, customerId, null);
+
+        chatReadTracker.flush();
+
+        Map<String, Object> row = jdbcTemplate.queryForMap(
+                "SELECT lastReadMessageId, readCount FROM ChatRead WHERE chatId = ? AND userId = ?", chatId, customerId);
+        assertEquals(last.id(), ((Number) row.get("LASTREADMESSAGEID")).intValue());
+        assertEquals(1, ((Number) row.get("READCOUNT")).intValue());
+    }
+
+    @Test
+    void reviewsPostedAndDeletedElsewhereAreCounted() {
+        useChat(3);
+        send(driverId, "On my way");
+        assertEquals(1, unread(customerId));
+
+        ResponseEntity<?> created = reviewController.createReview("{\"reviewText\": \"Great\", \"rating\": 5, " +
+                "\"userId\": " + driverId + ", \"chatId\": " + chatId + "}");
+        assertEquals(HttpStatus.CREATED, created.getStatusCode());
+        assertEquals(2, unread(customerId));
+
+        reviewController.deleteReview(((Review) created.getBody()).getId());
+        assertEquals(1, unread(customerId));
+    }
+
+    @Test
+    void leastRecentlyUsedEntriesAreDroppedAndLoadedAgain() {
+        int[] chatIds = new int[3];
+        for (int i = 0; i < chatIds.length; i++) {
+            useChat(4 + i);
+            chatIds[i] = chatId;
+            send(driverId, "On my way");
+        }
+        assertEquals(Set.of(chatIds[1], chatIds[2]), chatReadTracker.cachedChats());
+
+        // The dropped counter is counted again from the messages
+        useChat(4);
+        assertEquals(1, unread(customerId));
+        assertEquals(Set.of(chatIds[0], chatIds[2]), chatReadTracker.cachedChats());
+
+        int otherCustomerId = data.customerIds[1];
+        chatReadTracker.markRead(chatId, customerId, null);
+        unread(driverId);
+        unread(otherCustomerId);
+        assertEquals(Set.of(driverId, otherCustomerId), chatReadTracker.cachedUsers());
+        // Not flushed yet: the pending pointer is merged into the reloaded ones
+        assertEquals(0, unread(customerId));
+
+        chatReadTracker.flush();
+        unread(driverId);
+        unread(otherCustomerId);
+        assertFalse(chatReadTracker.cachedUsers().contains(customerId));
+        assertEquals(0, unread(customerId), "reloaded from ChatRead");
+
+        chatReadTracker.chatRemoved(chatId);
+        assertFalse(chatReadTracker.cachedChats().contains(chatId));
+    }
+
+    /**
+     * Talk in the chat of a generated order no other test writes to
+     */
+    private void useChat(int index) {
+        orderId = data.firstOrderId + index;
+        chatId = jdbcTemplate.queryForObject("SELECT chat_id FROM FoodOrder WHERE id = ?", Integer.class, orderId);
+    }
+
+    private ChatMessage send(int senderId, String text) {
+        return chatService.send(orderId, new Review(text, basicUserRepository.getReferenceById(senderId),
+                chatRepo.getReferenceById(chatId)));
+    }
+
+    private int unread(int userId) {
+        return chatReadTracker.unreadCounts(userId, List.of(chatId)).get(chatId);
+    }
+}
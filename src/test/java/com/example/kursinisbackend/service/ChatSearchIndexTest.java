@@ -0,0 +1,132 @@
+package com.example.kursinisbackend.service;
+
+import com.example.kursinisbackend.controllers.ChatController;
+import com.example.kursinisbackend.fixtures.SyntheticDataGenerator;
+import com.example.kursinisbackend.model.Review;
+import com.example.kursinisbackend.repos.BasicUserRepository;
+import com.example.kursinisbackend.repos.ChatRepo;
+import com.example.kursinisbackend.support.GeneratedDataTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChatSearchIndexTest extends GeneratedDataTest {
+
+    @Autowired
+    private ChatSearchIndex chatSearchIndex;
+
+    @Autowired
+    private ChatService chatService;
+
+    @Autowired
+    private ChatRepo chatRepo;
+
+    @Autowired
+    private ChatController chatController;
+
+    @Autowired
+    private BasicUserRepository basicUserRepository;
+
+    private Set<Integer> chatIds;
+
+    @Override
+    protected SyntheticDataGenerator.Config config() {
+        SyntheticDataGenerator.Config config = SyntheticDataGenerator.Config.small();
+        config.orders = 200;
+        return config;
+    }
+
+    @BeforeEach
+    void rebuild() {
+        chatIds = new HashSet<>(jdbcTemplate.queryForList("SELECT chat_id FROM FoodOrder WHERE id >= ? AND id < ?",
+                Integer.class, data.firstOrderId, data.firstOrderId + data.orderCount));
+        chatSearchIndex.rebuild();
+    }
+
+    @Test
+    void matchesMessagesContainingEveryWord() {
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList("SELECT id, chat_id, reviewText FROM Review " +
+                "WHERE chat_id IN (SELECT chat_id FROM FoodOrder WHERE id >= ? AND id < ?)",
+                data.firstOrderId, data.firstOrderId + data.orderCount);
+        for (String query : List.of("allergy", "nut allergy", "WHERE is my", "great food", "two minutes away", "refund drink")) {
+            Set<String> words = ChatSearchIndex.tokenize(query);
+            TreeSet<Integer> expected = new TreeSet<>();
+            for (Map<String, Object> row : rows) {
+                if (ChatSearchIndex.tokenize((String) row.get("reviewText")).containsAll(words)) {
+                    expected.add((Integer) row.get("id"));
+                }
+            }
+            assertFalse(expected.isEmpty(), query);
+            assertEquals(new ArrayList<>(expected.descendingSet()), hits(query), query);
+        }
+        assertEquals(0, chatSearchIndex.search("allergy zzzunknown", 10).total());
+    }
+
+    @Test
+    void newestHitsComeFirstAndCarryTheirChat() {
+        ChatSearchIndex.Result result = chatSearchIndex.search("thanks", 3);
+        assertEquals(3, result.hits().size());
+        assertTrue(result.total() >= 3);
+        assertTrue(result.hits().get(0).messageId() > result.hits().get(1).messageId());
+        for (ChatSearchIndex.Hit hit : result.hits()) {
+            Integer chatId = jdbcTemplate.queryForObject("SELECT chat_id FROM Review WHERE id = ?", Integer.class, hit.messageId());
+            assertEquals(chatId, hit.chatId());
+        }
+    }
+
+    @Test
+    void sentAndDeletedMessagesAreIndexedRightAway() {
+        int orderId = data.firstOrderId;
+        int chatId = jdbcTemplate.queryForObject("SELECT chat_id FROM FoodOrder WHERE id = ?", Integer.class, orderId);
+        Review review = new Review("Forgot the pierogi, please bring pierogi",
+                basicUserRepository.getReferenceById(data.customerIds[0]), chatRepo.getReferenceById(chatId));
+        ChatMessage sent = chatService.send(orderId, review);
+
+        ChatSearchIndex.Result result = chatSearchIndex.search("PIEROGI forgot", 10);
+        assertEquals(1, result.total());
+        assertEquals(new ChatSearchIndex.Hit(sent.id(), chatId), result.hits().get(0));
+
+        chatController.deleteMessage(chatId, sent.id());
+        assertEquals(0, chatSearchIndex.search("pierogi", 10).total());
+    }
+
+    @Test
+    void postingListKeepsIdsSortedUnderAnyOrder() {
+        SplittableRandom random = new SplittableRandom(7);
+        PostingList list = new PostingList();
+        TreeSet<Integer> expected = new TreeSet<>();
+        for (int i = 0; i < 20_000; i++) {
+            // Mostly increasing ids, like IDENTITY values, with late and deleted ones mixed in
+            int id = random.nextInt(10) == 0 ? random.nextInt(i + 1) * 3 : i * 3;
+            if (random.nextInt(20) == 0) {
+                assertEquals(expected.remove(id), list.remove(id));
+            } else {
+                assertEquals(expected.add(id), list.add(id));
+            }
+        }
+        assertArrayEquals(expected.stream().mapToInt(Integer::intValue).toArray(), list.toArray());
+
+        PostingList.Cursor cursor = list.cursor();
+        for (int target = 0; target < 60_000; target += 1 + random.nextInt(500)) {
+            Integer next = expected.ceiling(target);
+            assertEquals(next != null ? next : PostingList.NO_MORE, cursor.advance(target));
+        }
+    }
+
+    private List<Integer> hits(String query) {
+        return chatSearchIndex.search(query, Integer.MAX_VALUE).hits().stream()
+                .filter(hit -> chatIds.contains(hit.chatId()))
+                .map(ChatSearchIndex.Hit::messageId)
+                .toList();
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.kursinisbackend.service;
+
+import com.example.kursinisbackend.controllers.CuisineController;
+import com.example.kursinisbackend.model.Cuisine;
+import com.example.kursinisbackend.support.GeneratedDataTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CuisineSearchIndexTest extends GeneratedDataTest {
+
+    @Autowired
+    private CuisineSearchIndex cuisineSearchIndex;
+
+    @Autowired
+    private CuisineController cuisineController;
+
+    @BeforeEach
+    void rebuild() {
+        cuisineSearchIndex.rebuild();
+    }
+
+    @Test
+    void exactMatchesAreTheSubstringMatches() {
+        for (String query : List.of("pizza", "Burger", "cep", "pho", "garlic", "coconut milk", "pizza 1")) {
+            String pattern = "%" + query.toLowerCase() + "%";
+            Set<Integer> expected = new HashSet<>(jdbcTemplate.queryForList("SELECT id FROM Cuisine " +
+                    "WHERE LOWER(name) LIKE ? OR LOWER(ingredients) LIKE ?", Integer.class, pattern, pattern));
+            List<CuisineSearchIndex.Hit> hits = cuisineSearchIndex.search(query, Integer.MAX_VALUE);
+            Set<Integer> exact = hits.stream()
+                    .filter(hit -> hit.score() >= 50)
+                    .map(CuisineSearchIndex.Hit::cuisineId)
+                    .collect(Collectors.toSet());
+            assertEquals(expected, exact, query);
+        }
+    }
+
+    @Test
+    void namesRankAboveIngredientsAndTyposAreForgiven() {
+        List<CuisineSearchIndex.Hit> hits = cuisineSearchIndex.search("tom", Integer.MAX_VALUE);
+        assertTrue(hits.get(0).name().startsWith("Tom Yum"));
+        for (int i = 1; i < hits.size(); i++) {
+            assertTrue(hits.get(i - 1).score() >= hits.get(i).score());
+        }
+
+        assertTrue(cuisineSearchIndex.search("cepelinia", 5).get(0).name().startsWith("Cepelinai"));
+        assertTrue(cuisineSearchIndex.search("Šaltibarščiai", 5).get(0).name().startsWith("Saltibarsciai"));
+        assertTrue(cuisineSearchIndex.search("pizza margherita", 5).get(0).name().startsWith("Margherita Pizza"));
+        assertTrue(cuisineSearchIndex.search("xqzw", 5).isEmpty());
+    }
+
+    @Test
+    void suggestionsCompleteTheTypedWord() {
+        List<CuisineSearchIndex.Suggestion> suggestions = cuisineSearchIndex.suggest("pe", 5);
+        assertFalse(suggestions.isEmpty());
+        for (CuisineSearchIndex.Suggestion suggestion : suggestions) {
+            assertTrue(suggestion.name().startsWith("Pepperoni Pizza"), suggestion.name());
+            assertEquals(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM Cuisine WHERE name = ?",
+                    Integer.class, suggestion.name()), suggestion.items());
+        }
+        assertEquals(1, cuisineSearchIndex.suggest("kibinai", 10).stream()
+                .filter(suggestion -> suggestion.name().equals("Kibinai 1")).count());
+    }
+
+    @Test
+    void cuisineEndpointsKeepTheIndexCurrent() {
+        Cuisine created = (Cuisine) cuisineController.createCuisineFromJson("{\"name\": \"Zeppelin Deluxe\", " +
+                "\"ingredients\": \"truffle\", \"price\": 12.5, \"restaurantId\": " + data.restaurantIds[0] + "}").getBody();
+        assertEquals(created.getId(), cuisineSearchIndex.search("zeppelin", 1).get(0).cuisineId());
+        assertEquals(created.getId(), cuisineSearchIndex.search("truffle", 1).get(0).cuisineId());
+
+        cuisineController.updateCuisineFromJson(created.getId(), "{\"name\": \"Zeppelin Classic\"}");
+        assertEquals("Zeppelin Classic", cuisineSearchIndex.search("zeppelin", 5).get(0).name());
+        assertTrue(cuisineSearchIndex.search("deluxe", 5).stream().noneMatch(hit -> hit.cuisineId() == created.getId()));
+
+        cuisineController.deleteCuisine(created.getId());
+        assertTrue(cuisineSearchIndex.search("zeppelin", 5).isEmpty());
+    }
+
+    @Test
+    void updatesAloneCompactTheIndex() {
+        Cuisine cuisine = new Cuisine("Zeppelinai", "potato", 9.0, false, false, null);
+        cuisine.setId(data.menuByRestaurant.get(data.restaurantIds[0])[0]);
+        // Outside a transaction each put applies at once, leaving the previous slot dead; the index
+        // compacts once more than a quarter of its slots are, which a third of the live count reaches
+        int live = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM Cuisine", Integer.class);
+        boolean compacted = false;
+        for (int i = 0; i < Math.max(1025, live / 3 + 1) + 10 && !compacted; i++) {
+            int dead = cuisineSearchIndex.deadSlots();
+            cuisineSearchIndex.put(cuisine);
+            compacted = cuisineSearchIndex.deadSlots() < dead;
+        }
+        assertTrue(compacted, "never compacted");
+        // Fuzzy matching reuses its counts; repeated queries see the same hits
+        List<CuisineSearchIndex.Hit> hits = cuisineSearchIndex.search("zeppelinia", 10);
+        assertEquals(hits, cuisineSearchIndex.search("zeppelinia", 10));
+        assertEquals(cuisine.getId(), hits.get(0).cuisineId());
+        assertEquals(1, hits.stream().filter(hit -> hit.cuisineId() == cuisine.getId()).count());
+    }
+}
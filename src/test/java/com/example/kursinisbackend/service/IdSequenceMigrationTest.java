@@ -0,0 +1,37 @@
+package com.example.kursinisbackend.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("embedded")
+class IdSequenceMigrationTest {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void everyTableGeneratedEntityHasItsSequenceMoved() {
+        Set<String> sequences = IdSequenceMigration.sequences(entityManagerFactory.getMetamodel());
+
+        // Subclasses of User share its generator
+        assertEquals(Set.of("User", "Cuisine", "Chat", "FoodOrder", "Review"), sequences);
+        for (String table : sequences) {
+            long next = jdbcTemplate.queryForObject("SELECT " + IdSequences.VALUE_COLUMN + " FROM " + IdSequences.TABLE +
+                    " WHERE " + IdSequences.NAME_COLUMN + " = ?", Long.class, table);
+            long highest = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+            assertTrue(next > highest, table);
+        }
+    }
+}
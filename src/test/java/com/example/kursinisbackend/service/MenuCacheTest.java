@@ -0,0 +1,66 @@
+package com.example.kursinisbackend.service;
+
+import com.example.kursinisbackend.controllers.CuisineController;
+import com.example.kursinisbackend.controllers.OrdersController;
+import com.example.kursinisbackend.model.Cuisine;
+import com.example.kursinisbackend.repos.CuisineRepo;
+import com.example.kursinisbackend.support.GeneratedDataTest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MenuCacheTest extends GeneratedDataTest {
+
+    @Autowired
+    private MenuCache menuCache;
+
+    @Autowired
+    private OrdersController ordersController;
+
+    @Autowired
+    private CuisineController cuisineController;
+
+    @Autowired
+    private CuisineRepo cuisineRepo;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void servesTheSerializedMenuAndNotModifiedForItsETag() throws Exception {
+        int restaurantId = data.restaurantIds[0];
+        ResponseEntity<byte[]> menu = ordersController.getRestaurantMenu(restaurantId, null);
+        assertEquals(HttpStatus.OK, menu.getStatusCode());
+        assertArrayEquals(objectMapper.writeValueAsBytes(cuisineRepo.getCuisineByRestaurantId(restaurantId)), menu.getBody());
+        String etag = menu.getHeaders().getETag();
+        assertNotNull(etag);
+
+        ResponseEntity<byte[]> again = ordersController.getRestaurantMenu(restaurantId, "\"other\", W/" + etag);
+        assertEquals(HttpStatus.NOT_MODIFIED, again.getStatusCode());
+        assertEquals(etag, again.getHeaders().getETag());
+        assertNull(again.getBody());
+        assertSame(menuCache.menu(restaurantId), menuCache.menu(restaurantId));
+    }
+
+    @Test
+    void menuWritesChangeTheETag() throws Exception {
+        int restaurantId = data.restaurantIds[1];
+        String before = ordersController.getRestaurantMenu(restaurantId, null).getHeaders().getETag();
+        Cuisine created = (Cuisine) cuisineController.createCuisineFromJson("{\"name\": \"Soup\", \"price\": 4.5, " +
+                "\"restaurantId\": " + restaurantId + "}").getBody();
+
+        ResponseEntity<byte[]> changed = ordersController.getRestaurantMenu(restaurantId, before);
+        assertEquals(HttpStatus.OK, changed.getStatusCode());
+        assertTrue(new String(changed.getBody()).contains("\"id\":" + created.getId()));
+        String after = changed.getHeaders().getETag();
+        assertNotEquals(before, after);
+
+        // Deleting the item restores the old content, and with it the old tag
+        cuisineController.deleteCuisine(created.getId());
+        assertEquals(before, ordersController.getRestaurantMenu(restaurantId, after).getHeaders().getETag());
+    }
+}
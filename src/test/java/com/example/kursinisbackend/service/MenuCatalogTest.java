@@ -0,0 +1,160 @@
+package com.example.kursinisbackend.service;
+
+import com.example.kursinisbackend.controllers.CuisineController;
+import com.example.kursinisbackend.model.Cuisine;
+import com.example.kursinisbackend.support.GeneratedDataTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MenuCatalogTest extends GeneratedDataTest {
+
+    @Autowired
+    private MenuCatalog menuCatalog;
+
+    @Autowired
+    private CuisineController cuisineController;
+
+    @BeforeEach
+    void rebuild() {
+        menuCatalog.rebuild();
+    }
+
+    @Test
+    void filtersMatchTheDatabase() {
+        int first = data.restaurantIds[0];
+        int second = data.restaurantIds[1];
+        assertEquals(ids("SELECT id FROM Cuisine WHERE vegan ORDER BY id"),
+                ids(menuCatalog.filter(new MenuCatalog.Filter(true, null, null, null, null))));
+        assertEquals(ids("SELECT id FROM Cuisine WHERE NOT spicy AND price BETWEEN 6.5 AND 12 ORDER BY id"),
+                ids(menuCatalog.filter(new MenuCatalog.Filter(null, false, 6.5, 12.0, null))));
+        assertEquals(ids("SELECT id FROM Cuisine WHERE price >= 10 ORDER BY id"),
+                ids(menuCatalog.filter(new MenuCatalog.Filter(null, null, 10.0, null, null))));
+        assertEquals(ids("SELECT id FROM Cuisine WHERE vegan AND NOT spicy AND price <= 14 " +
+                        "AND restaurant_id IN (" + first + ", " + second + ") ORDER BY id"),
+                ids(menuCatalog.filter(new MenuCatalog.Filter(true, false, null, 14.0, List.of(first, second)))));
+        assertEquals(ids("SELECT id FROM Cuisine WHERE restaurant_id = " + first + " ORDER BY id LIMIT 3"),
+                ids(menuCatalog.filter(new MenuCatalog.Filter(null, null, null, null, List.of(first)), 3)));
+        assertTrue(menuCatalog.filter(new MenuCatalog.Filter(null, null, 20.0, 10.0, null)).isEmpty());
+    }
+
+    @Test
+    void largePriceBoundsDoNotOverflow() {
+        assertEquals(ids("SELECT id FROM Cuisine WHERE price <= 100000000 ORDER BY id"),
+                ids(menuCatalog.filter(new MenuCatalog.Filter(null, null, null, 100000000.0, null))));
+        assertEquals(ids("SELECT id FROM Cuisine WHERE price IS NOT NULL ORDER BY id"),
+                ids(menuCatalog.filter(new MenuCatalog.Filter(null, null, -1e300, 1e300, null))));
+        assertTrue(menuCatalog.filter(new MenuCatalog.Filter(null, null, 100000000.0, null, null)).isEmpty());
+
+        // Prices beyond the cent range are clamped to its top, so a bound there still finds them
+        Cuisine huge = (Cuisine) cuisineController.createCuisineFromJson("{\"name\": \"Gold Leaf Platter\", " +
+                "\"price\": 1e300, \"restaurantId\": " + data.restaurantIds[0] + "}").getBody();
+        assertEquals(List.of(huge.getId()), ids(menuCatalog.filter(new MenuCatalog.Filter(null, null, 1e300, null, null))));
+        assertEquals(List.of(huge.getId()), ids(menuCatalog.filter(new MenuCatalog.Filter(null, null, 1e300, 1e300,
+                List.of(data.restaurantIds[0])))));
+
+        cuisineController.deleteCuisine(huge.getId());
+    }
+
+    @Test
+    void changedRowsKeepThePriceOrder() {
+        int restaurantId = data.restaurantIds[1];
+        Cuisine cheap = (Cuisine) cuisineController.createCuisineFromJson("{\"name\": \"Bread Roll\", " +
+                "\"price\": 0.5, \"restaurantId\": " + restaurantId + "}").getBody();
+        Cuisine dear = (Cuisine) cuisineController.createCuisineFromJson("{\"name\": \"Lobster\", " +
+                "\"price\": 45.0, \"restaurantId\": " + restaurantId + "}").getBody();
+        int repriced = menuCatalog.filter(new MenuCatalog.Filter(null, null, 10.0, null, List.of(restaurantId)), 1).get(0).getId();
+        cuisineController.updateCuisineFromJson(repriced, "{\"price\": 7.25}");
+        cuisineController.updateCuisineFromJson(cheap.getId(), "{\"price\": 30.0}");
+
+        for (double[] range : new double[][]{{0, 1}, {0, 7.25}, {7.25, 7.25}, {7, 31}, {29.99, 45}, {40, 1000}}) {
+            assertEquals(ids("SELECT id FROM Cuisine WHERE price BETWEEN " + range[0] + " AND " + range[1] + " ORDER BY id"),
+                    ids(menuCatalog.filter(new MenuCatalog.Filter(null, null, range[0], range[1], null))),
+                    range[0] + ".." + range[1]);
+        }
+
+        cuisineController.deleteCuisine(cheap.getId());
+        cuisineController.deleteCuisine(dear.getId());
+        assertEquals(ids("SELECT id FROM Cuisine WHERE price >= 29 ORDER BY id"),
+                ids(menuCatalog.filter(new MenuCatalog.Filter(null, null, 29.0, null, null))));
+    }
+
+    @Test
+    void itemsCarryTheirColumns() {
+        Cuisine item = menuCatalog.filter(new MenuCatalog.Filter(null, null, null, null, null), 1).get(0);
+        var row = jdbcTemplate.queryForMap("SELECT * FROM Cuisine WHERE id = ?", item.getId());
+        assertEquals(row.get("name"), item.getName());
+        assertEquals(row.get("ingredients"), item.getIngredients());
+        assertEquals(((Number) row.get("price")).doubleValue(), item.getPrice());
+        assertEquals(row.get("vegan"), item.isVegan());
+        assertEquals(row.get("spicy"), item.isSpicy());
+    }
+
+    @Test
+    void menuChangesSwapInANewSnapshot() {
+        int restaurantId = data.restaurantIds[0];
+        MenuCatalog.Filter spicyVegan = new MenuCatalog.Filter(true, true, 99.0, 99.0, List.of(restaurantId));
+        Cuisine created = (Cuisine) cuisineController.createCuisineFromJson("{\"name\": \"Ghost Pepper Tofu\", " +
+                "\"price\": 99.0, \"vegan\": true, \"spicy\": true, \"restaurantId\": " + restaurantId + "}").getBody();
+        assertEquals(List.of(created.getId()), ids(menuCatalog.filter(spicyVegan)));
+
+        cuisineController.updateCuisineFromJson(created.getId(), "{\"spicy\": false}");
+        assertTrue(menuCatalog.filter(spicyVegan).isEmpty());
+        assertEquals(List.of(created.getId()), ids(menuCatalog.filter(new MenuCatalog.Filter(true, false, 99.0, 99.0, null))));
+
+        cuisineController.deleteCuisine(created.getId());
+        assertTrue(menuCatalog.filter(new MenuCatalog.Filter(null, null, 99.0, 99.0, null)).isEmpty());
+    }
+
+    @Test
+    void ingredientFiltersMatchTheDatabase() {
+        int first = data.restaurantIds[0];
+        assertEquals(ids("SELECT id FROM Cuisine WHERE ingredients LIKE '%peanuts%' ORDER BY id"),
+                ids(menuCatalog.filter(new MenuCatalog.Filter(null, null, null, null, null, List.of("Peanut"), null))));
+        assertEquals(ids("SELECT id FROM Cuisine WHERE ingredients LIKE '%tomato%' AND ingredients LIKE '%garlic%' " +
+                        "AND ingredients NOT LIKE '%beef%' AND ingredients NOT LIKE '%pork%' ORDER BY id"),
+                ids(menuCatalog.filter(new MenuCatalog.Filter(null, null, null, null, null,
+                        List.of("tomatoes", "garlic"), List.of("beef", "pork")))));
+        // Allergen groups: dairy covers mozzarella, sour cream and (erring towards a match) coconut milk
+        assertEquals(ids("SELECT id FROM Cuisine WHERE vegan AND restaurant_id = " + first + " AND ingredients NOT LIKE '%mozzarella%' " +
+                        "AND ingredients NOT LIKE '%cream%' AND ingredients NOT LIKE '%milk%' AND ingredients NOT LIKE '%peanuts%' ORDER BY id"),
+                ids(menuCatalog.filter(new MenuCatalog.Filter(true, null, null, null, List.of(first),
+                        null, List.of("dairy", "nut")))));
+        assertTrue(menuCatalog.filter(new MenuCatalog.Filter(null, null, null, null, null, List.of("unobtainium"), null)).isEmpty());
+    }
+
+    @Test
+    void ingredientsAreNormalizedIntoTerms() {
+        assertArrayEquals(new String[]{"peanut butter", "peanut", "butter", "tomato", "chili", "rice noodle", "rice", "noodle"},
+                Ingredients.terms("Peanut Butter, tomatoes; chilis and  rice-noodles"));
+        assertEquals(0, Ingredients.terms(" , ").length);
+        assertTrue(Ingredients.expand("Dairy").containsAll(List.of("dairy", "mozzarella", "sour cream")));
+    }
+
+    @Test
+    void ingredientChangesAreIndexed() {
+        MenuCatalog.Filter withSaffron = new MenuCatalog.Filter(null, null, null, null, null, List.of("saffron"), null);
+        Cuisine created = (Cuisine) cuisineController.createCuisineFromJson("{\"name\": \"Paella\", \"price\": 12.0, " +
+                "\"ingredients\": \"rice, saffron\", \"restaurantId\": " + data.restaurantIds[0] + "}").getBody();
+        assertEquals(List.of(created.getId()), ids(menuCatalog.filter(withSaffron)));
+
+        cuisineController.updateCuisineFromJson(created.getId(), "{\"ingredients\": \"rice, shrimp\"}");
+        assertTrue(menuCatalog.filter(withSaffron).isEmpty());
+        assertFalse(ids(menuCatalog.filter(new MenuCatalog.Filter(null, null, null, null, null, null, List.of("shellfish"))))
+                .contains(created.getId()));
+
+        cuisineController.deleteCuisine(created.getId());
+    }
+
+    private List<Integer> ids(String sql) {
+        return jdbcTemplate.queryForList(sql, Integer.class);
+    }
+
+    private static List<Integer> ids(List<Cuisine> items) {
+        return items.stream().map(Cuisine::getId).toList();
+    }
+}
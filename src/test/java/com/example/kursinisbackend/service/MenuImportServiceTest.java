@@ -0,0 +1,98 @@
+package com.example.kursinisbackend.service;
+
+import com.example.kursinisbackend.model.Cuisine;
+import com.example.kursinisbackend.support.GeneratedDataTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MenuImportServiceTest extends GeneratedDataTest {
+
+    @Autowired
+    private MenuImportService menuImportService;
+
+    @Autowired
+    private CuisineSearchIndex cuisineSearchIndex;
+
+    @Autowired
+    private MenuCatalog menuCatalog;
+
+    @BeforeEach
+    void rebuild() {
+        cuisineSearchIndex.rebuild();
+        menuCatalog.rebuild();
+    }
+
+    @Test
+    void importsGoodLinesInChunksAndReportsBadOnes() throws Exception {
+        int first = data.restaurantIds[0];
+        int second = data.restaurantIds[1];
+        int before = count(first) + count(second);
+        StringBuilder ndjson = new StringBuilder();
+        // More than one chunk of 500
+        for (int i = 0; i < 1200; i++) {
+            ndjson.append("{\"name\": \"Imported dumpling ").append(i).append("\", \"price\": 3.5}\n");
+        }
+        ndjson.append("{\"name\": \"Zesty import special\", \"price\": 7.25, \"vegan\": true, \"spicy\": true, ")
+                .append("\"ingredients\": \"ginger\", \"restaurantId\": ").append(second).append("}\n")
+                .append("\n")
+                .append("{\"name\": \"Broken\", \"price\": \n")
+                .append("{\"price\": 4}\n")
+                .append("{\"name\": \"Free lunch\", \"price\": 0}\n")
+                .append("{\"name\": \"Nowhere\", \"price\": 4, \"restaurantId\": ").append(data.customerIds[0]).append("}\n");
+
+        MenuImportService.ImportResult result = menuImportService.importNdjson(new StringReader(ndjson.toString()), first);
+
+        assertEquals(1201, result.imported());
+        assertEquals(4, result.failed());
+        assertEquals(List.of(1203L, 1204L, 1205L, 1206L), result.errors().stream().map(MenuImportService.RowError::line).toList());
+        assertEquals("Restaurant not found: " + data.customerIds[0], result.errors().get(3).error());
+        assertEquals(before + 1201, count(first) + count(second));
+
+        int special = jdbcTemplate.queryForObject("SELECT id FROM Cuisine WHERE name = 'Zesty import special' AND restaurant_id = ? " +
+                "AND vegan AND spicy AND ingredients = 'ginger' AND price = 7.25", Integer.class, second);
+        assertEquals(special, cuisineSearchIndex.search("zesty import", 1).get(0).cuisineId());
+        assertEquals(List.of(special), menuCatalog.filter(new MenuCatalog.Filter(true, true, 7.25, 7.25, List.of(second)))
+                .stream().map(Cuisine::getId).toList());
+    }
+
+    @Test
+    void rowsTheDatabaseRejectsFailAlone() throws Exception {
+        int restaurantId = data.restaurantIds[2];
+        int before = count(restaurantId);
+        String valid = "{\"name\": \"Row by row soup\", \"price\": 4.5}\n";
+        // The name is longer than its column: only the insert fails, and with it the chunk
+        String ndjson = valid.repeat(3) + "{\"name\": \"" + "x".repeat(300) + "\", \"price\": 4.5}\n"
+                + "null\n[1, 2]\n\"soup\"\n" + valid.repeat(3);
+
+        MenuImportService.ImportResult result = menuImportService.importNdjson(new StringReader(ndjson), restaurantId);
+
+        assertEquals(6, result.imported());
+        assertEquals(4, result.failed());
+        assertEquals(List.of(4L, 5L, 6L, 7L), result.errors().stream().map(MenuImportService.RowError::line).toList());
+        assertTrue(result.errors().get(0).error().startsWith("Not saved: "));
+        assertEquals("Expected a JSON object", result.errors().get(1).error());
+        assertEquals(before + 6, count(restaurantId));
+    }
+
+    @Test
+    void listsOnlyTheFirstErrors() throws Exception {
+        String ndjson = "not json\n".repeat(150);
+
+        MenuImportService.ImportResult result = menuImportService.importNdjson(new StringReader(ndjson), null);
+
+        assertEquals(0, result.imported());
+        assertEquals(150, result.failed());
+        assertEquals(100, result.errors().size());
+        assertEquals("Malformed JSON", result.errors().get(0).error());
+    }
+
+    private int count(int restaurantId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM Cuisine WHERE restaurant_id = ?", Integer.class, restaurantId);
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.kursinisbackend.service;
+
+import com.example.kursinisbackend.controllers.OrdersController;
+import com.example.kursinisbackend.model.Cuisine;
+import com.example.kursinisbackend.support.GeneratedDataTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MenuSyncServiceTest extends GeneratedDataTest {
+
+    @Autowired
+    private MenuSyncService menuSyncService;
+
+    @Autowired
+    private MenuCatalog menuCatalog;
+
+    @Autowired
+    private OrdersController ordersController;
+
+    @BeforeEach
+    void rebuild() {
+        menuCatalog.rebuild();
+    }
+
+    @Test
+    void writesOnlyTheDifference() throws Exception {
+        int restaurantId = data.restaurantIds[0];
+        Cuisine kept = menu(restaurantId).get(0);
+        int ordered = jdbcTemplate.queryForObject("SELECT MIN(c.id) FROM Cuisine c JOIN FoodOrder_cuisineList l " +
+                "ON l.cuisineList_id = c.id WHERE c.restaurant_id = ? AND c.id <> ?", Integer.class, restaurantId, kept.getId());
+        int menuSize = menu(restaurantId).size();
+
+        // First push: the kept item is found by name and takes the key, everything else goes
+        List<MenuSyncService.Item> items = List.of(
+                new MenuSyncService.Item("pos-1", kept.getName(), kept.getIngredients(), kept.getPrice(), kept.isSpicy(), kept.isVegan()),
+                new MenuSyncService.Item("pos-2", "Borscht", "beetroot", 5.5, false, true));
+        assertEquals(new MenuSyncService.SyncResult(1, 1, menuSize - 1, 0), menuSyncService.sync(restaurantId, items));
+        assertEquals(List.of(kept.getId()), menu(restaurantId).stream().filter(cuisine -> "pos-1".equals(cuisine.getExternalKey()))
+                .map(Cuisine::getId).toList());
+        assertEquals(2, menu(restaurantId).size());
+        // Items of past orders only leave the menu
+        assertNull(jdbcTemplate.queryForObject("SELECT restaurant_id FROM Cuisine WHERE id = ?", Integer.class, ordered));
+        assertFalse(menuCatalog.filter(new MenuCatalog.Filter(null, null, null, null, List.of(restaurantId)))
+                .stream().anyMatch(cuisine -> cuisine.getId() == ordered));
+
+        // The same push again changes nothing, not even the ETag
+        String etag = ordersController.getRestaurantMenu(restaurantId, null).getHeaders().getETag();
+        assertEquals(new MenuSyncService.SyncResult(0, 0, 0, 2), menuSyncService.sync(restaurantId, items));
+        assertEquals(etag, ordersController.getRestaurantMenu(restaurantId, null).getHeaders().getETag());
+
+        // A new price is an update of the same row
+        assertEquals(new MenuSyncService.SyncResult(0, 1, 0, 1), menuSyncService.sync(restaurantId, List.of(items.get(0),
+                new MenuSyncService.Item("pos-2", "Borscht", "beetroot", 6.0, false, true))));
+        assertEquals(6.0, menu(restaurantId).stream().filter(cuisine -> "pos-2".equals(cuisine.getExternalKey()))
+                .findFirst().orElseThrow().getPrice());
+        assertNotEquals(etag, ordersController.getRestaurantMenu(restaurantId, null).getHeaders().getETag());
+    }
+
+    @Test
+    void rejectsAMenuWithDuplicateKeys() {
+        int restaurantId = data.restaurantIds[1];
+        List<MenuSyncService.Item> items = List.of(
+                new MenuSyncService.Item("pos-1", "Soup", null, 4.5, false, true),
+                new MenuSyncService.Item("pos-1", "Stew", null, 9.5, false, false));
+        int before = menu(restaurantId).size();
+
+        assertThrows(IllegalArgumentException.class, () -> menuSyncService.sync(restaurantId, items));
+        assertEquals(before, menu(restaurantId).size());
+    }
+
+    private List<Cuisine> menu(int restaurantId) {
+        return jdbcTemplate.query("SELECT id, name, ingredients, price, spicy, vegan, externalKey FROM Cuisine " +
+                "WHERE restaurant_id = ? ORDER BY id", (rs, row) -> {
+            Cuisine cuisine = new Cuisine(rs.getString("name"), rs.getString("ingredients"), rs.getDouble("price"),
+                    rs.getBoolean("spicy"), rs.getBoolean("vegan"), null);
+            cuisine.setId(rs.getInt("id"));
+            cuisine.setExternalKey(rs.getString("externalKey"));
+            return cuisine;
+        }, restaurantId);
+    }
+}
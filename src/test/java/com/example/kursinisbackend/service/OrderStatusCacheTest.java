@@ -0,0 +1,120 @@
+package com.example.kursinisbackend.service;
+
+import com.example.kursinisbackend.controllers.ChatController;
+import com.example.kursinisbackend.controllers.RestaurantController;
+import com.example.kursinisbackend.fixtures.SyntheticDataGenerator;
+import com.example.kursinisbackend.model.OrderStatus;
+import com.example.kursinisbackend.support.GeneratedDataTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderStatusCacheTest extends GeneratedDataTest {
+
+    @Autowired
+    private OrderStatusCache orderStatusCache;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private RestaurantController restaurantController;
+
+    @Autowired
+    private ChatController chatController;
+
+    @Override
+    protected SyntheticDataGenerator.Config config() {
+        SyntheticDataGenerator.Config config = SyntheticDataGenerator.Config.small();
+        config.orders = 4;
+        return config;
+    }
+
+    @Test
+    void loadsOnMissAndFollowsTransitions() throws Exception {
+        int orderId = placed(0);
+        assertNull(orderStatusCache.cached(orderId));
+        assertEquals(OrderStatus.PLACED, orderStatusCache.get(orderId));
+        assertEquals(OrderStatus.PLACED, orderStatusCache.cached(orderId));
+
+        orderService.updateOrderStatus(orderId, OrderStatus.ACCEPTED);
+        assertEquals(OrderStatus.ACCEPTED, orderStatusCache.cached(orderId));
+        assertFalse(orderService.isChatLocked(orderId));
+
+        orderService.updateOrderStatus(orderId, OrderStatus.COMPLETED);
+        assertTrue(orderService.isChatLocked(orderId));
+        Exception e = assertThrows(Exception.class, () -> orderService.updateOrderStatus(orderId, OrderStatus.PLACED));
+        assertEquals("Cannot modify completed orders", e.getMessage());
+    }
+
+    @Test
+    void rolledBackTransitionIsNotCached() {
+        int orderId = placed(1);
+        assertEquals(OrderStatus.PLACED, orderStatusCache.get(orderId));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            try {
+                orderService.updateOrderStatus(orderId, OrderStatus.ACCEPTED);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            // Inside the transaction the entry is dropped, reads see the transaction's own write
+            assertNull(orderStatusCache.cached(orderId));
+            assertEquals(OrderStatus.ACCEPTED, orderStatusCache.get(orderId));
+            status.setRollbackOnly();
+        });
+
+        assertNull(orderStatusCache.cached(orderId));
+        assertEquals(OrderStatus.PLACED, orderStatusCache.get(orderId));
+    }
+
+    @Test
+    void unknownAndExtremeIds() {
+        assertNull(orderStatusCache.get(Integer.MAX_VALUE));
+        assertNull(orderStatusCache.cached(-1));
+
+        orderStatusCache.put(Integer.MAX_VALUE, OrderStatus.REJECTED);
+        assertEquals(OrderStatus.REJECTED, orderStatusCache.cached(Integer.MAX_VALUE));
+        orderStatusCache.evict(Integer.MAX_VALUE);
+        assertNull(orderStatusCache.cached(Integer.MAX_VALUE));
+    }
+
+    @Test
+    void ownershipIsCheckedBeforeTheCachedStatus() throws Exception {
+        int orderId = placed(2);
+        orderService.updateOrderStatus(orderId, OrderStatus.ACCEPTED);
+        assertEquals(OrderStatus.ACCEPTED, orderStatusCache.cached(orderId));
+        int owner = jdbcTemplate.queryForObject("SELECT restaurant_id FROM FoodOrder WHERE id = ?", Integer.class, orderId);
+        int other = data.restaurantIds[0] != owner ? data.restaurantIds[0] : data.restaurantIds[1];
+
+        assertEquals("Order does not belong to this restaurant", restaurantController.acceptOrder(other, orderId).getBody());
+        assertEquals("Can only accept orders in PLACED status", restaurantController.acceptOrder(owner, orderId).getBody());
+    }
+
+    @Test
+    void deletingTheChatEvictsItsOrder() {
+        int orderId = placed(3);
+        int chatId = jdbcTemplate.queryForObject("SELECT chat_id FROM FoodOrder WHERE id = ?", Integer.class, orderId);
+        assertEquals(OrderStatus.PLACED, orderStatusCache.forChat(chatId));
+
+        assertEquals("Chat deleted successfully", chatController.deleteChat(chatId).getBody());
+
+        assertNull(orderStatusCache.cached(orderId));
+        assertNull(orderStatusCache.forChat(chatId));
+        assertNull(orderStatusCache.get(orderId));
+    }
+
+    /**
+     * A generated order of this test alone, placed and not read through the cache yet
+     */
+    private int placed(int index) {
+        int orderId = data.firstOrderId + index;
+        jdbcTemplate.update("UPDATE FoodOrder SET orderStatus = 'PLACED' WHERE id = ?", orderId);
+        return orderId;
+    }
+}
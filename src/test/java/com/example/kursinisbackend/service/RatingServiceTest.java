@@ -0,0 +1,167 @@
+package com.example.kursinisbackend.service;
+
+import com.example.kursinisbackend.controllers.ReviewController;
+import com.example.kursinisbackend.fixtures.SyntheticDataGenerator;
+import com.example.kursinisbackend.model.RatingAggregate;
+import com.example.kursinisbackend.model.Review;
+import com.example.kursinisbackend.support.GeneratedDataTest;
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RatingServiceTest extends GeneratedDataTest {
+
+    @Autowired
+    private RatingService ratingService;
+
+    @Autowired
+    private RatingMigration ratingMigration;
+
+    @Autowired
+    private ReviewController reviewController;
+
+    private int chatId;
+    private int restaurantId;
+    private int driverId;
+
+    @Override
+    protected SyntheticDataGenerator.Config config() {
+        SyntheticDataGenerator.Config config = SyntheticDataGenerator.Config.small();
+        config.orders = 300;
+        return config;
+    }
+
+    @BeforeEach
+    void pickOrder() {
+        Map<String, Object> order = jdbcTemplate.queryForMap("SELECT chat_id, restaurant_id, driver_id FROM FoodOrder " +
+                "WHERE id >= ? AND driver_id IS NOT NULL ORDER BY id LIMIT 1", data.firstOrderId);
+        chatId = (Integer) order.get("chat_id");
+        restaurantId = (Integer) order.get("restaurant_id");
+        driverId = (Integer) order.get("driver_id");
+    }
+
+    @Test
+    void createUpdateAndDeleteKeepAggregatesInStep() {
+        RatingAggregate restaurantBefore = ratingService.aggregate(restaurantId);
+        RatingAggregate driverBefore = ratingService.aggregate(driverId);
+
+        Review created = (Review) reviewController.createReview("{\"reviewText\": \"Lovely\", \"rating\": 5, \"userId\": "
+                + data.customerIds[0] + ", \"chatId\": " + chatId + "}").getBody();
+        int reviewId = created.getId();
+        assertEquals(5, created.getRating());
+        assertEquals("Lovely", created.getReviewText());
+        assertCounted(restaurantBefore, ratingService.aggregate(restaurantId), 5, 1);
+        assertCounted(driverBefore, ratingService.aggregate(driverId), 5, 1);
+
+        reviewController.updateReview(reviewId, "{\"rating\": 2}");
+        RatingAggregate updated = ratingService.aggregate(restaurantId);
+        assertEquals(restaurantBefore.getRatingSum() + 2, updated.getRatingSum());
+        assertEquals(restaurantBefore.getRatingCount() + 1, updated.getRatingCount());
+        assertEquals(restaurantBefore.getStars5(), updated.getStars5());
+        assertEquals(restaurantBefore.getStars2() + 1, updated.getStars2());
+
+        reviewController.deleteReview(reviewId);
+        assertCounted(restaurantBefore, ratingService.aggregate(restaurantId), 5, 0);
+        assertCounted(driverBefore, ratingService.aggregate(driverId), 5, 0);
+    }
+
+    @Test
+    void firstRatingCreatesTheAggregate() {
+        jdbcTemplate.update("DELETE FROM RatingAggregate WHERE userId = ?", driverId);
+        assertEquals(0, ratingService.aggregate(driverId).getRatingCount());
+
+        reviewController.createReview("{\"reviewText\": \"Quick\", \"rating\": 4, \"userId\": "
+                + data.customerIds[0] + ", \"chatId\": " + chatId + "}");
+
+        RatingAggregate aggregate = ratingService.aggregate(driverId);
+        assertEquals(1, aggregate.getRatingCount());
+        assertEquals(4, aggregate.getRatingSum());
+        assertEquals(1, aggregate.getStars4());
+    }
+
+    @Test
+    void ratingsOutOfRangeAreRejected() {
+        RatingAggregate before = ratingService.aggregate(restaurantId);
+        Review review = new Review("Off the scale", null, null);
+        review.setRating(6);
+        assertThrows(IllegalArgumentException.class, () -> ratingService.save(review));
+        review.setRating(-1);
+        assertThrows(IllegalArgumentException.class, () -> ratingService.save(review));
+
+        Review created = (Review) reviewController.createReview("{\"reviewText\": \"Fine\", \"rating\": 3, \"userId\": "
+                + data.customerIds[0] + ", \"chatId\": " + chatId + "}").getBody();
+        assertThrows(IllegalArgumentException.class, () -> ratingService.rate(created, 9));
+        assertCounted(before, ratingService.aggregate(restaurantId), 3, 1);
+        reviewController.deleteReview(created.getId());
+    }
+
+    @Test
+    void averageRatingReadsTheAggregate() {
+        Map<String, Object> expected = jdbcTemplate.queryForMap("SELECT SUM(r.rating) AS total, COUNT(*) AS ratings " +
+                "FROM Review r JOIN FoodOrder o ON o.chat_id = r.chat_id WHERE o.restaurant_id = ? AND r.rating > 0", restaurantId);
+        long ratings = ((Number) expected.get("ratings")).longValue();
+        double average = ((Number) expected.get("total")).doubleValue() / ratings;
+
+        JsonObject response = json(reviewController.getAverageRating(restaurantId).getBody());
+
+        assertEquals(ratings, response.get("totalRatings").getAsLong());
+        assertEquals(Math.round(average * 10.0) / 10.0, response.get("averageRating").getAsDouble());
+        long histogramTotal = 0;
+        for (int star = 1; star <= 5; star++) {
+            histogramTotal += response.getAsJsonObject("ratingCounts").get(String.valueOf(star)).getAsLong();
+        }
+        assertEquals(ratings, histogramTotal);
+    }
+
+    @Test
+    void migrationMovesTextRatingsIntoTheColumn() throws Exception {
+        jdbcTemplate.update("INSERT INTO Review (id, rating, reviewText, dateCreated, commentOwner_id, chat_id) " +
+                "VALUES (?, 0, 'Tasty but late [Rating: 3/5]', ?, ?, ?)", IdSequences.reserve(dataSource, "Review", 1),
+                Date.valueOf(LocalDate.now()), data.customerIds[0], chatId);
+        RatingAggregate before = ratingService.aggregate(restaurantId);
+
+        assertTrue(ratingMigration.migrateRatingText() >= 1);
+        ratingMigration.rebuildAggregates();
+
+        Map<String, Object> migrated = jdbcTemplate.queryForMap(
+                "SELECT rating, reviewText FROM Review WHERE chat_id = ? AND reviewText = 'Tasty but late'", chatId);
+        assertEquals(3, migrated.get("rating"));
+        assertCounted(before, ratingService.aggregate(restaurantId), 3, 1);
+        assertEquals(0, ratingMigration.migrateRatingText(), "already migrated");
+    }
+
+    @Test
+    void generatedAggregatesMatchARebuild() {
+        RatingAggregate generated = ratingService.aggregate(restaurantId);
+        ratingMigration.rebuildAggregates();
+        RatingAggregate rebuilt = ratingService.aggregate(restaurantId);
+
+        assertEquals(generated.getRatingSum(), rebuilt.getRatingSum());
+        assertArrayEquals(generated.getHistogram(), rebuilt.getHistogram());
+    }
+
+    @Test
+    void parsesLegacyRatingText() {
+        assertEquals(4, RatingMigration.parseRating("Great food [Rating: 4/5]"));
+        assertEquals(-1, RatingMigration.parseRating("No rating here"));
+        assertEquals("Great food", RatingMigration.stripRating("Great food [Rating: 4/5]"));
+    }
+
+    private static void assertCounted(RatingAggregate before, RatingAggregate after, int rating, int added) {
+        assertEquals(before.getRatingSum() + (long) rating * added, after.getRatingSum());
+        assertEquals(before.getRatingCount() + added, after.getRatingCount());
+        assertEquals(before.getHistogram()[rating - 1] + added, after.getHistogram()[rating - 1]);
+    }
+
+    private static JsonObject json(Object body) {
+        return new Gson().fromJson((String) body, JsonObject.class);
+    }
+}
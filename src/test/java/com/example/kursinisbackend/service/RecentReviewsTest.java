@@ -0,0 +1,138 @@
+package com.example.kursinisbackend.service;
+
+import com.example.kursinisbackend.controllers.ReviewController;
+import com.example.kursinisbackend.fixtures.SyntheticDataGenerator;
+import com.example.kursinisbackend.model.Review;
+import com.example.kursinisbackend.support.GeneratedDataTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Own database: with other classes' reviews in the feeds, a review saved through a Hibernate id
+// block taken before their data was generated has a lower id than all of them and is not kept
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:recentreviews;NON_KEYWORDS=USER,VALUE;DB_CLOSE_DELAY=-1")
+class RecentReviewsTest extends GeneratedDataTest {
+
+    @Autowired
+    private RecentReviews recentReviews;
+
+    @Autowired
+    private ReviewController reviewController;
+
+    @Override
+    protected SyntheticDataGenerator.Config config() {
+        SyntheticDataGenerator.Config config = SyntheticDataGenerator.Config.small();
+        config.orders = 300;
+        return config;
+    }
+
+    @BeforeEach
+    void load() {
+        recentReviews.load();
+    }
+
+    @Test
+    void feedsMatchTheDatabase() {
+        assertEquals(jdbcTemplate.queryForList("SELECT id FROM Review WHERE rating > 0 ORDER BY id DESC LIMIT 20", Integer.class),
+                ids(recentReviews.recent(20)));
+
+        int restaurantId = data.restaurantIds[0];
+        assertEquals(jdbcTemplate.queryForList("SELECT r.id FROM Review r JOIN FoodOrder o ON o.chat_id = r.chat_id " +
+                        "WHERE o.restaurant_id = ? AND r.rating > 0 ORDER BY r.id DESC LIMIT 10", Integer.class, restaurantId),
+                ids(recentReviews.recent(restaurantId, 10)));
+    }
+
+    @Test
+    void createEditAndDeleteReachTheFeeds() {
+        int restaurantId = data.restaurantIds[0];
+        Map<String, Object> order = jdbcTemplate.queryForMap("SELECT chat_id FROM FoodOrder " +
+                "WHERE id >= ? AND restaurant_id = ? ORDER BY id LIMIT 1", data.firstOrderId, restaurantId);
+
+        Review created = (Review) reviewController.createReview("{\"reviewText\": \"Crispy\", \"rating\": 4, \"userId\": "
+                + data.customerIds[0] + ", \"chatId\": " + order.get("chat_id") + "}").getBody();
+        // Found by id rather than taken from the top, so the test does not depend on how ids are handed out
+        RecentReviews.RecentReview added = find(recentReviews.recent(recentReviews.capacity()), created.getId());
+        assertEquals(4, added.rating());
+        assertEquals(LocalDate.now(), added.dateCreated());
+        assertNotNull(find(recentReviews.recent(restaurantId, recentReviews.perRestaurant()), created.getId()));
+
+        reviewController.updateReview(created.getId(), "{\"reviewText\": \"Soggy\"}");
+        assertEquals("Soggy", find(recentReviews.recent(recentReviews.capacity()), created.getId()).reviewText());
+        assertEquals("Soggy", find(recentReviews.recent(restaurantId, recentReviews.perRestaurant()), created.getId()).reviewText());
+
+        reviewController.deleteReview(created.getId());
+        assertFalse(ids(recentReviews.recent(recentReviews.capacity())).contains(created.getId()));
+        assertFalse(ids(recentReviews.recent(restaurantId, recentReviews.perRestaurant())).contains(created.getId()));
+    }
+
+    @Test
+    void ringKeepsTheNewestAppendsUnderContention() throws Exception {
+        RecentReviews.Ring ring = new RecentReviews.Ring(64);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (int thread = 0; thread < 8; thread++) {
+            int offset = thread;
+            pool.submit(() -> IntStream.range(0, 1000).forEach(i -> ring.add(review(i * 8 + offset + 1))));
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        List<Integer> ids = ids(ring.newest(100));
+        assertEquals(64, ids.size());
+        assertEquals(64, new HashSet<>(ids).size());
+        for (int i = 1; i < ids.size(); i++) {
+            assertTrue(ids.get(i - 1) > ids.get(i));
+        }
+    }
+
+    @Test
+    void fillNeverOverwritesNewerAppends() {
+        RecentReviews.Ring ring = new RecentReviews.Ring(4);
+        ring.add(review(100));
+        ring.fill(List.of(review(99), review(98), review(97), review(96), review(95)));
+
+        assertEquals(List.of(100, 99, 98, 97), ids(ring.newest(10)));
+    }
+
+    @Test
+    void appendsReuseSlotsFreedByDeletes() {
+        RecentReviews.Ring ring = new RecentReviews.Ring(3);
+        ring.add(review(1));
+        ring.add(review(2));
+        ring.add(review(3));
+        ring.replace(3, null);
+        ring.add(review(4));
+        assertEquals(List.of(4, 2, 1), ids(ring.newest(10)));
+
+        // Full again: the oldest entry makes way, an entry older than all of them is not kept
+        ring.add(review(5));
+        ring.add(review(0));
+        assertEquals(List.of(5, 4, 2), ids(ring.newest(10)));
+    }
+
+    private static RecentReviews.RecentReview review(int id) {
+        return new RecentReviews.RecentReview(id, 5, "Review " + id, LocalDate.now());
+    }
+
+    private static RecentReviews.RecentReview find(List<RecentReviews.RecentReview> reviews, int id) {
+        return reviews.stream().filter(review -> review.id() == id).findFirst().orElseThrow();
+    }
+
+    private static List<Integer> ids(List<RecentReviews.RecentReview> reviews) {
+        List<Integer> ids = new ArrayList<>();
+        reviews.forEach(review -> ids.add(review.id()));
+        return ids;
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.kursinisbackend.service;
+
+import com.example.kursinisbackend.controllers.OrdersController;
+import com.example.kursinisbackend.controllers.ReviewController;
+import com.example.kursinisbackend.fixtures.SyntheticDataGenerator;
+import com.example.kursinisbackend.support.GeneratedDataTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RestaurantLeaderboardTest extends GeneratedDataTest {
+
+    @Autowired
+    private RestaurantLeaderboard leaderboard;
+
+    @Autowired
+    private ReviewController reviewController;
+
+    @Autowired
+    private OrdersController ordersController;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private LocalDate windowStart;
+
+    @Override
+    protected SyntheticDataGenerator.Config config() {
+        SyntheticDataGenerator.Config config = SyntheticDataGenerator.Config.small();
+        config.orders = 400;
+        config.historyDays = 14;
+        return config;
+    }
+
+    @BeforeEach
+    void load() {
+        windowStart = LocalDate.now().minusDays(RestaurantLeaderboard.WINDOW_DAYS - 1);
+        // Generated rows bypass the leaderboard: recount everything instead of trusting stored days
+        jdbcTemplate.update("DELETE FROM RestaurantOrderDay");
+        leaderboard.load();
+    }
+
+    @Test
+    void rankingsMatchTheDatabase() {
+        List<RestaurantLeaderboard.Entry> topRated = leaderboard.topRated(10);
+        assertFalse(topRated.isEmpty());
+        for (int i = 0; i < topRated.size(); i++) {
+            RestaurantLeaderboard.Entry entry = topRated.get(i);
+            Map<String, Object> ratings = jdbcTemplate.queryForMap("SELECT SUM(r.rating) AS total, COUNT(*) AS ratings " +
+                    "FROM Review r JOIN FoodOrder o ON o.chat_id = r.chat_id WHERE o.restaurant_id = ? AND r.rating > 0",
+                    entry.restaurantId());
+            assertEquals(((Number) ratings.get("ratings")).intValue(), entry.ratingCount());
+            assertEquals(((Number) ratings.get("total")).doubleValue() / entry.ratingCount(), entry.averageRating(), 1e-9);
+            if (i > 0) {
+                assertTrue(topRated.get(i - 1).rating() >= entry.rating());
+            }
+        }
+
+        List<RestaurantLeaderboard.Entry> popular = leaderboard.mostPopular(10);
+        assertFalse(popular.isEmpty());
+        for (int i = 0; i < popular.size(); i++) {
+            RestaurantLeaderboard.Entry entry = popular.get(i);
+            assertEquals(weeklyOrders(entry.restaurantId()), entry.weeklyOrders());
+            if (i > 0) {
+                assertTrue(popular.get(i - 1).weeklyOrders() >= entry.weeklyOrders());
+            }
+        }
+    }
+
+    @Test
+    void adjustedRatingPullsSmallSamplesTowardsTheMean() {
+        for (RestaurantLeaderboard.Entry entry : leaderboard.topRated(Integer.MAX_VALUE)) {
+            double rating = entry.rating();
+            assertTrue(rating >= 1.0 && rating <= 5.0);
+            if (entry.ratingCount() < 5 && entry.averageRating() == 5.0) {
+                assertTrue(rating < 5.0, "a few perfect ratings are not a perfect score");
+            }
+        }
+    }
+
+    @Test
+    void ratingAndOrderEventsMoveTheRestaurant() {
+        int restaurantId = data.restaurantIds[0];
+        Map<String, Object> order = jdbcTemplate.queryForMap("SELECT chat_id FROM FoodOrder " +
+                "WHERE id >= ? AND restaurant_id = ? ORDER BY id LIMIT 1", data.firstOrderId, restaurantId);
+        RestaurantLeaderboard.Entry before = entry(leaderboard.topRated(Integer.MAX_VALUE), restaurantId);
+        int weeklyBefore = weeklyOrders(restaurantId);
+
+        reviewController.createReview("{\"reviewText\": \"Lovely\", \"rating\": 1, \"userId\": "
+                + data.customerIds[0] + ", \"chatId\": " + order.get("chat_id") + "}");
+        // Inside a transaction, as a request would be with its open session
+        ResponseEntity<?> placed = transactionTemplate.execute(status -> ordersController.createOrder("{\"userId\": "
+                + data.customerIds[0] + ", \"restaurantId\": " + restaurantId + ", \"items\": [{\"cuisineId\": "
+                + data.menuByRestaurant.get(restaurantId)[0] + ", \"quantity\": 1}]}"));
+        assertEquals(HttpStatus.CREATED, placed.getStatusCode(), String.valueOf(placed.getBody()));
+
+        RestaurantLeaderboard.Entry rated = entry(leaderboard.topRated(Integer.MAX_VALUE), restaurantId);
+        assertEquals(before.ratingCount() + 1, rated.ratingCount());
+        assertTrue(rated.rating() < before.rating());
+        assertEquals(weeklyBefore + 1, entry(leaderboard.mostPopular(Integer.MAX_VALUE), restaurantId).weeklyOrders());
+    }
+
+    @Test
+    void restartLoadsStoredDaysAndRecountsOnlyTheNewest() {
+        leaderboard.flush();
+        LocalDate newest = jdbcTemplate.queryForObject("SELECT MAX(orderDay) FROM RestaurantOrderDay", LocalDate.class);
+        Map<String, Object> older = jdbcTemplate.queryForMap("SELECT restaurantId, orderDay FROM RestaurantOrderDay " +
+                "WHERE orderDay < ? ORDER BY orderDay LIMIT 1", Date.valueOf(newest));
+        int restaurantId = (Integer) older.get("restaurantId");
+        int weekly = weeklyOrders(restaurantId);
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM RestaurantOrderDay WHERE orderDay < ?",
+                Integer.class, Date.valueOf(windowStart)));
+
+        // A stored day is trusted as is; only the newest one is recounted from FoodOrder
+        jdbcTemplate.update("UPDATE RestaurantOrderDay SET orderCount = orderCount + 1000 " +
+                "WHERE restaurantId = ? AND orderDay = ?", restaurantId, older.get("orderDay"));
+        jdbcTemplate.update("UPDATE RestaurantOrderDay SET orderCount = orderCount + 1000 WHERE orderDay = ?",
+                Date.valueOf(newest));
+        leaderboard.load();
+
+        RestaurantLeaderboard.Entry top = leaderboard.mostPopular(1).get(0);
+        assertEquals(restaurantId, top.restaurantId());
+        assertEquals(weekly + 1000, top.weeklyOrders());
+    }
+
+    private int weeklyOrders(int restaurantId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM FoodOrder WHERE restaurant_id = ? AND dateCreated >= ?",
+                Integer.class, restaurantId, Date.valueOf(windowStart));
+    }
+
+    private static RestaurantLeaderboard.Entry entry(List<RestaurantLeaderboard.Entry> entries, int restaurantId) {
+        return entries.stream()
+                .filter(entry -> entry.restaurantId() == restaurantId)
+                .findFirst()
+                .orElseThrow();
+    }
+}
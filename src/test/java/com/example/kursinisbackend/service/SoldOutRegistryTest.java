@@ -0,0 +1,133 @@
+package com.example.kursinisbackend.service;
+
+import com.example.kursinisbackend.controllers.CuisineController;
+import com.example.kursinisbackend.controllers.OrdersController;
+import com.example.kursinisbackend.model.Cuisine;
+import com.example.kursinisbackend.support.GeneratedDataTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SoldOutRegistryTest extends GeneratedDataTest {
+
+    @Autowired
+    private SoldOutRegistry soldOutRegistry;
+
+    @Autowired
+    private OrdersController ordersController;
+
+    @Autowired
+    private CuisineController cuisineController;
+
+    @Autowired
+    private MenuSyncService menuSyncService;
+
+    // Menu of the restaurant the running test toggles; each test takes a restaurant of its own
+    private int[] menu;
+
+    @AfterEach
+    void restock() {
+        for (int cuisineId : menu) {
+            soldOutRegistry.set(cuisineId, false);
+        }
+        soldOutRegistry.flush();
+    }
+
+    @Test
+    void togglesAreSeenByMenusWithoutChangingThem() throws Exception {
+        int restaurantId = restaurant(0);
+        ResponseEntity<byte[]> before = ordersController.getRestaurantMenu(restaurantId, null);
+        assertEquals("", before.getHeaders().getFirst(SoldOutRegistry.HEADER));
+
+        assertTrue(soldOutRegistry.set(menu[2], true));
+        assertTrue(soldOutRegistry.set(menu[0], true));
+        assertFalse(soldOutRegistry.set(menu[0], true));
+        assertTrue(soldOutRegistry.isSoldOut(menu[0]));
+        assertFalse(soldOutRegistry.isSoldOut(menu[1]));
+        assertFalse(soldOutRegistry.isSoldOut(Integer.MAX_VALUE));
+        // Far beyond any id so far: the bitset grows and keeps the flags it had
+        int far = menu[0] + 100_000;
+        assertTrue(soldOutRegistry.set(far, true));
+        assertTrue(soldOutRegistry.isSoldOut(far) && soldOutRegistry.isSoldOut(menu[0]));
+        soldOutRegistry.set(far, false);
+
+        ResponseEntity<byte[]> after = ordersController.getRestaurantMenu(restaurantId, before.getHeaders().getETag());
+        assertEquals(HttpStatus.NOT_MODIFIED, after.getStatusCode());
+        assertEquals(menu[0] + "," + menu[2], after.getHeaders().getFirst(SoldOutRegistry.HEADER));
+
+        soldOutRegistry.set(menu[2], false);
+        assertEquals(String.valueOf(menu[0]),
+                ordersController.getRestaurantMenu(restaurantId, null).getHeaders().getFirst(SoldOutRegistry.HEADER));
+    }
+
+    @Test
+    void ordersForSoldOutItemsAreRejected() {
+        int restaurantId = restaurant(1);
+        soldOutRegistry.set(menu[1], true);
+        int orders = count(restaurantId);
+
+        ResponseEntity<?> response = ordersController.createOrder("{\"userId\": " + data.customerIds[0] +
+                ", \"restaurantId\": " + restaurantId + ", \"items\": [{\"cuisineId\": " + menu[0] +
+                ", \"quantity\": 1}, {\"cuisineId\": " + menu[1] + ", \"quantity\": 1}]}");
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("Cuisine item sold out: " + menu[1], response.getBody());
+        assertEquals(orders, count(restaurantId));
+    }
+
+    @Test
+    void flagsAreWrittenBehindAndLoadedOnStartup() {
+        restaurant(2);
+        soldOutRegistry.set(menu[0], true);
+        soldOutRegistry.set(menu[1], true);
+        soldOutRegistry.set(menu[1], false);
+        soldOutRegistry.flush();
+        assertEquals(Boolean.TRUE, jdbcTemplate.queryForObject(
+                "SELECT soldOut FROM CuisineAvailability WHERE cuisineId = ?", Boolean.class, menu[0]));
+        assertEquals(Boolean.FALSE, jdbcTemplate.queryForObject(
+                "SELECT soldOut FROM CuisineAvailability WHERE cuisineId = ?", Boolean.class, menu[1]));
+
+        // Sold out in the table only, as after a restart
+        jdbcTemplate.update("INSERT INTO CuisineAvailability (cuisineId, soldOut) VALUES (?, TRUE)", menu[2]);
+        soldOutRegistry.afterSingletonsInstantiated();
+        assertTrue(soldOutRegistry.isSoldOut(menu[2]));
+        assertFalse(soldOutRegistry.isSoldOut(menu[1]));
+    }
+
+    @Test
+    void deletedItemsAreNoLongerSoldOut() throws Exception {
+        int restaurantId = restaurant(3);
+        Cuisine created = (Cuisine) cuisineController.createCuisineFromJson("{\"name\": \"Last Slice\", " +
+                "\"price\": 3.0, \"restaurantId\": " + restaurantId + "}").getBody();
+        soldOutRegistry.set(created.getId(), true);
+        soldOutRegistry.flush();
+
+        cuisineController.deleteCuisine(created.getId());
+        assertFalse(soldOutRegistry.isSoldOut(created.getId()));
+        soldOutRegistry.flush();
+        assertEquals(Boolean.FALSE, jdbcTemplate.queryForObject(
+                "SELECT soldOut FROM CuisineAvailability WHERE cuisineId = ?", Boolean.class, created.getId()));
+
+        // A POS push that drops an item clears it too
+        soldOutRegistry.set(menu[0], true);
+        String keptName = jdbcTemplate.queryForObject("SELECT name FROM Cuisine WHERE id = ?", String.class, menu[1]);
+        menuSyncService.sync(restaurantId, List.of(new MenuSyncService.Item("pos-kept", keptName, null, 5.0, false, false)));
+        assertFalse(soldOutRegistry.isSoldOut(menu[0]));
+    }
+
+    private int restaurant(int index) {
+        int restaurantId = data.restaurantIds[index];
+        menu = data.menuByRestaurant.get(restaurantId);
+        return restaurantId;
+    }
+
+    private int count(int restaurantId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM FoodOrder WHERE restaurant_id = ?", Integer.class, restaurantId);
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.kursinisbackend.support;
+
+import com.example.kursinisbackend.fixtures.GeneratedData;
+import com.example.kursinisbackend.fixtures.SyntheticDataGenerator;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+
+/**
+ * Base class for service tests that need a generated dataset.
+ * <p>
+ * The dataset is generated once per test class, not per test, and the database is shared with
+ * every other class of the run. Tests therefore assert on the rows they create or on the
+ * generated ids in {@link #data}, never on table totals, and a test that changes generated rows
+ * picks rows no other test of the class reads.
+ */
+@SpringBootTest
+@ActiveProfiles("embedded")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public abstract class GeneratedDataTest {
+
+    @Autowired
+    protected DataSource dataSource;
+
+    @Autowired
+    protected JdbcTemplate jdbcTemplate;
+
+    protected GeneratedData data;
+
+    /**
+     * Size of the dataset; subclasses shrink it to what their tests need
+     */
+    protected SyntheticDataGenerator.Config config() {
+        return SyntheticDataGenerator.Config.small();
+    }
+
+    @BeforeAll
+    void generateDataset() throws Exception {
+        data = new SyntheticDataGenerator(dataSource, config()).generate();
+    }
+}
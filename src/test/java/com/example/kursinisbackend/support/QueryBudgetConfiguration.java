@@ -0,0 +1,41 @@
+package com.example.kursinisbackend.support;
+
+import com.example.kursinisbackend.fixtures.GeneratedData;
+import com.example.kursinisbackend.fixtures.SyntheticDataGenerator;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+@TestConfiguration(proxyBeanMethods = false)
+class QueryBudgetConfiguration {
+
+    @Bean
+    static BeanPostProcessor queryCountingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource dataSource ? QueryCountingDataSource.wrap(dataSource) : bean;
+            }
+        };
+    }
+
+    /**
+     * Small generated dataset, committed once per context; the query budgets are measured against it
+     */
+    @Bean
+    GeneratedData queryBudgetDataset(DataSource dataSource, EntityManagerFactory entityManagerFactory) throws SQLException {
+        SyntheticDataGenerator.Config config = SyntheticDataGenerator.Config.small();
+        config.restaurants = 4;
+        config.menuItemsPerRestaurant = 6;
+        config.customers = 8;
+        config.drivers = 3;
+        config.orders = 40;
+        config.messagesPerChat = 2.0;
+        config.ratedShare = 0.5;
+        return new SyntheticDataGenerator(dataSource, config).generate();
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.kursinisbackend.support;
+
+import com.example.kursinisbackend.fixtures.GeneratedData;
+import com.example.kursinisbackend.model.*;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Base class for controller tests that put a ceiling on the SQL statements one request may issue.
+ * <p>
+ * Runs against a small generated dataset (see {@link QueryBudgetConfiguration}). Every test is
+ * rolled back, so each one sees the same data. Budgets are the measured counts for that dataset:
+ * when a change lowers a count, lower the budget with it; when it raises one, look for an N+1
+ * before raising the budget.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:querybudget;NON_KEYWORDS=USER,VALUE;DB_CLOSE_DELAY=-1")
+@AutoConfigureMockMvc
+@ActiveProfiles("embedded")
+@Import(QueryBudgetConfiguration.class)
+@Transactional
+public abstract class QueryBudgetTest {
+
+    @Autowired
+    protected MockMvc mockMvc;
+
+    @Autowired
+    protected EntityManager entityManager;
+
+    @Autowired
+    protected GeneratedData data;
+
+    /**
+     * Perform the request and fail if it sent more than {@code maxQueries} statements.
+     * Pending writes are flushed first and the persistence context cleared, so the request
+     * starts cold like a real one; its own writes are flushed before counting.
+     */
+    protected ResultActions perform(int maxQueries, MockHttpServletRequestBuilder request) throws Exception {
+        entityManager.flush();
+        entityManager.clear();
+        QueryCounter.start();
+        List<String> statements;
+        ResultActions result;
+        try {
+            result = mockMvc.perform(request);
+            entityManager.flush();
+        } finally {
+            statements = QueryCounter.stop();
+        }
+        if (statements.size() > maxQueries) {
+            fail(String.format("%s %s issued %d statements, budget is %d:%n  %s",
+                    result.andReturn().getRequest().getMethod(), result.andReturn().getRequest().getRequestURI(),
+                    statements.size(), maxQueries, String.join(System.lineSeparator() + "  ", statements)));
+        }
+        return result;
+    }
+
+    protected static MockHttpServletRequestBuilder withJson(MockHttpServletRequestBuilder request, String json) {
+        return request.contentType(MediaType.APPLICATION_JSON).content(json);
+    }
+
+    protected int restaurantId() {
+        return data.restaurantIds[0];
+    }
+
+    protected int customerId() {
+        return data.customerIds[0];
+    }
+
+    protected int driverId() {
+        return data.driverIds[0];
+    }
+
+    protected int cuisineId() {
+        return data.menuByRestaurant.get(restaurantId())[0];
+    }
+
+    /**
+     * A two-item order of the most popular restaurant, with its chat and two messages
+     */
+    protected FoodOrder order(OrderStatus status, boolean withDriver) {
+        FoodOrder order = orderWithoutChat(status, withDriver);
+        BasicUser buyer = order.getBuyer();
+        Chat chat = new Chat("Order Chat #" + order.getId(), order);
+        entityManager.persist(chat);
+        order.setChat(chat);
+        entityManager.persist(new Review("Hello", buyer, chat));
+        entityManager.persist(new Review("Your order is being prepared", order.getRestaurant(), chat));
+        entityManager.flush();
+        return order;
+    }
+
+    protected FoodOrder orderWithoutChat(OrderStatus status, boolean withDriver) {
+        BasicUser buyer = entityManager.find(BasicUser.class, customerId());
+        Restaurant restaurant = entityManager.find(Restaurant.class, restaurantId());
+        List<Cuisine> items = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            items.add(entityManager.find(Cuisine.class, data.menuByRestaurant.get(restaurantId())[i]));
+        }
+
+        FoodOrder order = new FoodOrder("Budget order", 20.0, buyer, items, restaurant);
+        order.setOrderStatus(status);
+        if (withDriver) {
+            order.setDriver(entityManager.find(Driver.class, driverId()));
+        }
+        entityManager.persist(order);
+        return order;
+    }
+
+    /**
+     * A menu item of the most popular restaurant that no order refers to
+     */
+    protected Cuisine unorderedCuisine() {
+        Cuisine cuisine = new Cuisine("Budget soup", "water, salt", 4.5, false, true,
+                entityManager.find(Restaurant.class, restaurantId()));
+        entityManager.persist(cuisine);
+        return cuisine;
+    }
+
+    protected Review message(FoodOrder order) {
+        Review review = new Review("Budget message", order.getBuyer(), order.getChat());
+        review.setDateCreated(LocalDate.now());
+        entityManager.persist(review);
+        return review;
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.kursinisbackend.support;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Records the SQL statements sent to the database by one thread between {@link #start()} and
+ * {@link #stop()}. Statements from other threads (pools, background writers) are ignored.
+ */
+public final class QueryCounter {
+
+    private static volatile Thread recordingThread;
+    private static final List<String> statements = Collections.synchronizedList(new ArrayList<>());
+
+    private QueryCounter() {
+    }
+
+    public static void start() {
+        statements.clear();
+        recordingThread = Thread.currentThread();
+    }
+
+    public static List<String> stop() {
+        recordingThread = null;
+        synchronized (statements) {
+            return new ArrayList<>(statements);
+        }
+    }
+
+    static void record(String sql) {
+        if (recordingThread == Thread.currentThread()) {
+            statements.add(sql);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.kursinisbackend.fixtures;
+
+import java.util.Map;
+
+/**
+ * Ids produced by {@link SyntheticDataGenerator}. Restaurant, customer and driver ids are
+ * ordered by popularity rank, so index 0 is the hottest one.
+ */
+public class GeneratedData {
+
+    public final int[] restaurantIds;
+    public final Map<Integer, int[]> menuByRestaurant;
+    public final int[] customerIds;
+    public final int[] driverIds;
+    public final int firstOrderId;
+    public final int orderCount;
+    public final long orderLineCount;
+    public final long messageCount;
+    public final long ratingCount;
+    public final long elapsedMillis;
+
+    GeneratedData(int[] restaurantIds, Map<Integer, int[]> menuByRestaurant, int[] customerIds, int[] driverIds,
+                  int firstOrderId, int orderCount, long orderLineCount, long messageCount, long ratingCount,
+                  long elapsedMillis) {
+        this.restaurantIds = restaurantIds;
+        this.menuByRestaurant = menuByRestaurant;
+        this.customerIds = customerIds;
+        this.driverIds = driverIds;
+        this.firstOrderId = firstOrderId;
+        this.orderCount = orderCount;
+        this.orderLineCount = orderLineCount;
+        this.messageCount = messageCount;
+        this.ratingCount = ratingCount;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public int menuItemCount() {
+        return menuByRestaurant.values().stream().mapToInt(menu -> menu.length).sum();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d restaurants, %d menu items, %d customers, %d drivers, %d orders/chats, " +
+                        "%d order lines, %d messages (%d rated) in %d ms",
+                restaurantIds.length, menuItemCount(), customerIds.length, driverIds.length, orderCount,
+                orderLineCount, messageCount, ratingCount, elapsedMillis);
+    }
+}
@@ -0,0 +1,488 @@
+package com.example.kursinisbackend.fixtures;
+
+import com.example.kursinisbackend.service.IdSequences;
+import com.example.kursinisbackend.model.VehicleType;
+
+import javax.sql.DataSource;
+import java.sql.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic, seeded bulk loader for scale testing. Writes straight to the tables Hibernate
+ * creates for the model, using JDBC batch inserts with explicit ids reserved from IdSequence
+ * (see {@link IdSequences}), so it needs an existing schema (ddl-auto) but no running application.
+ * <p>
+ * Popularity is Zipf-skewed: a few restaurants receive most orders and a few customers place
+ * most of them. Every order gets a chat (as createOrder does), chats get a handful of messages,
+ * and a share of completed orders get a rating message (Review.rating 1-5), counted into the
+ * RatingAggregate of the order's restaurant and driver.
+ * <p>
+ * On MySQL add rewriteBatchedStatements=true to the JDBC url, otherwise batches are sent row by row.
+ */
+public class SyntheticDataGenerator {
+
+    private static final String[] DISHES = {
+            "Margherita Pizza", "Pepperoni Pizza", "Cepelinai", "Kibinai", "Saltibarsciai", "Pad Thai",
+            "Green Curry", "Falafel Wrap", "Caesar Salad", "Beef Burger", "Vegan Burger", "Ramen",
+            "Sushi Set", "Chicken Wings", "Tom Yum", "Burrito", "Lasagna", "Pho", "Hummus Plate", "Kebab"
+    };
+
+    private static final String[] INGREDIENTS = {
+            "tomato", "mozzarella", "potato", "pork", "beetroot", "rice noodles", "peanuts", "chickpeas",
+            "lettuce", "beef", "tofu", "chili", "coconut milk", "garlic", "basil", "mushrooms", "egg",
+            "shrimp", "dill", "sour cream"
+    };
+
+    private static final String[] CUSTOMER_MESSAGES = {
+            "Hi, how long will it take?", "Please ring the bell twice", "Can you add extra sauce?",
+            "Where is my food?", "Thanks!", "I have a nut allergy", "Can I get a refund for the missing drink?"
+    };
+
+    private static final String[] STAFF_MESSAGES = {
+            "Your order is being prepared", "On my way", "Two minutes away", "Sorry for the delay",
+            "Delivered, enjoy!", "We will check and get back to you"
+    };
+
+    private static final String[] RATING_MESSAGES = {
+            "Great food", "Arrived cold", "Fast delivery", "Portion was small", "Will order again"
+    };
+
+    private final DataSource dataSource;
+    private final Config config;
+
+    public SyntheticDataGenerator(DataSource dataSource, Config config) {
+        this.dataSource = dataSource;
+        this.config = config;
+    }
+
+    public GeneratedData generate() throws SQLException {
+        long start = System.nanoTime();
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                GeneratedData data = generate(connection, start);
+                connection.commit();
+                return data;
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        }
+    }
+
+    private GeneratedData generate(Connection connection, long start) throws SQLException {
+        SplittableRandom random = new SplittableRandom(config.seed);
+        LocalDate today = LocalDate.now();
+        LocalDateTime now = LocalDateTime.now();
+
+        int nextUserId = reserve("User", config.restaurants + config.customers + config.drivers);
+        int[] restaurantIds = new int[config.restaurants];
+        int[] customerIds = new int[config.customers];
+        int[] driverIds = new int[config.drivers];
+        double[] restaurantQuality = new double[config.restaurants];
+
+        try (PreparedStatement users = connection.prepareStatement(
+                "INSERT INTO User (id, DTYPE, login, password, name, surname, phoneNumber, dateCreated, isAdmin, " +
+                        "address, loyaltyPoints, restaurantName, openingTime, closingTime, licence, birthDate, vehicleType) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+            BatchCounter batch = new BatchCounter(users, config.batchSize);
+            for (int i = 0; i < config.restaurants; i++) {
+                int id = nextUserId++;
+                restaurantIds[i] = id;
+                restaurantQuality[i] = 3.0 + random.nextDouble() * 1.8;
+                bindUser(users, id, "Restaurant", "restaurant", now);
+                users.setString(12, "Restaurant " + id);
+                users.setTime(13, Time.valueOf(LocalTime.of(8 + random.nextInt(4), 0)));
+                users.setTime(14, Time.valueOf(LocalTime.of(20 + random.nextInt(4), 0)));
+                batch.add();
+            }
+            for (int i = 0; i < config.customers; i++) {
+                int id = nextUserId++;
+                customerIds[i] = id;
+                bindUser(users, id, "BasicUser", "customer", now);
+                batch.add();
+            }
+            for (int i = 0; i < config.drivers; i++) {
+                int id = nextUserId++;
+                driverIds[i] = id;
+                bindUser(users, id, "Driver", "driver", now);
+                users.setString(15, "LT-" + id);
+                users.setDate(16, Date.valueOf(today.minusYears(20 + random.nextInt(30))));
+                users.setString(17, VehicleType.values()[random.nextInt(VehicleType.values().length)].name());
+                batch.add();
+            }
+            batch.flush();
+        }
+
+        Map<Integer, int[]> menuByRestaurant = new HashMap<>();
+        Map<Integer, double[]> pricesByCuisine = new HashMap<>();
+        int nextCuisineId = reserve("Cuisine", config.restaurants * config.menuItemsPerRestaurant);
+        try (PreparedStatement cuisines = connection.prepareStatement(
+                "INSERT INTO Cuisine (id, name, ingredients, price, spicy, vegan, restaurant_id) VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+            BatchCounter batch = new BatchCounter(cuisines, config.batchSize);
+            for (int restaurantId : restaurantIds) {
+                int[] menu = new int[config.menuItemsPerRestaurant];
+                double[] prices = new double[menu.length];
+                for (int i = 0; i < menu.length; i++) {
+                    int id = nextCuisineId++;
+                    menu[i] = id;
+                    prices[i] = 2.0 + random.nextInt(2800) / 100.0;
+                    cuisines.setInt(1, id);
+                    cuisines.setString(2, DISHES[random.nextInt(DISHES.length)] + " " + (i + 1));
+                    cuisines.setString(3, INGREDIENTS[random.nextInt(INGREDIENTS.length)] + ", " +
+                            INGREDIENTS[random.nextInt(INGREDIENTS.length)] + ", " +
+                            INGREDIENTS[random.nextInt(INGREDIENTS.length)]);
+                    cuisines.setDouble(4, prices[i]);
+                    cuisines.setBoolean(5, random.nextInt(4) == 0);
+                    cuisines.setBoolean(6, random.nextInt(3) == 0);
+                    cuisines.setInt(7, restaurantId);
+                    batch.add();
+                }
+                menuByRestaurant.put(restaurantId, menu);
+                pricesByCuisine.put(restaurantId, prices);
+            }
+            batch.flush();
+        }
+
+        ZipfSampler restaurantPopularity = new ZipfSampler(config.restaurants, config.restaurantSkew);
+        ZipfSampler customerActivity = new ZipfSampler(config.customers, config.customerSkew);
+        ZipfSampler driverActivity = new ZipfSampler(config.drivers, config.driverSkew);
+
+        int firstOrderId = reserve("FoodOrder", config.orders);
+        int chatId = reserve("Chat", config.orders);
+        // The number of messages is only known at the end, so their ids are reserved a batch at a time
+        IdBlock reviewIds = new IdBlock("Review", config.batchSize);
+        long orderLines = 0;
+        long messages = 0;
+        long ratings = 0;
+        // RatingAggregate rows of the generated restaurants and drivers: sum, count, one to five stars
+        Map<Integer, long[]> aggregates = new HashMap<>();
+
+        try (PreparedStatement chats = connection.prepareStatement(
+                "INSERT INTO Chat (id, name, chatText, dateCreated) VALUES (?, ?, ?, ?)");
+             PreparedStatement orders = connection.prepareStatement(
+                     "INSERT INTO FoodOrder (id, name, price, buyer_id, driver_id, chat_id, restaurant_id, orderStatus, " +
+                             "dateCreated, dateUpdated) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+             PreparedStatement lines = connection.prepareStatement(
+                     "INSERT INTO FoodOrder_cuisineList (orderList_id, cuisineList_id) VALUES (?, ?)");
+             PreparedStatement reviews = connection.prepareStatement(
+                     "INSERT INTO Review (id, rating, reviewText, dateCreated, commentOwner_id, feedbackUser_id, chat_id) " +
+                             "VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+            // Flushed together and in FK order: chats, orders, order lines, messages
+            BatchCounter chatBatch = new BatchCounter(chats, Integer.MAX_VALUE);
+            BatchCounter orderBatch = new BatchCounter(orders, Integer.MAX_VALUE);
+            BatchCounter lineBatch = new BatchCounter(lines, Integer.MAX_VALUE);
+            BatchCounter reviewBatch = new BatchCounter(reviews, Integer.MAX_VALUE);
+
+            for (int i = 0; i < config.orders; i++, chatId++) {
+                int orderId = firstOrderId + i;
+                int restaurantRank = restaurantPopularity.sample(random);
+                int restaurantId = restaurantIds[restaurantRank];
+                int customerId = customerIds[customerActivity.sample(random)];
+                LocalDate created = today.minusDays(random.nextInt(config.historyDays));
+                String status = orderStatus(random, created, today);
+                Integer driverId = hasDriver(status) ? driverIds[driverActivity.sample(random)] : null;
+
+                chats.setInt(1, chatId);
+                chats.setString(2, "Order Chat #" + orderId);
+                chats.setNull(3, Types.VARCHAR);
+                chats.setDate(4, Date.valueOf(created));
+                chatBatch.add();
+
+                int[] menu = menuByRestaurant.get(restaurantId);
+                double[] prices = pricesByCuisine.get(restaurantId);
+                int items = 1 + random.nextInt(Math.min(4, menu.length));
+                int firstItem = random.nextInt(menu.length);
+                double price = 0.0;
+                for (int item = 0; item < items; item++) {
+                    int index = (firstItem + item) % menu.length;
+                    price += prices[index];
+                    lines.setInt(1, orderId);
+                    lines.setInt(2, menu[index]);
+                    lineBatch.add();
+                    orderLines++;
+                }
+
+                orders.setInt(1, orderId);
+                orders.setString(2, "Order for customer " + customerId);
+                orders.setDouble(3, Math.round(price * 100.0) / 100.0);
+                orders.setInt(4, customerId);
+                if (driverId != null) {
+                    orders.setInt(5, driverId);
+                } else {
+                    orders.setNull(5, Types.INTEGER);
+                }
+                orders.setInt(6, chatId);
+                orders.setInt(7, restaurantId);
+                orders.setString(8, status);
+                orders.setDate(9, Date.valueOf(created));
+                orders.setDate(10, Date.valueOf(created.plusDays(random.nextInt(2))));
+                orderBatch.add();
+
+                int messageCount = messageCount(random);
+                for (int m = 0; m < messageCount; m++) {
+                    boolean fromCustomer = m % 2 == 0;
+                    int ownerId = fromCustomer ? customerId : (driverId != null ? driverId : restaurantId);
+                    String text = fromCustomer
+                            ? CUSTOMER_MESSAGES[random.nextInt(CUSTOMER_MESSAGES.length)]
+                            : STAFF_MESSAGES[random.nextInt(STAFF_MESSAGES.length)];
+                    bindReview(reviews, reviewIds.next(), 0, text, created, ownerId, chatId);
+                    reviewBatch.add();
+                    messages++;
+                }
+
+                if ("COMPLETED".equals(status) && random.nextDouble() < config.ratedShare) {
+                    int rating = rating(random, restaurantQuality[restaurantRank]);
+                    String text = RATING_MESSAGES[random.nextInt(RATING_MESSAGES.length)];
+                    bindReview(reviews, reviewIds.next(), rating, text, created.plusDays(1), customerId, chatId);
+                    reviewBatch.add();
+                    messages++;
+                    ratings++;
+                    count(aggregates, restaurantId, rating);
+                    if (driverId != null) {
+                        count(aggregates, driverId, rating);
+                    }
+                }
+
+                if (chatBatch.pending() >= config.batchSize || reviewBatch.pending() >= config.batchSize * 4) {
+                    chatBatch.flush();
+                    orderBatch.flush();
+                    lineBatch.flush();
+                    reviewBatch.flush();
+                    connection.commit();
+                }
+            }
+            chatBatch.flush();
+            orderBatch.flush();
+            lineBatch.flush();
+            reviewBatch.flush();
+        }
+
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO RatingAggregate (userId, ratingSum, ratingCount, stars1, stars2, stars3, stars4, stars5) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, ?, ?)")) {
+            BatchCounter batch = new BatchCounter(statement, config.batchSize);
+            for (Map.Entry<Integer, long[]> aggregate : aggregates.entrySet()) {
+                statement.setInt(1, aggregate.getKey());
+                for (int i = 0; i < aggregate.getValue().length; i++) {
+                    statement.setLong(i + 2, aggregate.getValue()[i]);
+                }
+                batch.add();
+            }
+            batch.flush();
+        }
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        return new GeneratedData(restaurantIds, menuByRestaurant, customerIds, driverIds, firstOrderId,
+                config.orders, orderLines, messages, ratings, elapsedMillis);
+    }
+
+    private void bindUser(PreparedStatement users, int id, String type, String loginPrefix, LocalDateTime now)
+            throws SQLException {
+        users.setInt(1, id);
+        users.setString(2, type);
+        users.setString(3, "gen" + config.seed + "_" + loginPrefix + id);
+        users.setString(4, config.passwordHash);
+        users.setString(5, type + " " + id);
+        users.setString(6, "Synthetic");
+        users.setString(7, "+3706" + String.format("%07d", id % 10_000_000));
+        users.setTimestamp(8, Timestamp.valueOf(now));
+        users.setBoolean(9, false);
+        users.setString(10, "Gedimino pr. " + (id % 500 + 1) + ", Vilnius");
+        users.setInt(11, 0);
+        users.setNull(12, Types.VARCHAR);
+        users.setNull(13, Types.TIME);
+        users.setNull(14, Types.TIME);
+        users.setNull(15, Types.VARCHAR);
+        users.setNull(16, Types.DATE);
+        users.setNull(17, Types.VARCHAR);
+    }
+
+    private static void count(Map<Integer, long[]> aggregates, int userId, int rating) {
+        long[] aggregate = aggregates.computeIfAbsent(userId, id -> new long[7]);
+        aggregate[0] += rating;
+        aggregate[1]++;
+        aggregate[1 + rating]++;
+    }
+
+    private static void bindReview(PreparedStatement reviews, int id, int rating, String text, LocalDate created,
+                                   int ownerId, int chatId) throws SQLException {
+        reviews.setInt(1, id);
+        reviews.setInt(2, rating);
+        reviews.setString(3, text);
+        reviews.setDate(4, Date.valueOf(created));
+        reviews.setInt(5, ownerId);
+        reviews.setNull(6, Types.INTEGER);
+        reviews.setInt(7, chatId);
+    }
+
+    private String orderStatus(SplittableRandom random, LocalDate created, LocalDate today) {
+        if (created.isBefore(today.minusDays(1))) {
+            int roll = random.nextInt(100);
+            if (roll < 86) return "COMPLETED";
+            if (roll < 93) return "CANCELLED";
+            if (roll < 97) return "REJECTED";
+            return "DELIVERED";
+        }
+        String[] active = {"PLACED", "ACCEPTED", "READY", "DRIVER_ASSIGNED", "OUT_FOR_DELIVERY", "DELIVERED", "COMPLETED"};
+        return active[random.nextInt(active.length)];
+    }
+
+    private static boolean hasDriver(String status) {
+        return switch (status) {
+            case "DRIVER_ASSIGNED", "OUT_FOR_DELIVERY", "DELIVERED", "COMPLETED" -> true;
+            default -> false;
+        };
+    }
+
+    /**
+     * Geometric distribution with the configured mean, so most chats are short and a few are long
+     */
+    private int messageCount(SplittableRandom random) {
+        if (config.messagesPerChat <= 0) {
+            return 0;
+        }
+        double p = 1.0 / (config.messagesPerChat + 1.0);
+        return (int) Math.floor(Math.log(1.0 - random.nextDouble()) / Math.log(1.0 - p));
+    }
+
+    private static int rating(SplittableRandom random, double quality) {
+        // Box-Muller: quality +- roughly one star
+        double gaussian = Math.sqrt(-2.0 * Math.log(1.0 - random.nextDouble())) * Math.cos(2.0 * Math.PI * random.nextDouble());
+        return (int) Math.max(1, Math.min(5, Math.round(quality + gaussian * 0.9)));
+    }
+
+    /**
+     * First of {@code count} consecutive ids of the table, taken from IdSequence in a transaction of its own
+     */
+    private int reserve(String table, int count) throws SQLException {
+        return Math.toIntExact(IdSequences.reserve(dataSource, table, count));
+    }
+
+    /**
+     * Hands out ids of one table, reserved {@code size} at a time
+     */
+    private class IdBlock {
+        private final String table;
+        private final int size;
+        private int next;
+        private int limit;
+
+        IdBlock(String table, int size) {
+            this.table = table;
+            this.size = size;
+        }
+
+        int next() throws SQLException {
+            if (next == limit) {
+                next = reserve(table, size);
+                limit = next + size;
+            }
+            return next++;
+        }
+    }
+
+    /**
+     * Counts rows added to a batch and executes it every {@code batchSize} rows
+     */
+    private static class BatchCounter {
+        private final PreparedStatement statement;
+        private final int batchSize;
+        private int pending;
+
+        BatchCounter(PreparedStatement statement, int batchSize) {
+            this.statement = statement;
+            this.batchSize = batchSize;
+        }
+
+        void add() throws SQLException {
+            statement.addBatch();
+            if (++pending >= batchSize) {
+                flush();
+            }
+        }
+
+        int pending() {
+            return pending;
+        }
+
+        void flush() throws SQLException {
+            if (pending > 0) {
+                statement.executeBatch();
+                pending = 0;
+            }
+        }
+    }
+
+    /**
+     * Dataset shape. Start from a preset and adjust fields as needed.
+     */
+    public static class Config {
+        public long seed = 42L;
+        public int restaurants = 20;
+        public int menuItemsPerRestaurant = 15;
+        public int customers = 200;
+        public int drivers = 20;
+        public int orders = 2_000;
+        public double messagesPerChat = 3.0;
+        public double ratedShare = 0.3;
+        public int historyDays = 365;
+        public double restaurantSkew = 1.1;
+        public double customerSkew = 1.0;
+        public double driverSkew = 0.8;
+        public int batchSize = 1_000;
+        // BCrypt hash of "password"
+        public String passwordHash = "$2a$10$bD0H.pVta5CI/ok77Drxqe/upZhllHpvY8edjbirtTSaljWxKSgjy";
+
+        /**
+         * A few thousand orders: integration tests and quick local runs
+         */
+        public static Config small() {
+            return new Config();
+        }
+
+        /**
+         * Tens of thousands of orders: benchmarks that still need to finish within minutes
+         */
+        public static Config medium() {
+            Config config = new Config();
+            config.restaurants = 200;
+            config.menuItemsPerRestaurant = 25;
+            config.customers = 5_000;
+            config.drivers = 300;
+            config.orders = 50_000;
+            return config;
+        }
+
+        /**
+         * Production-like scale: a million orders and chats, several million messages
+         */
+        public static Config large() {
+            Config config = new Config();
+            config.restaurants = 2_000;
+            config.menuItemsPerRestaurant = 30;
+            config.customers = 20_000;
+            config.drivers = 3_000;
+            config.orders = 1_000_000;
+            config.batchSize = 5_000;
+            return config;
+        }
+
+        public static Config preset(String name) {
+            return switch (name) {
+                case "small" -> small();
+                case "medium" -> medium();
+                case "large" -> large();
+                default -> throw new IllegalArgumentException("Unknown dataset preset: " + name);
+            };
+        }
+    }
+}